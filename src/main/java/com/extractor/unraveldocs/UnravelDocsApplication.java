@@ -6,6 +6,7 @@ import io.awspring.cloud.autoconfigure.s3.S3AutoConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -16,7 +17,8 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 })
 @EnableScheduling
 @EnableAsync
-@EnableCaching
+// Check caches before opening a transaction, and evict only after it has committed
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
 public class UnravelDocsApplication {
 
     static void main(String[] args) {
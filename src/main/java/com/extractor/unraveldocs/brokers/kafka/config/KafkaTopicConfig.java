@@ -17,6 +17,7 @@ public class KafkaTopicConfig {
     // Topic names as constants for reuse
     public static final String TOPIC_EMAILS = "unraveldocs-emails";
     public static final String TOPIC_DOCUMENTS = "unraveldocs-documents";
+    public static final String TOPIC_DOCUMENTS_PRIORITY = "unraveldocs-documents-priority";
     public static final String TOPIC_PAYMENTS = "unraveldocs-payments";
     public static final String TOPIC_USERS = "unraveldocs-users";
     public static final String TOPIC_NOTIFICATIONS = "unraveldocs-notifications";
@@ -29,6 +30,7 @@ public class KafkaTopicConfig {
     // Retry topics (intermediate retry before DLQ)
     public static final String TOPIC_EMAILS_RETRY = "unraveldocs-emails-retry";
     public static final String TOPIC_DOCUMENTS_RETRY = "unraveldocs-documents-retry";
+    public static final String TOPIC_DOCUMENTS_PRIORITY_RETRY = "unraveldocs-documents-priority-retry";
     public static final String TOPIC_PAYMENTS_RETRY = "unraveldocs-payments-retry";
     public static final String TOPIC_USERS_RETRY = "unraveldocs-users-retry";
     public static final String TOPIC_RECEIPTS_RETRY = "unraveldocs-receipts-retry";
@@ -40,6 +42,7 @@ public class KafkaTopicConfig {
     // Dead Letter Queue topics
     public static final String TOPIC_EMAILS_DLQ = "unraveldocs-emails-dlq";
     public static final String TOPIC_DOCUMENTS_DLQ = "unraveldocs-documents-dlq";
+    public static final String TOPIC_DOCUMENTS_PRIORITY_DLQ = "unraveldocs-documents-priority-dlq";
     public static final String TOPIC_PAYMENTS_DLQ = "unraveldocs-payments-dlq";
     public static final String TOPIC_USERS_DLQ = "unraveldocs-users-dlq";
     public static final String TOPIC_RECEIPTS_DLQ = "unraveldocs-receipts-dlq";
@@ -66,6 +69,15 @@ public class KafkaTopicConfig {
                 .build();
     }
 
+    @Bean
+    public NewTopic documentsPriorityTopic() {
+        return TopicBuilder.name(TOPIC_DOCUMENTS_PRIORITY)
+                .partitions(6) // Separate lane for PRIORITY_OCR subscribers
+                .replicas(1)
+                .config("retention.ms", "604800000")
+                .build();
+    }
+
     @Bean
     public NewTopic paymentsTopic() {
         return TopicBuilder.name(TOPIC_PAYMENTS)
@@ -121,6 +133,15 @@ public class KafkaTopicConfig {
                 .build();
     }
 
+    @Bean
+    public NewTopic documentsPriorityDlqTopic() {
+        return TopicBuilder.name(TOPIC_DOCUMENTS_PRIORITY_DLQ)
+                .partitions(1)
+                .replicas(1)
+                .config("retention.ms", "2592000000")
+                .build();
+    }
+
     @Bean
     public NewTopic paymentsDlqTopic() {
         return TopicBuilder.name(TOPIC_PAYMENTS_DLQ)
@@ -167,6 +188,15 @@ public class KafkaTopicConfig {
                 .build();
     }
 
+    @Bean
+    public NewTopic documentsPriorityRetryTopic() {
+        return TopicBuilder.name(TOPIC_DOCUMENTS_PRIORITY_RETRY)
+                .partitions(1)
+                .replicas(1)
+                .config("retention.ms", "86400000")
+                .build();
+    }
+
     @Bean
     public NewTopic paymentsRetryTopic() {
         return TopicBuilder.name(TOPIC_PAYMENTS_RETRY)
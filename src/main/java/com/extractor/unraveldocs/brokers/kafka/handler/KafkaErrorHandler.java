@@ -1,5 +1,6 @@
 package com.extractor.unraveldocs.brokers.kafka.handler;
 
+import com.extractor.unraveldocs.brokers.config.MessagingProperties;
 import com.extractor.unraveldocs.brokers.kafka.config.KafkaTopicConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +13,8 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Kafka error handler with Dead Letter Queue (DLQ) support.
@@ -30,14 +33,21 @@ public class KafkaErrorHandler {
     private static final String HEADER_EXCEPTION_CLASS = "exception-class";
     private static final String HEADER_FAILURE_TIMESTAMP = "failure-timestamp";
     private static final String HEADER_RETRY_COUNT = "retry-count";
+    private static final String HEADER_NOT_BEFORE = "not-before";
+
+    // Headers rewritten on every retry rather than copied from the failed record
+    private static final Set<String> RETRY_HEADERS = Set.of(
+            HEADER_ORIGINAL_TOPIC, HEADER_RETRY_COUNT, HEADER_EXCEPTION_MESSAGE, HEADER_NOT_BEFORE);
     
     /**
      * Route a failed message to its Dead Letter Queue.
      *
      * @param record The failed consumer record
      * @param exception The exception that caused the failure
+     * @return A future that completes once the DLQ send is acknowledged, or
+     *         fails if the message could not be routed
      */
-    public void routeToDlq(ConsumerRecord<?, ?> record, Exception exception) {
+    public CompletableFuture<Void> routeToDlq(ConsumerRecord<?, ?> record, Exception exception) {
         String dlqTopic = getDlqTopic(record.topic());
         
         log.warn("Routing failed message to DLQ. Original topic: {}, DLQ topic: {}, Error: {}",
@@ -60,17 +70,20 @@ public class KafkaErrorHandler {
             // Add DLQ-specific headers
             addDlqHeaders(dlqRecord, record, exception);
             
-            kafkaTemplate.send(dlqRecord)
-                    .thenAccept(result -> log.debug(
-                            "Successfully routed message to DLQ: {}, offset: {}",
-                            dlqTopic, result.getRecordMetadata().offset()))
-                    .exceptionally(ex -> {
-                        log.error("Failed to route message to DLQ: {}", ex.getMessage(), ex);
-                        return null;
-                    });
+            return kafkaTemplate.send(dlqRecord)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.error("Failed to route message to DLQ: {}", ex.getMessage(), ex);
+                        } else {
+                            log.debug("Successfully routed message to DLQ: {}, offset: {}",
+                                    dlqTopic, result.getRecordMetadata().offset());
+                        }
+                    })
+                    .thenApply(result -> null);
             
         } catch (Exception e) {
             log.error("Critical: Failed to create DLQ record: {}", e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
         }
     }
     
@@ -135,6 +148,7 @@ public class KafkaErrorHandler {
         return switch (sourceTopic) {
             case KafkaTopicConfig.TOPIC_EMAILS -> KafkaTopicConfig.TOPIC_EMAILS_DLQ;
             case KafkaTopicConfig.TOPIC_DOCUMENTS -> KafkaTopicConfig.TOPIC_DOCUMENTS_DLQ;
+            case KafkaTopicConfig.TOPIC_DOCUMENTS_PRIORITY -> KafkaTopicConfig.TOPIC_DOCUMENTS_PRIORITY_DLQ;
             case KafkaTopicConfig.TOPIC_PAYMENTS -> KafkaTopicConfig.TOPIC_PAYMENTS_DLQ;
             case KafkaTopicConfig.TOPIC_USERS -> KafkaTopicConfig.TOPIC_USERS_DLQ;
             default -> sourceTopic + "-dlq";
@@ -142,13 +156,19 @@ public class KafkaErrorHandler {
     }
     
     /**
-     * Get the retry topic name for a given source topic.
+     * Get the retry topic name for a given source topic. A retry topic maps to
+     * itself, so a record failing again on it is retried until its attempts
+     * are used up.
      * Returns null if retry topics are not applicable for this topic.
      */
     public String getRetryTopic(String sourceTopic) {
+        if (sourceTopic.endsWith("-retry")) {
+            return sourceTopic;
+        }
         return switch (sourceTopic) {
             case KafkaTopicConfig.TOPIC_EMAILS -> KafkaTopicConfig.TOPIC_EMAILS_RETRY;
             case KafkaTopicConfig.TOPIC_DOCUMENTS -> KafkaTopicConfig.TOPIC_DOCUMENTS_RETRY;
+            case KafkaTopicConfig.TOPIC_DOCUMENTS_PRIORITY -> KafkaTopicConfig.TOPIC_DOCUMENTS_PRIORITY_RETRY;
             case KafkaTopicConfig.TOPIC_PAYMENTS -> KafkaTopicConfig.TOPIC_PAYMENTS_RETRY;
             case KafkaTopicConfig.TOPIC_USERS -> KafkaTopicConfig.TOPIC_USERS_RETRY;
             default -> null;
@@ -158,24 +178,36 @@ public class KafkaErrorHandler {
     /**
      * Route a failed message to the retry topic for delayed retry.
      * If max retries exceeded or no retry topic available, routes to DLQ.
+     * The retry carries a {@code not-before} header with the time its
+     * exponential backoff ends; consumers must not process it earlier.
      *
      * @param record The failed consumer record
      * @param exception The exception that caused the failure
-     * @param maxRetries Maximum number of retries before routing to DLQ
+     * @param retry Retry attempts and backoff settings
+     * @return A future that completes once the message is on the retry topic
+     *         or the DLQ, or fails if it could be routed to neither
      */
-    public void routeToRetryOrDlq(ConsumerRecord<?, ?> record, Exception exception, int maxRetries) {
+    public CompletableFuture<Void> routeToRetryOrDlq(
+            ConsumerRecord<?, ?> record, Exception exception, MessagingProperties.RetryProperties retry) {
         int currentRetryCount = extractRetryCount(record);
+        int maxRetries = retry.getMaxAttempts();
 
-        String retryTopic = getRetryTopic(record.topic());
+        String retryTopic = retry.isRetryTopicsEnabled() ? getRetryTopic(record.topic()) : null;
 
         // If we've exhausted retries or no retry topic exists, route to DLQ
         if (currentRetryCount >= maxRetries || retryTopic == null) {
-            routeToDlq(record, exception);
-            return;
+            return routeToDlq(record, exception);
         }
 
+        int attempt = currentRetryCount + 1;
+        long notBefore = System.currentTimeMillis() + backoffMs(retry, attempt);
+        Header originalTopicHeader = record.headers().lastHeader(HEADER_ORIGINAL_TOPIC);
+        byte[] originalTopic = originalTopicHeader != null
+                ? originalTopicHeader.value()
+                : record.topic().getBytes(StandardCharsets.UTF_8);
+
         log.info("Routing failed message to retry topic. Original topic: {}, Retry topic: {}, Attempt: {}/{}",
-                record.topic(), retryTopic, currentRetryCount + 1, maxRetries);
+                new String(originalTopic, StandardCharsets.UTF_8), retryTopic, attempt, maxRetries);
 
         try {
             ProducerRecord<String, Object> retryRecord = new ProducerRecord<>(
@@ -188,17 +220,20 @@ public class KafkaErrorHandler {
 
             // Preserve original headers
             for (Header header : record.headers()) {
-                retryRecord.headers().add(header);
+                if (!RETRY_HEADERS.contains(header.key())) {
+                    retryRecord.headers().add(header);
+                }
             }
 
             // Add retry metadata
+            retryRecord.headers().add(HEADER_ORIGINAL_TOPIC, originalTopic);
             retryRecord.headers().add(
-                    HEADER_ORIGINAL_TOPIC,
-                    record.topic().getBytes(StandardCharsets.UTF_8)
+                    HEADER_RETRY_COUNT,
+                    String.valueOf(attempt).getBytes(StandardCharsets.UTF_8)
             );
             retryRecord.headers().add(
-                    HEADER_RETRY_COUNT,
-                    String.valueOf(currentRetryCount + 1).getBytes(StandardCharsets.UTF_8)
+                    HEADER_NOT_BEFORE,
+                    String.valueOf(notBefore).getBytes(StandardCharsets.UTF_8)
             );
             retryRecord.headers().add(
                     HEADER_EXCEPTION_MESSAGE,
@@ -206,20 +241,45 @@ public class KafkaErrorHandler {
                             .getBytes(StandardCharsets.UTF_8)
             );
 
-            kafkaTemplate.send(retryRecord)
-                    .thenAccept(result -> log.debug(
-                            "Successfully routed message to retry topic: {}, offset: {}",
-                            retryTopic, result.getRecordMetadata().offset()))
-                    .exceptionally(ex -> {
-                        log.error("Failed to route message to retry topic, routing to DLQ: {}", ex.getMessage());
-                        routeToDlq(record, exception);
+            return kafkaTemplate.send(retryRecord)
+                    .<Void>thenApply(result -> {
+                        log.debug("Successfully routed message to retry topic: {}, offset: {}",
+                                retryTopic, result.getRecordMetadata().offset());
                         return null;
+                    })
+                    .exceptionallyCompose(ex -> {
+                        log.error("Failed to route message to retry topic, routing to DLQ: {}", ex.getMessage());
+                        return routeToDlq(record, exception);
                     });
 
         } catch (Exception e) {
             log.error("Critical: Failed to create retry record, routing to DLQ: {}", e.getMessage(), e);
-            routeToDlq(record, exception);
+            return routeToDlq(record, exception);
+        }
+    }
+
+    /**
+     * Time before which a retried record must not be processed, in epoch
+     * milliseconds, or 0 if it carries no backoff.
+     */
+    public static long extractNotBefore(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(HEADER_NOT_BEFORE);
+        if (header != null) {
+            try {
+                return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
         }
+        return 0;
+    }
+
+    /**
+     * Exponential backoff before the given retry attempt (1-based).
+     */
+    public static long backoffMs(MessagingProperties.RetryProperties retry, int attempt) {
+        double backoff = retry.getInitialIntervalMs() * Math.pow(retry.getMultiplier(), attempt - 1);
+        return (long) Math.min(backoff, retry.getMaxIntervalMs());
     }
 
     /**
@@ -243,10 +303,13 @@ public class KafkaErrorHandler {
     private void addDlqHeaders(ProducerRecord<String, Object> dlqRecord,
                                 ConsumerRecord<?, ?> originalRecord,
                                 Exception exception) {
-        dlqRecord.headers().add(
-                HEADER_ORIGINAL_TOPIC,
-                originalRecord.topic().getBytes(StandardCharsets.UTF_8)
-        );
+        // A record dead-lettered from a retry topic keeps the topic it was first published to
+        if (originalRecord.headers().lastHeader(HEADER_ORIGINAL_TOPIC) == null) {
+            dlqRecord.headers().add(
+                    HEADER_ORIGINAL_TOPIC,
+                    originalRecord.topic().getBytes(StandardCharsets.UTF_8)
+            );
+        }
         
         dlqRecord.headers().add(
                 HEADER_EXCEPTION_MESSAGE,
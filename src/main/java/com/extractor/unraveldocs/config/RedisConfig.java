@@ -1,10 +1,17 @@
 package com.extractor.unraveldocs.config;
 
+import com.extractor.unraveldocs.config.cache.NearCacheProperties;
+import com.extractor.unraveldocs.config.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJacksonJsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
@@ -12,8 +19,17 @@ import java.time.Duration;
 
 @Configuration
 public class RedisConfig {
+        /**
+         * Redis-backed caches, with an in-process near cache in front of the
+         * hot read caches.
+         */
         @Bean
-        public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+        public CacheManager cacheManager(
+                        RedisConnectionFactory connectionFactory,
+                        NearCacheProperties nearCacheProperties,
+                        StringRedisTemplate stringRedisTemplate,
+                        MeterRegistry meterRegistry,
+                        RedisMessageListenerContainer redisMessageListenerContainer) {
                 GenericJacksonJsonRedisSerializer serializer = GenericJacksonJsonRedisSerializer.builder()
                                 .build();
 
@@ -24,8 +40,25 @@ public class RedisConfig {
                                 .serializeValuesWith(
                                                 RedisSerializationContext.SerializationPair.fromSerializer(serializer));
 
-                return RedisCacheManager.builder(connectionFactory)
+                RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                                 .cacheDefaults(redisCacheConfiguration)
                                 .build();
+                redisCacheManager.afterPropertiesSet();
+
+                TwoTierCacheManager cacheManager = new TwoTierCacheManager(
+                                redisCacheManager, nearCacheProperties, stringRedisTemplate, meterRegistry);
+                redisMessageListenerContainer.addMessageListener(cacheManager,
+                                new ChannelTopic(nearCacheProperties.getInvalidationChannel()));
+                return cacheManager;
+        }
+
+        /**
+         * Shared container for Redis pub/sub listeners.
+         */
+        @Bean
+        public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+                RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+                container.setConnectionFactory(connectionFactory);
+                return container;
         }
 }
@@ -0,0 +1,75 @@
+package com.extractor.unraveldocs.config.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded, TTL'd in-process cache. Entries expire a fixed time after
+ * they were stored, and the least recently used entry is evicted once the
+ * cache is full.
+ */
+final class NearCache {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    NearCache(int maxEntries, long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    /**
+     * @return The cached value, or null if absent or expired
+     */
+    Object get(Object key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() - now <= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    void put(Object key, Object value) {
+        if (value == null || maxEntries <= 0 || ttlNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (entries) {
+            entries.put(key, new Entry(value, now + ttlNanos));
+            Iterator<Map.Entry<Object, Entry>> iterator = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    void evict(Object key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.extractor.unraveldocs.config.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache.near")
+public class NearCacheProperties {
+    /**
+     * Whether the in-process near cache is used in front of Redis.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Caches that get a near cache; all other caches go straight to Redis.
+     */
+    private List<String> cacheNames = new ArrayList<>(List.of("documentCollection", "documentCollections", "fileEntry"));
+
+    /**
+     * Maximum entries held per near cache.
+     */
+    private int maxEntries = 10000;
+
+    /**
+     * How long a near cache entry is served before Redis is consulted again.
+     * Bounds staleness if an invalidation message is lost.
+     */
+    private long ttlSeconds = 30;
+
+    /**
+     * Redis pub/sub channel on which evictions are broadcast to other nodes.
+     */
+    private String invalidationChannel = "cache:invalidate";
+}
@@ -0,0 +1,188 @@
+package com.extractor.unraveldocs.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A near cache in front of a Redis cache.
+ *
+ * <p>
+ * Reads try the near cache, then Redis, then the loader, filling the tiers
+ * above on the way back. Evictions clear both tiers and are broadcast so
+ * other nodes drop their near copy; inside a transaction they wait for the
+ * commit, so a concurrent read cannot re-cache the old state.
+ * </p>
+ *
+ * <p>
+ * Puts are only broadcast when they replace an entry. A put that fills a
+ * missing entry after a read miss has nothing to invalidate: near copies
+ * live shorter than Redis entries, so no node can still hold one.
+ * </p>
+ */
+class TwoTierCache implements Cache {
+    private final Cache remote;
+    private final NearCache near;
+    private final Consumer<Object> invalidationPublisher;
+
+    private final Counter nearHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+
+    /**
+     * @param invalidationPublisher Broadcasts an evicted key to other nodes;
+     *                              a null key means the whole cache was cleared
+     */
+    TwoTierCache(Cache remote, NearCache near, Consumer<Object> invalidationPublisher, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.near = near;
+        this.invalidationPublisher = invalidationPublisher;
+
+        String name = remote.getName();
+        this.nearHits = lookupCounter(meterRegistry, name, "near", "hit");
+        this.remoteHits = lookupCounter(meterRegistry, name, "redis", "hit");
+        this.misses = lookupCounter(meterRegistry, name, "redis", "miss");
+        Gauge.builder("cache.tiered.hit.ratio", this, TwoTierCache::hitRatio)
+                .description("Share of lookups served by the near cache or Redis")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("cache.tiered.near.size", near, NearCache::size)
+                .description("Entries held in the near cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = near.get(key);
+        if (value != null) {
+            nearHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            misses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        near.put(key, wrapper.get());
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = near.get(key);
+        if (value != null) {
+            nearHits.increment();
+            return (T) value;
+        }
+
+        AtomicBoolean loaded = new AtomicBoolean();
+        T result = remote.get(key, () -> {
+            loaded.set(true);
+            return valueLoader.call();
+        });
+        (loaded.get() ? misses : remoteHits).increment();
+        near.put(key, result);
+        return result;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (remote.putIfAbsent(key, value) != null) {
+            // Replacing an entry is a write; other nodes may hold the older copy
+            remote.put(key, value);
+            invalidationPublisher.accept(key);
+        }
+        near.put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        afterCommit(() -> {
+            remote.evict(key);
+            near.evict(key);
+            invalidationPublisher.accept(key);
+        });
+    }
+
+    @Override
+    public void clear() {
+        afterCommit(() -> {
+            remote.clear();
+            near.clear();
+            invalidationPublisher.accept(null);
+        });
+    }
+
+    /**
+     * Drop a key from the near cache only, on an invalidation from another node.
+     */
+    void evictNear(Object key) {
+        if (key == null) {
+            near.clear();
+        } else {
+            near.evict(key);
+        }
+    }
+
+    private double hitRatio() {
+        double hits = nearHits.count() + remoteHits.count();
+        double lookups = hits + misses.count();
+        return lookups == 0 ? Double.NaN : hits / lookups;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String name, String tier, String result) {
+        return Counter.builder("cache.tiered.gets")
+                .description("Cache lookups by the tier that answered them")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,98 @@
+package com.extractor.unraveldocs.config.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache manager that puts a {@link NearCache} in front of the Redis caches
+ * listed in {@code app.cache.near.cache-names}. Other caches are served by
+ * Redis alone.
+ *
+ * <p>
+ * Evictions are broadcast on {@code app.cache.near.invalidation-channel} as
+ * {@code nodeId|cacheName|key} (no key for a full clear); every other node
+ * drops the key from its near cache. Cache keys are strings throughout this
+ * application, which keeps the message format simple.
+ * </p>
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+    private static final String SEPARATOR = "|";
+
+    private final CacheManager remote;
+    private final NearCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(
+            CacheManager remote,
+            NearCacheProperties properties,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!properties.isEnabled() || !properties.getCacheNames().contains(name)) {
+            return remote.getCache(name);
+        }
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        Set<String> names = new LinkedHashSet<>(remote.getCacheNames());
+        names.addAll(caches.keySet());
+        return names;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.evictNear(parts.length == 3 ? parts[2] : null);
+        }
+    }
+
+    private TwoTierCache createCache(String name) {
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            throw new IllegalStateException("No Redis cache named " + name);
+        }
+        NearCache near = new NearCache(properties.getMaxEntries(), properties.getTtlSeconds());
+        return new TwoTierCache(remoteCache, near, key -> publishInvalidation(name, key), meterRegistry);
+    }
+
+    private void publishInvalidation(String name, Object key) {
+        String message = nodeId + SEPARATOR + name + (key != null ? SEPARATOR + key : "");
+        try {
+            redisTemplate.convertAndSend(properties.getInvalidationChannel(), message);
+        } catch (Exception e) {
+            // Other nodes fall back to the near cache TTL
+            log.warn("Failed to broadcast invalidation of cache {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.extractor.unraveldocs.documents.controller;
 
 import com.extractor.unraveldocs.documents.dto.request.MoveDocumentRequest;
+import com.extractor.unraveldocs.documents.dto.request.PresignedUploadRequest;
 import com.extractor.unraveldocs.documents.dto.request.UpdateCollectionRequest;
 import com.extractor.unraveldocs.documents.dto.request.UpdateDocumentRequest;
 import com.extractor.unraveldocs.documents.dto.response.*;
+import com.extractor.unraveldocs.documents.interfaces.GetDocumentService;
 import com.extractor.unraveldocs.documents.service.DocumentService;
 import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
 import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
@@ -22,6 +24,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -82,6 +87,40 @@ public class DocumentController {
                 return ResponseEntity.ok(response);
         }
 
+        @Operation(summary = "Request presigned URLs for a direct upload", description = "Issues one presigned PUT URL per file so the client uploads straight to storage. "
+                        +
+                        "Size and SHA-256 checksum are part of each signature. Complete the upload once all files are sent.", responses = {
+                                        @ApiResponse(responseCode = "200", description = "Presigned URLs issued", content = @Content(mediaType = "application/json", schema = @Schema(implementation = DocumentCollectionResponse.class))),
+                                        @ApiResponse(responseCode = "400", description = "Bad Request - Invalid file type, size or checksum"),
+                                        @ApiResponse(responseCode = "403", description = "Forbidden - User not logged in or quota exceeded")
+                        })
+        @PostMapping("/upload/presigned")
+        public ResponseEntity<DocumentCollectionResponse<PresignedUploadData>> createPresignedUpload(
+                        @Valid @RequestBody PresignedUploadRequest request,
+                        Authentication authenticatedUser) {
+                User user = getAuthenticatedUser(authenticatedUser);
+
+                Bucket bucket = this.rateLimitBuckets.computeIfAbsent(user.getId(), this::createRateLimitBucket);
+                if (!bucket.tryConsume(1)) {
+                        throw new TooManyRequestsException("Rate limit exceeded. Please try again later.");
+                }
+
+                return ResponseEntity.ok(documentService.createPresignedUpload(request, user));
+        }
+
+        @Operation(summary = "Complete a presigned upload", description = "Verifies the uploaded files, creates the collection and queues the files for OCR.", responses = {
+                        @ApiResponse(responseCode = "202", description = "Upload completed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = DocumentCollectionResponse.class))),
+                        @ApiResponse(responseCode = "403", description = "Forbidden - User not authorized or not logged in"),
+                        @ApiResponse(responseCode = "404", description = "Not Found - Upload not found or expired")
+        })
+        @PostMapping("/upload/presigned/{uploadId}/complete")
+        public ResponseEntity<DocumentCollectionResponse<DocumentCollectionUploadData>> completePresignedUpload(
+                        @Parameter(description = "ID of the presigned upload") @PathVariable String uploadId,
+                        Authentication authenticatedUser) {
+                User user = getAuthenticatedUser(authenticatedUser);
+                return ResponseEntity.accepted().body(documentService.completePresignedUpload(uploadId, user));
+        }
+
         private Bucket createRateLimitBucket(String userId) {
                 Bandwidth limit = Bandwidth.classic(10, Refill.greedy(10, Duration.ofMinutes(1)));
                 return Bucket.builder().addLimit(limit).build();
@@ -118,6 +157,23 @@ public class DocumentController {
                 return ResponseEntity.ok(response);
         }
 
+        @Operation(summary = "List document collections for the authenticated user, one page at a time", description = "Returns the user's document collections newest first. Pass the returned nextCursor as cursor to fetch the next page.", responses = {
+                        @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of document collections", content = @Content(mediaType = "application/json", schema = @Schema(implementation = DocumentCollectionResponse.class))),
+                        @ApiResponse(responseCode = "400", description = "Bad Request - Invalid cursor"),
+                        @ApiResponse(responseCode = "403", description = "Forbidden - User not logged in")
+        })
+        @GetMapping("/my-collections/page")
+        public ResponseEntity<DocumentCollectionResponse<DocumentCollectionPage>> getDocumentCollectionPageForUser(
+                        @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(value = "cursor", required = false) String cursor,
+                        @Parameter(description = "Page size, at most 100") @RequestParam(value = "limit", defaultValue = "20") int limit,
+                        Authentication authenticatedUser) {
+                User user = getAuthenticatedUser(authenticatedUser);
+
+                DocumentCollectionResponse<DocumentCollectionPage> response = documentService
+                                .getDocumentCollectionPage(user.getId(), cursor, limit);
+                return ResponseEntity.ok(response);
+        }
+
         @Operation(summary = "Get a specific file from a document collection", description = "Retrieves details of a single file within a specified document collection using its document ID.", responses = {
                         @ApiResponse(responseCode = "200", description = "Successfully retrieved the file", content = @Content(mediaType = "application/json", schema = @Schema(implementation = FileEntryData.class))),
                         @ApiResponse(responseCode = "403", description = "Forbidden - User not authorized or not logged in"),
@@ -135,6 +191,32 @@ public class DocumentController {
                 return ResponseEntity.ok(response);
         }
 
+        @Operation(summary = "Download the original file of a document", description = "Streams the uploaded file. Encrypted files are decrypted on the fly.", responses = {
+                        @ApiResponse(responseCode = "200", description = "File content"),
+                        @ApiResponse(responseCode = "403", description = "Forbidden - User not authorized or not logged in"),
+                        @ApiResponse(responseCode = "404", description = "Not Found - Collection or file not found")
+        })
+        @GetMapping("/collection/{collectionId}/document/{documentId}/content")
+        public ResponseEntity<InputStreamResource> getDocumentContent(
+                        @Parameter(description = "ID of the document collection") @PathVariable String collectionId,
+                        @Parameter(description = "Document ID of the file to download") @PathVariable String documentId,
+                        Authentication authenticatedUser) {
+                User user = getAuthenticatedUser(authenticatedUser);
+                GetDocumentService.DocumentContent content = documentService.getDocumentContent(collectionId,
+                                documentId, user.getId());
+
+                return ResponseEntity.ok()
+                                .header(HttpHeaders.CONTENT_DISPOSITION,
+                                                ContentDisposition.attachment().filename(content.fileName()).build()
+                                                                .toString())
+                                .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
+                                .contentType(content.contentType() != null
+                                                ? MediaType.parseMediaType(content.contentType())
+                                                : MediaType.APPLICATION_OCTET_STREAM)
+                                .contentLength(content.contentLength())
+                                .body(content.resource());
+        }
+
         @Operation(summary = "Delete a document collection", description = "Allows users to delete their uploaded document collections.")
         @DeleteMapping("/collection/{collectionId}")
         public ResponseEntity<Void> deleteDocument(
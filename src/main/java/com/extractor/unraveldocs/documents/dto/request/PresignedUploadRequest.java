@@ -0,0 +1,42 @@
+package com.extractor.unraveldocs.documents.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedUploadRequest {
+    @Size(max = 255, message = "Collection name cannot exceed 255 characters")
+    private String collectionName;  // Optional, auto-generated if not provided
+
+    @NotEmpty(message = "At least one file is required")
+    private List<@Valid PresignedFile> files;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PresignedFile {
+        @NotBlank(message = "File name is required")
+        private String fileName;
+
+        @NotBlank(message = "Content type is required")
+        private String contentType;
+
+        @Positive(message = "File size must be greater than zero")
+        private long fileSize;
+
+        @NotBlank(message = "SHA-256 checksum is required")
+        @Pattern(regexp = "^[A-Za-z0-9+/]{43}=$", message = "Checksum must be a base64-encoded SHA-256 digest")
+        private String checksumSha256;
+    }
+}
@@ -0,0 +1,21 @@
+package com.extractor.unraveldocs.documents.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentCollectionPage {
+    private List<DocumentCollectionSummary> items;
+    /**
+     * Token to pass as {@code cursor} for the next page, or null on the last page.
+     */
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -1,8 +1,10 @@
 package com.extractor.unraveldocs.documents.dto.response;
 
 import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.OffsetDateTime;
@@ -10,6 +12,8 @@ import java.time.OffsetDateTime;
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class DocumentCollectionSummary {
     private String id;
     private String name;
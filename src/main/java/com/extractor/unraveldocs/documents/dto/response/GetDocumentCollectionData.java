@@ -1,8 +1,10 @@
 package com.extractor.unraveldocs.documents.dto.response;
 
 import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.OffsetDateTime;
@@ -11,6 +13,8 @@ import java.util.List;
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class GetDocumentCollectionData {
     private String id;
     private String name;
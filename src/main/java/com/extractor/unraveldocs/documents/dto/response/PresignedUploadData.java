@@ -0,0 +1,29 @@
+package com.extractor.unraveldocs.documents.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+public class PresignedUploadData {
+    private String uploadId;
+    private OffsetDateTime expiresAt;
+    private List<PresignedFileUpload> files;
+
+    @Getter
+    @Setter
+    @Builder
+    public static class PresignedFileUpload {
+        private String documentId;
+        private String originalFileName;
+        private String uploadUrl;
+        private String method;
+        private Map<String, String> headers;  // Must be sent unchanged with the upload
+    }
+}
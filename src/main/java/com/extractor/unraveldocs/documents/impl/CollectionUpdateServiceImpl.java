@@ -9,6 +9,7 @@ import com.extractor.unraveldocs.documents.interfaces.CollectionUpdateService;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.exceptions.custom.ConflictException;
 import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
@@ -33,6 +34,7 @@ import java.util.stream.Collectors;
 public class CollectionUpdateServiceImpl implements CollectionUpdateService {
 
     private final DocumentCollectionRepository documentCollectionRepository;
+    private final FileEntryRepository fileEntryRepository;
     private final SanitizeLogging sanitizer;
 
     @Override
@@ -115,16 +117,14 @@ public class CollectionUpdateServiceImpl implements CollectionUpdateService {
         }
 
         // Find the file entry
-        FileEntry fileEntry = collection.getFiles().stream()
-                .filter(file -> file.getDocumentId().equals(documentId))
-                .findFirst()
+        FileEntry fileEntry = fileEntryRepository.findByCollectionIdAndDocumentId(collectionId, documentId)
                 .orElseThrow(() -> new NotFoundException(
                         "Document not found with ID: " + documentId + " in collection: " + collectionId));
 
         // Update display name
         String oldDisplayName = fileEntry.getDisplayName();
         fileEntry.setDisplayName(request.getDisplayName());
-        documentCollectionRepository.save(collection);
+        fileEntryRepository.save(fileEntry);
 
         log.info("Updated document {} display name from '{}' to '{}' in collection {} for user {}",
                 sanitizer.sanitizeLogging(documentId),
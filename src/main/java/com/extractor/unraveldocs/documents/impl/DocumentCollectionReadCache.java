@@ -0,0 +1,101 @@
+package com.extractor.unraveldocs.documents.impl;
+
+import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionSummary;
+import com.extractor.unraveldocs.documents.dto.response.FileEntryData;
+import com.extractor.unraveldocs.documents.dto.response.GetDocumentCollectionData;
+import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionSummaryRow;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
+import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of collection and file views.
+ *
+ * <p>
+ * Kept as a separate bean so that callers go through the caching proxy;
+ * {@code @Cacheable} methods called from within their own class are never
+ * cached. Entries are keyed by ID only and carry no authorization decision,
+ * so callers must check ownership on the returned data.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class DocumentCollectionReadCache {
+
+        private final DocumentCollectionRepository documentCollectionRepository;
+        private final FileEntryRepository fileEntryRepository;
+
+        @Cacheable(value = "documentCollection", key = "#collectionId")
+        @Transactional(readOnly = true)
+        public GetDocumentCollectionData getCollection(String collectionId) {
+                DocumentCollection collection = documentCollectionRepository.findById(collectionId)
+                                .orElseThrow(() -> new NotFoundException(
+                                                "Document collection not found with ID: " + collectionId));
+
+                List<FileEntryData> fileEntryDataList = collection.getFiles().stream()
+                                .map(DocumentCollectionReadCache::toFileEntryData)
+                                .collect(Collectors.toList());
+
+                return GetDocumentCollectionData.builder()
+                                .id(collection.getId())
+                                .name(collection.getName())
+                                .userId(collection.getUser().getId())
+                                .collectionStatus(collection.getCollectionStatus())
+                                .uploadTimestamp(collection.getUploadTimestamp())
+                                .createdAt(collection.getCreatedAt())
+                                .updatedAt(collection.getUpdatedAt())
+                                .files(fileEntryDataList)
+                                .build();
+        }
+
+        @Cacheable(value = "documentCollections", key = "#userId")
+        public List<DocumentCollectionSummary> getCollectionSummaries(String userId) {
+                return documentCollectionRepository.findSummariesByUserId(userId).stream()
+                                .map(DocumentCollectionReadCache::toSummary)
+                                .collect(Collectors.toList());
+        }
+
+        @Cacheable(value = "fileEntry", key = "#collectionId + '-' + #documentId")
+        @Transactional(readOnly = true)
+        public FileEntryData getFileEntry(String collectionId, String documentId) {
+                FileEntry fileEntry = fileEntryRepository.findByCollectionIdAndDocumentId(collectionId, documentId)
+                                .orElseThrow(() -> new NotFoundException("File with document ID: " + documentId
+                                                + " not found in collection: " + collectionId));
+
+                return toFileEntryData(fileEntry);
+        }
+
+        static DocumentCollectionSummary toSummary(DocumentCollectionSummaryRow row) {
+                return DocumentCollectionSummary.builder()
+                                .id(row.id())
+                                .name(row.name())
+                                .collectionStatus(row.collectionStatus())
+                                .fileCount(row.fileCount().intValue())
+                                .hasEncryptedFiles(row.encryptedFileCount() > 0)
+                                .uploadTimestamp(row.uploadTimestamp())
+                                .createdAt(row.createdAt())
+                                .updatedAt(row.updatedAt())
+                                .build();
+        }
+
+        private static FileEntryData toFileEntryData(FileEntry fileEntry) {
+                return FileEntryData.builder()
+                                .documentId(fileEntry.getDocumentId())
+                                .originalFileName(fileEntry.getOriginalFileName())
+                                .displayName(fileEntry.getDisplayName())
+                                .fileSize(fileEntry.getFileSize())
+                                .fileUrl(fileEntry.getFileUrl())
+                                .status(fileEntry.getUploadStatus())
+                                .isEncrypted(fileEntry.isEncrypted())
+                                .build();
+        }
+}
@@ -9,8 +9,11 @@ import com.extractor.unraveldocs.documents.repository.DocumentCollectionReposito
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
 import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
+import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
+import com.extractor.unraveldocs.storage.service.ObjectDeletionQueue;
 import com.extractor.unraveldocs.storage.service.StorageAllocationService;
-import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
 import com.extractor.unraveldocs.pushnotification.datamodel.NotificationType;
 import com.extractor.unraveldocs.pushnotification.interfaces.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -20,8 +23,8 @@ import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -29,11 +32,12 @@ import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 public class DocumentDeleteImpl implements DocumentDeleteService {
-    private final AwsS3Service awsS3Service;
+    private final ObjectDeletionQueue objectDeletionQueue;
     private final DocumentCollectionRepository documentCollectionRepository;
     private final SanitizeLogging s;
     private final StorageAllocationService storageAllocationService;
     private final NotificationService notificationService;
+    private final OcrDataRepository ocrDataRepository;
 
     @Override
     @Transactional
@@ -55,23 +59,8 @@ public class DocumentDeleteImpl implements DocumentDeleteService {
                 .mapToLong(FileEntry::getFileSize)
                 .sum();
 
-        for (FileEntry fileEntry : new ArrayList<>(collection.getFiles())) {
-            if ("SUCCESS".equals(fileEntry.getUploadStatus()) && fileEntry.getStorageId() != null) {
-                try {
-                    awsS3Service.deleteFile(fileEntry.getFileUrl());
-                    log.info("Deleted file with storage ID {} (document ID {}) from Cloudinary for collection {}",
-                            s.sanitizeLogging(fileEntry.getStorageId()),
-                            s.sanitizeLogging(fileEntry.getDocumentId()),
-                            s.sanitizeLogging(collectionId));
-                } catch (Exception e) {
-                    log.error(
-                            "Failed to delete file with storage ID {} (document ID {}) from Cloudinary for collection {}: {}",
-                            s.sanitizeLogging(fileEntry.getStorageId()),
-                            s.sanitizeLogging(fileEntry.getDocumentId()),
-                            s.sanitizeLogging(collectionId), s.sanitizeLogging(e.getMessage()));
-                }
-            }
-        }
+        // Stored files are deleted from S3 in the background once this transaction commits
+        int queuedFiles = objectDeletionQueue.enqueue(collection.getFiles());
         documentCollectionRepository.delete(collection);
 
         // Reclaim storage after successful deletion
@@ -79,7 +68,8 @@ public class DocumentDeleteImpl implements DocumentDeleteService {
             storageAllocationService.updateStorageUsed(collection.getUser(), -storageToReclaim);
         }
 
-        log.info("Document collection {} deleted successfully.", s.sanitizeLogging(collectionId));
+        log.info("Document collection {} deleted successfully, {} stored file(s) queued for removal.",
+                s.sanitizeLogging(collectionId), queuedFiles);
 
         // Send push notification
         sendDocumentDeletedNotification(userId, collectionId, collection.getFiles().size());
@@ -110,21 +100,16 @@ public class DocumentDeleteImpl implements DocumentDeleteService {
         }
 
         FileEntry entryToRemove = fileToRemoveOpt.get();
+        boolean countedForOcr = DocumentUploadState.SUCCESS.toString().equals(entryToRemove.getUploadStatus());
+
+        // Lock the OCR data before the collection row is written, the same order OCR completion takes them in
+        OcrStatus ocrStatus = countedForOcr ? lockOcrStatus(documentId) : null;
 
         if (DocumentUploadState.SUCCESS.toString().equals(entryToRemove.getUploadStatus()) &&
-                entryToRemove.getStorageId() != null) {
-            try {
-                awsS3Service.deleteFile(entryToRemove.getFileUrl());
-                log.info("Successfully deleted file with storage ID {} (document ID {}) from Cloudinary.",
-                        s.sanitizeLogging(entryToRemove.getStorageId()),
-                        s.sanitizeLogging(entryToRemove.getDocumentId()));
-            } catch (Exception e) {
-                log.error(
-                        "Failed to delete file with storage ID {} (document ID {}) from Cloudinary. It will still be removed from the database. Error: {}",
-                        s.sanitizeLogging(entryToRemove.getStorageId()),
-                        s.sanitizeLogging(entryToRemove.getDocumentId()),
-                        s.sanitizeLogging(e.getMessage()));
-            }
+                objectDeletionQueue.enqueue(List.of(entryToRemove)) > 0) {
+            log.info("Queued stored file with storage ID {} (document ID {}) for removal.",
+                    s.sanitizeLogging(entryToRemove.getStorageId()),
+                    s.sanitizeLogging(entryToRemove.getDocumentId()));
         }
 
         // Capture file size before removal for storage reclamation
@@ -159,6 +144,9 @@ public class DocumentDeleteImpl implements DocumentDeleteService {
                 collection.setCollectionStatus(DocumentStatus.FAILED_UPLOAD);
             }
             documentCollectionRepository.save(collection);
+            if (removed && countedForOcr) {
+                removeFromOcrCounters(collectionId, ocrStatus);
+            }
             log.info(
                     "File with document ID {} removed from collection {}. Collection updated. New status: {}. Remaining files: {}",
                     s.sanitizeLogging(documentId),
@@ -168,6 +156,28 @@ public class DocumentDeleteImpl implements DocumentDeleteService {
         }
     }
 
+    /**
+     * Lock a document's OCR data and read its status. Paths that touch both
+     * take the OCR data row lock before the collection row lock, see
+     * {@link com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService}.
+     *
+     * @return The OCR status, or null if the document has no OCR data
+     */
+    private OcrStatus lockOcrStatus(String documentId) {
+        return ocrDataRepository.findByDocumentIdForUpdate(documentId)
+                .map(OcrData::getStatus)
+                .orElse(null);
+    }
+
+    /**
+     * Take a removed document out of the collection's OCR counters.
+     */
+    private void removeFromOcrCounters(String collectionId, OcrStatus ocrStatus) {
+        documentCollectionRepository.adjustOcrCounters(collectionId, -1,
+                ocrStatus == OcrStatus.COMPLETED ? -1 : 0,
+                ocrStatus == OcrStatus.FAILED ? -1 : 0);
+    }
+
     /**
      * Send push notification when document collection is deleted.
      */
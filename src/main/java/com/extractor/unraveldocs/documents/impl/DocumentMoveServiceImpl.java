@@ -1,5 +1,6 @@
 package com.extractor.unraveldocs.documents.impl;
 
+import com.extractor.unraveldocs.documents.datamodel.DocumentUploadState;
 import com.extractor.unraveldocs.documents.dto.request.MoveDocumentRequest;
 import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionResponse;
 import com.extractor.unraveldocs.documents.dto.response.FileEntryData;
@@ -7,9 +8,13 @@ import com.extractor.unraveldocs.documents.interfaces.DocumentMoveService;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
 import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
+import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
 import com.extractor.unraveldocs.subscription.service.SubscriptionFeatureService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,9 +24,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Implementation of document move service.
  * Premium feature restricted to Starter+ subscriptions.
@@ -32,6 +34,8 @@ import java.util.List;
 public class DocumentMoveServiceImpl implements DocumentMoveService {
 
     private final DocumentCollectionRepository documentCollectionRepository;
+    private final FileEntryRepository fileEntryRepository;
+    private final OcrDataRepository ocrDataRepository;
     private final SubscriptionFeatureService subscriptionFeatureService;
     private final SanitizeLogging sanitizer;
 
@@ -40,6 +44,7 @@ public class DocumentMoveServiceImpl implements DocumentMoveService {
     @Caching(evict = {
             @CacheEvict(value = "documentCollection", key = "#request.sourceCollectionId"),
             @CacheEvict(value = "documentCollection", key = "#request.targetCollectionId"),
+            @CacheEvict(value = "fileEntry", key = "#request.sourceCollectionId + '-' + #request.documentId"),
             @CacheEvict(value = "documentCollections", key = "#userId")
     })
     public DocumentCollectionResponse<FileEntryData> moveDocument(MoveDocumentRequest request, String userId) {
@@ -72,25 +77,19 @@ public class DocumentMoveServiceImpl implements DocumentMoveService {
         }
 
         // Find the document in source collection
-        FileEntry fileToMove = sourceCollection.getFiles().stream()
-                .filter(file -> file.getDocumentId().equals(request.getDocumentId()))
-                .findFirst()
+        FileEntry fileToMove = fileEntryRepository
+                .findByCollectionIdAndDocumentId(request.getSourceCollectionId(), request.getDocumentId())
                 .orElseThrow(() -> new NotFoundException(
                         "Document not found with ID: " + request.getDocumentId() + " in source collection"));
 
-        // Remove from source collection
-        List<FileEntry> sourceFiles = new ArrayList<>(sourceCollection.getFiles());
-        sourceFiles.removeIf(file -> file.getDocumentId().equals(request.getDocumentId()));
-        sourceCollection.setFiles(sourceFiles);
-
-        // Add to target collection
-        List<FileEntry> targetFiles = new ArrayList<>(targetCollection.getFiles());
-        targetFiles.add(fileToMove);
-        targetCollection.setFiles(targetFiles);
+        // Re-point the single file row at the target collection
+        fileToMove.setCollection(targetCollection);
+        fileEntryRepository.save(fileToMove);
 
-        // Save both collections
-        documentCollectionRepository.save(sourceCollection);
-        documentCollectionRepository.save(targetCollection);
+        if (DocumentUploadState.SUCCESS.toString().equals(fileToMove.getUploadStatus())) {
+            moveOcrCounters(request.getSourceCollectionId(), request.getTargetCollectionId(),
+                    request.getDocumentId());
+        }
 
         log.info("Moved document {} from collection {} to collection {} for user {}",
                 sanitizer.sanitizeLogging(request.getDocumentId()),
@@ -116,4 +115,23 @@ public class DocumentMoveServiceImpl implements DocumentMoveService {
                 .data(fileEntryData)
                 .build();
     }
+
+    /**
+     * Move the document's contribution to the OCR counters from the source to the target collection.
+     */
+    private void moveOcrCounters(String sourceCollectionId, String targetCollectionId, String documentId) {
+        OcrStatus ocrStatus = ocrDataRepository.findByDocumentIdForUpdate(documentId)
+                .map(OcrData::getStatus)
+                .orElse(null);
+        int completed = ocrStatus == OcrStatus.COMPLETED ? 1 : 0;
+        int failed = ocrStatus == OcrStatus.FAILED ? 1 : 0;
+        // OCR data first, then the collections in ID order, so concurrent moves and OCR runs cannot deadlock
+        if (sourceCollectionId.compareTo(targetCollectionId) < 0) {
+            documentCollectionRepository.adjustOcrCounters(sourceCollectionId, -1, -completed, -failed);
+            documentCollectionRepository.adjustOcrCounters(targetCollectionId, 1, completed, failed);
+        } else {
+            documentCollectionRepository.adjustOcrCounters(targetCollectionId, 1, completed, failed);
+            documentCollectionRepository.adjustOcrCounters(sourceCollectionId, -1, -completed, -failed);
+        }
+    }
 }
@@ -9,12 +9,15 @@ import com.extractor.unraveldocs.documents.interfaces.DocumentUploadService;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.utils.ParallelUploadExecutor;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
 import com.extractor.unraveldocs.ocrprocessing.utils.FileStorageService;
 import com.extractor.unraveldocs.pushnotification.datamodel.NotificationType;
 import com.extractor.unraveldocs.pushnotification.interfaces.NotificationService;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
 import com.extractor.unraveldocs.storage.service.StorageAllocationService;
+import com.extractor.unraveldocs.storage.service.StorageReservation;
 import com.extractor.unraveldocs.user.model.User;
 import com.extractor.unraveldocs.utils.imageupload.FileUploadValidationUtil;
 import lombok.RequiredArgsConstructor;
@@ -22,7 +25,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.OffsetDateTime;
@@ -32,6 +35,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
 
 import static com.extractor.unraveldocs.ocrprocessing.utils.FileStorageService.getStorageFailures;
 
@@ -46,16 +50,19 @@ public class DocumentUploadImpl implements DocumentUploadService {
     private final NotificationService notificationService;
     private final com.extractor.unraveldocs.encryption.interfaces.EncryptionService encryptionService;
     private final com.extractor.unraveldocs.subscription.service.SubscriptionFeatureService subscriptionFeatureService;
+    private final ParallelUploadExecutor parallelUploadExecutor;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
-    @Transactional
     @CacheEvict(value = "documentCollections", key = "#user.id")
     public DocumentCollectionResponse<DocumentCollectionUploadData> uploadDocuments(
             MultipartFile[] files, User user, String collectionName, boolean enableEncryption) {
+        UserEntitlements entitlements = storageAllocationService.resolveEntitlements(user.getId());
+
         // Validate encryption access if enabled
         if (enableEncryption) {
             subscriptionFeatureService.requireFeatureAccess(
-                    user.getId(),
+                    entitlements.plan(),
                     com.extractor.unraveldocs.subscription.service.SubscriptionFeatureService.Feature.DOCUMENT_ENCRYPTION);
             if (!encryptionService.isEncryptionAvailable()) {
                 throw new BadRequestException("Encryption is not available. Please contact support.");
@@ -77,90 +84,86 @@ public class DocumentUploadImpl implements DocumentUploadService {
 
         FileUploadValidationUtil.validateTotalFileSize(files);
 
-        // Check storage availability before processing uploads
+        // Reserve document slots and storage before processing uploads
         long totalUploadSize = Arrays.stream(files).mapToLong(MultipartFile::getSize).sum();
-        storageAllocationService.checkDocumentUploadLimit(user, files.length); // Check limit first
-        storageAllocationService.checkStorageAvailable(user, totalUploadSize);
-
-        for (MultipartFile file : files) {
-            String originalFilename = Objects.requireNonNullElse(file.getOriginalFilename(), "unnamed_file");
-
-            FileEntryData.FileEntryDataBuilder fileEntryDataBuilder = FileEntryData.builder()
-                    .originalFileName(originalFilename)
-                    .fileSize(file.getSize());
+        StorageReservation reservation = storageAllocationService.reserve(entitlements, totalUploadSize, files.length);
 
-            try {
-                FileUploadValidationUtil.validateIndividualFile(file);
+        // Hand the reservation back unless the collection is recorded
+        DocumentCollection savedCollection = null;
+        try {
+            // Validate on the request thread; only valid files are uploaded
+            List<FileEntryData.FileEntryDataBuilder> fileEntryDataBuilders = new ArrayList<>(files.length);
+            List<Integer> uploadIndexes = new ArrayList<>();
+            List<Callable<FileEntry>> uploads = new ArrayList<>();
+            for (int i = 0; i < files.length; i++) {
+                MultipartFile file = files[i];
+                String originalFilename = Objects.requireNonNullElse(file.getOriginalFilename(), "unnamed_file");
+
+                FileEntryData.FileEntryDataBuilder fileEntryDataBuilder = FileEntryData.builder()
+                        .originalFileName(originalFilename)
+                        .fileSize(file.getSize());
+                fileEntryDataBuilders.add(fileEntryDataBuilder);
 
                 try {
-                    FileEntry fileEntry = fileStorageService.handleSuccessfulFileUpload(file, originalFilename);
+                    FileUploadValidationUtil.validateIndividualFile(file);
+                    uploadIndexes.add(i);
+                    uploads.add(() -> fileStorageService.handleSuccessfulFileUpload(file, originalFilename,
+                            enableEncryption));
+                } catch (BadRequestException | IllegalArgumentException validationEx) {
+                    log.warn("Validation failed for file {}: {}",
+                            s.sanitizeLogging(originalFilename),
+                            s.sanitizeLogging(validationEx.getMessage()));
+                    String tempDocumentId = java.util.UUID.randomUUID().toString();
+                    fileEntryDataBuilder.documentId(tempDocumentId)
+                            .status(DocumentUploadState.FAILED_VALIDATION.toString());
+                    validationFailures++;
+                }
+            }
+
+            // Upload in parallel, outside any database transaction
+            List<ParallelUploadExecutor.Outcome<FileEntry>> outcomes = parallelUploadExecutor.runAll(uploads);
+            for (int u = 0; u < outcomes.size(); u++) {
+                int i = uploadIndexes.get(u);
+                String originalFilename = Objects.requireNonNullElse(files[i].getOriginalFilename(), "unnamed_file");
+                FileEntryData.FileEntryDataBuilder fileEntryDataBuilder = fileEntryDataBuilders.get(i);
+                ParallelUploadExecutor.Outcome<FileEntry> outcome = outcomes.get(u);
 
+                if (outcome.isSuccess()) {
+                    FileEntry fileEntry = outcome.value();
                     processedFileEntries.add(fileEntry);
 
                     fileEntryDataBuilder.documentId(fileEntry.getDocumentId())
                             .fileUrl(fileEntry.getFileUrl())
-                            .status(DocumentUploadState.SUCCESS.toString());
+                            .status(DocumentUploadState.SUCCESS.toString())
+                            .isEncrypted(fileEntry.isEncrypted());
                     successfulUploads++;
-                } catch (Exception storageEx) {
+                } else {
                     storageFailures = getStorageFailures(
                             processedFileEntries,
                             storageFailures,
                             originalFilename,
-                            storageEx, log, s);
+                            outcome.error(), log, s);
                     fileEntryDataBuilder.status(DocumentUploadState.FAILED_STORAGE_UPLOAD.toString());
                 }
-            } catch (BadRequestException | IllegalArgumentException validationEx) {
-                log.warn("Validation failed for file {}: {}",
-                        s.sanitizeLogging(originalFilename),
-                        s.sanitizeLogging(validationEx.getMessage()));
-                String tempDocumentId = java.util.UUID.randomUUID().toString();
-                fileEntryDataBuilder.documentId(tempDocumentId)
-                        .status(DocumentUploadState.FAILED_VALIDATION.toString());
-                validationFailures++;
             }
-            responseFileEntriesData.add(fileEntryDataBuilder.build());
+            fileEntryDataBuilders.forEach(builder -> responseFileEntriesData.add(builder.build()));
+
+            if (!processedFileEntries.isEmpty()) {
+                int uploadedCount = successfulUploads;
+                savedCollection = transactionTemplate.execute(status ->
+                        saveCollection(user, finalCollectionName, processedFileEntries, uploadedCount, reservation));
+            }
+        } finally {
+            if (savedCollection == null) {
+                storageAllocationService.release(reservation);
+            }
         }
 
         String savedCollectionId = null;
 
         if (!processedFileEntries.isEmpty()) {
-            DocumentCollection documentCollection = DocumentCollection.builder()
-                    .user(user)
-                    .name(finalCollectionName)
-                    .files(processedFileEntries)
-                    .uploadTimestamp(OffsetDateTime.now())
-                    .build();
-
-            boolean allProcessedSucceededInStorage = processedFileEntries.stream()
-                    .allMatch(fe -> DocumentUploadState.SUCCESS.toString().equals(fe.getUploadStatus()));
-            boolean anyProcessedSucceededInStorage = processedFileEntries.stream()
-                    .anyMatch(fe -> DocumentUploadState.SUCCESS.toString().equals(fe.getUploadStatus()));
-
-            if (allProcessedSucceededInStorage) {
-                documentCollection.setCollectionStatus(DocumentStatus.COMPLETED);
-            } else if (anyProcessedSucceededInStorage) {
-                documentCollection.setCollectionStatus(DocumentStatus.PARTIALLY_COMPLETED);
-            } else {
-                documentCollection.setCollectionStatus(DocumentStatus.FAILED_UPLOAD);
-            }
-
-            DocumentCollection savedCollection = documentCollectionRepository.save(documentCollection);
             savedCollectionId = savedCollection.getId();
 
-            // Update storage used for successfully uploaded files
-            long successfulUploadSize = processedFileEntries.stream()
-                    .filter(fe -> DocumentUploadState.SUCCESS.toString().equals(fe.getUploadStatus()))
-                    .mapToLong(FileEntry::getFileSize)
-                    .sum();
-            if (successfulUploadSize > 0) {
-                storageAllocationService.updateStorageUsed(user, successfulUploadSize);
-            }
-
-            // Update monthly documents uploaded count (for quota tracking)
-            if (successfulUploads > 0) {
-                storageAllocationService.updateMonthlyDocumentsUploaded(user.getId(), successfulUploads);
-            }
-
             log.info("Document collection {} created with {} processed files for user {}. Status: {}",
                     s.sanitizeLogging(savedCollectionId),
                     processedFileEntries.size(),
@@ -228,6 +231,45 @@ public class DocumentUploadImpl implements DocumentUploadService {
                 .build();
     }
 
+    /**
+     * Save the collection and account for the uploaded files. Runs in its own
+     * short transaction once all uploads have finished.
+     */
+    private DocumentCollection saveCollection(
+            User user, String collectionName, List<FileEntry> processedFileEntries, int successfulUploads,
+            StorageReservation reservation) {
+        DocumentCollection documentCollection = DocumentCollection.builder()
+                .user(user)
+                .name(collectionName)
+                .ocrTotalCount(successfulUploads)
+                .uploadTimestamp(OffsetDateTime.now())
+                .build();
+        documentCollection.addFiles(processedFileEntries);
+
+        boolean allProcessedSucceededInStorage = processedFileEntries.stream()
+                .allMatch(fe -> DocumentUploadState.SUCCESS.toString().equals(fe.getUploadStatus()));
+        boolean anyProcessedSucceededInStorage = processedFileEntries.stream()
+                .anyMatch(fe -> DocumentUploadState.SUCCESS.toString().equals(fe.getUploadStatus()));
+
+        if (allProcessedSucceededInStorage) {
+            documentCollection.setCollectionStatus(DocumentStatus.COMPLETED);
+        } else if (anyProcessedSucceededInStorage) {
+            documentCollection.setCollectionStatus(DocumentStatus.PARTIALLY_COMPLETED);
+        } else {
+            documentCollection.setCollectionStatus(DocumentStatus.FAILED_UPLOAD);
+        }
+
+        DocumentCollection savedCollection = documentCollectionRepository.save(documentCollection);
+
+        // Keep the storage and document quota of the successfully uploaded files
+        long successfulUploadSize = processedFileEntries.stream()
+                .filter(fe -> DocumentUploadState.SUCCESS.toString().equals(fe.getUploadStatus()))
+                .mapToLong(FileEntry::getFileSize)
+                .sum();
+        storageAllocationService.commit(reservation, successfulUploadSize, successfulUploads);
+        return savedCollection;
+    }
+
     /**
      * Send push notification for successful/partial document upload.
      */
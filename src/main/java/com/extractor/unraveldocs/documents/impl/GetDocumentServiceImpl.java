@@ -5,28 +5,42 @@ import com.extractor.unraveldocs.documents.interfaces.GetDocumentService;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionSummaryRow;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
+import com.extractor.unraveldocs.documents.utils.CollectionCursor;
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService;
 import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
 import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class GetDocumentServiceImpl implements GetDocumentService {
+        static final int MAX_PAGE_SIZE = 100;
 
+        private final DocumentCollectionReadCache documentCollectionReadCache;
         private final DocumentCollectionRepository documentCollectionRepository;
+        private final FileEntryRepository fileEntryRepository;
+        private final AwsS3Service awsS3Service;
+        private final EncryptionService encryptionService;
 
         @Override
-        @Transactional(readOnly = true)
         public DocumentCollectionResponse<GetDocumentCollectionData> getDocumentCollectionById(String collectionId,
                         String userId) {
-                GetDocumentCollectionData responseData = getCachedDocumentCollectionData(collectionId, userId);
+                GetDocumentCollectionData responseData = documentCollectionReadCache.getCollection(collectionId);
+
+                if (!responseData.getUserId().equals(userId)) {
+                        throw new ForbiddenException("You are not authorized to view this document collection.");
+                }
 
                 return DocumentCollectionResponse.<GetDocumentCollectionData>builder()
                                 .statusCode(HttpStatus.OK.value())
@@ -36,37 +50,10 @@ public class GetDocumentServiceImpl implements GetDocumentService {
                                 .build();
         }
 
-        @Cacheable(value = "documentCollection", key = "#collectionId")
-        public GetDocumentCollectionData getCachedDocumentCollectionData(String collectionId, String userId) {
-                DocumentCollection collection = documentCollectionRepository.findById(collectionId)
-                                .orElseThrow(() -> new NotFoundException(
-                                                "Document collection not found with ID: " + collectionId));
-
-                if (!collection.getUser().getId().equals(userId)) {
-                        throw new ForbiddenException("You are not authorized to view this document collection.");
-                }
-
-                List<FileEntryData> fileEntryDataList = collection.getFiles().stream()
-                                .map(this::mapToFileEntryData)
-                                .collect(Collectors.toList());
-
-                return GetDocumentCollectionData.builder()
-                                .id(collection.getId())
-                                .name(collection.getName())
-                                .userId(collection.getUser().getId())
-                                .collectionStatus(collection.getCollectionStatus())
-                                .uploadTimestamp(collection.getUploadTimestamp())
-                                .createdAt(collection.getCreatedAt())
-                                .updatedAt(collection.getUpdatedAt())
-                                .files(fileEntryDataList)
-                                .build();
-        }
-
         @Override
-        @Transactional(readOnly = true)
         public DocumentCollectionResponse<List<DocumentCollectionSummary>> getAllDocumentCollectionsByUser(
                         String userId) {
-                List<DocumentCollectionSummary> summaries = getCachedDocumentCollectionSummaries(userId);
+                List<DocumentCollectionSummary> summaries = documentCollectionReadCache.getCollectionSummaries(userId);
 
                 return DocumentCollectionResponse.<List<DocumentCollectionSummary>>builder()
                                 .statusCode(HttpStatus.OK.value())
@@ -76,30 +63,53 @@ public class GetDocumentServiceImpl implements GetDocumentService {
                                 .build();
         }
 
-        @Cacheable(value = "documentCollections", key = "#userId")
-        public List<DocumentCollectionSummary> getCachedDocumentCollectionSummaries(String userId) {
-                List<DocumentCollection> collections = documentCollectionRepository.findAllByUserId(userId);
-
-                return collections.stream()
-                                .map(collection -> DocumentCollectionSummary.builder()
-                                                .id(collection.getId())
-                                                .name(collection.getName())
-                                                .collectionStatus(collection.getCollectionStatus())
-                                                .fileCount(collection.getFiles().size())
-                                                .hasEncryptedFiles(collection.getFiles().stream()
-                                                                .anyMatch(com.extractor.unraveldocs.documents.model.FileEntry::isEncrypted))
-                                                .uploadTimestamp(collection.getUploadTimestamp())
-                                                .createdAt(collection.getCreatedAt())
-                                                .updatedAt(collection.getUpdatedAt())
+        @Override
+        public DocumentCollectionResponse<DocumentCollectionPage> getDocumentCollectionPage(String userId,
+                        String cursor, int limit) {
+                int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+                // Fetch one extra row to learn whether another page follows
+                PageRequest page = PageRequest.of(0, pageSize + 1);
+                List<DocumentCollectionSummaryRow> rows;
+                if (cursor == null || cursor.isBlank()) {
+                        rows = documentCollectionRepository.findSummaryPageByUserId(userId, page);
+                } else {
+                        CollectionCursor position = CollectionCursor.decode(cursor);
+                        rows = documentCollectionRepository.findSummaryPageByUserIdAfter(
+                                        userId, position.createdAt(), position.id(), page);
+                }
+
+                boolean hasMore = rows.size() > pageSize;
+                List<DocumentCollectionSummaryRow> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+                String nextCursor = null;
+                if (hasMore) {
+                        DocumentCollectionSummaryRow last = pageRows.getLast();
+                        nextCursor = new CollectionCursor(last.createdAt(), last.id()).encode();
+                }
+
+                return DocumentCollectionResponse.<DocumentCollectionPage>builder()
+                                .statusCode(HttpStatus.OK.value())
+                                .status("success")
+                                .message("Document collections retrieved successfully.")
+                                .data(DocumentCollectionPage.builder()
+                                                .items(pageRows.stream()
+                                                                .map(DocumentCollectionReadCache::toSummary)
+                                                                .toList())
+                                                .nextCursor(nextCursor)
+                                                .hasMore(hasMore)
                                                 .build())
-                                .collect(Collectors.toList());
+                                .build();
         }
 
         @Override
-        @Transactional(readOnly = true)
         public DocumentCollectionResponse<FileEntryData> getFileFromCollection(String collectionId, String documentId,
                         String userId) {
-                FileEntryData fileEntryData = getCachedFileEntryData(collectionId, documentId, userId);
+                GetDocumentCollectionData collection = documentCollectionReadCache.getCollection(collectionId);
+
+                if (!collection.getUserId().equals(userId)) {
+                        throw new ForbiddenException("You are not authorized to access this document collection.");
+                }
+
+                FileEntryData fileEntryData = documentCollectionReadCache.getFileEntry(collectionId, documentId);
 
                 return DocumentCollectionResponse.<FileEntryData>builder()
                                 .statusCode(HttpStatus.OK.value())
@@ -109,8 +119,9 @@ public class GetDocumentServiceImpl implements GetDocumentService {
                                 .build();
         }
 
-        @Cacheable(value = "fileEntry", key = "#collectionId + '-' + #documentId")
-        public FileEntryData getCachedFileEntryData(String collectionId, String documentId, String userId) {
+        @Override
+        @Transactional(readOnly = true)
+        public DocumentContent getDocumentContent(String collectionId, String documentId, String userId) {
                 DocumentCollection collection = documentCollectionRepository.findById(collectionId)
                                 .orElseThrow(() -> new NotFoundException(
                                                 "Document collection not found with ID: " + collectionId));
@@ -119,24 +130,25 @@ public class GetDocumentServiceImpl implements GetDocumentService {
                         throw new ForbiddenException("You are not authorized to access this document collection.");
                 }
 
-                FileEntry fileEntry = collection.getFiles().stream()
-                                .filter(file -> file.getDocumentId().equals(documentId))
-                                .findFirst()
+                FileEntry fileEntry = fileEntryRepository.findByCollectionIdAndDocumentId(collectionId, documentId)
                                 .orElseThrow(() -> new NotFoundException("File with document ID: " + documentId
                                                 + " not found in collection: " + collectionId));
+                if (fileEntry.getFileUrl() == null) {
+                        throw new NotFoundException("File with document ID: " + documentId + " has no stored content");
+                }
 
-                return mapToFileEntryData(fileEntry);
-        }
+                // Decrypt segment by segment while the response is written
+                InputStream content = awsS3Service.openFile(fileEntry.getFileUrl());
+                if (fileEntry.isEncrypted()) {
+                        content = encryptionService.decryptStream(content, new EncryptionService.DocumentKey(
+                                        fileEntry.getEncryptionIv(), fileEntry.getEncryptionKeyId(),
+                                        fileEntry.getEncryptedDataKey()));
+                }
 
-        private FileEntryData mapToFileEntryData(FileEntry fileEntry) {
-                return FileEntryData.builder()
-                                .documentId(fileEntry.getDocumentId())
-                                .originalFileName(fileEntry.getOriginalFileName())
-                                .displayName(fileEntry.getDisplayName())
-                                .fileSize(fileEntry.getFileSize())
-                                .fileUrl(fileEntry.getFileUrl())
-                                .status(fileEntry.getUploadStatus())
-                                .isEncrypted(fileEntry.isEncrypted())
-                                .build();
+                return new DocumentContent(
+                                fileEntry.getOriginalFileName(),
+                                fileEntry.getFileType(),
+                                fileEntry.getFileSize(),
+                                new InputStreamResource(content));
         }
-}
\ No newline at end of file
+}
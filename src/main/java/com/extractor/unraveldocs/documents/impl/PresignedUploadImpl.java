@@ -0,0 +1,393 @@
+package com.extractor.unraveldocs.documents.impl;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import com.extractor.unraveldocs.documents.datamodel.DocumentUploadState;
+import com.extractor.unraveldocs.documents.dto.request.PresignedUploadRequest;
+import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionResponse;
+import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionUploadData;
+import com.extractor.unraveldocs.documents.dto.response.FileEntryData;
+import com.extractor.unraveldocs.documents.dto.response.PresignedUploadData;
+import com.extractor.unraveldocs.documents.interfaces.PresignedUploadService;
+import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.model.PresignedUploadSession;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
+import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
+import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.extractor.unraveldocs.ocrprocessing.events.OcrEventMapper;
+import com.extractor.unraveldocs.ocrprocessing.events.OcrEventPublisher;
+import com.extractor.unraveldocs.ocrprocessing.events.OcrRequestedEvent;
+import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
+import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
+import com.extractor.unraveldocs.storage.exception.StorageQuotaExceededException;
+import com.extractor.unraveldocs.storage.service.ObjectDeletionQueue;
+import com.extractor.unraveldocs.storage.service.StorageAllocationService;
+import com.extractor.unraveldocs.storage.service.StorageReservation;
+import com.extractor.unraveldocs.user.model.User;
+import com.extractor.unraveldocs.utils.imageupload.FileSize;
+import com.extractor.unraveldocs.utils.imageupload.FileType;
+import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Direct-to-S3 uploads. The API only issues presigned URLs and records the
+ * result, so document bytes never pass through the application nodes.
+ *
+ * <p>
+ * Quota is checked when the URLs are issued, and the declared size and
+ * SHA-256 checksum are signed into each URL. On completion every object is
+ * looked up in S3 and only objects matching their declaration are kept; their
+ * storage and document quota is charged by guarded updates, so concurrent
+ * uploads cannot exceed the plan limits. If the quota no longer fits, the
+ * upload is rejected.
+ * </p>
+ *
+ * <p>
+ * Every object is queued for deletion when its URLs are issued, due shortly
+ * after the upload expires, and withdrawn from the queue only when it is kept.
+ * Objects that were never completed, failed verification, were rejected for
+ * quota or arrived after completion are therefore all deleted.
+ * </p>
+ */
+@Slf4j
+@Service
+public class PresignedUploadImpl implements PresignedUploadService {
+    static final String SESSION_PREFIX = "upload:presigned:";
+    // Keeps a completion racing the session expiry from seeing its objects deleted
+    private static final Duration DELETION_GRACE = Duration.ofMinutes(5);
+
+    private final AwsS3Service awsS3Service;
+    private final StorageAllocationService storageAllocationService;
+    private final ObjectDeletionQueue objectDeletionQueue;
+    private final DocumentCollectionRepository documentCollectionRepository;
+    private final OcrDataRepository ocrDataRepository;
+    private final Optional<OcrEventPublisher> ocrEventPublisher;
+    private final OcrEventMapper ocrEventMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final SanitizeLogging s;
+    private final Duration urlExpiry;
+    private final Duration completionWindow;
+
+    public PresignedUploadImpl(
+            AwsS3Service awsS3Service,
+            StorageAllocationService storageAllocationService,
+            ObjectDeletionQueue objectDeletionQueue,
+            DocumentCollectionRepository documentCollectionRepository,
+            OcrDataRepository ocrDataRepository,
+            Optional<OcrEventPublisher> ocrEventPublisher,
+            OcrEventMapper ocrEventMapper,
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            SanitizeLogging s,
+            @Value("${aws.s3.presigned.url-expiry-seconds:900}") long urlExpirySeconds,
+            @Value("${aws.s3.presigned.completion-window-seconds:3600}") long completionWindowSeconds) {
+        this.awsS3Service = awsS3Service;
+        this.storageAllocationService = storageAllocationService;
+        this.objectDeletionQueue = objectDeletionQueue;
+        this.documentCollectionRepository = documentCollectionRepository;
+        this.ocrDataRepository = ocrDataRepository;
+        this.ocrEventPublisher = ocrEventPublisher;
+        this.ocrEventMapper = ocrEventMapper;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.s = s;
+        this.urlExpiry = Duration.ofSeconds(urlExpirySeconds);
+        this.completionWindow = Duration.ofSeconds(urlExpirySeconds + completionWindowSeconds);
+    }
+
+    @Override
+    public DocumentCollectionResponse<PresignedUploadData> createUpload(PresignedUploadRequest request, User user) {
+        List<PresignedUploadRequest.PresignedFile> files = request.getFiles();
+        files.forEach(this::validateFile);
+
+        long totalUploadSize = files.stream().mapToLong(PresignedUploadRequest.PresignedFile::getFileSize).sum();
+        UserEntitlements entitlements = storageAllocationService.resolveEntitlements(user.getId());
+        storageAllocationService.checkDocumentUploadLimit(entitlements, files.size());
+        storageAllocationService.checkStorageAvailable(entitlements, totalUploadSize);
+
+        List<PresignedUploadSession.PendingFile> pendingFiles = new ArrayList<>(files.size());
+        List<PresignedUploadData.PresignedFileUpload> uploads = new ArrayList<>(files.size());
+        OffsetDateTime expiresAt = null;
+        for (PresignedUploadRequest.PresignedFile file : files) {
+            String storageKey = awsS3Service.generateFileName(
+                    file.getFileName(), AwsS3Service.getDOCUMENT_PICTURE_FOLDER());
+            PresignedPutObjectRequest presigned = awsS3Service.presignUpload(
+                    storageKey, file.getContentType(), file.getFileSize(), file.getChecksumSha256(), urlExpiry);
+
+            PresignedUploadSession.PendingFile pendingFile = PresignedUploadSession.PendingFile.builder()
+                    .documentId(UUID.randomUUID().toString())
+                    .storageKey(storageKey)
+                    .originalFileName(file.getFileName())
+                    .contentType(file.getContentType())
+                    .fileSize(file.getFileSize())
+                    .checksumSha256(file.getChecksumSha256())
+                    .build();
+            pendingFiles.add(pendingFile);
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            presigned.signedHeaders().forEach((name, values) -> {
+                if (!"host".equalsIgnoreCase(name)) {
+                    headers.put(name, String.join(",", values));
+                }
+            });
+            uploads.add(PresignedUploadData.PresignedFileUpload.builder()
+                    .documentId(pendingFile.getDocumentId())
+                    .originalFileName(file.getFileName())
+                    .uploadUrl(presigned.url().toString())
+                    .method(presigned.httpRequest().method().name())
+                    .headers(headers)
+                    .build());
+            expiresAt = presigned.expiration().atOffset(ZoneOffset.UTC);
+        }
+
+        // Delete the objects unless the upload is completed and keeps them
+        OffsetDateTime sessionExpiresAt = OffsetDateTime.now().plus(completionWindow);
+        objectDeletionQueue.schedule(
+                pendingFiles.stream().map(PresignedUploadSession.PendingFile::getStorageKey).toList(),
+                sessionExpiresAt.plus(DELETION_GRACE));
+
+        String uploadId = UUID.randomUUID().toString();
+        PresignedUploadSession session = PresignedUploadSession.builder()
+                .userId(user.getId())
+                .collectionName(request.getCollectionName())
+                .files(pendingFiles)
+                .expiresAtEpochMillis(sessionExpiresAt.toInstant().toEpochMilli())
+                .build();
+        redisTemplate.opsForValue().set(SESSION_PREFIX + uploadId, toJson(session), completionWindow);
+
+        log.info("Issued presigned upload {} with {} file(s) for user {}",
+                s.sanitizeLogging(uploadId), files.size(), s.sanitizeLogging(user.getId()));
+
+        return DocumentCollectionResponse.<PresignedUploadData>builder()
+                .statusCode(HttpStatus.OK.value())
+                .status("success")
+                .message("Upload each file to its URL, then complete the upload.")
+                .data(PresignedUploadData.builder()
+                        .uploadId(uploadId)
+                        .expiresAt(expiresAt)
+                        .files(uploads)
+                        .build())
+                .build();
+    }
+
+    @Override
+    @CacheEvict(value = "documentCollections", key = "#user.id")
+    public DocumentCollectionResponse<DocumentCollectionUploadData> completeUpload(String uploadId, User user) {
+        String key = SESSION_PREFIX + uploadId;
+        String json = redisTemplate.opsForValue().get(key);
+        if (json == null) {
+            throw new NotFoundException("Upload not found or expired: " + uploadId);
+        }
+        PresignedUploadSession session = fromJson(json);
+        if (!session.getUserId().equals(user.getId())) {
+            throw new ForbiddenException("You are not authorized to complete this upload.");
+        }
+        // Claim the session so a repeated completion cannot create the collection twice
+        if (!Boolean.TRUE.equals(redisTemplate.delete(key))) {
+            throw new NotFoundException("Upload not found or expired: " + uploadId);
+        }
+
+        List<FileEntry> uploadedFiles = new ArrayList<>();
+        List<FileEntryData> responseFileEntriesData = new ArrayList<>();
+        for (PresignedUploadSession.PendingFile pendingFile : session.getFiles()) {
+            FileEntryData.FileEntryDataBuilder fileEntryDataBuilder = FileEntryData.builder()
+                    .documentId(pendingFile.getDocumentId())
+                    .originalFileName(pendingFile.getOriginalFileName())
+                    .fileSize(pendingFile.getFileSize());
+
+            if (isUploaded(pendingFile)) {
+                String fileUrl = awsS3Service.getFileUrl(pendingFile.getStorageKey());
+                uploadedFiles.add(FileEntry.builder()
+                        .documentId(pendingFile.getDocumentId())
+                        .originalFileName(pendingFile.getOriginalFileName())
+                        .fileUrl(fileUrl)
+                        .storageKey(pendingFile.getStorageKey())
+                        .storageId(awsS3Service.generateRandomPublicId(pendingFile.getOriginalFileName()))
+                        .fileType(pendingFile.getContentType())
+                        .fileSize(pendingFile.getFileSize())
+                        .uploadStatus(DocumentUploadState.SUCCESS.toString())
+                        .build());
+                fileEntryDataBuilder.fileUrl(fileUrl).status(DocumentUploadState.SUCCESS.toString());
+            } else {
+                // Stays queued for deletion, which also covers an upload arriving after completion
+                log.warn("Presigned upload {} is missing file {} or it does not match its declaration",
+                        s.sanitizeLogging(uploadId), s.sanitizeLogging(pendingFile.getOriginalFileName()));
+                fileEntryDataBuilder.status(DocumentUploadState.FAILED_STORAGE_UPLOAD.toString());
+            }
+            responseFileEntriesData.add(fileEntryDataBuilder.build());
+        }
+
+        String savedCollectionId = null;
+        if (!uploadedFiles.isEmpty()) {
+            UserEntitlements entitlements = storageAllocationService.resolveEntitlements(user.getId());
+            try {
+                DocumentCollection savedCollection = transactionTemplate.execute(status ->
+                        saveCollection(user, entitlements, session.getCollectionName(), uploadedFiles));
+                savedCollectionId = savedCollection.getId();
+            } catch (StorageQuotaExceededException e) {
+                // Rejected for good; the objects stay queued for deletion
+                log.info("Presigned upload {} rejected for user {}: {}",
+                        s.sanitizeLogging(uploadId), s.sanitizeLogging(user.getId()), e.getMessage());
+                throw e;
+            } catch (RuntimeException e) {
+                // Give the client another chance to complete, within the original window
+                restoreSession(key, json, session);
+                throw e;
+            }
+
+            log.info("Document collection {} created from presigned upload {} with {} file(s) for user {}",
+                    s.sanitizeLogging(savedCollectionId), s.sanitizeLogging(uploadId), uploadedFiles.size(),
+                    s.sanitizeLogging(user.getId()));
+        }
+
+        int successfulUploads = uploadedFiles.size();
+        int failedUploads = session.getFiles().size() - successfulUploads;
+        String apiResponseMessage = successfulUploads > 0
+                ? String.format("%d document(s) uploaded successfully and queued for processing. %d failed.",
+                        successfulUploads, failedUploads)
+                : "None of the files were uploaded.";
+
+        DocumentCollectionUploadData uploadData = DocumentCollectionUploadData.builder()
+                .collectionId(savedCollectionId)
+                .overallStatus(successfulUploads > 0 ? DocumentStatus.PROCESSING : DocumentStatus.FAILED_UPLOAD)
+                .files(responseFileEntriesData)
+                .build();
+
+        return DocumentCollectionResponse.<DocumentCollectionUploadData>builder()
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .status(successfulUploads > 0 ? OcrStatus.PROCESSING.getStatus() : "failure")
+                .message(apiResponseMessage)
+                .data(uploadData)
+                .build();
+    }
+
+    private void validateFile(PresignedUploadRequest.PresignedFile file) {
+        if (!FileType.OCR_DOCUMENT.isValid(file.getContentType())) {
+            throw new BadRequestException(
+                    "Invalid file type: " + file.getContentType() +
+                    " for file " + file.getFileName() +
+                    ". Allowed types are: " +
+                    String.join(", ", FileType.OCR_DOCUMENT.getMimeTypes()));
+        }
+        if (!FileSize.isValidFileSize(file.getFileSize(), false)) {
+            throw new BadRequestException(FileSize.getFileSizeLimitMessage(false));
+        }
+        if (!file.getFileName().contains(".")) {
+            throw new BadRequestException("File name must have an extension: " + file.getFileName());
+        }
+    }
+
+    private void restoreSession(String key, String json, PresignedUploadSession session) {
+        Duration remaining = Duration.ofMillis(session.getExpiresAtEpochMillis() - System.currentTimeMillis());
+        if (remaining.isPositive()) {
+            redisTemplate.opsForValue().set(key, json, remaining);
+        }
+    }
+
+    private boolean isUploaded(PresignedUploadSession.PendingFile pendingFile) {
+        Optional<HeadObjectResponse> object = awsS3Service.findObject(pendingFile.getStorageKey());
+        return object.isPresent()
+                && object.get().contentLength() == pendingFile.getFileSize()
+                && pendingFile.getChecksumSha256().equals(object.get().checksumSHA256());
+    }
+
+    private DocumentCollection saveCollection(
+            User user, UserEntitlements entitlements, String collectionName, List<FileEntry> uploadedFiles) {
+        // Charge the quota first; the guarded updates reject the upload if it no longer fits
+        long uploadedBytes = uploadedFiles.stream().mapToLong(FileEntry::getFileSize).sum();
+        StorageReservation reservation = storageAllocationService.reserve(
+                entitlements, uploadedBytes, uploadedFiles.size());
+
+        String finalCollectionName = (collectionName != null && !collectionName.isBlank())
+                ? collectionName.trim()
+                : "Collection-" + java.time.LocalDateTime.now().format(
+                        java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd-HHmmss"));
+
+        DocumentCollection documentCollection = DocumentCollection.builder()
+                .user(user)
+                .name(finalCollectionName)
+                .collectionStatus(DocumentStatus.PROCESSING)
+                .ocrTotalCount(uploadedFiles.size())
+                .uploadTimestamp(OffsetDateTime.now())
+                .build();
+        documentCollection.addFiles(uploadedFiles);
+
+        DocumentCollection savedCollection = documentCollectionRepository.saveAndFlush(documentCollection);
+        String savedCollectionId = savedCollection.getId();
+
+        List<OcrData> ocrDataToSave = uploadedFiles.stream()
+                .map(fileEntry -> {
+                    OcrData ocrData = new OcrData();
+                    ocrData.setDocumentId(fileEntry.getDocumentId());
+                    ocrData.setStatus(OcrStatus.PENDING);
+                    return ocrData;
+                })
+                .toList();
+        ocrDataRepository.saveAll(ocrDataToSave);
+
+        storageAllocationService.commit(reservation, uploadedBytes, uploadedFiles.size());
+        objectDeletionQueue.cancel(uploadedFiles.stream().map(FileEntry::getStorageKey).toList());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ocrEventPublisher.ifPresent(publisher -> {
+                    boolean priority = publisher.isPriorityUser(entitlements);
+                    uploadedFiles.forEach(fileEntry -> {
+                        OcrRequestedEvent event = ocrEventMapper.toOcrRequestedEvent(fileEntry, savedCollectionId);
+                        event.setUserId(user.getId());
+                        event.setPriority(priority);
+                        publisher.publishOcrRequest(event);
+                    });
+                });
+            }
+        });
+        return savedCollection;
+    }
+
+    private String toJson(PresignedUploadSession session) {
+        try {
+            return objectMapper.writeValueAsString(session);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize presigned upload", e);
+        }
+    }
+
+    private PresignedUploadSession fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, PresignedUploadSession.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read presigned upload", e);
+        }
+    }
+}
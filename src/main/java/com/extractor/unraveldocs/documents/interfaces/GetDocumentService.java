@@ -1,11 +1,39 @@
 package com.extractor.unraveldocs.documents.interfaces;
 
 import com.extractor.unraveldocs.documents.dto.response.*;
+import org.springframework.core.io.InputStreamResource;
 
 import java.util.List;
 
 public interface GetDocumentService {
     DocumentCollectionResponse<GetDocumentCollectionData> getDocumentCollectionById(String collectionId, String userId);
     DocumentCollectionResponse<List<DocumentCollectionSummary>> getAllDocumentCollectionsByUser(String userId);
+
+    /**
+     * List a user's collections newest first, one bounded page at a time.
+     *
+     * @param userId The ID of the user
+     * @param cursor The {@code nextCursor} of the previous page, or null for the first page
+     * @param limit  The requested page size, clamped to the allowed range
+     * @return The page and the cursor of the next one
+     */
+    DocumentCollectionResponse<DocumentCollectionPage> getDocumentCollectionPage(String userId, String cursor, int limit);
+
     DocumentCollectionResponse<FileEntryData> getFileFromCollection(String collectionId, String documentId, String userId);
+
+    /**
+     * Stream the original content of a document, decrypting it if it is
+     * stored encrypted.
+     *
+     * @param collectionId The collection ID
+     * @param documentId   The document ID
+     * @param userId       The ID of the user requesting the document
+     * @return The document content; the caller must close the stream
+     */
+    DocumentContent getDocumentContent(String collectionId, String documentId, String userId);
+
+    /**
+     * A record to hold a document's content for download.
+     */
+    record DocumentContent(String fileName, String contentType, long contentLength, InputStreamResource resource) {}
 }
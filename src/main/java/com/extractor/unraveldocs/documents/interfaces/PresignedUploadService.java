@@ -0,0 +1,28 @@
+package com.extractor.unraveldocs.documents.interfaces;
+
+import com.extractor.unraveldocs.documents.dto.request.PresignedUploadRequest;
+import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionResponse;
+import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionUploadData;
+import com.extractor.unraveldocs.documents.dto.response.PresignedUploadData;
+import com.extractor.unraveldocs.user.model.User;
+
+public interface PresignedUploadService {
+    /**
+     * Issue presigned URLs so the client can upload straight to storage.
+     *
+     * @param request The files to be uploaded
+     * @param user    The authenticated user
+     * @return The upload ID and one presigned URL per file
+     */
+    DocumentCollectionResponse<PresignedUploadData> createUpload(PresignedUploadRequest request, User user);
+
+    /**
+     * Complete a presigned upload: verify the uploaded objects, create the
+     * collection and queue OCR for every verified file.
+     *
+     * @param uploadId The upload ID returned by {@link #createUpload}
+     * @param user     The authenticated user
+     * @return Response with upload results
+     */
+    DocumentCollectionResponse<DocumentCollectionUploadData> completeUpload(String uploadId, User user);
+}
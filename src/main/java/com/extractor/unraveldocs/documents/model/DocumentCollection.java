@@ -12,7 +12,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "document_collections")
+@Table(name = "document_collections", indexes = {
+        @Index(name = "idx_doc_collections_user_created", columnList = "user_id, created_at DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -27,8 +29,7 @@ public class DocumentCollection {
     @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
     private User user;
 
-    @ElementCollection(fetch = FetchType.LAZY)
-    @CollectionTable(name = "document_file_entries", joinColumns = @JoinColumn(name = "document_collection_id"))
+    @OneToMany(mappedBy = "collection", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<FileEntry> files = new ArrayList<>();
 
@@ -39,6 +40,23 @@ public class DocumentCollection {
     @Column(name = "name", nullable = false)
     private String name;
 
+    /**
+     * Number of successfully uploaded documents that can be OCR processed.
+     * The OCR counters are only changed through atomic updates in
+     * {@code DocumentCollectionRepository}, never by saving the entity.
+     */
+    @Builder.Default
+    @Column(name = "ocr_total_count", nullable = false, updatable = false)
+    private int ocrTotalCount = 0;
+
+    @Builder.Default
+    @Column(name = "ocr_completed_count", nullable = false, updatable = false)
+    private int ocrCompletedCount = 0;
+
+    @Builder.Default
+    @Column(name = "ocr_failed_count", nullable = false, updatable = false)
+    private int ocrFailedCount = 0;
+
     @Column(name = "upload_timestamp", nullable = false)
     private OffsetDateTime uploadTimestamp;
 
@@ -49,4 +67,12 @@ public class DocumentCollection {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt;
-}
\ No newline at end of file
+
+    /**
+     * Add files to this collection and point them back at it.
+     */
+    public void addFiles(List<FileEntry> newFiles) {
+        newFiles.forEach(file -> file.setCollection(this));
+        files.addAll(newFiles);
+    }
+}
@@ -8,13 +8,25 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
-@Embeddable
+@Entity
+@Table(name = "document_file_entries", indexes = {
+        @Index(name = "idx_doc_file_entries_coll_doc", columnList = "document_collection_id, document_id"),
+        @Index(name = "idx_doc_file_entries_key_id", columnList = "encryption_key_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class FileEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "document_collection_id", nullable = false)
+    private DocumentCollection collection;
+
     @Builder.Default
     @Column(name = "document_id", nullable = false, unique = true)
     private String documentId = UUID.randomUUID().toString();
@@ -28,6 +40,10 @@ public class FileEntry {
     @Column(name = "file_url", length = 1024)
     private String fileUrl;
 
+    // S3 object key; NULL for entries stored before keys were recorded
+    @Column(name = "storage_key", length = 1024)
+    private String storageKey;
+
     @Column(name = "file_type", nullable = false)
     private String fileType;
 
@@ -50,6 +66,13 @@ public class FileEntry {
     @Column(name = "encryption_iv")
     private String encryptionIv;
 
+    // Per-document data key, wrapped by the master key identified by encryptionKeyId
+    @Column(name = "encrypted_data_key", length = 128)
+    private String encryptedDataKey;
+
+    @Column(name = "encryption_key_id", length = 64)
+    private String encryptionKeyId;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     @Builder.Default
@@ -0,0 +1,41 @@
+package com.extractor.unraveldocs.documents.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A direct-to-S3 upload that has been presigned but not completed yet. Held
+ * in Redis until the client completes it or it expires.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresignedUploadSession {
+    private String userId;
+    private String collectionName;
+    private List<PendingFile> files;
+
+    /**
+     * When the session expires, in epoch milliseconds. Its objects are queued
+     * for deletion shortly after, unless the upload is completed first.
+     */
+    private long expiresAtEpochMillis;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PendingFile {
+        private String documentId;
+        private String storageKey;
+        private String originalFileName;
+        private String contentType;
+        private long fileSize;
+        private String checksumSha256;
+    }
+}
@@ -1,21 +1,98 @@
 package com.extractor.unraveldocs.documents.repository;
 
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 public interface DocumentCollectionRepository extends JpaRepository<DocumentCollection, String> {
+    String SUMMARY_SELECT = "SELECT new com.extractor.unraveldocs.documents.repository.DocumentCollectionSummaryRow(" +
+            "dc.id, dc.name, dc.collectionStatus, dc.uploadTimestamp, dc.createdAt, dc.updatedAt, " +
+            "COUNT(f.id), SUM(CASE WHEN f.isEncrypted = true THEN 1L ELSE 0L END)) " +
+            "FROM DocumentCollection dc LEFT JOIN dc.files f WHERE dc.user.id = :userId ";
+    String SUMMARY_GROUP_ORDER = "GROUP BY dc.id, dc.name, dc.collectionStatus, dc.uploadTimestamp, " +
+            "dc.createdAt, dc.updatedAt ORDER BY dc.createdAt DESC, dc.id DESC";
+
     @Query("SELECT dc FROM DocumentCollection dc WHERE dc.user.id = :userId ORDER BY dc.createdAt DESC")
     List<DocumentCollection> findAllByUserId(@Param("userId") String userId);
 
+    /**
+     * All collection summaries of a user, newest first, in one query.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_GROUP_ORDER)
+    List<DocumentCollectionSummaryRow> findSummariesByUserId(@Param("userId") String userId);
+
+    /**
+     * The first page of a user's collection summaries, newest first.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_GROUP_ORDER)
+    List<DocumentCollectionSummaryRow> findSummaryPageByUserId(@Param("userId") String userId, Pageable pageable);
+
+    /**
+     * The page of a user's collection summaries following the given
+     * (createdAt, id) position in newest-first order.
+     */
+    @Query(SUMMARY_SELECT +
+            "AND (dc.createdAt < :createdAt OR (dc.createdAt = :createdAt AND dc.id < :id)) " +
+            SUMMARY_GROUP_ORDER)
+    List<DocumentCollectionSummaryRow> findSummaryPageByUserIdAfter(
+            @Param("userId") String userId,
+            @Param("createdAt") OffsetDateTime createdAt,
+            @Param("id") String id,
+            Pageable pageable);
+
     @Query("SELECT COUNT(dc) FROM DocumentCollection dc WHERE dc.user.id = :userId")
     Long countByUserId(@Param("userId") String userId);
 
     @Modifying
     @Query("DELETE FROM DocumentCollection dc WHERE dc.user.id = :userId")
     void deleteAllByUserId(@Param("userId") String userId);
-}
\ No newline at end of file
+
+    /**
+     * Apply an OCR status change to the collection counters and derive the
+     * collection status from the new counts in the same statement. Pending
+     * changes are flushed and the persistence context is cleared, so reload
+     * the collection afterwards.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE DocumentCollection dc SET " +
+            "dc.ocrCompletedCount = dc.ocrCompletedCount + :completedDelta, " +
+            "dc.ocrFailedCount = dc.ocrFailedCount + :failedDelta, " +
+            "dc.collectionStatus = CASE " +
+            "WHEN dc.ocrCompletedCount + :completedDelta >= dc.ocrTotalCount THEN :processed " +
+            "WHEN dc.ocrCompletedCount + :completedDelta + dc.ocrFailedCount + :failedDelta >= dc.ocrTotalCount " +
+            "THEN :failed " +
+            "ELSE :processing END, " +
+            "dc.updatedAt = :updatedAt " +
+            "WHERE dc.id = :collectionId")
+    int applyOcrTransition(
+            @Param("collectionId") String collectionId,
+            @Param("completedDelta") int completedDelta,
+            @Param("failedDelta") int failedDelta,
+            @Param("processed") DocumentStatus processed,
+            @Param("failed") DocumentStatus failed,
+            @Param("processing") DocumentStatus processing,
+            @Param("updatedAt") OffsetDateTime updatedAt);
+
+    /**
+     * Adjust the OCR counters without touching the collection status, e.g.
+     * when a document is removed or re-queued.
+     */
+    @Modifying
+    @Query("UPDATE DocumentCollection dc SET " +
+            "dc.ocrTotalCount = dc.ocrTotalCount + :totalDelta, " +
+            "dc.ocrCompletedCount = dc.ocrCompletedCount + :completedDelta, " +
+            "dc.ocrFailedCount = dc.ocrFailedCount + :failedDelta " +
+            "WHERE dc.id = :collectionId")
+    int adjustOcrCounters(
+            @Param("collectionId") String collectionId,
+            @Param("totalDelta") int totalDelta,
+            @Param("completedDelta") int completedDelta,
+            @Param("failedDelta") int failedDelta);
+}
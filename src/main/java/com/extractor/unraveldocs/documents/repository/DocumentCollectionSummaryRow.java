@@ -0,0 +1,20 @@
+package com.extractor.unraveldocs.documents.repository;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A collection row with its file aggregates, as loaded by the summary
+ * queries in {@link DocumentCollectionRepository}.
+ */
+public record DocumentCollectionSummaryRow(
+        String id,
+        String name,
+        DocumentStatus collectionStatus,
+        OffsetDateTime uploadTimestamp,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        Long fileCount,
+        Long encryptedFileCount) {
+}
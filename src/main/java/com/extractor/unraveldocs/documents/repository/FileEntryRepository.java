@@ -0,0 +1,52 @@
+package com.extractor.unraveldocs.documents.repository;
+
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FileEntryRepository extends JpaRepository<FileEntry, String> {
+    @Query("SELECT f FROM FileEntry f WHERE f.collection.id = :collectionId AND f.documentId = :documentId")
+    Optional<FileEntry> findByCollectionIdAndDocumentId(
+            @Param("collectionId") String collectionId,
+            @Param("documentId") String documentId);
+
+    Optional<FileEntry> findByDocumentId(String documentId);
+
+    /**
+     * Entries with a stored file in any collection of the given users.
+     */
+    @Query("SELECT f FROM FileEntry f WHERE f.collection.user.id IN :userIds AND f.storageId IS NOT NULL")
+    List<FileEntry> findStoredByUserIds(@Param("userIds") Collection<String> userIds);
+
+    /**
+     * Encrypted entries whose data key is wrapped by a master key other than
+     * the given one, in ID order after the given cursor.
+     */
+    @Query("SELECT f FROM FileEntry f WHERE f.isEncrypted = true AND f.encryptionKeyId IS NOT NULL " +
+            "AND f.encryptionKeyId <> :keyId AND f.id > :afterId ORDER BY f.id")
+    List<FileEntry> findEntriesToRewrap(
+            @Param("keyId") String keyId,
+            @Param("afterId") String afterId,
+            Pageable pageable);
+
+    /**
+     * Replace a wrapped data key, unless the entry was re-wrapped concurrently.
+     *
+     * @return The number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE FileEntry f SET f.encryptionKeyId = :newKeyId, f.encryptedDataKey = :wrappedDataKey " +
+            "WHERE f.id = :id AND f.encryptionKeyId = :oldKeyId")
+    int updateWrappedKey(
+            @Param("id") String id,
+            @Param("oldKeyId") String oldKeyId,
+            @Param("newKeyId") String newKeyId,
+            @Param("wrappedDataKey") String wrappedDataKey);
+}
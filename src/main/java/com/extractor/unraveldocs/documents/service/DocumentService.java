@@ -1,6 +1,7 @@
 package com.extractor.unraveldocs.documents.service;
 
 import com.extractor.unraveldocs.documents.dto.request.MoveDocumentRequest;
+import com.extractor.unraveldocs.documents.dto.request.PresignedUploadRequest;
 import com.extractor.unraveldocs.documents.dto.request.UpdateCollectionRequest;
 import com.extractor.unraveldocs.documents.dto.request.UpdateDocumentRequest;
 import com.extractor.unraveldocs.documents.dto.response.*;
@@ -10,6 +11,7 @@ import com.extractor.unraveldocs.documents.interfaces.DocumentDeleteService;
 import com.extractor.unraveldocs.documents.interfaces.DocumentMoveService;
 import com.extractor.unraveldocs.documents.interfaces.DocumentUploadService;
 import com.extractor.unraveldocs.documents.interfaces.GetDocumentService;
+import com.extractor.unraveldocs.documents.interfaces.PresignedUploadService;
 import com.extractor.unraveldocs.user.model.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -26,6 +28,7 @@ public class DocumentService {
     private final GetDocumentService getDocumentService;
     private final DocumentMoveService documentMoveService;
     private final CollectionUpdateService collectionUpdateService;
+    private final PresignedUploadService presignedUploadService;
 
     public DocumentCollectionResponse<DocumentCollectionUploadData> uploadDocuments(
             MultipartFile[] files, User user, String collectionName, boolean enableEncryption) {
@@ -37,6 +40,17 @@ public class DocumentService {
         return documentUploadService.uploadDocuments(files, user, null, false);
     }
 
+    // direct-to-storage uploads
+    public DocumentCollectionResponse<PresignedUploadData> createPresignedUpload(
+            PresignedUploadRequest request, User user) {
+        return presignedUploadService.createUpload(request, user);
+    }
+
+    public DocumentCollectionResponse<DocumentCollectionUploadData> completePresignedUpload(
+            String uploadId, User user) {
+        return presignedUploadService.completeUpload(uploadId, user);
+    }
+
     public void deleteDocument(String collectionId, String userId) {
         documentDeleteService.deleteDocument(collectionId, userId);
     }
@@ -54,11 +68,21 @@ public class DocumentService {
         return getDocumentService.getAllDocumentCollectionsByUser(userId);
     }
 
+    public DocumentCollectionResponse<DocumentCollectionPage> getDocumentCollectionPage(String userId, String cursor,
+            int limit) {
+        return getDocumentService.getDocumentCollectionPage(userId, cursor, limit);
+    }
+
     public DocumentCollectionResponse<FileEntryData> getFileFromCollection(String collectionId, String documentId,
             String userId) {
         return getDocumentService.getFileFromCollection(collectionId, documentId, userId);
     }
 
+    public GetDocumentService.DocumentContent getDocumentContent(String collectionId, String documentId,
+            String userId) {
+        return getDocumentService.getDocumentContent(collectionId, documentId, userId);
+    }
+
     public void clearAllCollections(String userId) {
         clearAllCollectionsService.clearAllCollections(userId);
     }
@@ -0,0 +1,43 @@
+package com.extractor.unraveldocs.documents.utils;
+
+import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position in a newest-first collection listing: the creation time and ID of
+ * the last collection on the previous page. Clients only see it as an opaque
+ * token.
+ */
+public record CollectionCursor(OffsetDateTime createdAt, String id) {
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String value = createdAt.toInstant() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @throws BadRequestException if the token is malformed
+     */
+    public static CollectionCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == value.length() - 1) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            Instant createdAt = Instant.parse(value.substring(0, separator));
+            return new CollectionCursor(createdAt.atOffset(ZoneOffset.UTC), value.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
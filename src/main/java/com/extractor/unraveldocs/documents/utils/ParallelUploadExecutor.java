@@ -0,0 +1,106 @@
+package com.extractor.unraveldocs.documents.utils;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the storage uploads of a multi-file request in parallel.
+ *
+ * <p>
+ * Each upload runs on its own virtual thread. At most
+ * {@code aws.s3.upload.per-request-concurrency} uploads of one request, and
+ * {@code aws.s3.upload.max-concurrent} uploads across all requests, are in
+ * flight at once, so a large batch cannot exhaust the S3 connection pool.
+ * Results are returned in task order and a failed upload does not affect the
+ * others.
+ * </p>
+ */
+@Component
+public class ParallelUploadExecutor {
+    private final int perRequestConcurrency;
+    private final Semaphore globalPermits;
+    private final ExecutorService uploadExecutor;
+
+    public ParallelUploadExecutor(
+            @Value("${aws.s3.upload.per-request-concurrency:8}") int perRequestConcurrency,
+            @Value("${aws.s3.upload.max-concurrent:32}") int maxConcurrent) {
+        this.perRequestConcurrency = Math.max(1, perRequestConcurrency);
+        this.globalPermits = new Semaphore(Math.max(1, maxConcurrent));
+        this.uploadExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("storage-upload-", 0).factory());
+    }
+
+    /**
+     * Outcome of one upload.
+     *
+     * @param value The upload result, or null if it failed
+     * @param error The failure, or null if it succeeded
+     */
+    public record Outcome<T>(T value, Exception error) {
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Run the uploads and wait for all of them.
+     *
+     * @param tasks The uploads to run
+     * @return One outcome per task, in task order
+     */
+    public <T> List<Outcome<T>> runAll(List<Callable<T>> tasks) {
+        Semaphore requestPermits = new Semaphore(perRequestConcurrency);
+        List<Future<Outcome<T>>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(uploadExecutor.submit(() -> run(task, requestPermits)));
+        }
+
+        List<Outcome<T>> outcomes = new ArrayList<>(tasks.size());
+        try {
+            for (Future<Outcome<T>> future : futures) {
+                outcomes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while uploading files", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("File upload failed unexpectedly", e.getCause());
+        }
+        return outcomes;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
+    private <T> Outcome<T> run(Callable<T> task, Semaphore requestPermits) throws InterruptedException {
+        requestPermits.acquire();
+        try {
+            globalPermits.acquire();
+            try {
+                return new Outcome<>(task.call(), null);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                return new Outcome<>(null, e);
+            } finally {
+                globalPermits.release();
+            }
+        } finally {
+            requestPermits.release();
+        }
+    }
+}
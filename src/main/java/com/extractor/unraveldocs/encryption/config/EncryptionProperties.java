@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "app.encryption")
@@ -19,6 +22,19 @@ public class EncryptionProperties {
      */
     private String masterKey;
 
+    /**
+     * Identifier of the current master key, stored with every data key it
+     * wraps. Change it together with the master key when rotating.
+     */
+    private String masterKeyId = "v1";
+
+    /**
+     * Retired master keys by ID (base64-encoded), kept so data keys wrapped
+     * by them can still be unwrapped until the re-wrap job has moved them to
+     * the current key.
+     */
+    private Map<String, String> previousMasterKeys = new HashMap<>();
+
     /**
      * Encryption algorithm (default: AES/GCM/NoPadding).
      */
@@ -33,4 +49,57 @@ public class EncryptionProperties {
      * GCM authentication tag length in bits (default: 128).
      */
     private int tagLength = 128;
+
+    /**
+     * Plaintext bytes per GCM segment for streamed encryption (default: 64 KB).
+     * Bounds the heap used per encrypted stream.
+     */
+    private int segmentSize = 64 * 1024;
+
+    /**
+     * Cache of unwrapped per-document data keys.
+     */
+    private DataKeyCacheConfig dataKeyCache = new DataKeyCacheConfig();
+
+    /**
+     * Background re-wrap of data keys after a master key rotation.
+     */
+    private RewrapConfig rewrap = new RewrapConfig();
+
+    @Data
+    public static class DataKeyCacheConfig {
+        /**
+         * Maximum number of unwrapped data keys held in memory.
+         */
+        private int maxEntries = 1000;
+
+        /**
+         * How long an unwrapped data key stays cached after it was unwrapped.
+         */
+        private long ttlSeconds = 300;
+    }
+
+    @Data
+    public static class RewrapConfig {
+        /**
+         * Whether the re-wrap job runs on this node.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between re-wrap runs.
+         */
+        private long intervalMs = 300000;
+
+        /**
+         * File entries loaded per batch.
+         */
+        private int batchSize = 200;
+
+        /**
+         * Maximum data keys re-wrapped per second, to keep the job from
+         * competing with live traffic.
+         */
+        private int maxPerSecond = 50;
+    }
 }
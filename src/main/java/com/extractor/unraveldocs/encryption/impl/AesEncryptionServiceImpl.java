@@ -11,13 +11,26 @@ import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * AES-256-GCM encryption implementation.
  * Provides bank-level 256-bit encryption using Java's built-in crypto
  * libraries.
+ *
+ * <p>
+ * Streamed documents use envelope encryption: each document is encrypted
+ * under its own random data key, and only that key is encrypted ("wrapped")
+ * by the master key. Rotating the master key therefore only re-wraps the
+ * small data keys, never the documents.
+ * </p>
  */
 @Slf4j
 @Service
@@ -26,7 +39,9 @@ public class AesEncryptionServiceImpl implements EncryptionService {
 
     private final EncryptionProperties encryptionProperties;
     private SecretKey secretKey;
+    private final Map<String, SecretKey> masterKeys = new HashMap<>();
     private final SecureRandom secureRandom = new SecureRandom();
+    private DataKeyCache dataKeyCache;
 
     @PostConstruct
     public void init() {
@@ -39,7 +54,20 @@ public class AesEncryptionServiceImpl implements EncryptionService {
                     return;
                 }
                 this.secretKey = new SecretKeySpec(keyBytes, "AES");
-                log.info("Encryption service initialized successfully with AES-256-GCM");
+                encryptionProperties.getPreviousMasterKeys().forEach((keyId, key) -> {
+                    byte[] previousKeyBytes = Base64.getDecoder().decode(key);
+                    if (previousKeyBytes.length != 32) {
+                        log.error("Previous master key {} must be exactly 32 bytes. Got {} bytes",
+                                keyId, previousKeyBytes.length);
+                        return;
+                    }
+                    masterKeys.put(keyId, new SecretKeySpec(previousKeyBytes, "AES"));
+                });
+                masterKeys.put(encryptionProperties.getMasterKeyId(), secretKey);
+                this.dataKeyCache = new DataKeyCache(encryptionProperties.getDataKeyCache().getMaxEntries(),
+                        encryptionProperties.getDataKeyCache().getTtlSeconds());
+                log.info("Encryption service initialized successfully with AES-256-GCM, master key {}",
+                        encryptionProperties.getMasterKeyId());
             } catch (IllegalArgumentException e) {
                 log.error("Failed to decode master key. Ensure it is valid base64: {}", e.getMessage());
             }
@@ -61,7 +89,7 @@ public class AesEncryptionServiceImpl implements EncryptionService {
             secureRandom.nextBytes(iv);
 
             // Initialize cipher
-            Cipher cipher = Cipher.getInstance(encryptionProperties.getAlgorithm());
+            Cipher cipher = newCipher();
             GCMParameterSpec gcmSpec = new GCMParameterSpec(encryptionProperties.getTagLength(), iv);
             cipher.init(Cipher.ENCRYPT_MODE, secretKey, gcmSpec);
 
@@ -89,7 +117,7 @@ public class AesEncryptionServiceImpl implements EncryptionService {
             byte[] iv = Base64.getDecoder().decode(ivBase64);
 
             // Initialize cipher
-            Cipher cipher = Cipher.getInstance(encryptionProperties.getAlgorithm());
+            Cipher cipher = newCipher();
             GCMParameterSpec gcmSpec = new GCMParameterSpec(encryptionProperties.getTagLength(), iv);
             cipher.init(Cipher.DECRYPT_MODE, secretKey, gcmSpec);
 
@@ -105,8 +133,128 @@ public class AesEncryptionServiceImpl implements EncryptionService {
         }
     }
 
+    @Override
+    public EncryptedStream encryptStream(InputStream plaintext) {
+        if (!isEncryptionAvailable()) {
+            throw new IllegalStateException("Encryption is not available. Check configuration.");
+        }
+
+        byte[] dataKeyBytes = new byte[32];
+        secureRandom.nextBytes(dataKeyBytes);
+        SecretKey dataKey = new SecretKeySpec(dataKeyBytes, "AES");
+        String keyId = encryptionProperties.getMasterKeyId();
+        String wrappedDataKey = wrap(dataKey, keyId);
+
+        byte[] iv = new byte[encryptionProperties.getIvLength()];
+        secureRandom.nextBytes(iv);
+        InputStream stream = new GcmSegmentInputStream.Encrypting(plaintext, this::newCipher, dataKey, iv,
+                encryptionProperties.getTagLength(), encryptionProperties.getSegmentSize());
+        return new EncryptedStream(stream,
+                new DocumentKey(Base64.getEncoder().encodeToString(iv), keyId, wrappedDataKey));
+    }
+
+    @Override
+    public InputStream decryptStream(InputStream encryptedData, DocumentKey key) {
+        if (!isEncryptionAvailable()) {
+            throw new IllegalStateException("Encryption is not available. Check configuration.");
+        }
+
+        byte[] iv = Base64.getDecoder().decode(key.iv());
+        return new GcmSegmentInputStream.Decrypting(encryptedData, this::newCipher, dataKey(key), iv,
+                encryptionProperties.getTagLength());
+    }
+
+    @Override
+    public DocumentKey rewrap(DocumentKey key) {
+        if (!isEncryptionAvailable()) {
+            throw new IllegalStateException("Encryption is not available. Check configuration.");
+        }
+
+        String currentKeyId = encryptionProperties.getMasterKeyId();
+        // Legacy documents are encrypted directly under the master key and have nothing to re-wrap
+        if (key.wrappedDataKey() == null || currentKeyId.equals(key.keyId())) {
+            return key;
+        }
+        return new DocumentKey(key.iv(), currentKeyId, wrap(unwrap(key), currentKeyId));
+    }
+
+    @Override
+    public String currentMasterKeyId() {
+        return encryptionProperties.getMasterKeyId();
+    }
+
+    @Override
+    public long encryptedLength(long plaintextLength) {
+        return GcmSegmentInputStream.encryptedLength(plaintextLength, encryptionProperties.getSegmentSize(),
+                encryptionProperties.getTagLength() / 8);
+    }
+
+    @Override
+    public long plaintextLength(long encryptedLength) {
+        return GcmSegmentInputStream.plaintextLength(encryptedLength, encryptionProperties.getSegmentSize(),
+                encryptionProperties.getTagLength() / 8);
+    }
+
     @Override
     public boolean isEncryptionAvailable() {
         return encryptionProperties.isEnabled() && secretKey != null;
     }
+
+    private SecretKey dataKey(DocumentKey key) {
+        if (key.wrappedDataKey() == null) {
+            return secretKey;
+        }
+        return dataKeyCache.get(key.keyId() + ":" + key.wrappedDataKey(), () -> unwrap(key));
+    }
+
+    /**
+     * Wraps a data key as base64(iv || ciphertext), binding the master key ID
+     * as AAD so a wrapped key cannot be relabelled.
+     */
+    private String wrap(SecretKey dataKey, String keyId) {
+        SecretKey masterKey = masterKeys.get(keyId);
+        try {
+            byte[] iv = new byte[encryptionProperties.getIvLength()];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = newCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(encryptionProperties.getTagLength(), iv));
+            cipher.updateAAD(keyId.getBytes(StandardCharsets.UTF_8));
+            byte[] wrapped = cipher.doFinal(dataKey.getEncoded());
+            return Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + wrapped.length).put(iv).put(wrapped).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to wrap data key", e);
+        }
+    }
+
+    private SecretKey unwrap(DocumentKey key) {
+        SecretKey masterKey = masterKeys.get(key.keyId());
+        if (masterKey == null) {
+            throw new IllegalStateException("Unknown master key: " + key.keyId());
+        }
+        try {
+            byte[] wrapped = Base64.getDecoder().decode(key.wrappedDataKey());
+            int ivLength = encryptionProperties.getIvLength();
+            Cipher cipher = newCipher();
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(encryptionProperties.getTagLength(),
+                    wrapped, 0, ivLength));
+            cipher.updateAAD(key.keyId().getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(cipher.doFinal(wrapped, ivLength, wrapped.length - ivLength), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to unwrap data key", e);
+        }
+    }
+
+    /**
+     * A fresh cipher per operation. Cipher instances are not thread-safe, and a
+     * per-thread cache does not pay off on virtual threads; segmented streams
+     * keep the one they get for all their segments.
+     */
+    private Cipher newCipher() {
+        try {
+            return Cipher.getInstance(encryptionProperties.getAlgorithm());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cipher not available: " + encryptionProperties.getAlgorithm(), e);
+        }
+    }
 }
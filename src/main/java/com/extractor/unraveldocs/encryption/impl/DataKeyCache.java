@@ -0,0 +1,71 @@
+package com.extractor.unraveldocs.encryption.impl;
+
+import javax.crypto.SecretKey;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL'd cache of unwrapped data keys, so hot documents are not
+ * unwrapped on every read.
+ *
+ * <p>
+ * Entries expire a fixed time after they were unwrapped, and the least
+ * recently used entry is evicted once the cache is full. Unwrapping happens
+ * outside the lock; two concurrent misses for the same key both unwrap and
+ * the second result wins, which is harmless.
+ * </p>
+ */
+final class DataKeyCache {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private record Entry(SecretKey key, long expiresAt) {
+    }
+
+    DataKeyCache(int maxEntries, long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    SecretKey get(String cacheKey, Supplier<SecretKey> unwrap) {
+        if (maxEntries <= 0 || ttlNanos <= 0) {
+            return unwrap.get();
+        }
+
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null && entry.expiresAt() - now > 0) {
+                return entry.key();
+            }
+        }
+
+        SecretKey key = unwrap.get();
+        synchronized (entries) {
+            entries.put(cacheKey, new Entry(key, now + ttlNanos));
+            evict(now);
+        }
+        return key;
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (entries.size() > maxEntries || eldest.getValue().expiresAt() - now <= 0) {
+                iterator.remove();
+            } else {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.extractor.unraveldocs.encryption.impl;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Streaming AES-GCM in fixed-size segments, so only one segment is ever held
+ * on heap.
+ *
+ * <p>
+ * Layout: a 5-byte header (format version, plaintext segment size) followed
+ * by the segments, each sealed with its own tag. The nonce of a segment is
+ * the file IV with the segment index and a last-segment flag mixed into its
+ * trailing bytes, so segments cannot be reordered, dropped or truncated
+ * without failing authentication. The header is authenticated as AAD of
+ * every segment.
+ * </p>
+ */
+abstract class GcmSegmentInputStream extends InputStream {
+    static final byte VERSION = 1;
+    static final int HEADER_LENGTH = 5;
+    static final int MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    protected final InputStream source;
+    private final Supplier<Cipher> cipherSupplier;
+    private final SecretKey key;
+    private final byte[] iv;
+    private final int tagLengthBits;
+
+    private Cipher cipher;
+    private byte[] header;
+    private byte[] output = new byte[0];
+    private int outputPosition;
+    private int outputLimit;
+    private long segmentIndex;
+    private boolean finished;
+    private int lookahead = -1;
+
+    GcmSegmentInputStream(
+            InputStream source, Supplier<Cipher> cipherSupplier, SecretKey key, byte[] iv, int tagLengthBits) {
+        if (iv.length < 8) {
+            throw new IllegalArgumentException("IV must be at least 8 bytes for segmented GCM");
+        }
+        this.source = source;
+        this.cipherSupplier = cipherSupplier;
+        this.key = key;
+        this.iv = iv;
+        this.tagLengthBits = tagLengthBits;
+    }
+
+    /**
+     * Ciphertext length of a plaintext of the given length.
+     */
+    static long encryptedLength(long plaintextLength, int segmentSize, int tagLengthBytes) {
+        long segments = Math.max(1, (plaintextLength + segmentSize - 1) / segmentSize);
+        return HEADER_LENGTH + plaintextLength + segments * tagLengthBytes;
+    }
+
+    /**
+     * Plaintext length of a ciphertext of the given length.
+     */
+    static long plaintextLength(long encryptedLength, int segmentSize, int tagLengthBytes) {
+        long body = encryptedLength - HEADER_LENGTH;
+        long segments = Math.max(1, (body + segmentSize + tagLengthBytes - 1) / (segmentSize + tagLengthBytes));
+        return Math.max(0, body - segments * tagLengthBytes);
+    }
+
+    static byte[] header(int segmentSize) {
+        return ByteBuffer.allocate(HEADER_LENGTH).put(VERSION).putInt(segmentSize).array();
+    }
+
+    /**
+     * Produce the next segment.
+     *
+     * @return The output of the segment
+     */
+    protected abstract byte[] nextSegment() throws IOException;
+
+    protected final int tagLengthBytes() {
+        return tagLengthBits / 8;
+    }
+
+    protected final void setHeader(byte[] header) {
+        this.header = header;
+    }
+
+    /**
+     * Read a segment of up to {@code buffer.length} bytes and report whether
+     * it is the last one, reading one byte ahead when the segment is full.
+     */
+    protected final int readSegment(byte[] buffer) throws IOException {
+        int length = 0;
+        if (lookahead >= 0) {
+            buffer[length++] = (byte) lookahead;
+            lookahead = -1;
+        }
+        length += source.readNBytes(buffer, length, buffer.length - length);
+        if (length == buffer.length) {
+            lookahead = source.read();
+        }
+        finished = length < buffer.length || lookahead < 0;
+        return length;
+    }
+
+    protected final int seal(int mode, byte[] input, int length, byte[] output) throws IOException {
+        if (cipher == null) {
+            cipher = cipherSupplier.get();
+        }
+        try {
+            cipher.init(mode, key, new GCMParameterSpec(tagLengthBits, segmentNonce(segmentIndex++, finished)));
+            cipher.updateAAD(header);
+            return cipher.doFinal(input, 0, length, output, 0);
+        } catch (AEADBadTagException e) {
+            throw new IOException("Encrypted document failed authentication", e);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to process encrypted segment", e);
+        }
+    }
+
+    private byte[] segmentNonce(long index, boolean last) {
+        if (index > 0xFFFFFFFFL) {
+            throw new IllegalStateException("Too many segments for one document");
+        }
+        byte[] nonce = iv.clone();
+        int counterOffset = nonce.length - 5;
+        nonce[counterOffset] ^= (byte) (index >>> 24);
+        nonce[counterOffset + 1] ^= (byte) (index >>> 16);
+        nonce[counterOffset + 2] ^= (byte) (index >>> 8);
+        nonce[counterOffset + 3] ^= (byte) index;
+        nonce[nonce.length - 1] ^= (byte) (last ? 1 : 0);
+        return nonce;
+    }
+
+    private boolean fill() throws IOException {
+        while (outputPosition == outputLimit) {
+            if (finished) {
+                return false;
+            }
+            output = nextSegment();
+            outputPosition = 0;
+            outputLimit = output.length;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return output[outputPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, outputLimit - outputPosition);
+        System.arraycopy(output, outputPosition, buffer, offset, count);
+        outputPosition += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    /**
+     * Encrypts a plaintext stream, emitting the header first.
+     */
+    static final class Encrypting extends GcmSegmentInputStream {
+        private final byte[] plaintext;
+        private final byte[] ciphertext;
+        private boolean headerWritten;
+
+        Encrypting(InputStream source, Supplier<Cipher> cipherSupplier, SecretKey key, byte[] iv,
+                   int tagLengthBits, int segmentSize) {
+            super(source, cipherSupplier, key, iv, tagLengthBits);
+            if (segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE) {
+                throw new IllegalArgumentException("Invalid segment size: " + segmentSize);
+            }
+            this.plaintext = new byte[segmentSize];
+            this.ciphertext = new byte[segmentSize + tagLengthBytes()];
+            setHeader(header(segmentSize));
+        }
+
+        @Override
+        protected byte[] nextSegment() throws IOException {
+            if (!headerWritten) {
+                headerWritten = true;
+                return header(plaintext.length);
+            }
+            int length = readSegment(plaintext);
+            int sealed = seal(Cipher.ENCRYPT_MODE, plaintext, length, ciphertext);
+            return sealed == ciphertext.length ? ciphertext : Arrays.copyOf(ciphertext, sealed);
+        }
+    }
+
+    /**
+     * Decrypts a stream produced by {@link Encrypting}, failing with an
+     * {@link IOException} on any tampering or truncation.
+     */
+    static final class Decrypting extends GcmSegmentInputStream {
+        private byte[] ciphertext;
+        private byte[] plaintext;
+
+        Decrypting(InputStream source, Supplier<Cipher> cipherSupplier, SecretKey key, byte[] iv,
+                   int tagLengthBits) {
+            super(source, cipherSupplier, key, iv, tagLengthBits);
+        }
+
+        @Override
+        protected byte[] nextSegment() throws IOException {
+            if (ciphertext == null) {
+                readHeader();
+            }
+            int length = readSegment(ciphertext);
+            if (length < tagLengthBytes()) {
+                throw new IOException("Encrypted document is truncated");
+            }
+            int opened = seal(Cipher.DECRYPT_MODE, ciphertext, length, plaintext);
+            return opened == plaintext.length ? plaintext : Arrays.copyOf(plaintext, opened);
+        }
+
+        private void readHeader() throws IOException {
+            byte[] header = source.readNBytes(HEADER_LENGTH);
+            if (header.length < HEADER_LENGTH || header[0] != VERSION) {
+                throw new IOException("Unsupported encrypted document format");
+            }
+            int segmentSize = ByteBuffer.wrap(header, 1, 4).getInt();
+            if (segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE) {
+                throw new IOException("Invalid encrypted segment size: " + segmentSize);
+            }
+            setHeader(header);
+            this.ciphertext = new byte[segmentSize + tagLengthBytes()];
+            this.plaintext = new byte[segmentSize];
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.extractor.unraveldocs.encryption.interfaces;
 
+import java.io.InputStream;
+
 /**
  * Service interface for file encryption/decryption operations.
  * Uses AES-256-GCM for bank-level encryption.
@@ -23,6 +25,60 @@ public interface EncryptionService {
      */
     byte[] decrypt(byte[] encryptedData, String iv);
 
+    /**
+     * Encrypts a stream in fixed-size AES-256-GCM segments under a fresh
+     * data key, which is returned wrapped by the current master key. Data is
+     * encrypted as it is read, so the whole file is never held in memory.
+     *
+     * @param plaintext The raw file data
+     * @return The encrypting stream and the key material to store with the file
+     */
+    EncryptedStream encryptStream(InputStream plaintext);
+
+    /**
+     * Decrypts a stream produced by {@link #encryptStream}. Reading fails with
+     * an {@link java.io.IOException} if the data was modified or truncated.
+     *
+     * @param encryptedData The encrypted file data
+     * @param key           The key material returned by {@link #encryptStream}
+     * @return The decrypting stream
+     */
+    InputStream decryptStream(InputStream encryptedData, DocumentKey key);
+
+    /**
+     * Re-wraps a document's data key under the current master key. The
+     * document itself is not touched.
+     *
+     * @param key The stored key material
+     * @return The key material to store instead; unchanged if already current
+     */
+    DocumentKey rewrap(DocumentKey key);
+
+    /**
+     * ID of the master key that new data keys are wrapped with.
+     *
+     * @return The current master key ID
+     */
+    String currentMasterKeyId();
+
+    /**
+     * Size of the output of {@link #encryptStream} for a plaintext of the
+     * given size.
+     *
+     * @param plaintextLength The raw file size in bytes
+     * @return The encrypted size in bytes
+     */
+    long encryptedLength(long plaintextLength);
+
+    /**
+     * Size of the plaintext of an {@link #encryptStream} output of the given
+     * size, assuming the configured segment size.
+     *
+     * @param encryptedLength The encrypted size in bytes
+     * @return The raw file size in bytes
+     */
+    long plaintextLength(long encryptedLength);
+
     /**
      * Checks if encryption is enabled and properly configured.
      *
@@ -35,4 +91,21 @@ public interface EncryptionService {
      */
     record EncryptionResult(byte[] encryptedData, String iv) {
     }
+
+    /**
+     * Key material stored with an encrypted document.
+     *
+     * @param iv             The base IV of the document
+     * @param keyId          The ID of the master key wrapping the data key
+     * @param wrappedDataKey The wrapped data key, or null for documents
+     *                       encrypted directly under the master key
+     */
+    record DocumentKey(String iv, String keyId, String wrappedDataKey) {
+    }
+
+    /**
+     * An encrypting stream and the key material to store with the document.
+     */
+    record EncryptedStream(InputStream stream, DocumentKey key) {
+    }
 }
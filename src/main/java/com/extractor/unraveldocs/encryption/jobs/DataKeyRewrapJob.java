@@ -0,0 +1,106 @@
+package com.extractor.unraveldocs.encryption.jobs;
+
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
+import com.extractor.unraveldocs.encryption.config.EncryptionProperties;
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Scheduled job that re-wraps per-document data keys under the current master
+ * key after a rotation. Only the wrapped keys are rewritten; document bytes
+ * in storage are never read.
+ *
+ * Entries drop out of the query once re-wrapped, so an interrupted run simply
+ * resumes where it stopped on the next run. Each key is updated only if it is
+ * still wrapped by the key it was read with, so concurrent runs on several
+ * nodes are safe. Documents encrypted directly under the master key (before
+ * per-document keys) have no wrapped key and are left alone.
+ */
+@Slf4j
+@Component
+public class DataKeyRewrapJob {
+
+    private final FileEntryRepository fileEntryRepository;
+    private final EncryptionService encryptionService;
+    private final EncryptionProperties encryptionProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Bucket rateLimit;
+
+    public DataKeyRewrapJob(
+            FileEntryRepository fileEntryRepository,
+            EncryptionService encryptionService,
+            EncryptionProperties encryptionProperties,
+            TransactionTemplate transactionTemplate) {
+        this.fileEntryRepository = fileEntryRepository;
+        this.encryptionService = encryptionService;
+        this.encryptionProperties = encryptionProperties;
+        this.transactionTemplate = transactionTemplate;
+        int maxPerSecond = Math.max(1, encryptionProperties.getRewrap().getMaxPerSecond());
+        this.rateLimit = Bucket.builder()
+                .addLimit(Bandwidth.classic(maxPerSecond, Refill.greedy(maxPerSecond, Duration.ofSeconds(1))))
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${app.encryption.rewrap.interval-ms:300000}")
+    public void rewrapDataKeys() {
+        if (!encryptionProperties.getRewrap().isEnabled() || !encryptionService.isEncryptionAvailable()) {
+            return;
+        }
+
+        String currentKeyId = encryptionService.currentMasterKeyId();
+        int batchSize = encryptionProperties.getRewrap().getBatchSize();
+        String cursor = "";
+        int rewrapped = 0;
+        int failed = 0;
+
+        try {
+            List<FileEntry> batch;
+            do {
+                batch = fileEntryRepository.findEntriesToRewrap(currentKeyId, cursor, PageRequest.of(0, batchSize));
+                for (FileEntry fileEntry : batch) {
+                    cursor = fileEntry.getId();
+                    rateLimit.asBlocking().consume(1);
+                    if (rewrap(fileEntry)) {
+                        rewrapped++;
+                    } else {
+                        failed++;
+                    }
+                }
+            } while (batch.size() == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Data key re-wrap interrupted after {} entries", rewrapped);
+            return;
+        }
+
+        if (rewrapped > 0 || failed > 0) {
+            log.info("Data key re-wrap completed. Re-wrapped {} entries to master key {}, {} failed",
+                    rewrapped, currentKeyId, failed);
+        }
+    }
+
+    private boolean rewrap(FileEntry fileEntry) {
+        try {
+            EncryptionService.DocumentKey key = new EncryptionService.DocumentKey(
+                    fileEntry.getEncryptionIv(), fileEntry.getEncryptionKeyId(), fileEntry.getEncryptedDataKey());
+            EncryptionService.DocumentKey rewrapped = encryptionService.rewrap(key);
+            transactionTemplate.executeWithoutResult(status -> fileEntryRepository.updateWrappedKey(
+                    fileEntry.getId(), key.keyId(), rewrapped.keyId(), rewrapped.wrappedDataKey()));
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to re-wrap data key of file entry {}: {}", fileEntry.getId(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -82,6 +82,11 @@ public class GoogleVisionProperties {
      */
     private FeatureConfig features = new FeatureConfig();
 
+    /**
+     * Micro-batching of annotate requests across documents.
+     */
+    private BatchConfig batch = new BatchConfig();
+
     /**
      * Feature configuration for Vision API.
      */
@@ -102,4 +107,35 @@ public class GoogleVisionProperties {
          */
         private int maxResults = 50;
     }
+
+    /**
+     * Micro-batching configuration for Vision API calls.
+     * Pending requests are collected until the batch is full or the window
+     * elapses, then sent in a single batchAnnotateImages RPC.
+     */
+    @Data
+    public static class BatchConfig {
+        /**
+         * Whether to batch annotate requests across documents.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum images per RPC.
+         * Vision API accepts up to 16 images per batchAnnotateImages call.
+         */
+        private int maxSize = 16;
+
+        /**
+         * How long to wait for more requests before sending a partial batch,
+         * in milliseconds.
+         */
+        private long windowMs = 25;
+
+        /**
+         * Maximum total image bytes per RPC.
+         * Default: 36MB (below the Vision API request size limit)
+         */
+        private long maxBytes = 36L * 1024 * 1024;
+    }
 }
@@ -70,6 +70,17 @@ public class GoogleVisionHealthIndicator {
         return "UP".equals(health.get("status"));
     }
 
+    /**
+     * Run a fresh health check, bypassing the cached status.
+     * Used to probe whether a tripped provider has recovered.
+     *
+     * @return true if the API is reachable and responding
+     */
+    public boolean probe() {
+        cachedHealth.set(null);
+        return isHealthy();
+    }
+
     private Map<String, Object> performHealthCheck() {
         Map<String, Object> details = new HashMap<>();
         details.put("provider", "google-vision");
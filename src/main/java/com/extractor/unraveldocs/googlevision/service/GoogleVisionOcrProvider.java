@@ -1,7 +1,11 @@
 package com.extractor.unraveldocs.googlevision.service;
 
 import com.extractor.unraveldocs.googlevision.config.GoogleVisionProperties;
+import com.extractor.unraveldocs.googlevision.health.GoogleVisionHealthIndicator;
+import com.extractor.unraveldocs.ocrprocessing.circuitbreaker.CircuitBreakingOcrProvider;
 import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInput;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInputFetcher;
 import com.extractor.unraveldocs.ocrprocessing.provider.OcrProvider;
 import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
 import com.extractor.unraveldocs.ocrprocessing.provider.OcrRequest;
@@ -12,18 +16,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import javax.imageio.ImageIO;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
-import java.net.URL;
-
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Google Cloud Vision OCR provider implementation.
  * Uses Google Cloud Vision API for high-accuracy text extraction.
+ * Annotate requests are sent through {@link VisionBatchAnnotator} so that
+ * concurrent documents share batchAnnotateImages RPCs.
  */
 @Slf4j
 @Component
@@ -41,14 +48,22 @@ public class GoogleVisionOcrProvider implements OcrProvider {
             "application/pdf");
 
     private final ImageAnnotatorClient visionClient;
+    private final VisionBatchAnnotator batchAnnotator;
     private final GoogleVisionProperties properties;
-    private final AtomicBoolean isAvailable = new AtomicBoolean(true);
+    private final OcrInputFetcher inputFetcher;
+    private final Optional<GoogleVisionHealthIndicator> healthIndicator;
 
     public GoogleVisionOcrProvider(
             ImageAnnotatorClient visionClient,
-            GoogleVisionProperties properties) {
+            VisionBatchAnnotator batchAnnotator,
+            GoogleVisionProperties properties,
+            OcrInputFetcher inputFetcher,
+            Optional<GoogleVisionHealthIndicator> healthIndicator) {
         this.visionClient = visionClient;
+        this.batchAnnotator = batchAnnotator;
         this.properties = properties;
+        this.inputFetcher = inputFetcher;
+        this.healthIndicator = healthIndicator;
         log.info("GoogleVisionOcrProvider initialized with {} supported languages",
                 properties.getLanguages().size());
     }
@@ -93,30 +108,31 @@ public class GoogleVisionOcrProvider implements OcrProvider {
                     .setImageContext(contextBuilder.build())
                     .build();
 
-            // Execute Vision API call
-            BatchAnnotateImagesResponse response = visionClient.batchAnnotateImages(
-                    List.of(visionRequest));
+            // Execute Vision API call as part of the next micro-batch
+            AnnotateImageResponse response = awaitResponse(visionRequest, request);
 
             // Process response
             return processResponse(response, request, startTime);
 
         } catch (OcrProcessingException e) {
             throw e;
+        } catch (ExecutionException e) {
+            long processingTime = System.currentTimeMillis() - startTime;
+            Exception cause = e.getCause() instanceof Exception ex ? ex : e;
+            log.error("Vision API error: {}", cause.getMessage(), cause);
+
+            return OcrResult.failure(cause, OcrProviderType.GOOGLE_VISION, processingTime)
+                    .withMetadata("documentId", request.getDocumentId());
         } catch (IOException e) {
             long processingTime = System.currentTimeMillis() - startTime;
             log.error("Failed to load image for Vision API: {}", e.getMessage(), e);
             return OcrResult.failure(e, OcrProviderType.GOOGLE_VISION, processingTime)
-                    .withMetadata("documentId", request.getDocumentId());
+                    .withMetadata("documentId", request.getDocumentId())
+                    .withMetadata(CircuitBreakingOcrProvider.INPUT_ERROR_METADATA, true);
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
             log.error("Vision API error: {}", e.getMessage(), e);
 
-            // Check if this is a transient error
-            if (isTransientError(e)) {
-                isAvailable.set(false);
-                // TODO: Schedule availability check (in production, use a health check)
-            }
-
             return OcrResult.failure(e, OcrProviderType.GOOGLE_VISION, processingTime)
                     .withMetadata("documentId", request.getDocumentId());
         }
@@ -137,7 +153,14 @@ public class GoogleVisionOcrProvider implements OcrProvider {
 
     @Override
     public boolean isAvailable() {
-        return isAvailable.get() && visionClient != null;
+        return visionClient != null;
+    }
+
+    @Override
+    public boolean probeHealth() {
+        return healthIndicator
+                .map(GoogleVisionHealthIndicator::probe)
+                .orElseGet(this::isAvailable);
     }
 
     @Override
@@ -168,15 +191,35 @@ public class GoogleVisionOcrProvider implements OcrProvider {
      * Load image bytes from URL or direct bytes.
      */
     private ByteString loadImageBytes(OcrRequest request) throws IOException {
-        if (request.hasImageBytes()) {
-            return ByteString.copyFrom(request.getImageBytes());
-        } else if (request.hasImageUrl()) {
-            URL imageUrl = URI.create(request.getImageUrl()).toURL();
-            try (InputStream is = imageUrl.openStream()) {
-                return ByteString.readFrom(is);
-            }
+        if (request.hasPageImage()) {
+            ByteString.Output output = ByteString.newOutput();
+            ImageIO.write(request.getPageImage(), "png", output);
+            return output.toByteString();
+        }
+        try (OcrInput input = inputFetcher.fetch(request, getMaxFileSizeBytes());
+                InputStream stream = input.openStream()) {
+            return ByteString.readFrom(stream);
+        }
+    }
+
+    /**
+     * Submit the annotate request to the batch accumulator and wait for its
+     * response, bounded by the configured timeout plus the batching window.
+     */
+    private AnnotateImageResponse awaitResponse(AnnotateImageRequest visionRequest, OcrRequest request)
+            throws ExecutionException {
+        long timeoutMs = TimeUnit.SECONDS.toMillis(properties.getTimeoutSeconds())
+                + properties.getBatch().getWindowMs();
+        try {
+            return batchAnnotator.annotate(visionRequest).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw OcrProcessingException.timeout(OcrProviderType.GOOGLE_VISION, request.getDocumentId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OcrProcessingException(
+                    "Interrupted while waiting for Vision API response",
+                    OcrProviderType.GOOGLE_VISION, e);
         }
-        throw new IOException("No image source available");
     }
 
     /**
@@ -204,21 +247,12 @@ public class GoogleVisionOcrProvider implements OcrProvider {
      * Process the Vision API response and build OcrResult.
      */
     private OcrResult processResponse(
-            BatchAnnotateImagesResponse response,
+            AnnotateImageResponse annotateResponse,
             OcrRequest request,
             long startTime) {
 
         long processingTime = System.currentTimeMillis() - startTime;
 
-        if (response.getResponsesList().isEmpty()) {
-            return OcrResult.failure(
-                    "Empty response from Vision API",
-                    OcrProviderType.GOOGLE_VISION,
-                    processingTime).withMetadata("documentId", request.getDocumentId());
-        }
-
-        AnnotateImageResponse annotateResponse = response.getResponses(0);
-
         // Check for errors
         if (annotateResponse.hasError()) {
             String errorMessage = annotateResponse.getError().getMessage();
@@ -330,21 +364,4 @@ public class GoogleVisionOcrProvider implements OcrProvider {
 
         return null;
     }
-
-    /**
-     * Check if the error is transient and the provider should be marked
-     * unavailable.
-     */
-    private boolean isTransientError(Exception e) {
-        String message = e.getMessage();
-        if (message == null) {
-            return false;
-        }
-
-        // Check for common transient errors
-        return message.contains("UNAVAILABLE") ||
-                message.contains("DEADLINE_EXCEEDED") ||
-                message.contains("RESOURCE_EXHAUSTED") ||
-                message.contains("rate limit");
-    }
 }
@@ -0,0 +1,168 @@
+package com.extractor.unraveldocs.googlevision.service;
+
+import com.extractor.unraveldocs.googlevision.config.GoogleVisionProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batching accumulator for Google Cloud Vision annotate requests.
+ *
+ * <p>
+ * Requests from concurrent OCR workers are collected for a short window
+ * ({@code ocr.google-vision.batch.window-ms}) or until the batch is full
+ * ({@code ocr.google-vision.batch.max-size} images or
+ * {@code ocr.google-vision.batch.max-bytes}), then sent in a single
+ * {@code batchAnnotateImages} RPC. Each response is routed back to the
+ * future of the request at the same position in the batch.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ocr.google-vision.enabled", havingValue = "true")
+public class VisionBatchAnnotator {
+
+    private final ImageAnnotatorClient visionClient;
+    private final GoogleVisionProperties.BatchConfig config;
+    private final OcrMetrics ocrMetrics;
+    private final ScheduledExecutorService flushScheduler;
+    private final ExecutorService rpcExecutor;
+
+    private final Object lock = new Object();
+    private List<PendingRequest> pending = new ArrayList<>();
+    private long pendingBytes;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public VisionBatchAnnotator(
+            ImageAnnotatorClient visionClient,
+            GoogleVisionProperties properties,
+            OcrMetrics ocrMetrics) {
+        this.visionClient = visionClient;
+        this.config = properties.getBatch();
+        this.ocrMetrics = ocrMetrics;
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("vision-batch-flush").daemon(true).factory());
+        this.rpcExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("vision-batch-rpc-", 0).factory());
+
+        log.info("VisionBatchAnnotator initialized - enabled: {}, maxSize: {}, windowMs: {}",
+                config.isEnabled(), config.getMaxSize(), config.getWindowMs());
+    }
+
+    /**
+     * Queue an annotate request for the next batch.
+     *
+     * @param request The Vision annotate request
+     * @return A future completed with this request's response
+     */
+    public CompletableFuture<AnnotateImageResponse> annotate(AnnotateImageRequest request) {
+        CompletableFuture<AnnotateImageResponse> future = new CompletableFuture<>();
+        long requestBytes = request.getImage().getContent().size();
+
+        if (!config.isEnabled() || config.getMaxSize() <= 1) {
+            rpcExecutor.execute(() -> send(List.of(new PendingRequest(request, future))));
+            return future;
+        }
+
+        List<PendingRequest> ready = null;
+        List<PendingRequest> overflow = null;
+
+        synchronized (lock) {
+            // Flush what we have first if this image would push the batch over the byte limit
+            if (!pending.isEmpty() && pendingBytes + requestBytes > config.getMaxBytes()) {
+                overflow = drainLocked();
+            }
+
+            pending.add(new PendingRequest(request, future));
+            pendingBytes += requestBytes;
+
+            if (pending.size() >= config.getMaxSize() || pendingBytes >= config.getMaxBytes()) {
+                ready = drainLocked();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = flushScheduler.schedule(
+                        this::flushPending, config.getWindowMs(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        dispatch(overflow);
+        dispatch(ready);
+        return future;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushPending();
+        flushScheduler.shutdownNow();
+        rpcExecutor.shutdown();
+    }
+
+    private void flushPending() {
+        List<PendingRequest> batch;
+        synchronized (lock) {
+            batch = drainLocked();
+        }
+        dispatch(batch);
+    }
+
+    private List<PendingRequest> drainLocked() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<PendingRequest> batch = pending;
+        pending = new ArrayList<>();
+        pendingBytes = 0;
+        return batch;
+    }
+
+    private void dispatch(List<PendingRequest> batch) {
+        if (batch != null && !batch.isEmpty()) {
+            rpcExecutor.execute(() -> send(batch));
+        }
+    }
+
+    private void send(List<PendingRequest> batch) {
+        long startTime = System.currentTimeMillis();
+        try {
+            BatchAnnotateImagesResponse response = visionClient.batchAnnotateImages(
+                    batch.stream().map(PendingRequest::request).toList());
+            ocrMetrics.recordVisionBatch(batch.size(), System.currentTimeMillis() - startTime);
+
+            List<AnnotateImageResponse> responses = response.getResponsesList();
+            for (int i = 0; i < batch.size(); i++) {
+                if (i < responses.size()) {
+                    batch.get(i).future().complete(responses.get(i));
+                } else {
+                    batch.get(i).future().completeExceptionally(new IllegalStateException(
+                            "Vision API returned " + responses.size() + " responses for a batch of " + batch.size()));
+                }
+            }
+
+            log.debug("Vision batch of {} image(s) completed in {}ms",
+                    batch.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.warn("Vision batch of {} image(s) failed: {}", batch.size(), e.getMessage());
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+    }
+
+    private record PendingRequest(
+            AnnotateImageRequest request,
+            CompletableFuture<AnnotateImageResponse> future) {
+    }
+}
@@ -10,6 +10,7 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.ses.SesClient;
 import software.amazon.awssdk.services.sns.SnsClient;
 
@@ -40,6 +41,17 @@ public class AwsConfig {
         return s3ClientBuilder.build();
     }
 
+    @Bean
+    public S3Presigner s3Presigner() {
+        StaticCredentialsProvider awsCredentialsProvider = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(awsAccessKey, awsSecretKey));
+
+        return S3Presigner.builder()
+                .credentialsProvider(awsCredentialsProvider)
+                .region(Region.of(awsRegion))
+                .build();
+    }
+
     @Bean
     public SesClient sesClient() {
         StaticCredentialsProvider awsCredentialsProvider = StaticCredentialsProvider.create(
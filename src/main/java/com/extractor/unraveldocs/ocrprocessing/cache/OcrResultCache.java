@@ -0,0 +1,203 @@
+package com.extractor.unraveldocs.ocrprocessing.cache;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInput;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Content-addressed cache of OCR results, backed by Redis.
+ *
+ * <p>
+ * Entries are keyed by the SHA-256 of the file bytes together with the
+ * provider, language and a fingerprint of the OCR settings that shape the
+ * provider's output, so re-uploads of the same file reuse the earlier result
+ * instead of running OCR again, and a settings change does not serve results
+ * produced under the old settings.
+ * Entries expire after {@code ocr.result-cache.ttl-days}; the Redis instance
+ * should run with an LRU {@code maxmemory-policy} so entries are also evicted
+ * under memory pressure.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OcrResultCache {
+
+    private static final String CACHE_KEY_PREFIX = "ocr:result:";
+    private static final String DEFAULT_LANGUAGE = "auto";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final OcrProperties ocrProperties;
+    private final OcrMetrics ocrMetrics;
+
+    /**
+     * Check whether the result cache is enabled.
+     */
+    public boolean isEnabled() {
+        return ocrProperties.getResultCache().isEnabled();
+    }
+
+    /**
+     * Compute the SHA-256 content hash of an input, streaming it from memory or disk.
+     *
+     * @param input The fetched document
+     * @return The hex-encoded hash
+     */
+    public String contentHash(OcrInput input) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream stream = input.openStream()) {
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Build the cache key for a file processed by a given provider.
+     *
+     * @param contentHash The file's content hash from {@link #contentHash}
+     * @param provider    The provider that will process the file
+     * @param language    The requested language, or null for the default
+     * @return The cache key
+     */
+    public String buildKey(String contentHash, OcrProviderType provider, String language) {
+        String lang = language != null && !language.isBlank() ? language : defaultLanguage(provider);
+
+        return CACHE_KEY_PREFIX + contentHash + ":" + provider.getCode() + ":" + lang.toLowerCase() + ":"
+                + settingsFingerprint(provider);
+    }
+
+    /**
+     * Look up a cached result.
+     *
+     * @param key      The cache key from {@link #buildKey}
+     * @param provider The provider the key was built for (metrics tag)
+     * @return The cached result, if present
+     */
+    public Optional<OcrResult> get(String key, OcrProviderType provider) {
+        try {
+            String json = redisTemplate.opsForValue().get(key);
+            if (json != null) {
+                CachedOcrResult cached = objectMapper.readValue(json, CachedOcrResult.class);
+                ocrMetrics.recordResultCacheLookup(provider, true);
+                return Optional.of(cached.toResult());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read OCR result cache entry: {}", e.getMessage());
+        }
+
+        ocrMetrics.recordResultCacheLookup(provider, false);
+        return Optional.empty();
+    }
+
+    /**
+     * Store a successful result.
+     *
+     * @param key    The cache key from {@link #buildKey}
+     * @param result The OCR result
+     */
+    public void put(String key, OcrResult result) {
+        var config = ocrProperties.getResultCache();
+        if (!result.isSuccess() || result.getCharacterCount() > config.getMaxTextLength()) {
+            return;
+        }
+
+        try {
+            String json = objectMapper.writeValueAsString(CachedOcrResult.from(result));
+            redisTemplate.opsForValue().set(key, json, Duration.ofDays(config.getTtlDays()));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize OCR result for cache: {}", e.getMessage());
+        } catch (Exception e) {
+            log.warn("Failed to write OCR result cache entry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The language a provider uses when the request names none. Tesseract
+     * falls back to its configured language; other providers detect it.
+     */
+    private String defaultLanguage(OcrProviderType provider) {
+        return provider == OcrProviderType.TESSERACT
+                ? ocrProperties.getTesseract().getLanguage()
+                : DEFAULT_LANGUAGE;
+    }
+
+    /**
+     * Short hash of the settings that change a provider's output: the PDF
+     * rasterization DPI for every provider, and the engine and preprocessing
+     * settings that only apply to Tesseract.
+     */
+    String settingsFingerprint(OcrProviderType provider) {
+        StringBuilder settings = new StringBuilder("dpi=").append(ocrProperties.getMultiPage().getDpi());
+        if (provider == OcrProviderType.TESSERACT) {
+            OcrProperties.TesseractConfig tesseract = ocrProperties.getTesseract();
+            settings.append(";psm=").append(tesseract.getPageSegMode())
+                    .append(";oem=").append(tesseract.getOcrEngineMode())
+                    .append(";").append(ocrProperties.getPreprocessing());
+        }
+        byte[] hash = sha256().digest(settings.toString().getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash, 0, 8);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Serialized form of a cached OCR result.
+     */
+    record CachedOcrResult(
+            String extractedText,
+            Double confidence,
+            OcrProviderType providerType,
+            String languageDetected,
+            int pageCount) {
+
+        static CachedOcrResult from(OcrResult result) {
+            return new CachedOcrResult(
+                    result.getExtractedText(),
+                    result.getConfidence(),
+                    result.getProviderType(),
+                    result.getLanguageDetected(),
+                    result.getPageCount());
+        }
+
+        OcrResult toResult() {
+            return OcrResult.builder()
+                    .extractedText(extractedText)
+                    .confidence(confidence)
+                    .providerType(providerType)
+                    .languageDetected(languageDetected)
+                    .pageCount(pageCount)
+                    .processingTimeMs(0)
+                    .success(true)
+                    .build()
+                    .withMetadata("cached", true);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.extractor.unraveldocs.ocrprocessing.circuitbreaker;
+
+import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProvider;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrRequest;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * {@link OcrProvider} decorator that routes calls through a
+ * {@link ProviderCircuitBreaker}, recording each call's outcome and latency.
+ * The provider reports itself unavailable while its breaker is open, so
+ * callers move to the fallback provider without attempting the call.
+ */
+public class CircuitBreakingOcrProvider implements OcrProvider {
+
+    /**
+     * Result metadata key set by providers when a failure was caused by the
+     * input (e.g. an unreadable file) rather than by the provider itself.
+     */
+    public static final String INPUT_ERROR_METADATA = "inputError";
+
+    /**
+     * Result metadata key for the mean time the provider took per page of a
+     * multi-page document, measured around each page call.
+     */
+    public static final String PAGE_LATENCY_METADATA = "pageLatencyMs";
+
+    @Getter
+    private final OcrProvider delegate;
+
+    @Getter
+    private final ProviderCircuitBreaker circuitBreaker;
+
+    public CircuitBreakingOcrProvider(OcrProvider delegate, ProviderCircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public OcrProviderType getProviderType() {
+        return delegate.getProviderType();
+    }
+
+    @Override
+    public OcrResult extractText(OcrRequest request) {
+        return execute(provider -> provider.extractText(request));
+    }
+
+    /**
+     * Run an operation that may call the provider several times, such as all
+     * pages of a multi-page document, as a single call through the breaker.
+     * It takes one permission and records one outcome, so a document uses at
+     * most one half-open trial call however many pages it has. The operation
+     * is given the undecorated provider. When the result reports a
+     * {@link #PAGE_LATENCY_METADATA per-page latency} that is recorded instead
+     * of the wall time, so a long document does not count as a slow call.
+     * Pages run in parallel, so wall time divided by page count would
+     * understate it.
+     *
+     * @param operation The calls to make, given the undecorated provider
+     * @return The operation's result
+     */
+    public OcrResult execute(Function<OcrProvider, OcrResult> operation) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw OcrProcessingException.providerUnavailable(getProviderType());
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            OcrResult result = operation.apply(delegate);
+            long duration = result.getMetadata().get(PAGE_LATENCY_METADATA) instanceof Number pageLatency
+                    ? pageLatency.longValue()
+                    : System.currentTimeMillis() - startTime;
+
+            if (result.isSuccess()) {
+                circuitBreaker.onSuccess(duration);
+            } else if (Boolean.TRUE.equals(result.getMetadata().get(INPUT_ERROR_METADATA))) {
+                circuitBreaker.onIgnored();
+            } else {
+                recordFailure(startTime);
+            }
+            return result;
+
+        } catch (OcrProcessingException e) {
+            // Non-retryable errors are request problems, not provider health
+            if (e.isRetryable()) {
+                recordFailure(startTime);
+            } else {
+                circuitBreaker.onIgnored();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            recordFailure(startTime);
+            throw e;
+        }
+    }
+
+    private void recordFailure(long startTime) {
+        // A call interrupted because it was cancelled (e.g. a losing hedge) says nothing about health
+        if (Thread.currentThread().isInterrupted()) {
+            circuitBreaker.onIgnored();
+        } else {
+            circuitBreaker.onFailure(System.currentTimeMillis() - startTime);
+        }
+    }
+
+    @Override
+    public boolean supports(String mimeType) {
+        return delegate.supports(mimeType);
+    }
+
+    @Override
+    public List<String> getSupportedLanguages() {
+        return delegate.getSupportedLanguages();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable() && circuitBreaker.isCallPermitted();
+    }
+
+    @Override
+    public boolean probeHealth() {
+        return delegate.probeHealth();
+    }
+
+    @Override
+    public String getDisplayName() {
+        return delegate.getDisplayName();
+    }
+
+    @Override
+    public long getMaxFileSizeBytes() {
+        return delegate.getMaxFileSizeBytes();
+    }
+}
@@ -0,0 +1,304 @@
+package com.extractor.unraveldocs.ocrprocessing.circuitbreaker;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for a single OCR provider.
+ *
+ * <p>
+ * Outcomes are recorded in a rolling time window split into buckets. The
+ * breaker opens when the failure rate or slow-call rate in the window crosses
+ * its threshold, rejects calls while open, and after
+ * {@code open-duration-ms} (or a successful health probe) lets a small number
+ * of trial calls through. The breaker closes once all trials succeed and
+ * re-opens on the first failed trial.
+ * </p>
+ */
+@Slf4j
+public class ProviderCircuitBreaker {
+
+    private static final int BUCKET_COUNT = 10;
+
+    /**
+     * Breaker state. The code is exported as the state gauge value.
+     */
+    @Getter
+    public enum State {
+        CLOSED(0),
+        HALF_OPEN(1),
+        OPEN(2);
+
+        private final int code;
+
+        State(int code) {
+            this.code = code;
+        }
+    }
+
+    private final OcrProviderType providerType;
+    private final OcrProperties.CircuitBreakerConfig config;
+    private final OcrMetrics ocrMetrics;
+    private final LongSupplier clock;
+    private final long bucketMs;
+    private final Bucket[] buckets = new Bucket[BUCKET_COUNT];
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private long lastProbeAt;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    public ProviderCircuitBreaker(
+            OcrProviderType providerType,
+            OcrProperties.CircuitBreakerConfig config,
+            OcrMetrics ocrMetrics) {
+        this(providerType, config, ocrMetrics, System::currentTimeMillis);
+    }
+
+    ProviderCircuitBreaker(
+            OcrProviderType providerType,
+            OcrProperties.CircuitBreakerConfig config,
+            OcrMetrics ocrMetrics,
+            LongSupplier clock) {
+        this.providerType = providerType;
+        this.config = config;
+        this.ocrMetrics = ocrMetrics;
+        this.clock = clock;
+        this.bucketMs = Math.max(1, config.getWindowSeconds() * 1000L / BUCKET_COUNT);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Current state, moving from open to half-open if the open period has elapsed.
+     */
+    public synchronized State getState() {
+        refreshState(clock.getAsLong());
+        return state;
+    }
+
+    /**
+     * Check whether a call would currently be let through, without reserving it.
+     */
+    public synchronized boolean isCallPermitted() {
+        refreshState(clock.getAsLong());
+        return switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> trialsInFlight < config.getHalfOpenTrialCalls();
+            case OPEN -> false;
+        };
+    }
+
+    /**
+     * Reserve permission for a call. While half-open this takes one of the
+     * trial slots.
+     *
+     * @return true if the call may proceed
+     */
+    public synchronized boolean tryAcquirePermission() {
+        refreshState(clock.getAsLong());
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialsInFlight < config.getHalfOpenTrialCalls()) {
+                    trialsInFlight++;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Record a successful call.
+     */
+    public synchronized void onSuccess(long durationMs) {
+        boolean slow = durationMs >= config.getSlowCallDurationMs();
+        long now = clock.getAsLong();
+
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+            if (slow) {
+                transitionTo(State.OPEN, now);
+                return;
+            }
+            if (++trialSuccesses >= config.getHalfOpenTrialCalls()) {
+                transitionTo(State.CLOSED, now);
+            }
+            return;
+        }
+
+        record(now, false, slow);
+    }
+
+    /**
+     * Record a failed call.
+     */
+    public synchronized void onFailure(long durationMs) {
+        long now = clock.getAsLong();
+
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN, now);
+            return;
+        }
+
+        record(now, true, durationMs >= config.getSlowCallDurationMs());
+    }
+
+    /**
+     * Release a permission for a call whose outcome says nothing about
+     * provider health (e.g. an unreadable input file).
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+        }
+    }
+
+    /**
+     * Check whether the breaker is open and a health probe is due.
+     */
+    public synchronized boolean isProbeDue() {
+        long now = clock.getAsLong();
+        refreshState(now);
+        if (state != State.OPEN || now - lastProbeAt < config.getProbeIntervalMs()) {
+            return false;
+        }
+        lastProbeAt = now;
+        return true;
+    }
+
+    /**
+     * Apply the result of a health probe. A healthy probe lets trial traffic
+     * through straight away instead of waiting out the open period.
+     */
+    public synchronized void onProbeResult(boolean healthy) {
+        if (healthy && state == State.OPEN) {
+            log.info("Health probe for OCR provider {} succeeded, allowing trial requests", providerType);
+            transitionTo(State.HALF_OPEN, clock.getAsLong());
+        }
+    }
+
+    /**
+     * Failure percentage in the current window.
+     */
+    public synchronized double getFailureRate() {
+        long[] totals = windowTotals(clock.getAsLong());
+        return totals[0] == 0 ? 0 : totals[1] * 100.0 / totals[0];
+    }
+
+    /**
+     * Slow-call percentage in the current window.
+     */
+    public synchronized double getSlowCallRate() {
+        long[] totals = windowTotals(clock.getAsLong());
+        return totals[0] == 0 ? 0 : totals[2] * 100.0 / totals[0];
+    }
+
+    private void record(long now, boolean failure, boolean slow) {
+        Bucket bucket = currentBucket(now);
+        bucket.calls++;
+        if (failure) {
+            bucket.failures++;
+        }
+        if (slow) {
+            bucket.slowCalls++;
+        }
+
+        if (state != State.CLOSED) {
+            return;
+        }
+
+        long[] totals = windowTotals(now);
+        long calls = totals[0];
+        if (calls < config.getMinimumCalls()) {
+            return;
+        }
+
+        double failureRate = totals[1] * 100.0 / calls;
+        double slowRate = totals[2] * 100.0 / calls;
+        if (failureRate >= config.getFailureRateThreshold() || slowRate >= config.getSlowCallRateThreshold()) {
+            log.warn("Opening circuit for OCR provider {} - failure rate: {}%, slow-call rate: {}% over {} calls",
+                    providerType, Math.round(failureRate), Math.round(slowRate), calls);
+            transitionTo(State.OPEN, now);
+        }
+    }
+
+    private void refreshState(long now) {
+        if (state == State.OPEN && now - openedAt >= config.getOpenDurationMs()) {
+            transitionTo(State.HALF_OPEN, now);
+        }
+    }
+
+    private void transitionTo(State next, long now) {
+        State previous = state;
+        if (previous == next) {
+            return;
+        }
+
+        state = next;
+        trialsInFlight = 0;
+        trialSuccesses = 0;
+
+        if (next == State.OPEN) {
+            openedAt = now;
+            lastProbeAt = now;
+        } else if (next == State.CLOSED) {
+            // Start the closed period with a clean window
+            for (Bucket bucket : buckets) {
+                bucket.reset(-BUCKET_COUNT);
+            }
+        }
+
+        log.info("OCR provider {} circuit {} -> {}", providerType, previous, next);
+        ocrMetrics.recordCircuitTransition(providerType, previous.name(), next.name());
+    }
+
+    private Bucket currentBucket(long now) {
+        long epoch = now / bucketMs;
+        Bucket bucket = buckets[(int) (epoch % BUCKET_COUNT)];
+        if (bucket.epoch != epoch) {
+            bucket.reset(epoch);
+        }
+        return bucket;
+    }
+
+    /**
+     * Sum of calls, failures and slow calls over buckets still inside the window.
+     */
+    private long[] windowTotals(long now) {
+        long currentEpoch = now / bucketMs;
+        long[] totals = new long[3];
+        for (Bucket bucket : buckets) {
+            if (currentEpoch - bucket.epoch < BUCKET_COUNT) {
+                totals[0] += bucket.calls;
+                totals[1] += bucket.failures;
+                totals[2] += bucket.slowCalls;
+            }
+        }
+        return totals;
+    }
+
+    private static final class Bucket {
+        private long epoch = -BUCKET_COUNT;
+        private long calls;
+        private long failures;
+        private long slowCalls;
+
+        private void reset(long newEpoch) {
+            epoch = newEpoch;
+            calls = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+    }
+}
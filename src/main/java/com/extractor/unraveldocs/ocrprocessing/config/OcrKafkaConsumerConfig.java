@@ -0,0 +1,68 @@
+package com.extractor.unraveldocs.ocrprocessing.config;
+
+import com.extractor.unraveldocs.brokers.config.MessagingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+
+import java.util.Properties;
+
+/**
+ * Kafka listener configuration for OCR requests.
+ *
+ * <p>
+ * OCR records are handed off to the OCR execution stage and acknowledged
+ * from worker threads once processing completes, so this factory uses
+ * {@code MANUAL} acks with async acks enabled: offsets are only committed
+ * once every earlier record on the partition has also completed.
+ * </p>
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.kafka.bootstrap-servers")
+public class OcrKafkaConsumerConfig {
+
+    private final MessagingProperties messagingProperties;
+    private final OcrProperties ocrProperties;
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> ocrListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory,
+            DefaultErrorHandler errorHandler) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory);
+        factory.setCommonErrorHandler(errorHandler);
+
+        // Acks arrive from OCR worker threads, possibly out of order
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setAsyncAcks(true);
+
+        // Pause after the current record rather than after the rest of the poll,
+        // so a saturated lane stops taking records straight away
+        containerProperties.setPauseImmediate(true);
+
+        // Keep polls small so a paused listener holds little buffered work
+        Properties consumerOverrides = new Properties();
+        consumerOverrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
+                String.valueOf(ocrProperties.getExecution().getMaxPollRecords()));
+        containerProperties.setKafkaConsumerProperties(consumerOverrides);
+
+        factory.setConcurrency(messagingProperties.getKafka().getConsumer().getConcurrency());
+
+        log.info("OCR listener container configured with concurrency: {}, maxPollRecords: {}",
+                messagingProperties.getKafka().getConsumer().getConcurrency(),
+                ocrProperties.getExecution().getMaxPollRecords());
+
+        return factory;
+    }
+}
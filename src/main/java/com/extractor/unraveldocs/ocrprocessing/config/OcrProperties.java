@@ -71,6 +71,51 @@ public class OcrProperties {
      */
     private TesseractConfig tesseract = new TesseractConfig();
 
+    /**
+     * Execution stage settings for asynchronous OCR processing.
+     */
+    private ExecutionConfig execution = new ExecutionConfig();
+
+    /**
+     * Multi-page (PDF/TIFF) document settings.
+     */
+    private MultiPageConfig multiPage = new MultiPageConfig();
+
+    /**
+     * Image preprocessing applied before local OCR.
+     */
+    private PreprocessingConfig preprocessing = new PreprocessingConfig();
+
+    /**
+     * Content-addressed cache of OCR results.
+     */
+    private ResultCacheConfig resultCache = new ResultCacheConfig();
+
+    /**
+     * Settings for fetching OCR input documents.
+     */
+    private InputConfig input = new InputConfig();
+
+    /**
+     * Per-provider circuit breaker settings.
+     */
+    private CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
+
+    /**
+     * Priority and standard OCR lane scheduling settings.
+     */
+    private LaneConfig lanes = new LaneConfig();
+
+    /**
+     * Hedged request settings for single-image OCR.
+     */
+    private HedgingConfig hedging = new HedgingConfig();
+
+    /**
+     * Live OCR progress streaming settings.
+     */
+    private ProgressConfig progress = new ProgressConfig();
+
     /**
      * Check if a provider is enabled.
      */
@@ -152,6 +197,58 @@ public class OcrProperties {
         private boolean detectLanguage = true;
     }
 
+    /**
+     * Configuration for the OCR execution stage that runs OCR work off the
+     * Kafka listener threads.
+     */
+    @Data
+    public static class ExecutionConfig {
+        /**
+         * Threads for CPU-bound OCR work (Tesseract recognition).
+         * 0 or less = number of available processors
+         */
+        private int cpuThreads = 0;
+
+        /**
+         * Maximum OCR requests running at once. Further requests stay queued
+         * on the lane scheduler until one completes.
+         */
+        private int maxInFlight = 32;
+
+        /**
+         * Maximum records fetched per poll by the OCR listener.
+         * Kept small so a paused listener has little buffered work.
+         */
+        private int maxPollRecords = 10;
+    }
+
+    /**
+     * Configuration for splitting multi-page documents into page images.
+     */
+    @Data
+    public static class MultiPageConfig {
+        /**
+         * Resolution used to rasterise PDF pages.
+         */
+        private int dpi = 300;
+
+        /**
+         * Maximum number of pages processed per document.
+         */
+        private int maxPages = 200;
+
+        /**
+         * Maximum pages rendered and OCR'd concurrently per document.
+         * 0 or less = number of available processors
+         */
+        private int maxParallelPages = 0;
+
+        /**
+         * Maximum size of a whole multi-page document in bytes.
+         */
+        private long maxDocumentBytes = 100 * 1024 * 1024;
+    }
+
     /**
      * Tesseract specific configuration.
      */
@@ -178,5 +275,283 @@ public class OcrProperties {
          * 3 = Default, based on what is available
          */
         private int ocrEngineMode = 3;
+
+        /**
+         * Maximum number of initialised engines kept per language.
+         * 0 or less = number of available processors
+         */
+        private int poolSize = 0;
+
+        /**
+         * How long to wait for a free engine before failing, in milliseconds.
+         */
+        private long poolCheckoutTimeoutMs = 30000;
+
+        /**
+         * Number of engines for the default language to initialise at startup.
+         */
+        private int poolPrewarmSize = 1;
+    }
+
+    /**
+     * Configuration for the OpenCV image preprocessing pipeline.
+     */
+    @Data
+    public static class PreprocessingConfig {
+        /**
+         * Whether to preprocess images before OCR.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Convert colour images to a single grayscale channel.
+         */
+        private boolean grayscale = true;
+
+        /**
+         * Resolution images are normalised to, assuming an A4/Letter page.
+         * Images estimated above this resolution are downscaled.
+         */
+        private int targetDpi = 300;
+
+        /**
+         * Maximum pixel count after scaling (width * height).
+         */
+        private long maxPixels = 12_000_000L;
+
+        /**
+         * Correct page rotation before recognition.
+         */
+        private boolean deskew = true;
+
+        /**
+         * Skew angles (degrees) below this are left uncorrected.
+         */
+        private double deskewMinAngle = 0.5;
+
+        /**
+         * Skew angles (degrees) above this are treated as misdetections.
+         */
+        private double deskewMaxAngle = 15.0;
+
+        /**
+         * Binarise images with a local (adaptive) threshold.
+         */
+        private boolean adaptiveThreshold = true;
+
+        /**
+         * Neighbourhood size in pixels for adaptive thresholding (odd).
+         */
+        private int thresholdBlockSize = 31;
+
+        /**
+         * Constant subtracted from the neighbourhood mean.
+         */
+        private double thresholdOffset = 15;
+    }
+
+    /**
+     * Configuration for the content-hash OCR result cache.
+     */
+    @Data
+    public static class ResultCacheConfig {
+        /**
+         * Whether to reuse OCR results for byte-identical files.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long cached results are kept in Redis.
+         */
+        private int ttlDays = 30;
+
+        /**
+         * Results with more extracted text than this (in characters) are not cached.
+         */
+        private int maxTextLength = 1_000_000;
+
+        /**
+         * Whether a cache hit skips OCR quota consumption.
+         */
+        private boolean skipQuotaOnHit = true;
+    }
+
+    /**
+     * Configuration for fetching OCR input documents from storage.
+     */
+    @Data
+    public static class InputConfig {
+        /**
+         * Inputs larger than this (or of unknown size) are streamed to a temp
+         * file instead of being held on heap. 0 or less = never spill.
+         */
+        private long spillThresholdBytes = 8 * 1024 * 1024;
+
+        /**
+         * Directory for spilled inputs. Empty = system temp directory.
+         */
+        private String tempDirectory = "";
+    }
+
+    /**
+     * Configuration for the per-provider circuit breaker.
+     */
+    @Data
+    public static class CircuitBreakerConfig {
+        /**
+         * Whether provider calls go through a circuit breaker.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Length of the rolling window used to compute error and slow-call rates.
+         */
+        private int windowSeconds = 60;
+
+        /**
+         * Minimum calls in the window before the breaker may open.
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * Failure percentage at or above which the breaker opens.
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * Slow-call percentage at or above which the breaker opens.
+         */
+        private int slowCallRateThreshold = 80;
+
+        /**
+         * Calls slower than this are counted as slow.
+         */
+        private long slowCallDurationMs = 15000;
+
+        /**
+         * How long the breaker stays open before allowing trial requests.
+         */
+        private long openDurationMs = 60000;
+
+        /**
+         * Trial requests allowed while half-open; all must succeed to close.
+         */
+        private int halfOpenTrialCalls = 3;
+
+        /**
+         * Interval between health probes of providers with an open breaker.
+         * A healthy probe moves the breaker to half-open before open-duration elapses.
+         */
+        private long probeIntervalMs = 15000;
+    }
+
+    /**
+     * Configuration for tier-aware OCR lanes.
+     */
+    @Data
+    public static class LaneConfig {
+        /**
+         * Whether PRIORITY_OCR subscribers are published to the priority lane.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Share of dispatches given to the priority lane when both lanes have work.
+         */
+        private int priorityWeight = 4;
+
+        /**
+         * Share of dispatches given to the standard lane when both lanes have work.
+         */
+        private int standardWeight = 1;
+
+        /**
+         * Maximum OCR requests in flight per user on the priority lane.
+         */
+        private int priorityTenantMaxInFlight = 8;
+
+        /**
+         * Maximum OCR requests in flight per user on the standard lane.
+         */
+        private int standardTenantMaxInFlight = 2;
+
+        /**
+         * Queued requests per lane at which that lane's listener is paused.
+         */
+        private int maxQueuedPerLane = 64;
+
+        /**
+         * Queued requests per lane at or below which a paused listener is resumed.
+         */
+        private int resumeQueuedPerLane = 16;
+    }
+
+    /**
+     * Configuration for hedging slow primary OCR calls with the fallback provider.
+     */
+    @Data
+    public static class HedgingConfig {
+        /**
+         * Whether single-image requests launch the fallback provider in parallel
+         * once the primary exceeds the hedge delay.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Latency percentile of the primary provider used as the hedge delay.
+         */
+        private double delayPercentile = 95.0;
+
+        /**
+         * Number of recent primary latencies kept per provider.
+         */
+        private int sampleWindow = 200;
+
+        /**
+         * Samples required before the percentile is used instead of the initial delay.
+         */
+        private int minSamples = 20;
+
+        /**
+         * Hedge delay used until enough latency samples have been collected.
+         */
+        private long initialDelayMs = 3000;
+
+        /**
+         * Lower bound for the hedge delay.
+         */
+        private long minDelayMs = 250;
+
+        /**
+         * Upper bound for the hedge delay.
+         */
+        private long maxDelayMs = 15000;
+    }
+
+    /**
+     * Configuration for server-sent OCR progress streams.
+     */
+    @Data
+    public static class ProgressConfig {
+        /**
+         * Whether OCR progress is published to Redis and streamed to clients.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long a progress stream stays open before the client must reconnect.
+         */
+        private long emitterTimeoutMs = 1800000;
+
+        /**
+         * Interval between heartbeat comments on open streams.
+         */
+        private long heartbeatIntervalMs = 15000;
+
+        /**
+         * Events that may wait to be sent to one stream before it is closed as
+         * too slow.
+         */
+        private int maxQueuedEvents = 256;
     }
 }
@@ -5,8 +5,11 @@ import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionUpload
 import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
 import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
 import com.extractor.unraveldocs.ocrprocessing.dto.response.CollectionResultResponse;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
 import com.extractor.unraveldocs.ocrprocessing.dto.response.FileResultData;
+import com.extractor.unraveldocs.ocrprocessing.dto.response.OcrJobData;
 import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
+import com.extractor.unraveldocs.ocrprocessing.progress.OcrProgressStreamService;
 import com.extractor.unraveldocs.ocrprocessing.service.OcrService;
 import com.extractor.unraveldocs.user.model.User;
 import com.extractor.unraveldocs.user.repository.UserRepository;
@@ -18,12 +21,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
 
 @RestController
 @RequestMapping("/api/v1/collections")
@@ -32,6 +39,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class OcrDocumentController {
     private final OcrService ocrService;
     private final UserRepository userRepository;
+    private final OcrProgressStreamService progressStreamService;
 
     private User getAuthenticatedUser(Authentication authenticatedUser) {
         if (authenticatedUser == null) {
@@ -44,18 +52,21 @@ public class OcrDocumentController {
 
     @Operation(
             summary = "Extract text from a specific file",
-            description = "Triggers the OCR process to extract text from a file. If already processed, returns existing data.",
+            description = "Queues the OCR process for a file and returns a job handle. Poll the status URL for the result. " +
+                    "If the file is already processed, returns the existing data.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Successfully extracted text or retrieved existing data",
+                    @ApiResponse(responseCode = "202", description = "OCR job queued or still in progress",
                             content = @Content(mediaType = "application/json",
-                                    schema = @Schema(implementation = OcrData.class))),
+                                    schema = @Schema(implementation = OcrJobData.class))),
+                    @ApiResponse(responseCode = "200", description = "Text already extracted",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = OcrJobData.class))),
                     @ApiResponse(responseCode = "403", description = "Forbidden - User not authorized or not logged in"),
-                    @ApiResponse(responseCode = "404", description = "Not Found - Collection or file not found"),
-                    @ApiResponse(responseCode = "500", description = "Internal Server Error - OCR processing failed")
+                    @ApiResponse(responseCode = "404", description = "Not Found - Collection or file not found")
             }
     )
     @PostMapping("/{collectionId}/document/{documentId}/extract")
-    public ResponseEntity<DocumentCollectionResponse<OcrData>> extractTextFromFile(
+    public ResponseEntity<DocumentCollectionResponse<OcrJobData>> extractTextFromFile(
             @Parameter(description = "ID of the document collection", required = true)
             @PathVariable  String collectionId,
 
@@ -66,14 +77,35 @@ public class OcrDocumentController {
         User user = getAuthenticatedUser(authenticatedUser);
         OcrData ocrData = ocrService.extractTextFromDocument(collectionId, documentId, user.getId());
 
-        DocumentCollectionResponse<OcrData> response = DocumentCollectionResponse.<OcrData>builder()
-                .statusCode(HttpStatus.OK.value())
+        String statusUrl = "/api/v1/collections/" + collectionId + "/document/" + documentId + "/ocr-data";
+        boolean completed = ocrData.getStatus() == OcrStatus.COMPLETED;
+        HttpStatus httpStatus = completed ? HttpStatus.OK : HttpStatus.ACCEPTED;
+
+        OcrJobData jobData = OcrJobData.builder()
+                .documentId(documentId)
+                .collectionId(collectionId)
+                .status(ocrData.getStatus().getStatus())
+                .statusUrl(statusUrl)
+                .extractedText(completed ? ocrData.getExtractedText() : null)
+                .errorMessage(ocrData.getErrorMessage())
+                .build();
+
+        DocumentCollectionResponse<OcrJobData> response = DocumentCollectionResponse.<OcrJobData>builder()
+                .statusCode(httpStatus.value())
                 .status("success")
-                .message("Text extraction completed successfully.")
-                .data(ocrData)
+                .message(completed
+                        ? "Text extraction completed successfully."
+                        : "Text extraction queued. Poll the status URL for the result.")
+                .data(jobData)
                 .build();
 
-        return ResponseEntity.ok(response);
+        if (completed) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create(statusUrl))
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(response);
     }
 
     @Operation(
@@ -152,4 +184,25 @@ public class OcrDocumentController {
 
         return ResponseEntity.ok(response);
     }
+
+    @Operation(
+            summary = "Stream OCR progress for a document collection",
+            description = "Opens a server-sent event stream of OCR state transitions for the collection. " +
+                    "The current status of every document is sent first, followed by per-document and " +
+                    "per-page transitions as they happen.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Progress stream opened",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+                    @ApiResponse(responseCode = "403", description = "Forbidden - User not authorized or not logged in"),
+                    @ApiResponse(responseCode = "404", description = "Not Found - Collection not found")
+            }
+    )
+    @GetMapping(value = "/{collectionId}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOcrProgress(
+            @Parameter(description = "ID of the document collection", required = true) @PathVariable String collectionId,
+            Authentication authenticatedUser
+    ) {
+        User user = getAuthenticatedUser(authenticatedUser);
+        return progressStreamService.openStream(collectionId, user.getId());
+    }
 }
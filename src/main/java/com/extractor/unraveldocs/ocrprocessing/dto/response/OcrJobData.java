@@ -0,0 +1,22 @@
+package com.extractor.unraveldocs.ocrprocessing.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Handle for a queued OCR job. Poll {@code statusUrl} for the result.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcrJobData {
+    private String documentId;
+    private String collectionId;
+    private String status;
+    private String statusUrl;
+    private String extractedText;
+    private String errorMessage;
+}
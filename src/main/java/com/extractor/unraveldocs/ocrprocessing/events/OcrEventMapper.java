@@ -9,5 +9,7 @@ public interface OcrEventMapper {
 
     @Mapping(target = "collectionId", source = "collectionId")
     @Mapping(target = "documentId", source = "fileEntry.documentId")
+    @Mapping(target = "userId", ignore = true)
+    @Mapping(target = "priority", ignore = true)
     OcrRequestedEvent toOcrRequestedEvent(FileEntry fileEntry, String collectionId);
 }
@@ -3,6 +3,9 @@ package com.extractor.unraveldocs.ocrprocessing.events;
 import com.extractor.unraveldocs.brokers.core.Message;
 import com.extractor.unraveldocs.brokers.kafka.config.KafkaTopicConfig;
 import com.extractor.unraveldocs.brokers.kafka.producer.KafkaMessageProducer;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
+import com.extractor.unraveldocs.subscription.service.SubscriptionFeatureService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -13,9 +16,13 @@ import java.util.concurrent.CompletableFuture;
 
 /**
  * Publisher for OCR processing events to Kafka.
- * Publishes OCR requests to the documents topic for processing.
- * Uses collectionId as partition key to ensure documents in the same collection
- * are processed in order.
+ * Publishes OCR requests to the documents topic for processing, or to the
+ * priority documents topic for users with the PRIORITY_OCR feature.
+ * Uses documentId as partition key, so the documents of one large collection
+ * are spread over all partitions and processed in parallel. Documents of a
+ * collection need no ordering: collection completion is tracked with the
+ * collection's OCR counters, see
+ * {@link com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService}.
  */
 @Slf4j
 @Component
@@ -24,39 +31,61 @@ import java.util.concurrent.CompletableFuture;
 public class OcrEventPublisher {
 
     private final KafkaMessageProducer<OcrRequestedEvent> kafkaMessageProducer;
+    private final SubscriptionFeatureService subscriptionFeatureService;
+    private final OcrProperties ocrProperties;
+
+    /**
+     * Check whether a user's OCR requests should go to the priority lane,
+     * using entitlements the caller has already resolved. Resolve this once
+     * per upload rather than per event.
+     *
+     * @param entitlements The user's entitlements
+     * @return true if the user is entitled to priority OCR
+     */
+    public boolean isPriorityUser(UserEntitlements entitlements) {
+        return ocrProperties.getLanes().isEnabled()
+                && subscriptionFeatureService.hasFeatureAccess(
+                        entitlements.plan(), SubscriptionFeatureService.Feature.PRIORITY_OCR);
+    }
 
     /**
      * Publish an OCR request event to Kafka.
+     * Failures are logged here; callers that need to react to them can use
+     * the returned future.
      *
      * @param event The OCR request event to publish
-     * @return CompletableFuture that completes when the message is sent
+     * @return CompletableFuture that completes when the message is sent, or
+     *         completes exceptionally if it could not be sent
      */
     public CompletableFuture<Void> publishOcrRequest(OcrRequestedEvent event) {
         String correlationId = UUID.randomUUID().toString();
 
-        log.info("Publishing OCR request for document: {}, collection: {}, correlationId: {}",
-                event.getDocumentId(), event.getCollectionId(), correlationId);
+        String topic = event.isPriority()
+                ? KafkaTopicConfig.TOPIC_DOCUMENTS_PRIORITY
+                : KafkaTopicConfig.TOPIC_DOCUMENTS;
+
+        log.info("Publishing OCR request for document: {}, collection: {}, topic: {}, correlationId: {}",
+                event.getDocumentId(), event.getCollectionId(), topic, correlationId);
 
-        // Use collectionId as partition key to ensure ordering within a collection
+        // Key by document so a collection spreads over partitions; retries of a document keep its key
         Message<OcrRequestedEvent> message = Message.of(
                 event,
-                KafkaTopicConfig.TOPIC_DOCUMENTS,
-                event.getCollectionId());
+                topic,
+                event.getDocumentId());
 
         return kafkaMessageProducer.send(message)
                 .thenAccept(result -> {
-                    if (result.success()) {
-                        log.debug("OCR event published successfully for document: {}, partition: {}, offset: {}",
-                                event.getDocumentId(), result.partition(), result.offset());
-                    } else {
-                        log.warn("OCR event publish may have failed for document: {}, error: {}",
-                                event.getDocumentId(), result.errorMessage());
+                    if (!result.success()) {
+                        throw new IllegalStateException(result.errorMessage());
                     }
+                    log.debug("OCR event published successfully for document: {}, partition: {}, offset: {}",
+                            event.getDocumentId(), result.partition(), result.offset());
                 })
-                .exceptionally(e -> {
-                    log.error("Failed to publish OCR event for document: {}. Error: {}",
-                            event.getDocumentId(), e.getMessage(), e);
-                    return null;
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.error("Failed to publish OCR event for document: {}. Error: {}",
+                                event.getDocumentId(), e.getMessage(), e);
+                    }
                 });
     }
 
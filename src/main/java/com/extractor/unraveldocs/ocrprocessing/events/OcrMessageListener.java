@@ -1,59 +1,266 @@
 package com.extractor.unraveldocs.ocrprocessing.events;
 
+import com.extractor.unraveldocs.brokers.config.MessagingProperties;
 import com.extractor.unraveldocs.brokers.kafka.config.KafkaTopicConfig;
+import com.extractor.unraveldocs.brokers.kafka.handler.KafkaErrorHandler;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.ocrprocessing.execution.OcrLane;
+import com.extractor.unraveldocs.ocrprocessing.execution.OcrLaneScheduler;
 import com.extractor.unraveldocs.ocrprocessing.interfaces.ProcessOcrService;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Kafka consumer for OCR processing events.
  * Uses Kafka for document/OCR processing due to:
  * - High throughput for batch document processing
  * - Better partitioning for parallel processing
  * - Stream processing capabilities
- * 
+ *
  * OCR engine selection is handled by OcrProcessingService based on user
  * subscription:
  * - FREE tier: Tesseract (local)
  * - Paid subscribers: Google Cloud Vision
+ *
+ * Standard and priority lanes are consumed by separate listeners in separate
+ * consumer groups, so a rebalance on one lane never stalls the other: users
+ * with the PRIORITY_OCR feature publish to the priority topics. Records are queued
+ * on the {@link OcrLaneScheduler}, which dispatches them to the OCR execution
+ * stage with weighted-fair lane selection and per-user concurrency caps, so
+ * the consumer threads only poll and enqueue. Each record is acknowledged once
+ * its OCR completes; failures are routed to the lane's retry topic and then
+ * the DLQ, and acknowledged only once that send has succeeded. If routing
+ * keeps failing (e.g. during a broker outage) the lane's listener is paused
+ * and the send is retried with capped backoff until it succeeds, after which
+ * the listener resumes on its own. Records read back from a retry topic are
+ * held by the scheduler until their backoff ({@code not-before} header) has
+ * elapsed. A lane's listener is also paused while its queue is full and
+ * resumed once it drains.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.kafka.bootstrap-servers")
 public class OcrMessageListener {
+        static final String LISTENER_ID = "ocr-documents-listener";
+        static final String PRIORITY_LISTENER_ID = "ocr-documents-priority-listener";
+        static final String GROUP_ID = "unraveldocs-ocr-group";
+        static final String PRIORITY_GROUP_ID = "unraveldocs-ocr-priority-group";
+
         private final ProcessOcrService ocrService;
+        private final OcrLaneScheduler laneScheduler;
+        private final KafkaListenerEndpointRegistry listenerRegistry;
+        private final KafkaErrorHandler kafkaErrorHandler;
+        private final MessagingProperties messagingProperties;
+        private final OcrMetrics ocrMetrics;
         private final SanitizeLogging s;
 
-        @KafkaListener(topics = KafkaTopicConfig.TOPIC_DOCUMENTS, groupId = "unraveldocs-ocr-group", containerFactory = "kafkaListenerContainerFactory")
+        // Failed records per lane whose routing has exhausted its attempts and is still being retried
+        private final Map<OcrLane, AtomicInteger> routingBlocked = newRoutingBlocked();
+
+        @PostConstruct
+        void registerMetrics() {
+                routingBlocked.forEach((lane, blocked) -> ocrMetrics.registerRoutingBlocked(lane, blocked::get));
+        }
+
+        @KafkaListener(id = LISTENER_ID, topics = { KafkaTopicConfig.TOPIC_DOCUMENTS,
+                        KafkaTopicConfig.TOPIC_DOCUMENTS_RETRY }, groupId = GROUP_ID, containerFactory = "ocrListenerContainerFactory")
         public void receiveOcrRequestedEvent(
                         ConsumerRecord<String, OcrRequestedEvent> record,
                         Acknowledgment acknowledgment) {
+                schedule(record, acknowledgment, OcrLane.STANDARD);
+        }
+
+        @KafkaListener(id = PRIORITY_LISTENER_ID, topics = { KafkaTopicConfig.TOPIC_DOCUMENTS_PRIORITY,
+                        KafkaTopicConfig.TOPIC_DOCUMENTS_PRIORITY_RETRY }, groupId = PRIORITY_GROUP_ID, containerFactory = "ocrListenerContainerFactory")
+        public void receivePriorityOcrRequestedEvent(
+                        ConsumerRecord<String, OcrRequestedEvent> record,
+                        Acknowledgment acknowledgment) {
+                schedule(record, acknowledgment, OcrLane.PRIORITY);
+        }
+
+        private void schedule(
+                        ConsumerRecord<String, OcrRequestedEvent> record,
+                        Acknowledgment acknowledgment,
+                        OcrLane lane) {
                 OcrRequestedEvent payload = record.value();
-                String partitionKey = record.key();
 
-                log.info("Received OCR request via Kafka for collection ID: {}, document ID: {}. Partition: {}, Offset: {}",
+                log.info("Received OCR request via Kafka for collection ID: {}, document ID: {}. Lane: {}, Partition: {}, Offset: {}",
                                 s.sanitizeLogging(payload.getCollectionId()),
                                 s.sanitizeLogging(payload.getDocumentId()),
+                                lane.getCode(),
                                 record.partition(),
                                 record.offset());
-                try {
-                        ocrService.processOcrRequest(payload.getCollectionId(), payload.getDocumentId());
-                        acknowledgment.acknowledge(); // Manual acknowledgment after successful processing
+
+                // Events published before lanes existed carry no user; fall back to the collection
+                String tenant = payload.getUserId() != null ? payload.getUserId() : payload.getCollectionId();
+
+                laneScheduler.submit(lane, tenant,
+                                () -> ocrService.processOcrRequest(payload.getCollectionId(), payload.getDocumentId()),
+                                KafkaErrorHandler.extractNotBefore(record))
+                                .whenComplete((ignored, error) -> onProcessed(record, acknowledgment, lane, error));
+
+                if (laneScheduler.isSaturated(lane)) {
+                        pauseListener(lane);
+                }
+        }
+
+        private void onProcessed(
+                        ConsumerRecord<String, OcrRequestedEvent> record,
+                        Acknowledgment acknowledgment,
+                        OcrLane lane,
+                        Throwable error) {
+                OcrRequestedEvent payload = record.value();
+                if (error == null) {
                         log.debug("OCR processing completed successfully for document ID: {}",
                                         s.sanitizeLogging(payload.getDocumentId()));
-                } catch (Exception e) {
-                        log.error("Error processing OCR request for collection ID: {}, document ID: {}. Partition key: {}. Error: {}",
-                                        s.sanitizeLogging(payload.getCollectionId()),
-                                        s.sanitizeLogging(payload.getDocumentId()),
-                                        s.sanitizeLogging(partitionKey),
-                                        e.getMessage(), e);
-                        // Do not acknowledge - message will be redelivered or sent to DLQ
-                        throw e;
+                        complete(acknowledgment, lane);
+                        return;
                 }
+
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                log.error("Error processing OCR request for collection ID: {}, document ID: {}. Partition key: {}. Error: {}",
+                                s.sanitizeLogging(payload.getCollectionId()),
+                                s.sanitizeLogging(payload.getDocumentId()),
+                                s.sanitizeLogging(record.key()),
+                                cause.getMessage(), cause);
+                Exception exception = cause instanceof Exception e ? e : new RuntimeException(cause);
+
+                routeFailure(record, acknowledgment, lane, exception, 1, false);
+        }
+
+        /**
+         * Route a failed record to its retry topic or DLQ, retrying the send with
+         * capped backoff until it succeeds. nack() is not available with async acks,
+         * so the record stays unacknowledged meanwhile; once the attempts are
+         * exhausted the lane's listener is paused so no further offsets pile up
+         * behind it, and it resumes when the send finally goes through.
+         */
+        private void routeFailure(
+                        ConsumerRecord<String, OcrRequestedEvent> record,
+                        Acknowledgment acknowledgment,
+                        OcrLane lane,
+                        Exception exception,
+                        int attempt,
+                        boolean blocked) {
+                MessagingProperties.RetryProperties retry = messagingProperties.getKafka().getRetry();
+
+                CompletableFuture<Void> routed;
+                try {
+                        routed = kafkaErrorHandler.routeToRetryOrDlq(record, exception, retry);
+                } catch (RuntimeException e) {
+                        routed = CompletableFuture.failedFuture(e);
+                }
+
+                routed.whenComplete((ignored, routingError) -> {
+                        if (routingError == null) {
+                                if (blocked) {
+                                        routingBlocked.get(lane).decrementAndGet();
+                                        log.info("Routed failed OCR request for document ID: {} after {} attempts",
+                                                        s.sanitizeLogging(record.value().getDocumentId()), attempt);
+                                }
+                                complete(acknowledgment, lane);
+                                return;
+                        }
+                        String documentId = s.sanitizeLogging(record.value().getDocumentId());
+                        long delayMs = KafkaErrorHandler.backoffMs(retry, attempt);
+                        boolean nowBlocked = blocked || attempt >= retry.getMaxAttempts();
+                        if (nowBlocked && !blocked) {
+                                routingBlocked.get(lane).incrementAndGet();
+                                log.error("Could not route failed OCR request for document ID: {} to the retry topic or DLQ "
+                                                + "after {} attempts. Pausing the {} lane listener and retrying every {} ms "
+                                                + "at most; partition {} offset {} stays unacknowledged until then: {}",
+                                                documentId, attempt, lane.getCode(), retry.getMaxIntervalMs(),
+                                                record.partition(), record.offset(), routingError.getMessage());
+                                pause(lane);
+                        } else {
+                                log.warn("Could not route failed OCR request for document ID: {} (attempt {}). "
+                                                + "Retrying in {} ms: {}",
+                                                documentId, attempt, delayMs, routingError.getMessage());
+                        }
+                        CompletableFuture.runAsync(
+                                        () -> routeFailure(record, acknowledgment, lane, exception, attempt + 1, nowBlocked),
+                                        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+                });
+        }
+
+        /**
+         * Commit a record once processing, or routing of its failure, has completed.
+         */
+        private void complete(Acknowledgment acknowledgment, OcrLane lane) {
+                try {
+                        acknowledgment.acknowledge();
+                } finally {
+                        resumeListenerIfDrained(lane);
+                }
+        }
+
+        /**
+         * Number of failed records on a lane whose routing is still being retried
+         * after exhausting its attempts. The lane's listener stays paused while
+         * this is non-zero.
+         */
+        public int getRoutingBlocked(OcrLane lane) {
+                return routingBlocked.get(lane).get();
+        }
+
+        private boolean pause(OcrLane lane) {
+                MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId(lane));
+                if (container != null && !container.isPauseRequested()) {
+                        container.pause();
+                        return true;
+                }
+                return false;
+        }
+
+        private void pauseListener(OcrLane lane) {
+                if (pause(lane)) {
+                        ocrMetrics.recordListenerBackPressure(lane, true);
+                        log.info("OCR {} lane saturated ({} queued). Pausing listener.",
+                                        lane.getCode(), laneScheduler.getQueued(lane));
+                }
+        }
+
+        private void resumeListenerIfDrained(OcrLane lane) {
+                if (!laneScheduler.canResume(lane) || routingBlocked.get(lane).get() > 0) {
+                        return;
+                }
+                MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId(lane));
+                if (container != null && container.isPauseRequested()) {
+                        container.resume();
+                        ocrMetrics.recordListenerBackPressure(lane, false);
+                        log.info("OCR {} lane drained ({} queued). Resuming listener.",
+                                        lane.getCode(), laneScheduler.getQueued(lane));
+                }
+        }
+
+        private static Map<OcrLane, AtomicInteger> newRoutingBlocked() {
+                Map<OcrLane, AtomicInteger> blocked = new EnumMap<>(OcrLane.class);
+                for (OcrLane lane : OcrLane.values()) {
+                        blocked.put(lane, new AtomicInteger());
+                }
+                return blocked;
+        }
+
+        private static String listenerId(OcrLane lane) {
+                return lane == OcrLane.PRIORITY ? PRIORITY_LISTENER_ID : LISTENER_ID;
         }
 }
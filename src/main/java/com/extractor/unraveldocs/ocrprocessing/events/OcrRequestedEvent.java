@@ -14,4 +14,14 @@ import java.io.Serializable;
 public class OcrRequestedEvent implements Serializable {
     private String collectionId;
     private String documentId;
+
+    /**
+     * Owner of the document; OCR concurrency is capped per user.
+     */
+    private String userId;
+
+    /**
+     * Whether the owner is entitled to the priority OCR lane.
+     */
+    private boolean priority;
 }
@@ -0,0 +1,145 @@
+package com.extractor.unraveldocs.ocrprocessing.execution;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated execution stage for OCR processing.
+ *
+ * <p>
+ * OCR requests are run on virtual threads so that the network-bound parts of
+ * the pipeline (database, image download, Google Vision, Elasticsearch) do not
+ * tie up platform threads. CPU-bound recognition (Tesseract) is funnelled
+ * through a fixed pool sized to the available cores via
+ * {@link #callCpuBound(Callable)}.
+ * </p>
+ *
+ * <p>
+ * The number of in-flight requests is bounded by
+ * {@code ocr.execution.max-in-flight}. {@link #trySubmit(Runnable)} never
+ * blocks: at capacity it hands the task back, and the caller keeps it queued
+ * until a running task completes.
+ * </p>
+ */
+@Slf4j
+@Component
+public class OcrExecutionStage {
+
+    private final OcrProperties.ExecutionConfig config;
+    private final ExecutorService ioExecutor;
+    private final ExecutorService cpuExecutor;
+    private final Semaphore inFlightPermits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Set on this stage's CPU workers, so nested CPU-bound calls run inline instead of waiting on their own pool
+    private final ThreadLocal<Boolean> cpuWorker = ThreadLocal.withInitial(() -> false);
+
+    public OcrExecutionStage(OcrProperties ocrProperties, OcrMetrics ocrMetrics) {
+        this.config = ocrProperties.getExecution();
+
+        int cpuThreads = config.getCpuThreads() > 0
+                ? config.getCpuThreads()
+                : Runtime.getRuntime().availableProcessors();
+
+        this.ioExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("ocr-io-", 0).factory());
+        this.cpuExecutor = Executors.newFixedThreadPool(cpuThreads, cpuThreadFactory());
+        this.inFlightPermits = new Semaphore(config.getMaxInFlight());
+
+        ocrMetrics.registerExecutionStage(inFlight::get, config.getMaxInFlight());
+
+        log.info("OCR execution stage initialized with {} CPU threads and max {} in-flight requests",
+                cpuThreads, config.getMaxInFlight());
+    }
+
+    /**
+     * Submit an OCR task to run on a virtual thread, unless the stage is at
+     * capacity. Never blocks.
+     *
+     * @param task The OCR task to run
+     * @return A future that completes when the task finishes, or empty if the
+     *         stage is at capacity and the task was not accepted
+     */
+    public Optional<CompletableFuture<Void>> trySubmit(Runnable task) {
+        if (!inFlightPermits.tryAcquire()) {
+            return Optional.empty();
+        }
+
+        inFlight.incrementAndGet();
+        try {
+            return Optional.of(CompletableFuture.runAsync(task, ioExecutor)
+                    .whenComplete((ignored, error) -> {
+                        inFlight.decrementAndGet();
+                        inFlightPermits.release();
+                    }));
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            inFlightPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Run CPU-bound work on the CPU-sized pool and wait for its result.
+     * Work submitted from a CPU worker thread runs inline.
+     *
+     * @param task The CPU-bound task
+     * @return The task's result
+     * @throws Exception the exception thrown by the task
+     */
+    public <T> T callCpuBound(Callable<T> task) throws Exception {
+        if (cpuWorker.get()) {
+            return task.call();
+        }
+
+        Future<T> future = cpuExecutor.submit(task);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        ioExecutor.shutdown();
+        cpuExecutor.shutdown();
+        if (!ioExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("OCR execution stage did not drain in time, {} requests still in flight", inFlight.get());
+        }
+        cpuExecutor.shutdownNow();
+    }
+
+    private ThreadFactory cpuThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(() -> {
+                cpuWorker.set(true);
+                runnable.run();
+            }, "ocr-cpu-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
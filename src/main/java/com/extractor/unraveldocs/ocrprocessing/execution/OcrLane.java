@@ -0,0 +1,19 @@
+package com.extractor.unraveldocs.ocrprocessing.execution;
+
+import lombok.Getter;
+
+/**
+ * Scheduling lane for OCR requests.
+ * Subscribers with the PRIORITY_OCR feature are scheduled on the priority lane.
+ */
+@Getter
+public enum OcrLane {
+    PRIORITY("priority"),
+    STANDARD("standard");
+
+    private final String code;
+
+    OcrLane(String code) {
+        this.code = code;
+    }
+}
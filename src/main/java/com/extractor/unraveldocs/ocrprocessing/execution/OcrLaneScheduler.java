@@ -0,0 +1,403 @@
+package com.extractor.unraveldocs.ocrprocessing.execution;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Weighted-fair scheduler in front of the {@link OcrExecutionStage}.
+ *
+ * <p>
+ * Requests are queued per {@link OcrLane} and, within a lane, per tenant
+ * (user). A single dispatcher thread hands work to the execution stage:
+ * lanes are picked by smooth weighted round-robin using
+ * {@code ocr.lanes.priority-weight} and {@code ocr.lanes.standard-weight},
+ * and tenants within a lane are served round-robin. While a tenant under its
+ * lane's {@code tenant-max-in-flight} has work queued, tenants already at the
+ * cap are skipped, so a single large bulk upload cannot crowd out other users.
+ * The cap is work-conserving: when every tenant with queued work is at its
+ * cap, capped tenants borrow the idle capacity, so a lone tenant can use the
+ * whole stage. A lane with no eligible work gives its share to the other lane.
+ * </p>
+ *
+ * <p>
+ * Hand-off to the stage never blocks: when the stage is at capacity the
+ * selected task is put back at the head of its tenant's queue and the
+ * dispatcher waits for a running task to complete. Callers only ever enqueue,
+ * so a Kafka listener thread is never held up by a full stage.
+ * </p>
+ *
+ * <p>
+ * A retried request may carry a time before which it must not run. It is
+ * held on a timer until then and counts as queued on its lane meanwhile, so
+ * requests in backoff still apply back-pressure to the listener.
+ * </p>
+ */
+@Slf4j
+@Component
+public class OcrLaneScheduler {
+
+    private static final String UNKNOWN_TENANT = "unknown";
+
+    private final OcrExecutionStage executionStage;
+    private final OcrMetrics ocrMetrics;
+    private final OcrProperties.LaneConfig config;
+    private final Map<OcrLane, LaneQueue> lanes = new EnumMap<>(OcrLane.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final ScheduledExecutorService delayer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("ocr-lane-delay").daemon(true).factory());
+
+    private volatile boolean running = true;
+    private Thread dispatcher;
+    // Completed tasks; guarded by the lock. Lets the dispatcher wait for capacity without missing a completion
+    private long completions;
+
+    public OcrLaneScheduler(OcrExecutionStage executionStage, OcrProperties ocrProperties, OcrMetrics ocrMetrics) {
+        this.executionStage = executionStage;
+        this.ocrMetrics = ocrMetrics;
+        this.config = ocrProperties.getLanes();
+
+        lanes.put(OcrLane.PRIORITY, new LaneQueue(
+                OcrLane.PRIORITY, config.getPriorityWeight(), config.getPriorityTenantMaxInFlight()));
+        lanes.put(OcrLane.STANDARD, new LaneQueue(
+                OcrLane.STANDARD, config.getStandardWeight(), config.getStandardTenantMaxInFlight()));
+
+        lanes.values().forEach(lane -> ocrMetrics.registerLane(lane.lane, lane.queued::get, lane.running::get));
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcher = Thread.ofPlatform()
+                .name("ocr-lane-dispatcher")
+                .daemon(true)
+                .start(this::dispatchLoop);
+        log.info("OCR lane scheduler started with weights priority={}, standard={}",
+                config.getPriorityWeight(), config.getStandardWeight());
+    }
+
+    /**
+     * Queue an OCR task on a lane.
+     *
+     * @param lane   The lane to schedule on
+     * @param tenant The user the request belongs to
+     * @param task   The OCR task
+     * @return A future that completes when the task finishes
+     */
+    public CompletableFuture<Void> submit(OcrLane lane, String tenant, Runnable task) {
+        return submit(lane, tenant, task, 0);
+    }
+
+    /**
+     * Queue an OCR task on a lane once its backoff has elapsed.
+     *
+     * @param lane      The lane to schedule on
+     * @param tenant    The user the request belongs to
+     * @param task      The OCR task
+     * @param notBefore Epoch milliseconds before which the task must not run,
+     *                  or 0 to queue it immediately
+     * @return A future that completes when the task finishes
+     */
+    public CompletableFuture<Void> submit(OcrLane lane, String tenant, Runnable task, long notBefore) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        String resolvedTenant = tenant != null && !tenant.isBlank() ? tenant : UNKNOWN_TENANT;
+
+        long delayMs = notBefore - System.currentTimeMillis();
+        if (delayMs <= 0) {
+            enqueue(new PendingTask(lane, resolvedTenant, task, System.nanoTime(), future));
+            return future;
+        }
+
+        AtomicInteger delayed = lanes.get(lane).delayed;
+        delayed.incrementAndGet();
+        try {
+            delayer.schedule(() -> {
+                delayed.decrementAndGet();
+                enqueue(new PendingTask(lane, resolvedTenant, task, System.nanoTime(), future));
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            delayed.decrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void enqueue(PendingTask pending) {
+        lock.lock();
+        try {
+            lanes.get(pending.lane).enqueue(pending);
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check whether a lane has reached its queue limit.
+     */
+    public boolean isSaturated(OcrLane lane) {
+        return getQueued(lane) >= config.getMaxQueuedPerLane();
+    }
+
+    /**
+     * Check whether a lane's queue has drained enough to resume intake.
+     */
+    public boolean canResume(OcrLane lane) {
+        return getQueued(lane) <= config.getResumeQueuedPerLane();
+    }
+
+    /**
+     * Get the number of requests waiting on a lane, including those still in
+     * backoff.
+     */
+    public int getQueued(OcrLane lane) {
+        LaneQueue queue = lanes.get(lane);
+        return queue.queued.get() + queue.delayed.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        delayer.shutdownNow();
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        // Queued records are not acknowledged and will be redelivered
+        lanes.values().forEach(lane -> {
+            int waiting = lane.queued.get() + lane.delayed.get();
+            if (waiting > 0) {
+                log.info("OCR lane {} stopped with {} queued requests", lane.lane.getCode(), waiting);
+            }
+        });
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            PendingTask next;
+            long seenCompletions;
+            lock.lock();
+            try {
+                next = selectNext();
+                while (next == null && running) {
+                    workAvailable.await();
+                    next = selectNext();
+                }
+                seenCompletions = completions;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            if (next != null && !dispatch(next)) {
+                awaitCapacity(next, seenCompletions);
+            }
+        }
+    }
+
+    /**
+     * Put back a task the stage did not accept and wait until a running task
+     * completes. Completions since the task was selected count, so none is
+     * missed between the failed hand-off and the wait.
+     */
+    private void awaitCapacity(PendingTask rejected, long seenCompletions) {
+        lock.lock();
+        try {
+            lanes.get(rejected.lane).requeue(rejected);
+            while (running && completions == seenCompletions) {
+                workAvailable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Smooth weighted round-robin over lanes that have a tenant under its cap,
+     * falling back to capped tenants when no tenant anywhere is under its cap.
+     * Must be called with the lock held.
+     */
+    private PendingTask selectNext() {
+        PendingTask next = selectNext(false);
+        return next != null ? next : selectNext(true);
+    }
+
+    private PendingTask selectNext(boolean borrow) {
+        LaneQueue selected = null;
+        int totalWeight = 0;
+
+        for (LaneQueue lane : lanes.values()) {
+            if (!lane.hasDispatchable(borrow)) {
+                continue;
+            }
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (selected == null || lane.currentWeight > selected.currentWeight) {
+                selected = lane;
+            }
+        }
+
+        if (selected == null) {
+            return null;
+        }
+        selected.currentWeight -= totalWeight;
+        return selected.poll(borrow);
+    }
+
+    /**
+     * Hand a task to the execution stage.
+     *
+     * @return false if the stage is at capacity and the task was not accepted
+     */
+    private boolean dispatch(PendingTask pending) {
+        CompletableFuture<Void> execution;
+        try {
+            Optional<CompletableFuture<Void>> accepted = executionStage.trySubmit(pending.task);
+            if (accepted.isEmpty()) {
+                return false;
+            }
+            execution = accepted.get();
+        } catch (RuntimeException e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
+        ocrMetrics.recordLaneWait(pending.lane, System.nanoTime() - pending.enqueuedAt);
+
+        execution.whenComplete((ignored, error) -> {
+            release(pending);
+            if (error != null) {
+                pending.future.completeExceptionally(error);
+            } else {
+                pending.future.complete(null);
+            }
+        });
+        return true;
+    }
+
+    private void release(PendingTask pending) {
+        lock.lock();
+        try {
+            lanes.get(pending.lane).release(pending.tenant);
+            completions++;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record PendingTask(
+            OcrLane lane,
+            String tenant,
+            Runnable task,
+            long enqueuedAt,
+            CompletableFuture<Void> future) {
+    }
+
+    /**
+     * Per-lane queues keyed by tenant. Guarded by the scheduler lock apart
+     * from the counters, which are read by gauges and back-pressure checks.
+     */
+    private static final class LaneQueue {
+        private final OcrLane lane;
+        private final int weight;
+        private final int tenantMaxInFlight;
+        private final Map<String, ArrayDeque<PendingTask>> tenantQueues = new HashMap<>();
+        private final ArrayDeque<String> rotation = new ArrayDeque<>();
+        private final Map<String, Integer> tenantInFlight = new HashMap<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        // Requests waiting out a retry backoff before they are queued
+        private final AtomicInteger delayed = new AtomicInteger();
+        private int currentWeight;
+
+        private LaneQueue(OcrLane lane, int weight, int tenantMaxInFlight) {
+            this.lane = lane;
+            this.weight = Math.max(1, weight);
+            this.tenantMaxInFlight = Math.max(1, tenantMaxInFlight);
+        }
+
+        private void enqueue(PendingTask task) {
+            tenantQueues.computeIfAbsent(task.tenant, tenant -> {
+                rotation.addLast(tenant);
+                return new ArrayDeque<>();
+            }).addLast(task);
+            queued.incrementAndGet();
+        }
+
+        /**
+         * @param borrow Whether tenants at their cap are eligible
+         */
+        private boolean hasDispatchable(boolean borrow) {
+            if (borrow) {
+                return !rotation.isEmpty();
+            }
+            for (String tenant : rotation) {
+                if (tenantInFlight.getOrDefault(tenant, 0) < tenantMaxInFlight) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private PendingTask poll(boolean borrow) {
+            for (int i = rotation.size(); i > 0; i--) {
+                String tenant = rotation.pollFirst();
+                if (!borrow && tenantInFlight.getOrDefault(tenant, 0) >= tenantMaxInFlight) {
+                    rotation.addLast(tenant);
+                    continue;
+                }
+
+                ArrayDeque<PendingTask> queue = tenantQueues.get(tenant);
+                PendingTask task = queue.pollFirst();
+                if (queue.isEmpty()) {
+                    tenantQueues.remove(tenant);
+                } else {
+                    rotation.addLast(tenant);
+                }
+
+                tenantInFlight.merge(tenant, 1, Integer::sum);
+                queued.decrementAndGet();
+                running.incrementAndGet();
+                return task;
+            }
+            return null;
+        }
+
+        /**
+         * Undo {@link #poll(boolean)} for a task the stage did not accept, keeping
+         * its place at the head of the tenant's queue.
+         */
+        private void requeue(PendingTask task) {
+            tenantQueues.computeIfAbsent(task.tenant, tenant -> {
+                rotation.addFirst(tenant);
+                return new ArrayDeque<>();
+            }).addFirst(task);
+            queued.incrementAndGet();
+            release(task.tenant);
+        }
+
+        private void release(String tenant) {
+            tenantInFlight.computeIfPresent(tenant, (key, count) -> count > 1 ? count - 1 : null);
+            running.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.extractor.unraveldocs.ocrprocessing.hedging;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProvider;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs an OCR call with a hedge against tail latency.
+ *
+ * <p>
+ * The primary provider is called first. If it has not returned within the
+ * hedge delay (the configured percentile of its recent latencies, clamped to
+ * {@code ocr.hedging.min-delay-ms}..{@code max-delay-ms}) the secondary
+ * provider is started in parallel. The first successful result wins and the
+ * other call is cancelled by interrupting its thread. If the primary fails
+ * before the delay, no hedge is started and the failure is returned to the
+ * caller so the usual fallback applies.
+ * </p>
+ */
+@Slf4j
+@Component
+public class HedgedOcrExecutor {
+
+    private final OcrProperties.HedgingConfig config;
+    private final OcrMetrics ocrMetrics;
+    private final ExecutorService hedgeExecutor;
+    private final Map<OcrProviderType, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    public HedgedOcrExecutor(OcrProperties ocrProperties, OcrMetrics ocrMetrics) {
+        this.config = ocrProperties.getHedging();
+        this.ocrMetrics = ocrMetrics;
+        this.hedgeExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("ocr-hedge-", 0).factory());
+    }
+
+    /**
+     * Outcome of a hedged call.
+     *
+     * @param result        The winning result, or the primary's failure
+     * @param provider      The provider that produced the result
+     * @param hedgeLaunched Whether the secondary provider was started
+     */
+    public record HedgedResult(OcrResult result, OcrProvider provider, boolean hedgeLaunched) {
+    }
+
+    /**
+     * Check whether hedging is enabled.
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Run the call against the primary provider, hedging with the secondary
+     * once the primary exceeds the hedge delay.
+     *
+     * @param primary   The provider selected for the request
+     * @param secondary The provider to hedge with
+     * @param call      Runs the request through a provider
+     * @return The winning result
+     * @throws OcrProcessingException if the primary fails with an exception before a hedge is started
+     */
+    public HedgedResult execute(OcrProvider primary, OcrProvider secondary, Function<OcrProvider, OcrResult> call) {
+        long startTime = System.currentTimeMillis();
+        long delayMs = hedgeDelayMs(primary.getProviderType());
+
+        CompletableFuture<Attempt> primaryOutcome = new CompletableFuture<>();
+        Future<?> primaryTask = start(primary, call, primaryOutcome);
+
+        Attempt first;
+        try {
+            first = primaryOutcome.get(delayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return race(primary, secondary, call, primaryOutcome, primaryTask, startTime, delayMs);
+        } catch (InterruptedException e) {
+            primaryTask.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new OcrProcessingException("OCR request interrupted", primary.getProviderType(), e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Attempt futures complete normally", e);
+        }
+
+        // Primary finished inside the delay; no hedge needed
+        ocrMetrics.recordHedge(primary.getProviderType(), "not_hedged");
+        if (first.error() != null) {
+            throw rethrow(first.error(), primary.getProviderType());
+        }
+        if (first.result().isSuccess()) {
+            recordLatency(primary.getProviderType(), System.currentTimeMillis() - startTime);
+        }
+        return new HedgedResult(first.result(), primary, false);
+    }
+
+    private HedgedResult race(
+            OcrProvider primary,
+            OcrProvider secondary,
+            Function<OcrProvider, OcrResult> call,
+            CompletableFuture<Attempt> primaryOutcome,
+            Future<?> primaryTask,
+            long startTime,
+            long delayMs) {
+
+        log.info("OCR provider {} exceeded hedge delay of {}ms, hedging with {}",
+                primary.getProviderType(), delayMs, secondary.getProviderType());
+
+        CompletableFuture<Attempt> secondaryOutcome = new CompletableFuture<>();
+        Future<?> secondaryTask = start(secondary, call, secondaryOutcome);
+
+        CompletableFuture<Attempt> winner = new CompletableFuture<>();
+        primaryOutcome.thenAccept(attempt -> completeIfSuccessful(winner, attempt));
+        secondaryOutcome.thenAccept(attempt -> completeIfSuccessful(winner, attempt));
+        // Dependents may run in any order, so pick again once both have finished
+        CompletableFuture.allOf(primaryOutcome, secondaryOutcome).thenRun(() -> {
+            Attempt secondaryAttempt = secondaryOutcome.join();
+            winner.complete(isSuccess(secondaryAttempt) && !isSuccess(primaryOutcome.join())
+                    ? secondaryAttempt
+                    : primaryOutcome.join());
+        });
+
+        Attempt outcome;
+        try {
+            outcome = winner.get();
+        } catch (InterruptedException e) {
+            primaryTask.cancel(true);
+            secondaryTask.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new OcrProcessingException("OCR request interrupted", primary.getProviderType(), e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Attempt futures complete normally", e);
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        if (!isSuccess(outcome)) {
+            ocrMetrics.recordHedge(primary.getProviderType(), "both_failed");
+            OcrResult failure = outcome.result() != null
+                    ? outcome.result()
+                    : OcrResult.failure(outcome.error().getMessage(), primary.getProviderType(), elapsed);
+            return new HedgedResult(failure, primary, true);
+        }
+
+        if (outcome.provider() == primary) {
+            secondaryTask.cancel(true);
+            recordLatency(primary.getProviderType(), elapsed);
+            ocrMetrics.recordHedge(primary.getProviderType(), "primary_won");
+        } else {
+            primaryTask.cancel(true);
+            // The primary took at least this long; keep it in the window so the delay does not drift low
+            recordLatency(primary.getProviderType(), elapsed);
+            ocrMetrics.recordHedge(primary.getProviderType(), "hedge_won");
+            outcome.result().withMetadata("hedgedFrom", primary.getProviderType().getCode());
+        }
+
+        return new HedgedResult(outcome.result(), outcome.provider(), true);
+    }
+
+    /**
+     * Current hedge delay for a provider.
+     */
+    long hedgeDelayMs(OcrProviderType providerType) {
+        LatencyWindow window = latencies.get(providerType);
+        long delay = window != null
+                ? window.percentile(config.getDelayPercentile(), config.getMinSamples())
+                : -1;
+        if (delay < 0) {
+            delay = config.getInitialDelayMs();
+        }
+        return Math.clamp(delay, config.getMinDelayMs(), config.getMaxDelayMs());
+    }
+
+    void recordLatency(OcrProviderType providerType, long latencyMs) {
+        latencies.computeIfAbsent(providerType, type -> new LatencyWindow(config.getSampleWindow()))
+                .add(latencyMs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    private Future<?> start(
+            OcrProvider provider,
+            Function<OcrProvider, OcrResult> call,
+            CompletableFuture<Attempt> outcome) {
+        return hedgeExecutor.submit(() -> {
+            try {
+                outcome.complete(new Attempt(provider, call.apply(provider), null));
+            } catch (RuntimeException e) {
+                outcome.complete(new Attempt(provider, null, e));
+            } catch (Error e) {
+                outcome.complete(new Attempt(provider, null, new IllegalStateException(e)));
+                throw e;
+            }
+        });
+    }
+
+    private static void completeIfSuccessful(CompletableFuture<Attempt> winner, Attempt attempt) {
+        if (isSuccess(attempt)) {
+            winner.complete(attempt);
+        }
+    }
+
+    private static boolean isSuccess(Attempt attempt) {
+        return attempt.error() == null && attempt.result() != null && attempt.result().isSuccess();
+    }
+
+    private static RuntimeException rethrow(RuntimeException error, OcrProviderType providerType) {
+        if (error instanceof OcrProcessingException) {
+            return error;
+        }
+        return new OcrProcessingException("OCR processing failed: " + error.getMessage(), providerType, error);
+    }
+
+    private record Attempt(OcrProvider provider, OcrResult result, RuntimeException error) {
+    }
+
+    /**
+     * Ring buffer of recent latencies for one provider.
+     */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int count;
+
+        private LatencyWindow(int size) {
+            this.samples = new long[Math.max(1, size)];
+        }
+
+        private synchronized void add(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        /**
+         * @return The percentile in milliseconds, or -1 if there are fewer than minSamples
+         */
+        private synchronized long percentile(double percentile, int minSamples) {
+            if (count == 0 || count < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.clamp(index, 0, count - 1)];
+        }
+    }
+}
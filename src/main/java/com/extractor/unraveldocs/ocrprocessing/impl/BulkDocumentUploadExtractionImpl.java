@@ -8,6 +8,7 @@ import com.extractor.unraveldocs.documents.datamodel.DocumentUploadState;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.utils.ParallelUploadExecutor;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
 import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
@@ -18,16 +19,19 @@ import com.extractor.unraveldocs.ocrprocessing.interfaces.BulkDocumentUploadExtr
 import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
 import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
 import com.extractor.unraveldocs.ocrprocessing.utils.FileStorageService;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
 import com.extractor.unraveldocs.storage.service.StorageAllocationService;
+import com.extractor.unraveldocs.storage.service.StorageReservation;
 import com.extractor.unraveldocs.user.model.User;
 import com.extractor.unraveldocs.utils.imageupload.FileUploadValidationUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.OffsetDateTime;
@@ -36,6 +40,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 
 import static com.extractor.unraveldocs.ocrprocessing.utils.FileStorageService.getStorageFailures;
 
@@ -50,9 +55,11 @@ public class BulkDocumentUploadExtractionImpl implements BulkDocumentUploadExtra
     private final SanitizeLogging s;
     private final FileStorageService fileStorageService;
     private final StorageAllocationService storageAllocationService;
+    private final ParallelUploadExecutor parallelUploadExecutor;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
-    @Transactional
+    @CacheEvict(value = "documentCollections", key = "#user.id")
     public DocumentCollectionResponse<DocumentCollectionUploadData> uploadDocuments(MultipartFile[] files, User user) {
         List<FileEntry> processedFiles = new ArrayList<>();
         List<FileEntryData> responseFileEntriesData = new ArrayList<>();
@@ -65,23 +72,51 @@ public class BulkDocumentUploadExtractionImpl implements BulkDocumentUploadExtra
 
         FileUploadValidationUtil.validateTotalFileSize(files);
 
-        // Check document upload limit and storage availability before processing uploads
+        // Reserve document slots and storage before processing uploads
         long totalUploadSize = Arrays.stream(files).mapToLong(MultipartFile::getSize).sum();
-        storageAllocationService.checkDocumentUploadLimit(user, files.length);
-        storageAllocationService.checkStorageAvailable(user, totalUploadSize);
+        UserEntitlements entitlements = storageAllocationService.resolveEntitlements(user.getId());
+        StorageReservation reservation = storageAllocationService.reserve(entitlements, totalUploadSize, files.length);
+
+        // Hand the reservation back unless the collection is recorded
+        DocumentCollection savedCollection = null;
+        try {
+            // Validate on the request thread; only valid files are uploaded
+            List<FileEntryData.FileEntryDataBuilder> fileEntryDataBuilders = new ArrayList<>(files.length);
+            List<Integer> uploadIndexes = new ArrayList<>();
+            List<Callable<FileEntry>> uploads = new ArrayList<>();
+            for (int i = 0; i < files.length; i++) {
+                MultipartFile file = files[i];
+                String originalFilename = Objects.requireNonNullElse(file.getOriginalFilename(), "unnamed_file");
+
+                FileEntryData.FileEntryDataBuilder fileEntryDataBuilder = FileEntryData.builder()
+                        .originalFileName(originalFilename)
+                        .fileSize(file.getSize());
+                fileEntryDataBuilders.add(fileEntryDataBuilder);
 
-        for (MultipartFile file : files) {
-            String originalFilename = Objects.requireNonNullElse(file.getOriginalFilename(), "unnamed_file");
-
-            FileEntryData.FileEntryDataBuilder fileEntryDataBuilder = FileEntryData.builder()
-                    .originalFileName(originalFilename)
-                    .fileSize(file.getSize());
+                try {
+                    FileUploadValidationUtil.validateIndividualFile(file);
+                    uploadIndexes.add(i);
+                    uploads.add(() -> fileStorageService.handleSuccessfulFileUpload(file, originalFilename));
+                } catch (BadRequestException | IllegalArgumentException validationEx) {
+                    log.warn("Validation failed for file {}: {}", s.sanitizeLogging(originalFilename),
+                            s.sanitizeLogging(validationEx.getMessage()));
+                    String tempDocumentId = java.util.UUID.randomUUID().toString();
+                    fileEntryDataBuilder.documentId(tempDocumentId)
+                            .status(DocumentUploadState.FAILED_VALIDATION.toString());
+                    validationFailures++;
+                }
+            }
 
-            try {
-                FileUploadValidationUtil.validateIndividualFile(file);
+            // Upload in parallel, outside any database transaction
+            List<ParallelUploadExecutor.Outcome<FileEntry>> outcomes = parallelUploadExecutor.runAll(uploads);
+            for (int u = 0; u < outcomes.size(); u++) {
+                int i = uploadIndexes.get(u);
+                String originalFilename = Objects.requireNonNullElse(files[i].getOriginalFilename(), "unnamed_file");
+                FileEntryData.FileEntryDataBuilder fileEntryDataBuilder = fileEntryDataBuilders.get(i);
+                ParallelUploadExecutor.Outcome<FileEntry> outcome = outcomes.get(u);
 
-                try {
-                    FileEntry fileEntry = fileStorageService.handleSuccessfulFileUpload(file, originalFilename);
+                if (outcome.isSuccess()) {
+                    FileEntry fileEntry = outcome.value();
                     processedFiles.add(fileEntry);
 
                     OcrData ocrData = new OcrData();
@@ -93,82 +128,36 @@ public class BulkDocumentUploadExtractionImpl implements BulkDocumentUploadExtra
                             .fileUrl(fileEntry.getFileUrl())
                             .status(DocumentUploadState.SUCCESS.toString());
                     successfulUploads++;
-                } catch (Exception e) {
+                } else {
+                    Exception e = outcome.error();
                     storageFailures = getStorageFailures(processedFiles, storageFailures, originalFilename, e, log, s);
                     log.warn("File {} failed to upload to storage: {}", s.sanitizeLogging(originalFilename),
                             s.sanitizeLogging(e.getMessage()));
                     fileEntryDataBuilder.status(DocumentUploadState.FAILED_STORAGE_UPLOAD.toString());
                 }
-            } catch (BadRequestException | IllegalArgumentException validationEx) {
-                log.warn("Validation failed for file {}: {}", s.sanitizeLogging(originalFilename),
-                        s.sanitizeLogging(validationEx.getMessage()));
-                String tempDocumentId = java.util.UUID.randomUUID().toString();
-                fileEntryDataBuilder.documentId(tempDocumentId)
-                        .status(DocumentUploadState.FAILED_VALIDATION.toString());
-                validationFailures++;
             }
-            responseFileEntriesData.add(fileEntryDataBuilder.build());
+            fileEntryDataBuilders.forEach(builder -> responseFileEntriesData.add(builder.build()));
+
+            if (!processedFiles.isEmpty()) {
+                int uploadedCount = successfulUploads;
+                savedCollection = transactionTemplate.execute(status ->
+                        saveCollection(user, entitlements, processedFiles, ocrDataToSave, uploadedCount,
+                                reservation));
+            }
+        } finally {
+            if (savedCollection == null) {
+                storageAllocationService.release(reservation);
+            }
         }
 
         String savedCollectionId = null;
 
         if (!processedFiles.isEmpty()) {
-            // Generate default collection name
-            String collectionName = "Collection-" + java.time.LocalDateTime.now().format(
-                    java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd-HHmmss"));
-
-            DocumentCollection documentCollection = DocumentCollection.builder()
-                    .user(user)
-                    .name(collectionName)
-                    .files(processedFiles)
-                    .uploadTimestamp(OffsetDateTime.now())
-                    .build();
-
-            boolean anyProcessedSucceededInStorage = processedFiles.stream()
-                    .anyMatch(fe -> DocumentUploadState.SUCCESS.toString().equals(fe.getUploadStatus()));
-
-            if (anyProcessedSucceededInStorage) {
-                documentCollection.setCollectionStatus(DocumentStatus.PROCESSING);
-            } else {
-                documentCollection.setCollectionStatus(DocumentStatus.FAILED_UPLOAD);
-            }
-
-            // Flush the insert of DocumentCollection and cascaded FileEntry rows before
-            // saving OCR data
-            DocumentCollection savedCollection = documentCollectionRepository.saveAndFlush(documentCollection);
             savedCollectionId = savedCollection.getId();
 
-            if (!ocrDataToSave.isEmpty()) {
-                ocrDataRepository.saveAll(ocrDataToSave);
-                ocrDataRepository.flush(); // Ensure all OCR data is saved before proceeding
-            }
-
-            String finalSavedCollectionId = savedCollectionId;
-            List<FileEntry> successfulFiles = savedCollection.getFiles().stream()
-                    .filter(fe -> DocumentUploadState.SUCCESS.toString().equals(fe.getUploadStatus()))
-                    .toList();
-
-            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                @Override
-                public void afterCommit() {
-                    ocrEventPublisher.ifPresent(publisher -> {
-                        successfulFiles.forEach(fileEntry -> {
-                            OcrRequestedEvent event = ocrEventMapper.toOcrRequestedEvent(fileEntry,
-                                    finalSavedCollectionId);
-                            publisher.publishOcrRequest(event);
-                        });
-                    });
-                }
-            });
-
             log.info("Document collection {} created with {} processed files for user {}. Status: {}",
                     s.sanitizeLogging(savedCollectionId), processedFiles.size(), s.sanitizeLogging(user.getId()),
                     savedCollection.getCollectionStatus());
-
-            // Update monthly documents uploaded count (for quota tracking)
-            if (successfulUploads > 0) {
-                storageAllocationService.updateMonthlyDocumentsUploaded(user.getId(), successfulUploads);
-            }
         } else {
             if (totalFiles > 0) {
                 log.info("No document collection created as all {} files failed validation for user {}", totalFiles,
@@ -198,4 +187,68 @@ public class BulkDocumentUploadExtractionImpl implements BulkDocumentUploadExtra
                 .data(uploadData)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Save the collection and its OCR data, and queue OCR once committed.
+     * Runs in its own short transaction once all uploads have finished.
+     */
+    private DocumentCollection saveCollection(
+            User user, UserEntitlements entitlements, List<FileEntry> processedFiles, List<OcrData> ocrDataToSave,
+            int successfulUploads, StorageReservation reservation) {
+        // Generate default collection name
+        String collectionName = "Collection-" + java.time.LocalDateTime.now().format(
+                java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd-HHmmss"));
+
+        DocumentCollection documentCollection = DocumentCollection.builder()
+                .user(user)
+                .name(collectionName)
+                .ocrTotalCount(successfulUploads)
+                .uploadTimestamp(OffsetDateTime.now())
+                .build();
+        documentCollection.addFiles(processedFiles);
+
+        boolean anyProcessedSucceededInStorage = processedFiles.stream()
+                .anyMatch(fe -> DocumentUploadState.SUCCESS.toString().equals(fe.getUploadStatus()));
+
+        if (anyProcessedSucceededInStorage) {
+            documentCollection.setCollectionStatus(DocumentStatus.PROCESSING);
+        } else {
+            documentCollection.setCollectionStatus(DocumentStatus.FAILED_UPLOAD);
+        }
+
+        // Flush the insert of DocumentCollection and cascaded FileEntry rows before
+        // saving OCR data
+        DocumentCollection savedCollection = documentCollectionRepository.saveAndFlush(documentCollection);
+        String savedCollectionId = savedCollection.getId();
+
+        if (!ocrDataToSave.isEmpty()) {
+            ocrDataRepository.saveAll(ocrDataToSave);
+            ocrDataRepository.flush(); // Ensure all OCR data is saved before proceeding
+        }
+
+        List<FileEntry> successfulFiles = savedCollection.getFiles().stream()
+                .filter(fe -> DocumentUploadState.SUCCESS.toString().equals(fe.getUploadStatus()))
+                .toList();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ocrEventPublisher.ifPresent(publisher -> {
+                    boolean priority = publisher.isPriorityUser(entitlements);
+                    successfulFiles.forEach(fileEntry -> {
+                        OcrRequestedEvent event = ocrEventMapper.toOcrRequestedEvent(fileEntry,
+                                savedCollectionId);
+                        event.setUserId(user.getId());
+                        event.setPriority(priority);
+                        publisher.publishOcrRequest(event);
+                    });
+                });
+            }
+        });
+
+        // Keep the storage and document quota of the files that made it
+        long successfulUploadSize = successfulFiles.stream().mapToLong(FileEntry::getFileSize).sum();
+        storageAllocationService.commit(reservation, successfulUploadSize, successfulUploads);
+        return savedCollection;
+    }
+}
@@ -1,27 +1,35 @@
 package com.extractor.unraveldocs.ocrprocessing.impl;
 
-import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
 import com.extractor.unraveldocs.ocrprocessing.interfaces.ExtractTextFromDocumentService;
 import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
 import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrJobDispatcher;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService;
 import com.extractor.unraveldocs.ocrprocessing.utils.FindAndValidateFileEntry;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
 import com.extractor.unraveldocs.storage.service.StorageAllocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.sourceforge.tess4j.TesseractException;
-import org.hibernate.service.spi.ServiceException;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.IOException;
 import java.util.Optional;
 
-import static com.extractor.unraveldocs.ocrprocessing.utils.ExtractImageURL.extractImageURL;
-
+/**
+ * Submits a single document for OCR.
+ *
+ * <p>
+ * The request only records a PENDING job and queues it on the OCR pipeline;
+ * the caller polls the document's OCR data for the result. Documents that are
+ * already pending, processing or completed are returned as-is, and failed
+ * documents are queued again.
+ * </p>
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -30,50 +38,48 @@ public class ExtractTextFromDocumentImpl implements ExtractTextFromDocumentServi
     private final OcrDataRepository ocrDataRepository;
     private final FindAndValidateFileEntry validateFileEntry;
     private final SanitizeLogging sanitizeLogging;
+    private final OcrJobDispatcher ocrJobDispatcher;
+    private final OcrProcessingStateService ocrProcessingStateService;
     private final StorageAllocationService storageAllocationService;
 
-    @Value("${tesseract.datapath}")
-    private String tesseractDataPath;
-
     @Override
     @Transactional
     public OcrData extractTextFromDocument(String collectionId, String documentId, String userId) {
-        FileEntry fileEntry = validateFileEntry
-                .findAndValidateFileEntry(collectionId, documentId, userId, documentCollectionRepository);
+        validateFileEntry.findAndValidateFileEntry(collectionId, documentId, userId, documentCollectionRepository);
 
-        Optional<OcrData> existingOcrData = ocrDataRepository.findByDocumentId(documentId);
-        if (existingOcrData.isPresent()) {
-            log.info("OCR data already exists for document ID: {}", sanitizeLogging.sanitizeLogging(documentId));
+        Optional<OcrData> existingOcrData = ocrDataRepository.findByDocumentIdForUpdate(documentId);
+        if (existingOcrData.isPresent() && existingOcrData.get().getStatus() != OcrStatus.FAILED) {
+            log.info("OCR data already {} for document ID: {}",
+                    existingOcrData.get().getStatus().getStatus(), sanitizeLogging.sanitizeLogging(documentId));
             return existingOcrData.get();
         }
 
-        OcrData ocrData = new OcrData();
+        OcrData ocrData = existingOcrData.orElseGet(OcrData::new);
+        OcrStatus previous = ocrData.getStatus();
         ocrData.setDocumentId(documentId);
-        try {
-            log.info("Starting OCR text extraction for document: {}", sanitizeLogging.sanitizeLogging(documentId));
-            ocrData.setStatus(OcrStatus.PROCESSING);
-            ocrDataRepository.save(ocrData);
+        ocrData.setStatus(OcrStatus.PENDING);
+        ocrData.setErrorMessage(null);
+        OcrData savedOcrData = ocrDataRepository.save(ocrData);
+        // A re-queued document no longer counts as failed
+        ocrProcessingStateService.recordTransition(collectionId, previous, OcrStatus.PENDING);
+
+        log.info("Queued OCR job for document: {}", sanitizeLogging.sanitizeLogging(documentId));
 
-            extractImageURL(fileEntry, ocrData, tesseractDataPath);
-            log.info("OCR text extraction completed for document: {}", sanitizeLogging.sanitizeLogging(documentId));
+        // Resolved here, while the transaction is open, and used for the job's lane
+        UserEntitlements entitlements = storageAllocationService.resolveEntitlements(userId);
 
-            try {
-                // Update OCR pages used (for monthly quota tracking)
-                storageAllocationService.updateOcrUsage(userId, 1);
-            } catch (Exception e) {
-                log.error("Failed to update OCR usage for user {}: {}", sanitizeLogging.sanitizeLogging(userId), e.getMessage(), e);
-            }
-        } catch (IOException | TesseractException e) {
-            log.error("OCR processing failed for document {}: {}", sanitizeLogging.sanitizeLogging(documentId), e.getMessage(), e);
-            ocrData.setStatus(OcrStatus.FAILED);
-            ocrData.setErrorMessage(e.getMessage());
-        } catch (Exception e) {
-            log.error("An unexpected error occurred while processing document {}: {}", sanitizeLogging.sanitizeLogging(documentId), e.getMessage(), e);
-            ocrData.setStatus(OcrStatus.FAILED);
-            ocrData.setErrorMessage("An unexpected error occurred: " + e.getMessage());
-            throw new ServiceException("Failed to process OCR for document: " + sanitizeLogging.sanitizeLogging(documentId), e);
+        // The worker must see the committed PENDING row
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ocrJobDispatcher.dispatch(collectionId, documentId, entitlements);
+                }
+            });
+        } else {
+            ocrJobDispatcher.dispatch(collectionId, documentId, entitlements);
         }
 
-        return ocrDataRepository.save(ocrData);
+        return savedOcrData;
     }
 }
@@ -0,0 +1,83 @@
+package com.extractor.unraveldocs.ocrprocessing.input;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * OCR input document fetched for processing, held either in memory or in a
+ * local temp file for large inputs. Closing the input deletes any temp file
+ * it owns.
+ */
+public final class OcrInput implements AutoCloseable {
+
+    private final byte[] bytes;
+    private final Path file;
+    private final boolean deleteOnClose;
+    private final long size;
+
+    private OcrInput(byte[] bytes, Path file, boolean deleteOnClose, long size) {
+        this.bytes = bytes;
+        this.file = file;
+        this.deleteOnClose = deleteOnClose;
+        this.size = size;
+    }
+
+    /**
+     * Wrap bytes already in memory.
+     */
+    public static OcrInput ofBytes(byte[] bytes) {
+        return new OcrInput(bytes, null, false, bytes.length);
+    }
+
+    /**
+     * Wrap a local file.
+     *
+     * @param file          The file
+     * @param deleteOnClose Whether this input owns the file and deletes it on close
+     */
+    public static OcrInput ofFile(Path file, boolean deleteOnClose) throws IOException {
+        return new OcrInput(null, file, deleteOnClose, Files.size(file));
+    }
+
+    /**
+     * Size of the input in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * The local file backing this input, if it was spilled to disk.
+     */
+    public Optional<Path> file() {
+        return Optional.ofNullable(file);
+    }
+
+    /**
+     * Open a stream over the input. The caller closes the stream.
+     */
+    public InputStream openStream() throws IOException {
+        return bytes != null
+                ? new ByteArrayInputStream(bytes)
+                : new BufferedInputStream(Files.newInputStream(file));
+    }
+
+    /**
+     * Get the input as a byte array, reading it from disk if it was spilled.
+     */
+    public byte[] bytes() throws IOException {
+        return bytes != null ? bytes : Files.readAllBytes(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (deleteOnClose && file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.extractor.unraveldocs.ocrprocessing.input;
+
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Fetches OCR input documents.
+ *
+ * <p>
+ * Files stored in the application bucket are read through the shared
+ * {@link S3Client} (pooled connections, no public URL round trip) as a
+ * stream, addressed by the file entry's storage key when the request carries
+ * one and by the key in its URL otherwise. Inputs are rejected as soon as
+ * they are known to exceed the caller's size limit, and inputs larger than
+ * {@code ocr.input.spill-threshold-bytes} are streamed to a temp file
+ * instead of being buffered on heap. URLs outside the bucket fall back to a
+ * plain streamed URL read with the same guards. Encrypted documents are
+ * decrypted while they are read, so the plaintext is only ever held a
+ * segment at a time before it reaches the heap buffer or temp file.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OcrInputFetcher {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final S3Client s3Client;
+    private final OcrProperties ocrProperties;
+    private final EncryptionService encryptionService;
+
+    @Value("${aws.s3.bucket}")
+    private String bucketName;
+
+    /**
+     * Fetch the document referenced by an OCR request.
+     *
+     * @param request  The OCR request
+     * @param maxBytes Maximum accepted size in bytes, or 0 or less for no limit
+     * @return The fetched input; the caller must close it
+     * @throws IOException if the input cannot be read or is too large
+     */
+    public OcrInput fetch(OcrRequest request, long maxBytes) throws IOException {
+        if (request.hasImageBytes()) {
+            checkSize(request.getImageBytes().length, maxBytes);
+            return OcrInput.ofBytes(request.getImageBytes());
+        }
+        if (request.hasLocalFile()) {
+            OcrInput input = OcrInput.ofFile(request.getLocalFile(), false);
+            checkSize(input.size(), maxBytes);
+            return input;
+        }
+        if (request.getStorageKey() != null && hasBucket()) {
+            return fetchFromS3(request.getStorageKey(), request.getEncryptionKey(), maxBytes);
+        }
+        if (request.hasImageUrl()) {
+            return fetch(request.getImageUrl(), request.getEncryptionKey(), maxBytes);
+        }
+        throw new IOException("No document source provided");
+    }
+
+    /**
+     * Fetch a document by its stored file URL.
+     *
+     * @param fileUrl  The file URL as stored on the file entry
+     * @param maxBytes Maximum accepted size in bytes, or 0 or less for no limit
+     * @return The fetched input; the caller must close it
+     * @throws IOException if the input cannot be read or is too large
+     */
+    public OcrInput fetch(String fileUrl, long maxBytes) throws IOException {
+        return fetch(fileUrl, null, maxBytes);
+    }
+
+    /**
+     * Fetch a document by its stored file URL, decrypting it if it is stored
+     * encrypted.
+     *
+     * @param fileUrl       The file URL as stored on the file entry
+     * @param encryptionKey The key material of an encrypted document, or null
+     * @param maxBytes      Maximum accepted plaintext size in bytes, or 0 or less for no limit
+     * @return The fetched input; the caller must close it
+     * @throws IOException if the input cannot be read, fails authentication or is too large
+     */
+    public OcrInput fetch(String fileUrl, EncryptionService.DocumentKey encryptionKey, long maxBytes)
+            throws IOException {
+        Optional<String> objectKey = resolveObjectKey(fileUrl);
+        if (objectKey.isPresent()) {
+            return fetchFromS3(objectKey.get(), encryptionKey, maxBytes);
+        }
+        return fetchFromUrl(fileUrl, encryptionKey, maxBytes);
+    }
+
+    private OcrInput fetchFromS3(String key, EncryptionService.DocumentKey encryptionKey, long maxBytes)
+            throws IOException {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+
+        try (ResponseInputStream<GetObjectResponse> stream = s3Client.getObject(request)) {
+            Long contentLength = stream.response().contentLength();
+            long declaredSize = plaintextSize(contentLength != null ? contentLength : -1, encryptionKey);
+            if (exceeds(declaredSize, maxBytes)) {
+                // Drop the connection rather than draining the remaining body
+                stream.abort();
+                checkSize(declaredSize, maxBytes);
+            }
+            return read(decrypting(stream, encryptionKey), declaredSize, maxBytes);
+        } catch (S3Exception e) {
+            throw new IOException("Failed to fetch OCR input from S3: " + e.awsErrorDetails().errorMessage(), e);
+        }
+    }
+
+    private OcrInput fetchFromUrl(String fileUrl, EncryptionService.DocumentKey encryptionKey, long maxBytes)
+            throws IOException {
+        URLConnection connection = URI.create(fileUrl).toURL().openConnection();
+        long declaredSize = plaintextSize(connection.getContentLengthLong(), encryptionKey);
+        checkSize(declaredSize, maxBytes);
+
+        try (InputStream stream = connection.getInputStream()) {
+            return read(decrypting(stream, encryptionKey), declaredSize, maxBytes);
+        }
+    }
+
+    private InputStream decrypting(InputStream stream, EncryptionService.DocumentKey encryptionKey) {
+        return encryptionKey != null ? encryptionService.decryptStream(stream, encryptionKey) : stream;
+    }
+
+    private long plaintextSize(long storedSize, EncryptionService.DocumentKey encryptionKey) {
+        return encryptionKey != null && storedSize >= 0 ? encryptionService.plaintextLength(storedSize) : storedSize;
+    }
+
+    private OcrInput read(InputStream stream, long declaredSize, long maxBytes) throws IOException {
+        long spillThreshold = ocrProperties.getInput().getSpillThresholdBytes();
+
+        if (spillThreshold > 0 && (declaredSize < 0 || declaredSize > spillThreshold)) {
+            return spillToFile(stream, maxBytes);
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) Math.max(declaredSize, BUFFER_SIZE));
+        copyBounded(stream, buffer, maxBytes);
+        return OcrInput.ofBytes(buffer.toByteArray());
+    }
+
+    private OcrInput spillToFile(InputStream stream, long maxBytes) throws IOException {
+        String tempDirectory = ocrProperties.getInput().getTempDirectory();
+        Path file = tempDirectory != null && !tempDirectory.isBlank()
+                ? Files.createTempFile(Path.of(tempDirectory), "ocr-input-", ".tmp")
+                : Files.createTempFile("ocr-input-", ".tmp");
+
+        try (OutputStream output = Files.newOutputStream(file)) {
+            copyBounded(stream, output, maxBytes);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        log.debug("Spilled OCR input of {} bytes to {}", Files.size(file), file);
+        return OcrInput.ofFile(file, true);
+    }
+
+    /**
+     * Copy the stream, enforcing the size limit on the bytes actually read in
+     * case the declared length was missing or wrong.
+     */
+    private static void copyBounded(InputStream input, OutputStream output, long maxBytes) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            total += read;
+            checkSize(total, maxBytes);
+            output.write(buffer, 0, read);
+        }
+    }
+
+    /**
+     * Resolve the object key for a URL pointing into the application bucket,
+     * in either virtual-hosted or path style.
+     */
+    private Optional<String> resolveObjectKey(String fileUrl) {
+        if (!hasBucket()) {
+            return Optional.empty();
+        }
+
+        try {
+            URI uri = URI.create(fileUrl);
+            String host = uri.getHost();
+            String path = uri.getPath();
+            if (host == null || path == null || path.length() < 2) {
+                return Optional.empty();
+            }
+
+            if (host.startsWith(bucketName + ".s3")) {
+                return Optional.of(path.substring(1));
+            }
+            String pathPrefix = "/" + bucketName + "/";
+            if (host.startsWith("s3") && path.startsWith(pathPrefix)) {
+                return Optional.of(path.substring(pathPrefix.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Could not parse OCR input URL: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    private boolean hasBucket() {
+        return bucketName != null && !bucketName.isBlank();
+    }
+
+    private static boolean exceeds(long size, long maxBytes) {
+        return maxBytes > 0 && size > maxBytes;
+    }
+
+    private static void checkSize(long size, long maxBytes) throws IOException {
+        if (exceeds(size, maxBytes)) {
+            throw new IOException("Document exceeds maximum size for OCR: " + size + " > " + maxBytes + " bytes");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.extractor.unraveldocs.ocrprocessing.metrics;
 
+import com.extractor.unraveldocs.ocrprocessing.execution.OcrLane;
 import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
 import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
 import io.micrometer.core.instrument.*;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Micrometer metrics for OCR processing.
@@ -142,6 +144,221 @@ public class OcrMetrics {
                 "tier", tier).increment();
     }
 
+    /**
+     * Register gauges for a per-language Tesseract engine pool.
+     */
+    public void registerTesseractPool(String language, Supplier<Number> inUse,
+            Supplier<Number> waiters, Supplier<Number> idle) {
+        Gauge.builder(METRIC_PREFIX + ".tesseract.pool.in_use", inUse)
+                .description("Tesseract engines currently checked out")
+                .tag("language", language)
+                .register(meterRegistry);
+
+        Gauge.builder(METRIC_PREFIX + ".tesseract.pool.waiters", waiters)
+                .description("Threads waiting for a Tesseract engine")
+                .tag("language", language)
+                .register(meterRegistry);
+
+        Gauge.builder(METRIC_PREFIX + ".tesseract.pool.idle", idle)
+                .description("Initialised Tesseract engines idle in the pool")
+                .tag("language", language)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record how long a caller waited to check out a Tesseract engine.
+     */
+    public void recordTesseractPoolWait(String language, long waitNanos) {
+        Timer.builder(METRIC_PREFIX + ".tesseract.pool.wait")
+                .description("Time spent waiting for a Tesseract engine")
+                .tag("language", language)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a Tesseract engine checkout that timed out.
+     */
+    public void recordTesseractPoolTimeout(String language) {
+        meterRegistry.counter(
+                METRIC_PREFIX + ".tesseract.pool.timeouts",
+                "language", language).increment();
+    }
+
+    /**
+     * Record the time spent in a single image preprocessing step.
+     */
+    public void recordPreprocessingStep(String step, long durationNanos) {
+        Timer.builder(METRIC_PREFIX + ".preprocessing.step.duration")
+                .description("Time spent in an image preprocessing step")
+                .tag("step", step)
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a full preprocessing pipeline run and how much it shrank the image.
+     */
+    public void recordPreprocessing(long durationNanos, long pixelsBefore, long pixelsAfter) {
+        Timer.builder(METRIC_PREFIX + ".preprocessing.duration")
+                .description("Total image preprocessing time per image")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+
+        if (pixelsBefore > 0) {
+            DistributionSummary.builder(METRIC_PREFIX + ".preprocessing.pixel_ratio")
+                    .description("Output to input pixel ratio after preprocessing")
+                    .scale(100)
+                    .register(meterRegistry)
+                    .record((double) pixelsAfter / pixelsBefore);
+        }
+    }
+
+    /**
+     * Record a lookup in the content-hash OCR result cache.
+     */
+    public void recordResultCacheLookup(OcrProviderType provider, boolean hit) {
+        meterRegistry.counter(
+                METRIC_PREFIX + ".result_cache.lookups",
+                "provider", provider.getCode(),
+                "result", hit ? "hit" : "miss").increment();
+    }
+
+    /**
+     * Register gauges for a provider's circuit breaker.
+     * State is exported as 0 = closed, 1 = half-open, 2 = open.
+     */
+    public void registerCircuitBreaker(OcrProviderType provider, Supplier<Number> state,
+            Supplier<Number> failureRate, Supplier<Number> slowCallRate) {
+        Gauge.builder(METRIC_PREFIX + ".circuit.state", state)
+                .description("Circuit breaker state (0 closed, 1 half-open, 2 open)")
+                .tag("provider", provider.getCode())
+                .register(meterRegistry);
+
+        Gauge.builder(METRIC_PREFIX + ".circuit.failure_rate", failureRate)
+                .description("Failure percentage in the circuit breaker window")
+                .tag("provider", provider.getCode())
+                .register(meterRegistry);
+
+        Gauge.builder(METRIC_PREFIX + ".circuit.slow_call_rate", slowCallRate)
+                .description("Slow-call percentage in the circuit breaker window")
+                .tag("provider", provider.getCode())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a circuit breaker state transition.
+     */
+    public void recordCircuitTransition(OcrProviderType provider, String from, String to) {
+        meterRegistry.counter(
+                METRIC_PREFIX + ".circuit.transitions",
+                "provider", provider.getCode(),
+                "from", from.toLowerCase(),
+                "to", to.toLowerCase()).increment();
+    }
+
+    /**
+     * Record a recovery health probe of a provider with an open circuit.
+     */
+    public void recordCircuitProbe(OcrProviderType provider, boolean healthy) {
+        meterRegistry.counter(
+                METRIC_PREFIX + ".circuit.probes",
+                "provider", provider.getCode(),
+                "result", healthy ? "healthy" : "unhealthy").increment();
+    }
+
+    /**
+     * Record the outcome of a hedged OCR call.
+     * Outcomes: not_hedged, primary_won, hedge_won, both_failed.
+     */
+    public void recordHedge(OcrProviderType primary, String outcome) {
+        meterRegistry.counter(
+                METRIC_PREFIX + ".hedge.requests",
+                "provider", primary.getCode(),
+                "outcome", outcome).increment();
+    }
+
+    /**
+     * Register gauges for the OCR execution stage.
+     */
+    public void registerExecutionStage(Supplier<Number> inFlight, int capacity) {
+        Gauge.builder(METRIC_PREFIX + ".execution.in_flight", inFlight)
+                .description("OCR requests accepted but not yet completed")
+                .register(meterRegistry);
+
+        Gauge.builder(METRIC_PREFIX + ".execution.capacity", () -> capacity)
+                .description("Maximum OCR requests allowed in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record an OCR lane listener being paused or resumed due to back-pressure.
+     */
+    public void recordListenerBackPressure(OcrLane lane, boolean paused) {
+        meterRegistry.counter(
+                METRIC_PREFIX + ".execution.backpressure",
+                "lane", lane.getCode(),
+                "action", paused ? "pause" : "resume").increment();
+    }
+
+    /**
+     * Register a gauge for failed records on a lane that could not be routed to
+     * the retry topic or DLQ and are holding the lane's listener paused.
+     */
+    public void registerRoutingBlocked(OcrLane lane, Supplier<Number> blocked) {
+        Gauge.builder(METRIC_PREFIX + ".lane.routing_blocked", blocked)
+                .description("Failed OCR requests awaiting retry/DLQ routing with the lane listener paused")
+                .tag("lane", lane.getCode())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Register queue depth and in-flight gauges for an OCR scheduling lane.
+     */
+    public void registerLane(OcrLane lane, Supplier<Number> queued, Supplier<Number> inFlight) {
+        Gauge.builder(METRIC_PREFIX + ".lane.queue_depth", queued)
+                .description("OCR requests waiting to be dispatched on a lane")
+                .tag("lane", lane.getCode())
+                .register(meterRegistry);
+
+        Gauge.builder(METRIC_PREFIX + ".lane.in_flight", inFlight)
+                .description("OCR requests dispatched from a lane and not yet completed")
+                .tag("lane", lane.getCode())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record how long a request waited on its lane before dispatch.
+     */
+    public void recordLaneWait(OcrLane lane, long waitNanos) {
+        Timer.builder(METRIC_PREFIX + ".lane.wait")
+                .description("Time OCR requests spend queued on a lane")
+                .tag("lane", lane.getCode())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a batched Vision API call and the number of images it carried.
+     */
+    public void recordVisionBatch(int batchSize, long durationMs) {
+        DistributionSummary.builder(METRIC_PREFIX + ".vision.batch.size")
+                .description("Images sent per Vision batchAnnotateImages call")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(batchSize);
+
+        Timer.builder(METRIC_PREFIX + ".vision.batch.duration")
+                .description("Duration of Vision batchAnnotateImages calls")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Create a timer sample for measuring duration.
      */
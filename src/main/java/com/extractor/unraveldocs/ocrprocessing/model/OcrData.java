@@ -32,6 +32,9 @@ public class OcrData {
     @Column(name = "error_message")
     private String errorMessage;
 
+    @Column(name = "page_count", nullable = false)
+    private Integer pageCount = 1;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
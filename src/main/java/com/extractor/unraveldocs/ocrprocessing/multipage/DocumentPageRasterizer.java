@@ -0,0 +1,140 @@
+package com.extractor.unraveldocs.ocrprocessing.multipage;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInput;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Splits multi-page documents (PDF and multi-frame TIFF) into page images.
+ * Pages are rendered one at a time and handed to a {@link PageHandler} so
+ * that callers can bound how many rendered pages are held in memory.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentPageRasterizer {
+
+    private static final String MIME_PDF = "application/pdf";
+    private static final Set<String> MULTI_PAGE_MIME_TYPES = Set.of(MIME_PDF, "image/tiff");
+
+    private final OcrProperties ocrProperties;
+
+    /**
+     * Receives each rendered page in page order.
+     */
+    @FunctionalInterface
+    public interface PageHandler {
+        /**
+         * Called once, before the first page is rendered.
+         *
+         * @param pageCount The number of pages that will be rendered
+         */
+        default void begin(int pageCount) {
+        }
+
+        /**
+         * @param pageNumber 1-based page number
+         * @param image      The rendered page
+         */
+        void accept(int pageNumber, BufferedImage image) throws InterruptedException;
+    }
+
+    /**
+     * Check whether a MIME type may contain more than one page.
+     */
+    public static boolean isMultiPage(String mimeType) {
+        return mimeType != null && MULTI_PAGE_MIME_TYPES.contains(mimeType.toLowerCase());
+    }
+
+    /**
+     * Render every page of the document, up to the configured page limit.
+     *
+     * @param input    The document, in memory or spilled to a local file
+     * @param mimeType The document MIME type
+     * @param handler  Callback invoked for each page in order
+     * @return The number of pages rendered
+     * @throws IOException if the document cannot be read
+     */
+    public int renderPages(OcrInput input, String mimeType, PageHandler handler)
+            throws IOException, InterruptedException {
+        if (MIME_PDF.equalsIgnoreCase(mimeType)) {
+            return renderPdf(input, handler);
+        }
+        return renderImageFrames(input, mimeType, handler);
+    }
+
+    private int renderPdf(OcrInput input, PageHandler handler) throws IOException, InterruptedException {
+        var config = ocrProperties.getMultiPage();
+
+        // Spilled inputs are read from disk on demand rather than loaded whole
+        PDDocument pdf = input.file().isPresent()
+                ? Loader.loadPDF(input.file().get().toFile())
+                : Loader.loadPDF(input.bytes());
+
+        try (PDDocument document = pdf) {
+            int pageCount = Math.min(document.getNumberOfPages(), config.getMaxPages());
+            if (document.getNumberOfPages() > pageCount) {
+                log.warn("PDF has {} pages, only the first {} will be processed",
+                        document.getNumberOfPages(), pageCount);
+            }
+
+            handler.begin(pageCount);
+            PDFRenderer renderer = new PDFRenderer(document);
+            for (int i = 0; i < pageCount; i++) {
+                BufferedImage page = renderer.renderImageWithDPI(i, config.getDpi(), ImageType.GRAY);
+                handler.accept(i + 1, page);
+            }
+            return pageCount;
+        }
+    }
+
+    private int renderImageFrames(OcrInput input, String mimeType, PageHandler handler)
+            throws IOException, InterruptedException {
+        Object source = input.file().isPresent()
+                ? input.file().get().toFile()
+                : new ByteArrayInputStream(input.bytes());
+
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(source)) {
+            if (imageInput == null) {
+                throw new IOException("Unable to open image input for " + mimeType);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                throw new IOException("No image reader available for " + mimeType);
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput);
+                int frameCount = reader.getNumImages(true);
+                int pageCount = Math.min(frameCount, ocrProperties.getMultiPage().getMaxPages());
+                if (frameCount > pageCount) {
+                    log.warn("Image has {} frames, only the first {} will be processed", frameCount, pageCount);
+                }
+
+                handler.begin(pageCount);
+                for (int i = 0; i < pageCount; i++) {
+                    handler.accept(i + 1, reader.read(i));
+                }
+                return pageCount;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.extractor.unraveldocs.ocrprocessing.multipage;
+
+import com.extractor.unraveldocs.ocrprocessing.circuitbreaker.CircuitBreakingOcrProvider;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInput;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInputFetcher;
+import com.extractor.unraveldocs.ocrprocessing.progress.OcrProgressPublisher;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProvider;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrRequest;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs OCR over multi-page documents (PDF and multi-frame TIFF).
+ *
+ * <p>
+ * Pages are rasterized sequentially (PDFBox documents are not thread-safe)
+ * and each page is recognized on its own virtual thread, with at most
+ * {@code ocr.multi-page.max-parallel-pages} pages in flight per document.
+ * Page results are reassembled in page order. If any page fails the whole
+ * document is reported as failed. Each recognized page is published as
+ * OCR progress. A document with more pages than the request's
+ * {@code maxPages} quota allowance is rejected before any page is rendered.
+ * </p>
+ *
+ * <p>
+ * A document is one call as far as the provider's circuit breaker is
+ * concerned: its pages run on the undecorated provider under a single
+ * breaker permission. Otherwise a document with more pages than the
+ * half-open trial calls could never get through a half-open breaker. The
+ * time each page call takes is measured and its mean reported as the
+ * document's latency.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MultiPageOcrProcessor {
+
+    private static final String PAGE_SEPARATOR = "\n\n";
+    private static final String PAGE_MIME_TYPE = "image/png";
+
+    private final DocumentPageRasterizer rasterizer;
+    private final OcrInputFetcher inputFetcher;
+    private final OcrProgressPublisher progressPublisher;
+    private final OcrProperties.MultiPageConfig config;
+    private final ExecutorService pageExecutor;
+
+    public MultiPageOcrProcessor(
+            DocumentPageRasterizer rasterizer,
+            OcrInputFetcher inputFetcher,
+            OcrProgressPublisher progressPublisher,
+            OcrProperties ocrProperties) {
+        this.rasterizer = rasterizer;
+        this.inputFetcher = inputFetcher;
+        this.progressPublisher = progressPublisher;
+        this.config = ocrProperties.getMultiPage();
+        this.pageExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("ocr-page-", 0).factory());
+    }
+
+    /**
+     * Check whether the request is a whole multi-page document that should be
+     * split into pages.
+     */
+    public boolean handles(OcrRequest request) {
+        return !request.hasPageImage() && DocumentPageRasterizer.isMultiPage(request.getMimeType());
+    }
+
+    /**
+     * Split the document into pages, OCR them in parallel with the given
+     * provider and merge the results.
+     *
+     * @param provider The provider to run each page through
+     * @param request  The document-level OCR request
+     * @return The merged OCR result
+     */
+    public OcrResult process(OcrProvider provider, OcrRequest request) {
+        if (provider instanceof CircuitBreakingOcrProvider circuitBreakingProvider) {
+            return circuitBreakingProvider.execute(delegate -> processPages(delegate, request));
+        }
+        return processPages(provider, request);
+    }
+
+    private OcrResult processPages(OcrProvider provider, OcrRequest request) {
+        long startTime = System.currentTimeMillis();
+        Semaphore pagePermits = new Semaphore(resolveParallelism());
+        List<Future<PageResult>> pages = new ArrayList<>();
+
+        try (OcrInput input = inputFetcher.fetch(request, config.getMaxDocumentBytes())) {
+            rasterizer.renderPages(input, request.getMimeType(), new DocumentPageRasterizer.PageHandler() {
+                @Override
+                public void begin(int pageCount) {
+                    // Pages are charged to the quota one by one, so check the whole document up front
+                    if (request.getMaxPages() != null && pageCount > request.getMaxPages()) {
+                        log.warn("Document {} has {} pages but the remaining OCR quota covers {}",
+                                request.getDocumentId(), pageCount, request.getMaxPages());
+                        throw OcrProcessingException.quotaExceeded(request.getUserId(), provider.getProviderType());
+                    }
+                }
+
+                @Override
+                public void accept(int pageNumber, BufferedImage image) throws InterruptedException {
+                    // Bound rendered pages held in memory as well as concurrent OCR calls
+                    pagePermits.acquire();
+                    OcrRequest pageRequest = toPageRequest(request, pageNumber, image);
+                    pages.add(pageExecutor.submit(() -> {
+                        try {
+                            long pageStart = System.nanoTime();
+                            OcrResult pageResult = provider.extractText(pageRequest);
+                            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pageStart);
+                            if (pageResult.isSuccess()) {
+                                progressPublisher.pageCompleted(
+                                        request.getCollectionId(), request.getDocumentId(), pageNumber);
+                            }
+                            return new PageResult(pageResult, durationMs);
+                        } finally {
+                            pagePermits.release();
+                        }
+                    }));
+                }
+            });
+
+            return mergePages(provider, request, pages, startTime);
+
+        } catch (IOException e) {
+            cancelAll(pages);
+            log.error("Failed to read multi-page document {}: {}", request.getDocumentId(), e.getMessage());
+            // An unreadable document says nothing about the provider's health
+            return OcrResult.failure("Failed to read document pages: " + e.getMessage(),
+                            provider.getProviderType(), System.currentTimeMillis() - startTime)
+                    .withMetadata(CircuitBreakingOcrProvider.INPUT_ERROR_METADATA, true);
+        } catch (InterruptedException e) {
+            cancelAll(pages);
+            Thread.currentThread().interrupt();
+            throw new OcrProcessingException("Multi-page OCR interrupted", provider.getProviderType(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pageExecutor.shutdown();
+    }
+
+    private OcrResult mergePages(
+            OcrProvider provider,
+            OcrRequest request,
+            List<Future<PageResult>> pages,
+            long startTime) throws InterruptedException {
+
+        StringBuilder text = new StringBuilder();
+        long pageDurationSum = 0;
+        double confidenceSum = 0;
+        int confidenceCount = 0;
+        String language = null;
+
+        for (int i = 0; i < pages.size(); i++) {
+            int pageNumber = i + 1;
+            OcrResult pageResult;
+            try {
+                PageResult page = pages.get(i).get();
+                pageResult = page.result();
+                pageDurationSum += page.durationMs();
+            } catch (ExecutionException e) {
+                cancelAll(pages);
+                if (e.getCause() instanceof OcrProcessingException ocrException) {
+                    throw ocrException;
+                }
+                throw new OcrProcessingException(
+                        "OCR failed on page " + pageNumber + ": " + e.getCause().getMessage(),
+                        provider.getProviderType(), e.getCause());
+            }
+
+            if (!pageResult.isSuccess()) {
+                cancelAll(pages);
+                OcrResult failure = OcrResult.failure(
+                        "OCR failed on page " + pageNumber + ": " + pageResult.getErrorMessage(),
+                        provider.getProviderType(), System.currentTimeMillis() - startTime);
+                failure.setDocumentId(request.getDocumentId());
+                failure.setPageCount(pages.size());
+                Object inputError = pageResult.getMetadata().get(CircuitBreakingOcrProvider.INPUT_ERROR_METADATA);
+                if (inputError != null) {
+                    failure.withMetadata(CircuitBreakingOcrProvider.INPUT_ERROR_METADATA, inputError);
+                }
+                return failure;
+            }
+
+            if (pageResult.getExtractedText() != null && !pageResult.getExtractedText().isBlank()) {
+                if (!text.isEmpty()) {
+                    text.append(PAGE_SEPARATOR);
+                }
+                text.append(pageResult.getExtractedText().strip());
+            }
+            if (pageResult.getConfidence() != null) {
+                confidenceSum += pageResult.getConfidence();
+                confidenceCount++;
+            }
+            if (language == null) {
+                language = pageResult.getLanguageDetected();
+            }
+        }
+
+        long processingTime = System.currentTimeMillis() - startTime;
+        log.info("Multi-page OCR completed for document {}: {} pages in {}ms",
+                request.getDocumentId(), pages.size(), processingTime);
+
+        return OcrResult.builder()
+                .extractedText(text.toString())
+                .confidence(confidenceCount > 0 ? confidenceSum / confidenceCount : null)
+                .providerType(provider.getProviderType())
+                .processingTimeMs(processingTime)
+                .languageDetected(language)
+                .success(true)
+                .documentId(request.getDocumentId())
+                .pageCount(pages.size())
+                .build()
+                .withMetadata("pageCount", pages.size())
+                .withMetadata(CircuitBreakingOcrProvider.PAGE_LATENCY_METADATA,
+                        pages.isEmpty() ? 0L : pageDurationSum / pages.size());
+    }
+
+    private OcrRequest toPageRequest(OcrRequest request, int pageNumber, BufferedImage image) {
+        return OcrRequest.builder()
+                .pageImage(image)
+                .pageNumber(pageNumber)
+                .mimeType(PAGE_MIME_TYPE)
+                .language(request.getLanguage())
+                .documentId(request.getDocumentId())
+                .collectionId(request.getCollectionId())
+                .userId(request.getUserId())
+                .metadata(new HashMap<>(request.getMetadata()))
+                .priority(request.getPriority())
+                .preferredProvider(request.getPreferredProvider())
+                .fallbackEnabled(false)
+                .build()
+                .withMetadata("documentType", "document");
+    }
+
+    private int resolveParallelism() {
+        return config.getMaxParallelPages() > 0
+                ? config.getMaxParallelPages()
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static void cancelAll(List<Future<PageResult>> pages) {
+        pages.forEach(page -> page.cancel(true));
+    }
+
+    /**
+     * A page's OCR result and how long the provider call took.
+     */
+    private record PageResult(OcrResult result, long durationMs) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.extractor.unraveldocs.ocrprocessing.preprocessing;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.RotatedRect;
+import org.opencv.imgproc.Imgproc;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rotates the page so text lines are horizontal.
+ *
+ * <p>
+ * The skew angle is taken from the minimum-area rectangle enclosing all
+ * foreground (text) pixels. Small angles are ignored and large ones are
+ * treated as misdetections (e.g. photos or diagrams) and left alone.
+ * </p>
+ */
+@Component
+@Order(30)
+public class DeskewStep implements ImagePreprocessingStep {
+
+    @Override
+    public String getName() {
+        return "deskew";
+    }
+
+    @Override
+    public boolean isEnabled(OcrProperties.PreprocessingConfig config) {
+        return config.isDeskew();
+    }
+
+    @Override
+    public Mat apply(Mat image, OcrProperties.PreprocessingConfig config) {
+        double angle = detectSkewAngle(image);
+        if (Double.isNaN(angle)
+                || Math.abs(angle) < config.getDeskewMinAngle()
+                || Math.abs(angle) > config.getDeskewMaxAngle()) {
+            return image;
+        }
+
+        Point center = new Point(image.cols() / 2.0, image.rows() / 2.0);
+        Mat rotation = Imgproc.getRotationMatrix2D(center, angle, 1.0);
+        Mat rotated = new Mat();
+        try {
+            Imgproc.warpAffine(image, rotated, rotation, image.size(),
+                    Imgproc.INTER_CUBIC, Core.BORDER_REPLICATE);
+        } finally {
+            rotation.release();
+        }
+        return rotated;
+    }
+
+    private double detectSkewAngle(Mat image) {
+        Mat gray = image;
+        Mat binary = new Mat();
+        Mat foreground = new Mat();
+        try {
+            if (image.channels() > 1) {
+                gray = new Mat();
+                Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+            }
+
+            // Text becomes white on black so its pixels are the non-zero ones
+            Imgproc.threshold(gray, binary, 0, 255, Imgproc.THRESH_BINARY_INV | Imgproc.THRESH_OTSU);
+            Core.findNonZero(binary, foreground);
+            if (foreground.rows() < 2) {
+                return Double.NaN;
+            }
+
+            MatOfPoint points = new MatOfPoint(foreground);
+            MatOfPoint2f points2f = new MatOfPoint2f(points.toArray());
+            RotatedRect box = Imgproc.minAreaRect(points2f);
+            points.release();
+            points2f.release();
+
+            // OpenCV 4.5+ reports angles in (0, 90]; map to (-45, 45]
+            double angle = box.angle;
+            if (angle > 45) {
+                angle -= 90;
+            }
+            return angle;
+        } finally {
+            if (gray != image) {
+                gray.release();
+            }
+            binary.release();
+            foreground.release();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.extractor.unraveldocs.ocrprocessing.preprocessing;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts colour images to a single 8-bit grayscale channel.
+ */
+@Component
+@Order(10)
+public class GrayscaleStep implements ImagePreprocessingStep {
+
+    @Override
+    public String getName() {
+        return "grayscale";
+    }
+
+    @Override
+    public boolean isEnabled(OcrProperties.PreprocessingConfig config) {
+        return config.isGrayscale();
+    }
+
+    @Override
+    public Mat apply(Mat image, OcrProperties.PreprocessingConfig config) {
+        if (image.channels() == 1) {
+            return image;
+        }
+        Mat gray = new Mat();
+        Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+        return gray;
+    }
+}
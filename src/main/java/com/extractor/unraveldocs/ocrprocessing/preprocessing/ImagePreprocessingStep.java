@@ -0,0 +1,30 @@
+package com.extractor.unraveldocs.ocrprocessing.preprocessing;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import org.opencv.core.Mat;
+
+/**
+ * A single step of the OCR image preprocessing pipeline.
+ * Steps are Spring beans and run in {@link org.springframework.core.annotation.Order} order.
+ */
+public interface ImagePreprocessingStep {
+
+    /**
+     * Name used to tag this step's metrics.
+     */
+    String getName();
+
+    /**
+     * Whether the step is switched on in the current configuration.
+     */
+    boolean isEnabled(OcrProperties.PreprocessingConfig config);
+
+    /**
+     * Apply the step.
+     *
+     * @param image  The input image (8-bit, 1 or 3 channels). Must not be released.
+     * @param config Preprocessing configuration
+     * @return The processed image, or the input itself if nothing changed
+     */
+    Mat apply(Mat image, OcrProperties.PreprocessingConfig config);
+}
@@ -0,0 +1,129 @@
+package com.extractor.unraveldocs.ocrprocessing.preprocessing;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import lombok.extern.slf4j.Slf4j;
+import nu.pattern.OpenCV;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.springframework.stereotype.Component;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.List;
+
+/**
+ * OpenCV preprocessing pipeline run on images before local OCR.
+ *
+ * <p>
+ * Runs every enabled {@link ImagePreprocessingStep} in order and records the
+ * time spent in each step. If the OpenCV native library cannot be loaded the
+ * pipeline is disabled and images pass through unchanged.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ImagePreprocessor {
+
+    private final List<ImagePreprocessingStep> steps;
+    private final OcrProperties.PreprocessingConfig config;
+    private final OcrMetrics ocrMetrics;
+    private final boolean openCvAvailable;
+
+    public ImagePreprocessor(
+            List<ImagePreprocessingStep> steps,
+            OcrProperties ocrProperties,
+            OcrMetrics ocrMetrics) {
+        this.steps = steps;
+        this.config = ocrProperties.getPreprocessing();
+        this.ocrMetrics = ocrMetrics;
+        this.openCvAvailable = config.isEnabled() && loadOpenCv();
+
+        log.info("ImagePreprocessor initialized - enabled: {}, steps: {}",
+                openCvAvailable,
+                steps.stream().filter(step -> step.isEnabled(config)).map(ImagePreprocessingStep::getName).toList());
+    }
+
+    /**
+     * Check whether preprocessing will be applied.
+     */
+    public boolean isEnabled() {
+        return openCvAvailable;
+    }
+
+    /**
+     * Run the preprocessing pipeline over an image.
+     *
+     * @param image The decoded image
+     * @return The preprocessed image, or the original if preprocessing is disabled
+     */
+    public BufferedImage preprocess(BufferedImage image) {
+        if (!openCvAvailable || image == null) {
+            return image;
+        }
+
+        long pipelineStart = System.nanoTime();
+        Mat current = toMat(image);
+        try {
+            for (ImagePreprocessingStep step : steps) {
+                if (!step.isEnabled(config)) {
+                    continue;
+                }
+
+                long stepStart = System.nanoTime();
+                Mat next = step.apply(current, config);
+                ocrMetrics.recordPreprocessingStep(step.getName(), System.nanoTime() - stepStart);
+
+                if (next != current) {
+                    current.release();
+                    current = next;
+                }
+            }
+
+            BufferedImage result = toBufferedImage(current);
+            ocrMetrics.recordPreprocessing(System.nanoTime() - pipelineStart,
+                    (long) image.getWidth() * image.getHeight(),
+                    (long) result.getWidth() * result.getHeight());
+            return result;
+        } finally {
+            current.release();
+        }
+    }
+
+    private static boolean loadOpenCv() {
+        try {
+            OpenCV.loadLocally();
+            return true;
+        } catch (Throwable e) {
+            log.warn("OpenCV native library could not be loaded, image preprocessing disabled: {}",
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    private static Mat toMat(BufferedImage image) {
+        BufferedImage source = image;
+        if (image.getType() != BufferedImage.TYPE_BYTE_GRAY && image.getType() != BufferedImage.TYPE_3BYTE_BGR) {
+            source = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D graphics = source.createGraphics();
+            try {
+                graphics.drawImage(image, 0, 0, null);
+            } finally {
+                graphics.dispose();
+            }
+        }
+
+        int type = source.getType() == BufferedImage.TYPE_BYTE_GRAY ? CvType.CV_8UC1 : CvType.CV_8UC3;
+        Mat mat = new Mat(source.getHeight(), source.getWidth(), type);
+        mat.put(0, 0, ((DataBufferByte) source.getRaster().getDataBuffer()).getData());
+        return mat;
+    }
+
+    private static BufferedImage toBufferedImage(Mat mat) {
+        int type = mat.channels() == 1 ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_3BYTE_BGR;
+        BufferedImage image = new BufferedImage(mat.cols(), mat.rows(), type);
+        mat.get(0, 0, ((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+        return image;
+    }
+}
@@ -0,0 +1,57 @@
+package com.extractor.unraveldocs.ocrprocessing.preprocessing;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Downscales oversized images to the target resolution and pixel budget.
+ *
+ * <p>
+ * Uploaded images rarely carry reliable DPI metadata, so the resolution is
+ * estimated by assuming the long edge spans an A4 page. Images are only ever
+ * scaled down; upscaling small images costs CPU without adding detail.
+ * </p>
+ */
+@Component
+@Order(20)
+public class ResolutionNormalizationStep implements ImagePreprocessingStep {
+
+    private static final double PAGE_LONG_EDGE_INCHES = 11.69;
+
+    @Override
+    public String getName() {
+        return "resolution";
+    }
+
+    @Override
+    public boolean isEnabled(OcrProperties.PreprocessingConfig config) {
+        return config.getTargetDpi() > 0 || config.getMaxPixels() > 0;
+    }
+
+    @Override
+    public Mat apply(Mat image, OcrProperties.PreprocessingConfig config) {
+        double scale = 1.0;
+
+        if (config.getTargetDpi() > 0) {
+            double estimatedDpi = Math.max(image.cols(), image.rows()) / PAGE_LONG_EDGE_INCHES;
+            scale = Math.min(scale, config.getTargetDpi() / estimatedDpi);
+        }
+        if (config.getMaxPixels() > 0) {
+            double pixels = (double) image.cols() * image.rows();
+            scale = Math.min(scale, Math.sqrt(config.getMaxPixels() / pixels));
+        }
+
+        if (scale >= 0.99) {
+            return image;
+        }
+
+        Mat resized = new Mat();
+        Size size = new Size(Math.max(1, Math.round(image.cols() * scale)), Math.max(1, Math.round(image.rows() * scale)));
+        Imgproc.resize(image, resized, size, 0, 0, Imgproc.INTER_AREA);
+        return resized;
+    }
+}
@@ -0,0 +1,50 @@
+package com.extractor.unraveldocs.ocrprocessing.progress;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An OCR state transition pushed to clients watching a collection.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcrProgressEvent {
+    public static final String TYPE_DOCUMENT = "document";
+    public static final String TYPE_PAGE = "page";
+    public static final String TYPE_COLLECTION = "collection";
+
+    /**
+     * {@link #TYPE_DOCUMENT} for document status changes, {@link #TYPE_PAGE} for a recognized page,
+     * {@link #TYPE_COLLECTION} once every document of the collection has finished.
+     */
+    private String type;
+
+    private String collectionId;
+    private String documentId;
+
+    /**
+     * Page number (1-based) for page events.
+     */
+    private Integer pageNumber;
+
+    /**
+     * OCR status of the document, e.g. processing, completed or failed.
+     */
+    private String status;
+
+    /**
+     * Collection status after the transition, when known.
+     */
+    private String collectionStatus;
+
+    private String errorMessage;
+
+    /**
+     * Epoch milliseconds at which the transition happened.
+     */
+    private long timestamp;
+}
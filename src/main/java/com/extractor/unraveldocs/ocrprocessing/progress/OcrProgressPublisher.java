@@ -0,0 +1,106 @@
+package com.extractor.unraveldocs.ocrprocessing.progress;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes OCR progress to Redis so every app node can forward it to the
+ * clients connected to it.
+ *
+ * <p>
+ * Progress is best-effort: a failed publish is logged and never fails the
+ * OCR run. Clients can always fall back to the collection results endpoint.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OcrProgressPublisher {
+    /**
+     * Channel prefix; the collection ID is appended.
+     */
+    public static final String CHANNEL_PREFIX = "ocr:progress:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final OcrProperties ocrProperties;
+
+    /**
+     * Publish a document status change.
+     *
+     * @param collectionId     The collection ID
+     * @param documentId       The document ID
+     * @param status           The new OCR status of the document
+     * @param collectionStatus The collection status, or null if unchanged
+     * @param errorMessage     The failure reason for failed documents
+     */
+    public void documentStatus(
+            String collectionId,
+            String documentId,
+            OcrStatus status,
+            DocumentStatus collectionStatus,
+            String errorMessage) {
+        publish(OcrProgressEvent.builder()
+                .type(OcrProgressEvent.TYPE_DOCUMENT)
+                .collectionId(collectionId)
+                .documentId(documentId)
+                .status(status.getStatus())
+                .collectionStatus(collectionStatus != null ? collectionStatus.toString() : null)
+                .errorMessage(errorMessage)
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
+    /**
+     * Publish that a page of a multi-page document has been recognized.
+     *
+     * @param collectionId The collection ID
+     * @param documentId   The document ID
+     * @param pageNumber   The page number (1-based)
+     */
+    public void pageCompleted(String collectionId, String documentId, int pageNumber) {
+        publish(OcrProgressEvent.builder()
+                .type(OcrProgressEvent.TYPE_PAGE)
+                .collectionId(collectionId)
+                .documentId(documentId)
+                .pageNumber(pageNumber)
+                .status(OcrStatus.COMPLETED.getStatus())
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
+    /**
+     * Publish that every document of a collection has finished OCR.
+     * Documents are processed in parallel, so this is published by whichever
+     * document finished last.
+     *
+     * @param collectionId     The collection ID
+     * @param collectionStatus The final collection status
+     */
+    public void collectionFinished(String collectionId, DocumentStatus collectionStatus) {
+        publish(OcrProgressEvent.builder()
+                .type(OcrProgressEvent.TYPE_COLLECTION)
+                .collectionId(collectionId)
+                .collectionStatus(collectionStatus != null ? collectionStatus.toString() : null)
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
+    private void publish(OcrProgressEvent event) {
+        if (!ocrProperties.getProgress().isEnabled() || event.getCollectionId() == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL_PREFIX + event.getCollectionId(),
+                    objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            log.warn("Failed to publish OCR progress for document {}: {}", event.getDocumentId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.extractor.unraveldocs.ocrprocessing.progress;
+
+import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
+import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
+import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
+import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Server-sent event streams of OCR progress per collection.
+ *
+ * <p>
+ * Each node subscribes once to {@code ocr:progress:*} and forwards messages
+ * to the streams it holds locally, so a client sees progress no matter which
+ * node runs the OCR. A new stream first receives the current status of every
+ * document in the collection; live events arriving meanwhile are held back
+ * until that snapshot has been sent so the client never sees them out of
+ * order.
+ * </p>
+ *
+ * <p>
+ * Sends never run on the Redis listener or scheduler threads: each stream
+ * queues its events and drains them in order on a virtual thread, so one slow
+ * client cannot hold up delivery to the others. A stream whose queue fills
+ * up is closed; the client reconnects and gets a fresh snapshot.
+ * </p>
+ */
+@Slf4j
+@Service
+public class OcrProgressStreamService implements MessageListener {
+    static final String EVENT_NAME = "ocr-progress";
+
+    private final OcrProperties.ProgressConfig config;
+    private final DocumentCollectionRepository documentCollectionRepository;
+    private final OcrDataRepository ocrDataRepository;
+    private final ObjectMapper objectMapper;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Set<ProgressStream>> streams = new ConcurrentHashMap<>();
+    private final ExecutorService sendExecutor;
+
+    public OcrProgressStreamService(
+            OcrProperties ocrProperties,
+            DocumentCollectionRepository documentCollectionRepository,
+            OcrDataRepository ocrDataRepository,
+            ObjectMapper objectMapper,
+            RedisMessageListenerContainer listenerContainer,
+            TransactionTemplate transactionTemplate) {
+        this.config = ocrProperties.getProgress();
+        this.documentCollectionRepository = documentCollectionRepository;
+        this.ocrDataRepository = ocrDataRepository;
+        this.objectMapper = objectMapper;
+        this.listenerContainer = listenerContainer;
+        this.transactionTemplate = transactionTemplate;
+        this.sendExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("ocr-progress-", 0).factory());
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (config.isEnabled()) {
+            listenerContainer.addMessageListener(this, new PatternTopic(OcrProgressPublisher.CHANNEL_PREFIX + "*"));
+        }
+    }
+
+    /**
+     * Open a progress stream for a collection owned by the user.
+     *
+     * @param collectionId The collection ID
+     * @param userId       The authenticated user
+     * @return The emitter, already primed with the current document statuses
+     */
+    public SseEmitter openStream(String collectionId, String userId) {
+        if (!config.isEnabled()) {
+            throw new BadRequestException("OCR progress streaming is disabled.");
+        }
+
+        SseEmitter emitter = newEmitter();
+        ProgressStream stream = new ProgressStream(collectionId, emitter);
+        // Only the snapshot read needs the transaction; sending to the client happens after it ends
+        List<String> snapshot = transactionTemplate.execute(status -> {
+            DocumentCollection collection = documentCollectionRepository.findById(collectionId)
+                    .orElseThrow(() -> new NotFoundException("Collection not found with ID: " + collectionId));
+            if (!collection.getUser().getId().equals(userId)) {
+                throw new ForbiddenException("You are not authorized to view this collection.");
+            }
+
+            // Register before reading the snapshot so no transition is missed
+            streams.computeIfAbsent(collectionId, id -> ConcurrentHashMap.newKeySet()).add(stream);
+            return snapshot(collection);
+        });
+        emitter.onCompletion(() -> remove(collectionId, stream));
+        emitter.onTimeout(() -> remove(collectionId, stream));
+        emitter.onError(error -> remove(collectionId, stream));
+
+        stream.open(snapshot);
+        return emitter;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String collectionId = channel.substring(OcrProgressPublisher.CHANNEL_PREFIX.length());
+        Set<ProgressStream> collectionStreams = streams.get(collectionId);
+        if (collectionStreams == null || collectionStreams.isEmpty()) {
+            return;
+        }
+
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (ProgressStream stream : collectionStreams) {
+            stream.deliver(payload);
+        }
+    }
+
+    /**
+     * Keep idle streams open through proxies and detect disconnected clients.
+     */
+    @Scheduled(fixedDelayString = "${ocr.progress.heartbeat-interval-ms:15000}")
+    void heartbeat() {
+        streams.values().forEach(collectionStreams -> collectionStreams.forEach(ProgressStream::heartbeat));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        streams.values().forEach(collectionStreams -> collectionStreams.forEach(ProgressStream::complete));
+        streams.clear();
+        sendExecutor.shutdownNow();
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(config.getEmitterTimeoutMs());
+    }
+
+    private List<String> snapshot(DocumentCollection collection) {
+        List<String> documentIds = collection.getFiles().stream()
+                .map(FileEntry::getDocumentId)
+                .toList();
+        Map<String, OcrData> ocrData = ocrDataRepository.findByDocumentIdIn(documentIds).stream()
+                .collect(Collectors.toMap(OcrData::getDocumentId, Function.identity()));
+
+        List<String> events = new ArrayList<>(documentIds.size());
+        for (String documentId : documentIds) {
+            OcrData data = ocrData.get(documentId);
+            events.add(toJson(OcrProgressEvent.builder()
+                    .type(OcrProgressEvent.TYPE_DOCUMENT)
+                    .collectionId(collection.getId())
+                    .documentId(documentId)
+                    .status(data != null ? data.getStatus().getStatus() : OcrStatus.PENDING.getStatus())
+                    .collectionStatus(collection.getCollectionStatus().toString())
+                    .errorMessage(data != null ? data.getErrorMessage() : null)
+                    .timestamp(System.currentTimeMillis())
+                    .build()));
+        }
+        return events;
+    }
+
+    private String toJson(OcrProgressEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize OCR progress event", e);
+        }
+    }
+
+    private void remove(String collectionId, ProgressStream stream) {
+        streams.computeIfPresent(collectionId, (id, collectionStreams) -> {
+            collectionStreams.remove(stream);
+            return collectionStreams.isEmpty() ? null : collectionStreams;
+        });
+    }
+
+    /**
+     * One client connection. Live events are queued until the snapshot is out,
+     * then sent in order by at most one drain task at a time.
+     */
+    private final class ProgressStream {
+        private final String collectionId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean opened;
+        private boolean draining;
+        private boolean closed;
+
+        private ProgressStream(String collectionId, SseEmitter emitter) {
+            this.collectionId = collectionId;
+            this.emitter = emitter;
+        }
+
+        /**
+         * Send the snapshot on the calling request thread, then start
+         * draining the live events held back meanwhile.
+         */
+        private void open(List<String> snapshot) {
+            for (String event : snapshot) {
+                if (!send(event(event))) {
+                    return;
+                }
+            }
+            synchronized (this) {
+                opened = true;
+                scheduleDrain();
+            }
+        }
+
+        private void deliver(String event) {
+            enqueue(event(event));
+        }
+
+        private void heartbeat() {
+            enqueue(SseEmitter.event().comment("heartbeat"));
+        }
+
+        private void complete() {
+            emitter.complete();
+        }
+
+        private synchronized void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() >= config.getMaxQueuedEvents()) {
+                log.warn("OCR progress stream for collection {} fell behind, closing it", collectionId);
+                close();
+                emitter.complete();
+                return;
+            }
+            queue.add(event);
+            if (opened) {
+                scheduleDrain();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining || closed || queue.isEmpty()) {
+                return;
+            }
+            draining = true;
+            try {
+                sendExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining = false;
+                close();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = closed ? null : queue.poll();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                if (!send(event)) {
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            queue.clear();
+            remove(collectionId, this);
+        }
+
+        private SseEmitter.SseEventBuilder event(String event) {
+            return SseEmitter.event().name(EVENT_NAME).data(event, MediaType.APPLICATION_JSON);
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                close();
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
@@ -65,6 +65,16 @@ public interface OcrProvider {
         return true;
     }
 
+    /**
+     * Actively check provider health, e.g. with a lightweight API call.
+     * Used to probe providers whose circuit breaker is open.
+     *
+     * @return true if the provider appears healthy
+     */
+    default boolean probeHealth() {
+        return isAvailable();
+    }
+
     /**
      * Get the provider's display name for logging and UI.
      *
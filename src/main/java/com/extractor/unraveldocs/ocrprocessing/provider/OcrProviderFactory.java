@@ -1,8 +1,12 @@
 package com.extractor.unraveldocs.ocrprocessing.provider;
 
+import com.extractor.unraveldocs.ocrprocessing.circuitbreaker.CircuitBreakingOcrProvider;
+import com.extractor.unraveldocs.ocrprocessing.circuitbreaker.ProviderCircuitBreaker;
 import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
 import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -13,16 +17,28 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Factory for creating and managing OCR providers.
  * Handles provider selection, fallback logic, and registration.
+ *
+ * <p>
+ * When {@code ocr.circuit-breaker.enabled} is set, each provider is wrapped
+ * in a {@link CircuitBreakingOcrProvider}. A provider with an open breaker
+ * reports itself unavailable, so requests go to the fallback provider, and it
+ * is periodically probed so traffic moves back once it recovers.
+ * </p>
  */
 @Slf4j
 @Component
 public class OcrProviderFactory {
 
     private final OcrProperties ocrProperties;
+    private final OcrMetrics ocrMetrics;
     private final Map<OcrProviderType, OcrProvider> providers = new ConcurrentHashMap<>();
 
-    public OcrProviderFactory(OcrProperties ocrProperties, List<OcrProvider> registeredProviders) {
+    public OcrProviderFactory(
+            OcrProperties ocrProperties,
+            List<OcrProvider> registeredProviders,
+            OcrMetrics ocrMetrics) {
         this.ocrProperties = ocrProperties;
+        this.ocrMetrics = ocrMetrics;
 
         // Register all available providers
         for (OcrProvider provider : registeredProviders) {
@@ -39,8 +55,49 @@ public class OcrProviderFactory {
      * @param provider The provider to register
      */
     public void registerProvider(OcrProvider provider) {
-        providers.put(provider.getProviderType(), provider);
-        log.debug("Registered OCR provider: {}", provider.getProviderType());
+        OcrProviderType type = provider.getProviderType();
+
+        if (ocrProperties.getCircuitBreaker().isEnabled() && !(provider instanceof CircuitBreakingOcrProvider)) {
+            ProviderCircuitBreaker circuitBreaker = new ProviderCircuitBreaker(
+                    type, ocrProperties.getCircuitBreaker(), ocrMetrics);
+            ocrMetrics.registerCircuitBreaker(type,
+                    () -> circuitBreaker.getState().getCode(),
+                    circuitBreaker::getFailureRate,
+                    circuitBreaker::getSlowCallRate);
+            provider = new CircuitBreakingOcrProvider(provider, circuitBreaker);
+        }
+
+        providers.put(type, provider);
+        log.debug("Registered OCR provider: {}", type);
+    }
+
+    /**
+     * Probe providers whose circuit breaker is open. A healthy probe moves the
+     * breaker to half-open so trial requests can confirm recovery.
+     */
+    @Scheduled(fixedDelayString = "${ocr.circuit-breaker.probe-interval-ms:15000}")
+    public void probeOpenCircuits() {
+        for (OcrProvider provider : providers.values()) {
+            if (!(provider instanceof CircuitBreakingOcrProvider breakingProvider)) {
+                continue;
+            }
+
+            ProviderCircuitBreaker circuitBreaker = breakingProvider.getCircuitBreaker();
+            if (!circuitBreaker.isProbeDue()) {
+                continue;
+            }
+
+            boolean healthy;
+            try {
+                healthy = breakingProvider.probeHealth();
+            } catch (Exception e) {
+                log.warn("Health probe for OCR provider {} failed: {}",
+                        provider.getProviderType(), e.getMessage());
+                healthy = false;
+            }
+            ocrMetrics.recordCircuitProbe(provider.getProviderType(), healthy);
+            circuitBreaker.onProbeResult(healthy);
+        }
     }
 
     /**
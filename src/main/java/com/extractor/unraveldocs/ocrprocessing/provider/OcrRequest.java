@@ -1,8 +1,11 @@
 package com.extractor.unraveldocs.ocrprocessing.provider;
 
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService;
 import lombok.Builder;
 import lombok.Data;
 
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,12 +23,49 @@ public class OcrRequest {
      */
     private String imageUrl;
 
+    /**
+     * Object key of the document in the application bucket, when known.
+     * Preferred over deriving the key from {@link #imageUrl}.
+     */
+    private String storageKey;
+
+    /**
+     * Key material of a document stored with streamed encryption, or null if
+     * the document at {@link #imageUrl} is stored in plain form.
+     */
+    private EncryptionService.DocumentKey encryptionKey;
+
     /**
      * Raw bytes of the image (alternative to URL).
      * Either imageUrl or imageBytes must be provided.
      */
     private byte[] imageBytes;
 
+    /**
+     * Local copy of the document, e.g. a large input spilled to a temp file.
+     * Takes precedence over the URL.
+     */
+    private Path localFile;
+
+    /**
+     * Already decoded image for a single page of a multi-page document.
+     * Set by the page-splitting stage; takes precedence over URL and bytes.
+     */
+    private BufferedImage pageImage;
+
+    /**
+     * 1-based page number when this request covers a single page of a
+     * multi-page document.
+     */
+    private Integer pageNumber;
+
+    /**
+     * Most pages the user's remaining quota covers, or null if unlimited.
+     * A multi-page document with more pages is rejected before any page is
+     * rendered.
+     */
+    private Integer maxPages;
+
     /**
      * MIME type of the file (e.g., "image/png", "image/jpeg", "application/pdf").
      */
@@ -93,11 +133,25 @@ public class OcrRequest {
         return imageBytes != null && imageBytes.length > 0;
     }
 
+    /**
+     * Check if the request has a local copy of the document.
+     */
+    public boolean hasLocalFile() {
+        return localFile != null;
+    }
+
+    /**
+     * Check if the request carries a pre-rendered page image.
+     */
+    public boolean hasPageImage() {
+        return pageImage != null;
+    }
+
     /**
      * Check if the request is valid (has at least one source of image data).
      */
     public boolean isValid() {
-        return hasImageUrl() || hasImageBytes();
+        return hasPageImage() || hasImageUrl() || hasImageBytes() || hasLocalFile();
     }
 
     /**
@@ -58,6 +58,12 @@ public class OcrResult {
      */
     private String documentId;
 
+    /**
+     * Number of pages processed (greater than 1 for multi-page PDF/TIFF).
+     */
+    @Builder.Default
+    private int pageCount = 1;
+
     /**
      * Timestamp when processing was completed.
      */
@@ -0,0 +1,119 @@
+package com.extractor.unraveldocs.ocrprocessing.provider;
+
+import com.sun.jna.Pointer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.TessAPI;
+import net.sourceforge.tess4j.TesseractException;
+import net.sourceforge.tess4j.util.ImageIOHelper;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single, initialised Tesseract engine handle.
+ *
+ * <p>
+ * Unlike {@link net.sourceforge.tess4j.Tesseract}, which initialises and
+ * disposes the native API (re-reading the traineddata) on every
+ * {@code doOCR} call, this wrapper keeps the native handle alive so it can be
+ * reused across requests. Instances are <b>not</b> thread-safe and must only
+ * be used by one thread at a time, which {@link TesseractEnginePool}
+ * guarantees.
+ * </p>
+ */
+@Slf4j
+public class TesseractEngine implements AutoCloseable {
+
+    private final TessAPI api;
+    private final ITessAPI.TessBaseAPI handle;
+
+    @Getter
+    private final String language;
+
+    private volatile boolean closed;
+
+    public TesseractEngine(String dataPath, String language, int ocrEngineMode) {
+        this.api = TessAPI.INSTANCE;
+        this.language = language;
+        this.handle = api.TessBaseAPICreate();
+
+        int status = api.TessBaseAPIInit2(handle, dataPath, language, ocrEngineMode);
+        if (status != 0) {
+            api.TessBaseAPIDelete(handle);
+            throw new IllegalStateException(
+                    "Failed to initialise Tesseract for language '" + language + "' (status " + status + ")");
+        }
+
+        log.debug("Initialised Tesseract engine for language: {}", language);
+    }
+
+    /**
+     * Run OCR on an image using this engine.
+     *
+     * @param image       The image to recognise
+     * @param pageSegMode The page segmentation mode (PSM) to apply
+     * @return The recognised UTF-8 text
+     * @throws TesseractException if recognition fails
+     */
+    public String recognize(BufferedImage image, int pageSegMode) throws TesseractException {
+        if (closed) {
+            throw new TesseractException("Tesseract engine has been closed");
+        }
+
+        try {
+            api.TessBaseAPISetPageSegMode(handle, pageSegMode);
+            setImage(image);
+
+            Pointer textPtr = api.TessBaseAPIGetUTF8Text(handle);
+            if (textPtr == null) {
+                throw new TesseractException("Tesseract returned no text");
+            }
+
+            try {
+                return textPtr.getString(0, StandardCharsets.UTF_8.name());
+            } finally {
+                api.TessDeleteText(textPtr);
+            }
+        } catch (IOException e) {
+            throw new TesseractException(e);
+        } finally {
+            // Release the image and recognition results but keep the loaded model
+            api.TessBaseAPIClear(handle);
+        }
+    }
+
+    /**
+     * Check whether the engine can still be used.
+     */
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        api.TessBaseAPIEnd(handle);
+        api.TessBaseAPIDelete(handle);
+        log.debug("Disposed Tesseract engine for language: {}", language);
+    }
+
+    private void setImage(BufferedImage image) throws IOException {
+        ByteBuffer buffer = ImageIOHelper.getImageByteBuffer(image);
+
+        int bitsPerPixel = image.getRaster().getDataBuffer() instanceof DataBufferByte
+                ? image.getColorModel().getPixelSize()
+                : 8;
+        int bytesPerPixel = bitsPerPixel / 8;
+        int bytesPerLine = (int) Math.ceil(image.getWidth() * bitsPerPixel / 8.0);
+
+        api.TessBaseAPISetImage(handle, buffer, image.getWidth(), image.getHeight(), bytesPerPixel, bytesPerLine);
+    }
+}
@@ -0,0 +1,230 @@
+package com.extractor.unraveldocs.ocrprocessing.provider;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded, per-language pool of initialised {@link TesseractEngine} instances.
+ *
+ * <p>
+ * Each language gets its own pool of at most
+ * {@code ocr.tesseract.pool-size} engines. Engines are created lazily up to
+ * that bound and handed back after use, so the traineddata is only loaded
+ * once per engine rather than once per request. Callers that cannot obtain an
+ * engine within {@code ocr.tesseract.pool-checkout-timeout-ms} get a
+ * retryable {@link OcrProcessingException}.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tesseract.datapath")
+public class TesseractEnginePool {
+
+    private final OcrProperties.TesseractConfig config;
+    private final OcrMetrics ocrMetrics;
+    private final Map<String, LanguagePool> pools = new ConcurrentHashMap<>();
+
+    public TesseractEnginePool(OcrProperties ocrProperties, OcrMetrics ocrMetrics) {
+        this.config = ocrProperties.getTesseract();
+        this.ocrMetrics = ocrMetrics;
+    }
+
+    /**
+     * Pre-initialise engines for the default language so the first requests
+     * don't pay the model load cost.
+     */
+    @PostConstruct
+    void prewarm() {
+        int prewarm = Math.min(config.getPoolPrewarmSize(), getPoolSize());
+        if (prewarm <= 0 || config.getDataPath() == null || config.getDataPath().isBlank()) {
+            return;
+        }
+
+        LanguagePool pool = poolFor(config.getLanguage());
+        List<TesseractEngine> warmed = new ArrayList<>();
+        try {
+            for (int i = 0; i < prewarm; i++) {
+                warmed.add(pool.borrow());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to pre-initialise Tesseract engines for language {}: {}",
+                    config.getLanguage(), e.getMessage());
+        } finally {
+            warmed.forEach(pool::giveBack);
+        }
+
+        log.info("Pre-initialised {} Tesseract engine(s) for language: {}", warmed.size(), config.getLanguage());
+    }
+
+    /**
+     * Check out an engine for the given language, blocking up to the configured
+     * checkout timeout.
+     *
+     * @param language The Tesseract language code (e.g. "eng")
+     * @return An engine that must be handed back with {@link #release}
+     * @throws OcrProcessingException if no engine became available in time
+     */
+    public TesseractEngine acquire(String language) {
+        return poolFor(language).borrow();
+    }
+
+    /**
+     * Return an engine to its pool. Closed engines are discarded and their slot
+     * is freed so a fresh engine can be created on demand.
+     *
+     * @param engine The engine previously obtained from {@link #acquire}
+     */
+    public void release(TesseractEngine engine) {
+        if (engine == null) {
+            return;
+        }
+        LanguagePool pool = pools.get(engine.getLanguage());
+        if (pool == null) {
+            engine.close();
+            return;
+        }
+        pool.giveBack(engine);
+    }
+
+    /**
+     * Discard an engine that is in an unknown state (e.g. after a native
+     * failure) instead of returning it to the pool. An engine that is
+     * invalidated and then released only frees its slot once.
+     *
+     * @param engine The engine to dispose of
+     */
+    public void invalidate(TesseractEngine engine) {
+        if (engine == null) {
+            return;
+        }
+        engine.close();
+        release(engine);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pools.values().forEach(LanguagePool::close);
+        pools.clear();
+        log.info("Tesseract engine pool shut down");
+    }
+
+    TesseractEngine createEngine(String language) {
+        return new TesseractEngine(config.getDataPath(), language, config.getOcrEngineMode());
+    }
+
+    private LanguagePool poolFor(String language) {
+        return pools.computeIfAbsent(language, lang -> {
+            LanguagePool pool = new LanguagePool(lang, getPoolSize());
+            ocrMetrics.registerTesseractPool(lang, pool::inUse, pool::waiters, pool::idle);
+            log.info("Created Tesseract engine pool for language {} with size {}", lang, pool.size);
+            return pool;
+        });
+    }
+
+    private int getPoolSize() {
+        int size = config.getPoolSize();
+        return size > 0 ? size : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Pool of engines for a single language.
+     */
+    private final class LanguagePool {
+        private final String language;
+        private final int size;
+        private final Semaphore permits;
+        private final LinkedBlockingDeque<TesseractEngine> idleEngines = new LinkedBlockingDeque<>();
+        private final Set<TesseractEngine> checkedOut = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        private LanguagePool(String language, int size) {
+            this.language = language;
+            this.size = size;
+            this.permits = new Semaphore(size, true);
+        }
+
+        TesseractEngine borrow() {
+            long waitStart = System.nanoTime();
+            boolean acquired;
+
+            waiters.incrementAndGet();
+            try {
+                acquired = permits.tryAcquire(config.getPoolCheckoutTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OcrProcessingException(
+                        "Interrupted while waiting for a Tesseract engine", OcrProviderType.TESSERACT, e);
+            } finally {
+                waiters.decrementAndGet();
+                ocrMetrics.recordTesseractPoolWait(language, System.nanoTime() - waitStart);
+            }
+
+            if (!acquired) {
+                ocrMetrics.recordTesseractPoolTimeout(language);
+                throw new OcrProcessingException(
+                        "Timed out waiting for a Tesseract engine for language: " + language,
+                        OcrProviderType.TESSERACT);
+            }
+
+            try {
+                TesseractEngine engine = idleEngines.pollFirst();
+                if (engine == null || !engine.isOpen()) {
+                    engine = createEngine(language);
+                }
+                checkedOut.add(engine);
+                return engine;
+            } catch (RuntimeException e) {
+                permits.release();
+                throw new OcrProcessingException(
+                        "Failed to initialise Tesseract engine: " + e.getMessage(), OcrProviderType.TESSERACT, e);
+            }
+        }
+
+        void giveBack(TesseractEngine engine) {
+            // Guards the permit count against an engine handed back twice
+            if (!checkedOut.remove(engine)) {
+                log.warn("Ignoring Tesseract engine for language {} that is not checked out", language);
+                return;
+            }
+            if (engine.isOpen()) {
+                idleEngines.offerFirst(engine);
+            }
+            permits.release();
+        }
+
+        int inUse() {
+            return checkedOut.size();
+        }
+
+        int waiters() {
+            return waiters.get();
+        }
+
+        int idle() {
+            return idleEngines.size();
+        }
+
+        void close() {
+            TesseractEngine engine;
+            while ((engine = idleEngines.pollFirst()) != null) {
+                engine.close();
+            }
+        }
+    }
+}
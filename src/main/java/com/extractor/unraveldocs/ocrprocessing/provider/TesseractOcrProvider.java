@@ -1,19 +1,21 @@
 package com.extractor.unraveldocs.ocrprocessing.provider;
 
+import com.extractor.unraveldocs.ocrprocessing.circuitbreaker.CircuitBreakingOcrProvider;
 import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
 import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.execution.OcrExecutionStage;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInput;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInputFetcher;
+import com.extractor.unraveldocs.ocrprocessing.preprocessing.ImagePreprocessor;
 import lombok.extern.slf4j.Slf4j;
-import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URL;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Set;
 
@@ -39,10 +41,23 @@ public class TesseractOcrProvider implements OcrProvider {
             "eng", "deu", "fra", "spa", "ita", "por", "nld", "pol", "rus", "jpn", "kor", "chi_sim", "chi_tra");
 
     private final OcrProperties ocrProperties;
+    private final TesseractEnginePool enginePool;
+    private final OcrExecutionStage executionStage;
+    private final ImagePreprocessor imagePreprocessor;
+    private final OcrInputFetcher inputFetcher;
     private final String tesseractDataPath;
 
-    public TesseractOcrProvider(OcrProperties ocrProperties) {
+    public TesseractOcrProvider(
+            OcrProperties ocrProperties,
+            TesseractEnginePool enginePool,
+            OcrExecutionStage executionStage,
+            ImagePreprocessor imagePreprocessor,
+            OcrInputFetcher inputFetcher) {
         this.ocrProperties = ocrProperties;
+        this.enginePool = enginePool;
+        this.executionStage = executionStage;
+        this.imagePreprocessor = imagePreprocessor;
+        this.inputFetcher = inputFetcher;
         this.tesseractDataPath = ocrProperties.getTesseract().getDataPath();
         log.info("TesseractOcrProvider initialized with datapath: {}", tesseractDataPath);
     }
@@ -76,11 +91,10 @@ public class TesseractOcrProvider implements OcrProvider {
                         false);
             }
 
-            // Configure Tesseract
-            Tesseract tesseract = createTesseractInstance(request);
-
-            // Perform OCR
-            String extractedText = tesseract.doOCR(image);
+            // Preprocess and OCR on a pooled, already-initialised engine, bounded to the CPU pool
+            String language = resolveLanguage(request);
+            String extractedText = executionStage.callCpuBound(
+                    () -> recognize(imagePreprocessor.preprocess(image), language));
             long processingTime = System.currentTimeMillis() - startTime;
 
             log.debug("Tesseract OCR completed for document {} in {}ms, extracted {} characters",
@@ -100,7 +114,8 @@ public class TesseractOcrProvider implements OcrProvider {
             long processingTime = System.currentTimeMillis() - startTime;
             log.error("Failed to load image for OCR: {}", e.getMessage(), e);
             return OcrResult.failure(e, OcrProviderType.TESSERACT, processingTime)
-                    .withMetadata("documentId", request.getDocumentId());
+                    .withMetadata("documentId", request.getDocumentId())
+                    .withMetadata(CircuitBreakingOcrProvider.INPUT_ERROR_METADATA, true);
         } catch (TesseractException e) {
             long processingTime = System.currentTimeMillis() - startTime;
             log.error("Tesseract OCR failed: {}", e.getMessage(), e);
@@ -138,38 +153,48 @@ public class TesseractOcrProvider implements OcrProvider {
     }
 
     /**
-     * Load image from the request (URL or bytes).
+     * Load image from the request (page image, bytes, local file or stored URL).
      */
     private BufferedImage loadImage(OcrRequest request) throws IOException {
-        if (request.hasImageBytes()) {
-            return ImageIO.read(new ByteArrayInputStream(request.getImageBytes()));
-        } else if (request.hasImageUrl()) {
-            URL imageUrl = URI.create(request.getImageUrl()).toURL();
-            return ImageIO.read(imageUrl);
+        if (request.hasPageImage()) {
+            return request.getPageImage();
+        }
+        try (OcrInput input = inputFetcher.fetch(request, getMaxFileSizeBytes());
+                InputStream stream = input.openStream()) {
+            return ImageIO.read(stream);
         }
-        return null;
     }
 
     /**
-     * Create and configure a Tesseract instance.
+     * Run OCR on a pooled engine for the given language.
+     * Engines that fail natively are discarded rather than returned to the pool;
+     * each engine is either released or invalidated, never both.
      */
-    private Tesseract createTesseractInstance(OcrRequest request) {
-        Tesseract tesseract = new Tesseract();
-        tesseract.setDatapath(tesseractDataPath);
+    private String recognize(BufferedImage image, String language) throws TesseractException {
+        TesseractEngine engine = enginePool.acquire(language);
+        boolean recognized = false;
+        try {
+            String text = engine.recognize(image, ocrProperties.getTesseract().getPageSegMode());
+            recognized = true;
+            return text;
+        } finally {
+            if (recognized) {
+                enginePool.release(engine);
+            } else {
+                enginePool.invalidate(engine);
+            }
+        }
+    }
 
-        // Set language
+    /**
+     * Resolve the Tesseract language for the request, defaulting to the
+     * configured language.
+     */
+    private String resolveLanguage(OcrRequest request) {
         String language = request.getLanguage();
         if (language == null || language.isBlank()) {
             language = ocrProperties.getTesseract().getLanguage();
         }
-        tesseract.setLanguage(language);
-
-        // Set page segmentation mode
-        tesseract.setPageSegMode(ocrProperties.getTesseract().getPageSegMode());
-
-        // Set OCR engine mode
-        tesseract.setOcrEngineMode(ocrProperties.getTesseract().getOcrEngineMode());
-
-        return tesseract;
+        return language;
     }
 }
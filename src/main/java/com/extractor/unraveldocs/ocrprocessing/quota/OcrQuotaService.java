@@ -14,7 +14,8 @@ import java.time.format.DateTimeFormatter;
 
 /**
  * Service for managing OCR usage quotas per user and tier.
- * Uses Redis for distributed quota tracking.
+ * Uses Redis for distributed quota tracking. A single image uses one unit;
+ * a multi-page document uses one unit per page.
  */
 @Slf4j
 @Service
@@ -36,6 +37,18 @@ public class OcrQuotaService {
      * @return true if the user has remaining quota
      */
     public boolean hasRemainingQuota(String userId, String tier) {
+        return hasRemainingQuota(userId, tier, 1);
+    }
+
+    /**
+     * Check if a user has enough remaining quota for the given number of units.
+     *
+     * @param userId The user ID
+     * @param tier   The user's subscription tier
+     * @param units  The units needed, e.g. the pages of a document
+     * @return true if the user has remaining quota for all units
+     */
+    public boolean hasRemainingQuota(String userId, String tier, int units) {
         if (!ocrProperties.getQuota().isEnabled()) {
             return true;
         }
@@ -46,7 +59,7 @@ public class OcrQuotaService {
         }
 
         long currentUsage = getCurrentUsage(userId);
-        return currentUsage < limit;
+        return currentUsage + Math.max(1, units) <= limit;
     }
 
     /**
@@ -58,6 +71,19 @@ public class OcrQuotaService {
      * @return true if quota was successfully consumed, false if exceeded
      */
     public boolean consumeQuota(String userId, String tier, OcrProviderType provider) {
+        return consumeQuota(userId, tier, provider, 1);
+    }
+
+    /**
+     * Consume quota units for a user.
+     *
+     * @param userId   The user ID
+     * @param tier     The user's subscription tier
+     * @param provider The OCR provider being used
+     * @param units    The units used, e.g. the pages of a document
+     * @return true if quota was successfully consumed, false if exceeded
+     */
+    public boolean consumeQuota(String userId, String tier, OcrProviderType provider, int units) {
         if (!ocrProperties.getQuota().isEnabled()) {
             return true;
         }
@@ -65,12 +91,12 @@ public class OcrQuotaService {
         int limit = getDailyLimitForTier(tier);
         if (limit < 0) {
             // Unlimited tier, still track usage
-            incrementUsage(userId);
+            incrementUsage(userId, units);
             ocrMetrics.recordQuotaUsage(userId, tier, provider);
             return true;
         }
 
-        long currentUsage = incrementUsage(userId);
+        long currentUsage = incrementUsage(userId, units);
 
         if (ocrProperties.getQuota().isTrackUsage()) {
             ocrMetrics.recordQuotaUsage(userId, tier, provider);
@@ -106,6 +132,10 @@ public class OcrQuotaService {
      * @return Remaining quota count, or -1 if unlimited
      */
     public long getRemainingQuota(String userId, String tier) {
+        if (!ocrProperties.getQuota().isEnabled()) {
+            return -1;
+        }
+
         int limit = getDailyLimitForTier(tier);
         if (limit < 0) {
             return -1; // Unlimited
@@ -118,12 +148,13 @@ public class OcrQuotaService {
     /**
      * Increment usage counter and return new value.
      */
-    private long incrementUsage(String userId) {
+    private long incrementUsage(String userId, int units) {
         String key = buildQuotaKey(userId);
-        Long newValue = redisTemplate.opsForValue().increment(key);
+        long delta = Math.max(1, units);
+        Long newValue = redisTemplate.opsForValue().increment(key, delta);
 
         // Set expiry if this is the first increment of the day
-        if (newValue != null && newValue == 1) {
+        if (newValue != null && newValue == delta) {
             redisTemplate.expire(key, Duration.ofDays(1));
         }
 
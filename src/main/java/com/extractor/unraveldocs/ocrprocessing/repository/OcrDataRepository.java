@@ -1,7 +1,9 @@
 package com.extractor.unraveldocs.ocrprocessing.repository;
 
 import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -11,6 +13,14 @@ import java.util.Optional;
 public interface OcrDataRepository extends JpaRepository<OcrData, String> {
     Optional<OcrData> findByDocumentId(String documentId);
 
+    /**
+     * Load OCR data with a row lock so status changes and the matching
+     * collection counter updates are applied exactly once.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OcrData o WHERE o.documentId = :documentId")
+    Optional<OcrData> findByDocumentIdForUpdate(@Param("documentId") String documentId);
+
     @Query("SELECT o FROM OcrData o WHERE o.documentId IN :documentIds")
     List<OcrData> findByDocumentIdIn(@Param("documentIds") List<String> documentIds);
 }
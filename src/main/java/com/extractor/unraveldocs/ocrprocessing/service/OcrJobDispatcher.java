@@ -0,0 +1,108 @@
+package com.extractor.unraveldocs.ocrprocessing.service;
+
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.ocrprocessing.events.OcrEventPublisher;
+import com.extractor.unraveldocs.ocrprocessing.events.OcrRequestedEvent;
+import com.extractor.unraveldocs.ocrprocessing.execution.OcrLane;
+import com.extractor.unraveldocs.ocrprocessing.execution.OcrLaneScheduler;
+import com.extractor.unraveldocs.ocrprocessing.interfaces.ProcessOcrService;
+import com.extractor.unraveldocs.ocrprocessing.progress.OcrProgressPublisher;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService.OcrOutcome;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Hands a single-document OCR job to the {@link ProcessOcr} pipeline.
+ *
+ * <p>
+ * When Kafka is configured the job is published like any uploaded document,
+ * so it gets the same lanes, retries and DLQ. Without Kafka it is queued on
+ * the local lane scheduler in front of the OCR execution stage.
+ * </p>
+ *
+ * <p>
+ * If the job cannot be published or queued, the document is marked as failed
+ * so it does not stay pending with nothing to process it; the client can
+ * request extraction again.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OcrJobDispatcher {
+    private final Optional<OcrEventPublisher> ocrEventPublisher;
+    private final OcrLaneScheduler laneScheduler;
+    private final ProcessOcrService processOcrService;
+    private final OcrProcessingStateService stateService;
+    private final OcrProgressPublisher progressPublisher;
+    private final SanitizeLogging s;
+
+    /**
+     * Queue OCR for a document. The document's OCR data must already exist
+     * and be committed.
+     *
+     * @param collectionId The collection ID
+     * @param documentId   The document ID
+     * @param entitlements The entitlements of the document's owner
+     */
+    public void dispatch(String collectionId, String documentId, UserEntitlements entitlements) {
+        String userId = entitlements.userId();
+        CompletableFuture<Void> job;
+        try {
+            job = submit(collectionId, documentId, entitlements);
+        } catch (RuntimeException e) {
+            job = CompletableFuture.failedFuture(e);
+        }
+
+        job.whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.error("OCR job failed for document {}: {}",
+                        s.sanitizeLogging(documentId), error.getMessage(), error);
+                failPending(collectionId, documentId, userId, error);
+            }
+        });
+    }
+
+    private CompletableFuture<Void> submit(String collectionId, String documentId, UserEntitlements entitlements) {
+        if (ocrEventPublisher.isPresent()) {
+            OcrEventPublisher publisher = ocrEventPublisher.get();
+            return publisher.publishOcrRequest(OcrRequestedEvent.builder()
+                    .collectionId(collectionId)
+                    .documentId(documentId)
+                    .userId(entitlements.userId())
+                    .priority(publisher.isPriorityUser(entitlements))
+                    .build());
+        }
+
+        return laneScheduler.submit(OcrLane.STANDARD, entitlements.userId(),
+                () -> processOcrService.processOcrRequest(collectionId, documentId));
+    }
+
+    /**
+     * Fail a document whose job never started. A job that started has already
+     * recorded its own outcome.
+     */
+    private void failPending(String collectionId, String documentId, String userId, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String reason = "Failed to queue OCR job: " + cause.getMessage();
+        try {
+            Optional<OcrOutcome> outcome = stateService.failPending(collectionId, documentId, userId, reason);
+            outcome.ifPresent(failed -> {
+                progressPublisher.documentStatus(collectionId, documentId, failed.status(),
+                        failed.collectionStatus(), reason);
+                if (failed.collectionFinished()) {
+                    progressPublisher.collectionFinished(collectionId, failed.collectionStatus());
+                }
+            });
+        } catch (Exception e) {
+            log.error("Failed to mark document {} as failed after its OCR job could not be queued: {}",
+                    s.sanitizeLogging(documentId), e.getMessage(), e);
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.extractor.unraveldocs.ocrprocessing.service;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
 import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.hedging.HedgedOcrExecutor;
 import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import com.extractor.unraveldocs.ocrprocessing.multipage.MultiPageOcrProcessor;
 import com.extractor.unraveldocs.ocrprocessing.provider.*;
 import com.extractor.unraveldocs.ocrprocessing.quota.OcrQuotaService;
 import com.extractor.unraveldocs.storage.service.StorageAllocationService;
@@ -28,6 +30,8 @@ public class OcrProcessingService {
     private final StorageAllocationService storageAllocationService;
     private final OcrMetrics ocrMetrics;
     private final OcrProperties ocrProperties;
+    private final MultiPageOcrProcessor multiPageProcessor;
+    private final HedgedOcrExecutor hedgedExecutor;
     private final SanitizeLogging sanitizer;
 
     /**
@@ -44,9 +48,7 @@ public class OcrProcessingService {
      */
     public OcrResult processOcr(OcrRequest request, String userId, String userTier) {
         // Check quota
-        if (!quotaService.hasRemainingQuota(userId, userTier)) {
-            throw OcrProcessingException.quotaExceeded(userId, ocrProperties.getDefaultProvider());
-        }
+        checkQuota(request, userId, userTier, ocrProperties.getDefaultProvider());
 
         Timer.Sample timerSample = ocrMetrics.startTimer();
         OcrProvider primaryProvider = null;
@@ -62,20 +64,41 @@ public class OcrProcessingService {
                     sanitizer.sanitizeLoggingObject(primaryProvider.getProviderType()),
                     sanitizer.sanitizeLogging(userTier));
 
-            // Process with primary provider
-            OcrResult result = primaryProvider.extractText(request);
+            // Process with primary provider, hedging with the fallback provider if enabled
+            OcrResult result;
+            OcrProvider resultProvider = primaryProvider;
+            boolean hedgeLaunched = false;
+
+            Optional<OcrProvider> hedgeProvider = getHedgeProvider(request, primaryProvider);
+            if (hedgeProvider.isPresent()) {
+                HedgedOcrExecutor.HedgedResult hedged = hedgedExecutor.execute(
+                        primaryProvider, hedgeProvider.get(), provider -> extract(provider, request));
+                result = hedged.result();
+                resultProvider = hedged.provider();
+                hedgeLaunched = hedged.hedgeLaunched();
+            } else {
+                result = extract(primaryProvider, request);
+            }
 
             if (result.isSuccess()) {
-                // Consume quota on success
-                quotaService.consumeQuota(userId, userTier, primaryProvider.getProviderType());
-                storageAllocationService.updateOcrUsage(userId, 1);
+                // Consume quota once, for the provider that produced the result
+                quotaService.consumeQuota(userId, userTier, resultProvider.getProviderType(), result.getPageCount());
+                storageAllocationService.updateOcrUsage(userId, result.getPageCount());
                 ocrMetrics.recordSuccess(result);
                 return result;
             }
 
-            // Primary failed, try fallback if enabled
             ocrMetrics.stopTimer(timerSample, primaryProvider.getProviderType());
             timerSample = null; // Reset timer sample for fallback timing
+
+            if (hedgeLaunched) {
+                // Both providers have already been tried
+                ocrMetrics.recordError(primaryProvider.getProviderType(),
+                        result.getProcessingTimeMs(), result.getErrorMessage());
+                return result;
+            }
+
+            // Primary failed, try fallback if enabled
             return handleFailureWithFallback(request, primaryProvider, result, userId, userTier);
 
         } catch (OcrProcessingException e) {
@@ -99,6 +122,47 @@ public class OcrProcessingService {
         }
     }
 
+    /**
+     * Resolve the provider that {@link #processOcr} would use for a tier.
+     *
+     * @param userTier The user's subscription tier
+     * @return The provider type that will process the request
+     */
+    public OcrProviderType resolveProviderType(String userTier) {
+        return getProviderWithFallbackToDefault(getProviderForTier(userTier)).getProviderType();
+    }
+
+    /**
+     * Charge quota and usage for a result served from the OCR result cache.
+     *
+     * @param cachedResult The cached result
+     * @param userId       The user ID for quota tracking
+     * @param userTier     The user's subscription tier
+     * @throws OcrProcessingException if the user has no remaining quota
+     */
+    public void consumeQuotaForCachedResult(OcrResult cachedResult, String userId, String userTier) {
+        if (!quotaService.hasRemainingQuota(userId, userTier, cachedResult.getPageCount())) {
+            throw OcrProcessingException.quotaExceeded(userId, cachedResult.getProviderType());
+        }
+        quotaService.consumeQuota(userId, userTier, cachedResult.getProviderType(), cachedResult.getPageCount());
+        storageAllocationService.updateOcrUsage(userId, cachedResult.getPageCount());
+    }
+
+    /**
+     * Check that the user has quota left for the request. Multi-page documents
+     * are charged per page, so they are also capped at the pages the remaining
+     * quota covers and rejected before rasterizing if they have more.
+     */
+    private void checkQuota(OcrRequest request, String userId, String userTier, OcrProviderType providerType) {
+        if (!quotaService.hasRemainingQuota(userId, userTier)) {
+            throw OcrProcessingException.quotaExceeded(userId, providerType);
+        }
+        if (multiPageProcessor.handles(request)) {
+            long remaining = quotaService.getRemainingQuota(userId, userTier);
+            request.setMaxPages(remaining < 0 ? null : (int) Math.min(remaining, Integer.MAX_VALUE));
+        }
+    }
+
     /**
      * Determine the OCR provider based on user subscription tier.
      * Free tier users get Tesseract (local), paid subscribers get Google Vision
@@ -161,9 +225,7 @@ public class OcrProcessingService {
             String userTier) {
 
         // Check quota
-        if (!quotaService.hasRemainingQuota(userId, userTier)) {
-            throw OcrProcessingException.quotaExceeded(userId, providerType);
-        }
+        checkQuota(request, userId, userTier, providerType);
 
         OcrProvider provider = providerFactory.getProvider(providerType);
         ocrMetrics.recordRequestStart(providerType);
@@ -171,11 +233,11 @@ public class OcrProcessingService {
         Timer.Sample timerSample = ocrMetrics.startTimer();
 
         try {
-            OcrResult result = provider.extractText(request);
+            OcrResult result = extract(provider, request);
 
             if (result.isSuccess()) {
-                quotaService.consumeQuota(userId, userTier, providerType);
-                storageAllocationService.updateOcrUsage(userId, 1);
+                quotaService.consumeQuota(userId, userTier, providerType, result.getPageCount());
+                storageAllocationService.updateOcrUsage(userId, result.getPageCount());
                 ocrMetrics.recordSuccess(result);
             } else {
                 ocrMetrics.recordError(providerType, result.getProcessingTimeMs(), result.getErrorMessage());
@@ -267,11 +329,11 @@ public class OcrProcessingService {
         Timer.Sample timerSample = ocrMetrics.startTimer();
 
         try {
-            OcrResult result = fallbackProvider.extractText(request);
+            OcrResult result = extract(fallbackProvider, request);
 
             if (result.isSuccess()) {
-                quotaService.consumeQuota(userId, userTier, fallbackType);
-                storageAllocationService.updateOcrUsage(userId, 1);
+                quotaService.consumeQuota(userId, userTier, fallbackType, result.getPageCount());
+                storageAllocationService.updateOcrUsage(userId, result.getPageCount());
                 ocrMetrics.recordSuccess(result);
                 result.withMetadata("fallbackFrom", primaryType.getCode());
             } else {
@@ -285,6 +347,30 @@ public class OcrProcessingService {
         }
     }
 
+    /**
+     * Run the request through a provider, splitting multi-page documents
+     * into per-page requests.
+     */
+    private OcrResult extract(OcrProvider provider, OcrRequest request) {
+        if (multiPageProcessor.handles(request)) {
+            return multiPageProcessor.process(provider, request);
+        }
+        return provider.extractText(request);
+    }
+
+    /**
+     * Get the provider to hedge a request with. Only single-image requests
+     * are hedged; multi-page documents already run their pages in parallel.
+     */
+    private Optional<OcrProvider> getHedgeProvider(OcrRequest request, OcrProvider primaryProvider) {
+        if (!hedgedExecutor.isEnabled() || !shouldTryFallback(request) || multiPageProcessor.handles(request)) {
+            return Optional.empty();
+        }
+        return getFallbackProvider(primaryProvider.getProviderType())
+                .filter(provider -> provider.getProviderType() != primaryProvider.getProviderType())
+                .filter(provider -> provider.supports(request.getMimeType()));
+    }
+
     /**
      * Check if fallback should be attempted for the request.
      */
@@ -0,0 +1,279 @@
+package com.extractor.unraveldocs.ocrprocessing.service;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.elasticsearch.events.IndexAction;
+import com.extractor.unraveldocs.elasticsearch.service.ElasticsearchIndexingService;
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService;
+import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
+import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
+import com.extractor.unraveldocs.storage.service.StorageAllocationService;
+import com.extractor.unraveldocs.subscription.datamodel.SubscriptionPlans;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+/**
+ * Database side of an OCR run.
+ *
+ * <p>
+ * {@link ProcessOcr} calls {@link #begin} and {@link #complete} on either side
+ * of the provider call. Each is a short transaction, so no database
+ * connection is held while OCR runs. Collection status is derived from
+ * per-collection OCR counters rather than by recounting every document.
+ * </p>
+ *
+ * <p>
+ * Every path that locks both takes a document's OCR data row before its
+ * collection row: the OCR data is locked with
+ * {@link OcrDataRepository#findByDocumentIdForUpdate} before the counters
+ * are updated. Deleting or moving a document follows the same order.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OcrProcessingStateService {
+    private final DocumentCollectionRepository documentCollectionRepository;
+    private final FileEntryRepository fileEntryRepository;
+    private final OcrDataRepository ocrDataRepository;
+    private final SanitizeLogging sanitizeLogging;
+    private final Optional<ElasticsearchIndexingService> elasticsearchIndexingService;
+    private final StorageAllocationService storageAllocationService;
+
+    /**
+     * Everything the OCR run needs, captured while the entities are loaded.
+     */
+    public record OcrWorkItem(
+            String collectionId,
+            String documentId,
+            String userId,
+            String userTier,
+            String fileUrl,
+            String storageKey,
+            String mimeType,
+            EncryptionService.DocumentKey encryptionKey) {
+    }
+
+    /**
+     * Outcome of {@link #complete}.
+     *
+     * @param status             The final OCR status of the document
+     * @param collectionStatus   The collection status after the update
+     * @param collectionFinished Whether this document was the last of its
+     *                           collection to finish; true for one document
+     *                           each time the collection finishes
+     */
+    public record OcrOutcome(OcrStatus status, DocumentStatus collectionStatus, boolean collectionFinished) {
+    }
+
+    /**
+     * Mark a document as processing.
+     *
+     * @return The work item, or empty if the document has already been processed
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = "documentCollection", key = "#collectionId"),
+            @CacheEvict(value = "documentCollections", key = "#result.userId()", condition = "#result != null")
+    })
+    public Optional<OcrWorkItem> begin(String collectionId, String documentId) {
+        OcrData ocrData = findOcrDataForUpdate(documentId);
+
+        if (ocrData.getStatus() == OcrStatus.COMPLETED) {
+            log.info("File {} already processed. Skipping.", sanitizeLogging.sanitizeLogging(documentId));
+            return Optional.empty();
+        }
+
+        OcrStatus previous = ocrData.getStatus();
+        ocrData.setStatus(OcrStatus.PROCESSING);
+        ocrDataRepository.save(ocrData);
+        recordTransition(collectionId, previous, OcrStatus.PROCESSING);
+
+        DocumentCollection collection = findCollection(collectionId);
+        FileEntry fileEntry = findFileEntry(collectionId, documentId);
+        String userId = collection.getUser().getId();
+        return Optional.of(new OcrWorkItem(
+                collection.getId(),
+                fileEntry.getDocumentId(),
+                userId,
+                resolveTier(userId),
+                fileEntry.getFileUrl(),
+                fileEntry.getStorageKey(),
+                fileEntry.getFileType(),
+                fileEntry.isEncrypted() ? new EncryptionService.DocumentKey(fileEntry.getEncryptionIv(),
+                        fileEntry.getEncryptionKeyId(), fileEntry.getEncryptedDataKey()) : null));
+    }
+
+    /**
+     * Store the outcome of an OCR run and update the collection status.
+     *
+     * @param item         The work item from {@link #begin}
+     * @param result       The OCR result, or null if processing threw
+     * @param errorMessage The error message when processing threw
+     * @return The document and collection status after the update
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = "documentCollection", key = "#item.collectionId()"),
+            @CacheEvict(value = "documentCollections", key = "#item.userId()")
+    })
+    public OcrOutcome complete(OcrWorkItem item, OcrResult result, String errorMessage) {
+        OcrData ocrData = findOcrDataForUpdate(item.documentId());
+        OcrStatus previous = ocrData.getStatus();
+
+        if (result != null) {
+            updateOcrDataFromResult(ocrData, result);
+        } else {
+            ocrData.setStatus(OcrStatus.FAILED);
+            ocrData.setErrorMessage(errorMessage);
+        }
+        ocrDataRepository.save(ocrData);
+        recordTransition(item.collectionId(), previous, ocrData.getStatus());
+
+        // Counters are read after this transition's update, which holds the collection row lock,
+        // so only the document that brings them to the total sees the collection finished
+        DocumentCollection collection = findCollection(item.collectionId());
+        boolean collectionFinished = !isFinished(previous) && isFinished(ocrData.getStatus())
+                && collection.getOcrCompletedCount() + collection.getOcrFailedCount() >= collection.getOcrTotalCount();
+        log.info("Collection {} status updated to: {}",
+                sanitizeLogging.sanitizeLogging(collection.getId()), collection.getCollectionStatus());
+
+        // Index document in Elasticsearch after OCR completion
+        if (ocrData.getStatus() == OcrStatus.COMPLETED) {
+            FileEntry fileEntry = findFileEntry(item.collectionId(), item.documentId());
+            elasticsearchIndexingService.ifPresent(
+                    service -> service.indexDocument(collection, fileEntry, ocrData, IndexAction.CREATE));
+        }
+        return new OcrOutcome(ocrData.getStatus(), collection.getCollectionStatus(), collectionFinished);
+    }
+
+    /**
+     * Mark a document whose OCR job could not be queued as failed, so it does
+     * not stay pending with no job to pick it up. Documents a worker has
+     * already started are left alone.
+     *
+     * @param collectionId The collection ID
+     * @param documentId   The document ID
+     * @param userId       The owner of the collection
+     * @param errorMessage Why the job could not be queued
+     * @return The outcome, or empty if the document was no longer pending
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = "documentCollection", key = "#collectionId"),
+            @CacheEvict(value = "documentCollections", key = "#userId")
+    })
+    public Optional<OcrOutcome> failPending(
+            String collectionId, String documentId, String userId, String errorMessage) {
+        OcrData ocrData = findOcrDataForUpdate(documentId);
+        if (ocrData.getStatus() != OcrStatus.PENDING) {
+            return Optional.empty();
+        }
+
+        ocrData.setStatus(OcrStatus.FAILED);
+        ocrData.setErrorMessage(errorMessage);
+        ocrDataRepository.save(ocrData);
+        recordTransition(collectionId, OcrStatus.PENDING, OcrStatus.FAILED);
+
+        DocumentCollection collection = findCollection(collectionId);
+        boolean collectionFinished =
+                collection.getOcrCompletedCount() + collection.getOcrFailedCount() >= collection.getOcrTotalCount();
+        return Optional.of(new OcrOutcome(OcrStatus.FAILED, collection.getCollectionStatus(), collectionFinished));
+    }
+
+    /**
+     * Apply a document's OCR status change to its collection's counters.
+     *
+     * <p>
+     * The counters and the collection status are updated in one statement, so
+     * completing a document costs the same no matter how large the collection
+     * is. Callers must hold the document's OCR data row lock
+     * ({@link OcrDataRepository#findByDocumentIdForUpdate}) so each change is
+     * counted once. The persistence context is cleared when the counters change.
+     * </p>
+     *
+     * @param collectionId The collection ID
+     * @param previous     The previous OCR status, or null for a new document
+     * @param next         The new OCR status
+     */
+    @Transactional
+    public void recordTransition(String collectionId, OcrStatus previous, OcrStatus next) {
+        int completedDelta = indicator(next, OcrStatus.COMPLETED) - indicator(previous, OcrStatus.COMPLETED);
+        int failedDelta = indicator(next, OcrStatus.FAILED) - indicator(previous, OcrStatus.FAILED);
+        if (completedDelta == 0 && failedDelta == 0) {
+            return;
+        }
+
+        documentCollectionRepository.applyOcrTransition(collectionId, completedDelta, failedDelta,
+                DocumentStatus.PROCESSED, DocumentStatus.FAILED_OCR, DocumentStatus.PROCESSING,
+                OffsetDateTime.now());
+    }
+
+    private DocumentCollection findCollection(String collectionId) {
+        return documentCollectionRepository.findById(collectionId)
+                .orElseThrow(() -> new NotFoundException("Collection not found with ID: " + collectionId));
+    }
+
+    private FileEntry findFileEntry(String collectionId, String documentId) {
+        return fileEntryRepository.findByCollectionIdAndDocumentId(collectionId, documentId)
+                .orElseThrow(() -> new NotFoundException("File not found with document ID: " + documentId));
+    }
+
+    private OcrData findOcrDataForUpdate(String documentId) {
+        return ocrDataRepository.findByDocumentIdForUpdate(documentId)
+                .orElseThrow(() -> new NotFoundException("OCR data not found for document ID: " + documentId));
+    }
+
+    /**
+     * Get user subscription tier for quota tracking, from the user's
+     * entitlements.
+     */
+    private String resolveTier(String userId) {
+        try {
+            SubscriptionPlans plan = storageAllocationService.resolveEntitlements(userId).plan();
+            if (plan != null) {
+                return plan.name().toLowerCase();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to get user tier for {}, defaulting to free: {}", userId, e.getMessage());
+        }
+        return "free";
+    }
+
+    /**
+     * Update OCR data entity from the result.
+     */
+    private void updateOcrDataFromResult(OcrData ocrData, OcrResult result) {
+        if (result.isSuccess()) {
+            ocrData.setExtractedText(result.getExtractedText());
+            ocrData.setStatus(OcrStatus.COMPLETED);
+            ocrData.setErrorMessage(null);
+            ocrData.setPageCount(result.getPageCount());
+        } else {
+            ocrData.setStatus(OcrStatus.FAILED);
+            ocrData.setErrorMessage(result.getErrorMessage());
+        }
+    }
+
+    private static int indicator(OcrStatus status, OcrStatus counted) {
+        return status == counted ? 1 : 0;
+    }
+
+    private static boolean isFinished(OcrStatus status) {
+        return status == OcrStatus.COMPLETED || status == OcrStatus.FAILED;
+    }
+}
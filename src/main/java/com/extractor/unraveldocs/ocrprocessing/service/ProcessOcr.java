@@ -1,212 +1,201 @@
 package com.extractor.unraveldocs.ocrprocessing.service;
 
-import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
-import com.extractor.unraveldocs.documents.model.DocumentCollection;
-import com.extractor.unraveldocs.documents.model.FileEntry;
-import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
-import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.ocrprocessing.cache.OcrResultCache;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
 import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInput;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInputFetcher;
+import com.extractor.unraveldocs.ocrprocessing.progress.OcrProgressPublisher;
 import com.extractor.unraveldocs.ocrprocessing.interfaces.ProcessOcrService;
-import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
 import com.extractor.unraveldocs.ocrprocessing.provider.OcrRequest;
 import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
-import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
-import com.extractor.unraveldocs.elasticsearch.events.IndexAction;
-import com.extractor.unraveldocs.elasticsearch.service.ElasticsearchIndexingService;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService.OcrOutcome;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService.OcrWorkItem;
 import com.extractor.unraveldocs.pushnotification.datamodel.NotificationType;
 import com.extractor.unraveldocs.pushnotification.interfaces.NotificationService;
-import com.extractor.unraveldocs.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Processes OCR requests using the configured OCR provider.
  * Supports both Tesseract and Google Cloud Vision via the provider abstraction.
+ *
+ * <p>
+ * Database reads and writes happen in short transactions in
+ * {@link OcrProcessingStateService} before and after the provider call, so no
+ * connection is held while OCR runs.
+ * </p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProcessOcr implements ProcessOcrService {
-    private final DocumentCollectionRepository documentCollectionRepository;
+    private final OcrProcessingStateService stateService;
     private final SanitizeLogging sanitizeLogging;
-    private final OcrDataRepository ocrDataRepository;
     private final OcrProcessingService ocrProcessingService;
-    private final UserRepository userRepository;
-    private final Optional<ElasticsearchIndexingService> elasticsearchIndexingService;
+    private final OcrResultCache ocrResultCache;
+    private final OcrInputFetcher inputFetcher;
+    private final OcrProperties ocrProperties;
     private final NotificationService notificationService;
+    private final OcrProgressPublisher progressPublisher;
 
     @Override
-    @Transactional
     public void processOcrRequest(String collectionId, String documentId) {
-        DocumentCollection collection = documentCollectionRepository.findById(collectionId)
-                .orElseThrow(() -> new NotFoundException("Collection not found with ID: " + collectionId));
-
-        FileEntry fileEntry = collection.getFiles().stream()
-                .filter(f -> f.getDocumentId().equals(documentId))
-                .findFirst()
-                .orElseThrow(() -> new NotFoundException("File not found with document ID: " + documentId));
-
-        OcrData ocrData = ocrDataRepository.findByDocumentId(fileEntry.getDocumentId())
-                .orElseThrow(() -> new NotFoundException(
-                        "OCR data not found for document ID: " + fileEntry.getDocumentId()));
-
-        if (ocrData.getStatus() == OcrStatus.COMPLETED) {
-            log.info("File {} already processed. Skipping.", sanitizeLogging.sanitizeLogging(documentId));
+        Optional<OcrWorkItem> workItem = stateService.begin(collectionId, documentId);
+        if (workItem.isEmpty()) {
             return;
         }
 
-        ocrData.setStatus(OcrStatus.PROCESSING);
-        ocrDataRepository.save(ocrData);
+        OcrWorkItem item = workItem.get();
+        progressPublisher.documentStatus(item.collectionId(), documentId, OcrStatus.PROCESSING, null, null);
+        OcrResult result = null;
+        String errorMessage = null;
 
         try {
             log.info("Starting OCR text extraction for document: {}", sanitizeLogging.sanitizeLogging(documentId));
 
             // Send OCR started notification
-            sendOcrNotification(collection.getUser().getId(), NotificationType.OCR_PROCESSING_STARTED,
+            sendOcrNotification(item.userId(), NotificationType.OCR_PROCESSING_STARTED,
                     "OCR Processing Started",
                     "OCR processing has started for your document.",
-                    documentId, collection.getId());
+                    documentId, item.collectionId());
 
             // Build OCR request using the new abstraction
-            OcrRequest ocrRequest = buildOcrRequest(fileEntry, collection);
-
-            // Get user info for quota tracking
-            String userId = collection.getUser().getId();
-            String userTier = getUserTier(userId);
-
-            // Process using the new provider abstraction
-            OcrResult result = ocrProcessingService.processOcr(ocrRequest, userId, userTier);
+            OcrRequest ocrRequest = buildOcrRequest(item);
 
-            // Update OCR data with result
-            updateOcrDataFromResult(ocrData, result);
+            // Reuse the result for an identical file if we have one, otherwise run OCR
+            result = ocrResultCache.isEnabled()
+                    ? processWithResultCache(ocrRequest, item.userId(), item.userTier())
+                    : ocrProcessingService.processOcr(ocrRequest, item.userId(), item.userTier());
 
             log.info("OCR text extraction completed for document: {} using provider: {}",
                     sanitizeLogging.sanitizeLogging(documentId),
                     result.getProviderType());
 
-            // Send OCR completed notification
-            sendOcrNotification(collection.getUser().getId(), NotificationType.OCR_PROCESSING_COMPLETED,
-                    "OCR Processing Completed",
-                    "OCR processing completed successfully. Your document is now searchable.",
-                    documentId, collection.getId());
-
         } catch (Exception e) {
             log.error("OCR processing failed for document {}: {}",
                     sanitizeLogging.sanitizeLogging(documentId), e.getMessage(), e);
-            ocrData.setStatus(OcrStatus.FAILED);
-            ocrData.setErrorMessage(e.getMessage());
+            result = null;
+            errorMessage = e.getMessage();
+        }
 
+        OcrOutcome outcome = stateService.complete(item, result, errorMessage);
+        String reason = result == null ? errorMessage : result.getErrorMessage();
+        progressPublisher.documentStatus(item.collectionId(), documentId, outcome.status(),
+                outcome.collectionStatus(), outcome.status() == OcrStatus.COMPLETED ? null : reason);
+        if (outcome.collectionFinished()) {
+            log.info("OCR finished for all documents of collection {} with status {}",
+                    sanitizeLogging.sanitizeLogging(item.collectionId()), outcome.collectionStatus());
+            progressPublisher.collectionFinished(item.collectionId(), outcome.collectionStatus());
+        }
+
+        if (outcome.status() == OcrStatus.COMPLETED) {
+            // Send OCR completed notification
+            sendOcrNotification(item.userId(), NotificationType.OCR_PROCESSING_COMPLETED,
+                    "OCR Processing Completed",
+                    "OCR processing completed successfully. Your document is now searchable.",
+                    documentId, item.collectionId());
+        } else {
             // Send OCR failed notification
-            sendOcrNotification(collection.getUser().getId(), NotificationType.OCR_PROCESSING_FAILED,
+            sendOcrNotification(item.userId(), NotificationType.OCR_PROCESSING_FAILED,
                     "OCR Processing Failed",
-                    "OCR processing failed: " + e.getMessage(),
-                    documentId, collection.getId());
-        } finally {
-            updateCollectionStatus(collection);
-            ocrDataRepository.save(ocrData);
-            documentCollectionRepository.save(collection);
-
-            // Index document in Elasticsearch after OCR completion
-            if (ocrData.getStatus() == OcrStatus.COMPLETED) {
-                elasticsearchIndexingService.ifPresent(
-                        service -> service.indexDocument(collection, fileEntry, ocrData, IndexAction.CREATE));
-            }
+                    "OCR processing failed: " + reason,
+                    documentId, item.collectionId());
         }
     }
 
     /**
-     * Build an OCR request from the file entry.
+     * Build an OCR request from the work item.
      */
-    private OcrRequest buildOcrRequest(FileEntry fileEntry, DocumentCollection collection) {
+    private OcrRequest buildOcrRequest(OcrWorkItem item) {
         return OcrRequest.builder()
-                .documentId(fileEntry.getDocumentId())
-                .collectionId(collection.getId())
-                .imageUrl(fileEntry.getFileUrl())
-                .mimeType(fileEntry.getFileType())
-                .userId(collection.getUser().getId())
+                .documentId(item.documentId())
+                .collectionId(item.collectionId())
+                .imageUrl(item.fileUrl())
+                .storageKey(item.storageKey())
+                .encryptionKey(item.encryptionKey())
+                .mimeType(item.mimeType())
+                .userId(item.userId())
                 .fallbackEnabled(true)
                 .build();
     }
 
     /**
-     * Update OCR data entity from the result.
+     * Process an OCR request through the content-hash result cache.
+     * The file is fetched once, hashed and handed to the provider as bytes or
+     * a spilled local file. Files over the OCR size limit are not buffered;
+     * they go straight to the provider, which enforces its own limit.
      */
-    private void updateOcrDataFromResult(OcrData ocrData, OcrResult result) {
-        if (result.isSuccess()) {
-            ocrData.setExtractedText(result.getExtractedText());
-            ocrData.setStatus(OcrStatus.COMPLETED);
-            ocrData.setErrorMessage(null);
-        } else {
-            ocrData.setStatus(OcrStatus.FAILED);
-            ocrData.setErrorMessage(result.getErrorMessage());
+    private OcrResult processWithResultCache(OcrRequest ocrRequest, String userId, String userTier) {
+        OcrInput input = null;
+        try {
+            String contentHash;
+            try {
+                input = inputFetcher.fetch(ocrRequest, ocrProperties.getMaxFileSizeBytes());
+                contentHash = ocrResultCache.contentHash(input);
+                if (input.file().isPresent()) {
+                    ocrRequest.setLocalFile(input.file().get());
+                } else {
+                    ocrRequest.setImageBytes(input.bytes());
+                }
+            } catch (IOException e) {
+                log.warn("Could not read document {} for result cache lookup, processing without cache: {}",
+                        sanitizeLogging.sanitizeLogging(ocrRequest.getDocumentId()), e.getMessage());
+                ocrRequest.setLocalFile(null);
+                return ocrProcessingService.processOcr(ocrRequest, userId, userTier);
+            }
+            return processWithResultCache(ocrRequest, contentHash, userId, userTier);
+        } finally {
+            closeQuietly(input);
         }
     }
 
-    /**
-     * Get user subscription tier for quota tracking.
-     */
-    private String getUserTier(String userId) {
-        if (userId == null) {
-            return "free";
+    private OcrResult processWithResultCache(
+            OcrRequest ocrRequest, String contentHash, String userId, String userTier) {
+        OcrProviderType providerType = ocrProcessingService.resolveProviderType(userTier);
+        String cacheKey = ocrResultCache.buildKey(contentHash, providerType, ocrRequest.getLanguage());
+
+        Optional<OcrResult> cached = ocrResultCache.get(cacheKey, providerType);
+        if (cached.isPresent()) {
+            log.info("OCR result cache hit for document {}",
+                    sanitizeLogging.sanitizeLogging(ocrRequest.getDocumentId()));
+            OcrResult result = cached.get();
+            result.setDocumentId(ocrRequest.getDocumentId());
+            if (!ocrProperties.getResultCache().isSkipQuotaOnHit()) {
+                ocrProcessingService.consumeQuotaForCachedResult(result, userId, userTier);
+            }
+            return result;
         }
 
-        try {
-            return userRepository.findById(userId)
-                    .map(user -> {
-                        if (user.getSubscription() != null &&
-                                user.getSubscription().getPlan() != null) {
-                            return user.getSubscription().getPlan().getName().name().toLowerCase();
-                        }
-                        return "free";
-                    })
-                    .orElse("free");
-        } catch (Exception e) {
-            log.warn("Failed to get user tier for {}, defaulting to free: {}", userId, e.getMessage());
-            return "free";
+        OcrResult result = ocrProcessingService.processOcr(ocrRequest, userId, userTier);
+
+        // Results produced by a fallback provider are cached under that provider's key
+        if (result.isSuccess()) {
+            String resultKey = result.getProviderType() == providerType
+                    ? cacheKey
+                    : ocrResultCache.buildKey(contentHash, result.getProviderType(), ocrRequest.getLanguage());
+            ocrResultCache.put(resultKey, result);
         }
+        return result;
     }
 
-    private void updateCollectionStatus(DocumentCollection collection) {
-        List<String> documentIds = collection.getFiles().stream()
-                .map(FileEntry::getDocumentId)
-                .toList();
-
-        if (documentIds.isEmpty()) {
-            collection.setCollectionStatus(DocumentStatus.PROCESSED);
+    private void closeQuietly(OcrInput input) {
+        if (input == null) {
             return;
         }
-
-        Map<String, OcrStatus> statusMap = ocrDataRepository.findByDocumentIdIn(documentIds).stream()
-                .collect(Collectors.toMap(OcrData::getDocumentId, OcrData::getStatus));
-
-        long totalFiles = documentIds.size();
-
-        long completedCount = documentIds.stream()
-                .filter(id -> statusMap.get(id) == OcrStatus.COMPLETED)
-                .count();
-
-        long failedCount = documentIds.stream()
-                .filter(id -> statusMap.get(id) == OcrStatus.FAILED)
-                .count();
-
-        if (completedCount == totalFiles) {
-            collection.setCollectionStatus(DocumentStatus.PROCESSED);
-        } else if (completedCount + failedCount == totalFiles) {
-            collection.setCollectionStatus(DocumentStatus.FAILED_OCR);
-        } else {
-            collection.setCollectionStatus(DocumentStatus.PROCESSING);
+        try {
+            input.close();
+        } catch (IOException e) {
+            log.warn("Failed to clean up OCR input: {}", e.getMessage());
         }
-        log.info("Collection {} status updated to: {}",
-                sanitizeLogging.sanitizeLogging(collection.getId()), collection.getCollectionStatus());
     }
 
     /**
@@ -3,18 +3,22 @@ package com.extractor.unraveldocs.ocrprocessing.utils;
 import com.extractor.unraveldocs.documents.datamodel.DocumentUploadState;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService;
 import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class FileStorageService {
     private final AwsS3Service awsS3Service;
+    private final EncryptionService encryptionService;
 
     public static int getStorageFailures(
             List<FileEntry> processedFiles,
@@ -45,18 +49,51 @@ public class FileStorageService {
      * @return A FileEntry object containing details of the uploaded file.
      */
     public FileEntry handleSuccessfulFileUpload(MultipartFile file, String originalFileName) {
+        return handleSuccessfulFileUpload(file, originalFileName, false);
+    }
+
+    /**
+     * Handles the upload of a file to storage, optionally encrypting it on the
+     * way. Encryption is streamed, so the file is never fully buffered.
+     *
+     * @param file              The uploaded file.
+     * @param originalFileName  The original filename of the uploaded file.
+     * @param encrypt           Whether to store the file encrypted.
+     * @return A FileEntry object containing details of the uploaded file.
+     */
+    public FileEntry handleSuccessfulFileUpload(MultipartFile file, String originalFileName, boolean encrypt) {
         String fileName = awsS3Service.generateFileName(originalFileName, AwsS3Service.getDOCUMENT_PICTURE_FOLDER());
-        String fileUrl = awsS3Service.uploadFile(file, fileName);
+
+        String fileUrl;
+        EncryptionService.DocumentKey encryptionKey = null;
+        if (encrypt) {
+            try (InputStream inputStream = file.getInputStream()) {
+                EncryptionService.EncryptedStream encrypted = encryptionService.encryptStream(inputStream);
+                fileUrl = awsS3Service.uploadStream(encrypted.stream(),
+                        encryptionService.encryptedLength(file.getSize()),
+                        "application/octet-stream", fileName);
+                encryptionKey = encrypted.key();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to upload encrypted file to S3", e);
+            }
+        } else {
+            fileUrl = awsS3Service.uploadFile(file, fileName);
+        }
 
         String publicId = awsS3Service.generateRandomPublicId(originalFileName);
 
         return FileEntry.builder()
                 .originalFileName(originalFileName)
                 .fileUrl(fileUrl)
+                .storageKey(fileName)
                 .storageId(publicId)
                 .fileType(file.getContentType())
                 .fileSize(file.getSize())
                 .uploadStatus(DocumentUploadState.SUCCESS.toString())
+                .isEncrypted(encrypt)
+                .encryptionIv(encryptionKey != null ? encryptionKey.iv() : null)
+                .encryptionKeyId(encryptionKey != null ? encryptionKey.keyId() : null)
+                .encryptedDataKey(encryptionKey != null ? encryptionKey.wrappedDataKey() : null)
                 .build();
     }
 }
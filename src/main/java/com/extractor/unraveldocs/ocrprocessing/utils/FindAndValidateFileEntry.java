@@ -3,12 +3,17 @@ package com.extractor.unraveldocs.ocrprocessing.utils;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
 import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
 import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class FindAndValidateFileEntry {
+    private final FileEntryRepository fileEntryRepository;
+
     public FileEntry findAndValidateFileEntry(String collectionId, String documentId, String userId,
                                               DocumentCollectionRepository documentCollectionRepository) {
         DocumentCollection collection = documentCollectionRepository.findById(collectionId)
@@ -18,9 +23,7 @@ public class FindAndValidateFileEntry {
             throw new ForbiddenException("You are not authorized to access this document.");
         }
 
-        return collection.getFiles().stream()
-                .filter(f -> f.getDocumentId().equals(documentId))
-                .findFirst()
+        return fileEntryRepository.findByCollectionIdAndDocumentId(collectionId, documentId)
                 .orElseThrow(() -> new NotFoundException("Document not found with ID: " + documentId));
     }
 }
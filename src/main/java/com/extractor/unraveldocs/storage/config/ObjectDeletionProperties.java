@@ -0,0 +1,48 @@
+package com.extractor.unraveldocs.storage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.storage.deletion")
+public class ObjectDeletionProperties {
+    /**
+     * Whether queued S3 objects are deleted. When disabled, deletions stay
+     * queued until it is enabled again.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay between runs of the deletion job, in milliseconds.
+     */
+    private long intervalMs = 15000;
+
+    /**
+     * Objects deleted per S3 request. S3 accepts at most 1000.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Batches processed per run, so a large backlog cannot hold the
+     * scheduler thread indefinitely.
+     */
+    private int maxBatchesPerRun = 20;
+
+    /**
+     * Attempts per object before it is left in the queue for inspection.
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * Delay before the first retry, in seconds; doubled on each further
+     * attempt.
+     */
+    private long retryDelaySeconds = 30;
+
+    /**
+     * Upper bound of the retry delay, in seconds.
+     */
+    private long maxRetryDelaySeconds = 3600;
+}
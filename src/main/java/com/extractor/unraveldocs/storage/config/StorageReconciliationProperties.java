@@ -0,0 +1,50 @@
+package com.extractor.unraveldocs.storage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.storage.reconciliation")
+public class StorageReconciliationProperties {
+    /**
+     * Whether the scheduled reconciliation runs. The admin endpoint works
+     * either way.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cron expression for the scheduled reconciliation.
+     */
+    private String cron = "0 15 * * * *";
+
+    /**
+     * Subscriptions or teams reconciled per chunk. Each chunk is one short
+     * transaction.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Chunks processed per scheduled run; the next run resumes from the
+     * checkpoint. 0 = run the pass to the end.
+     */
+    private int maxChunksPerRun = 200;
+
+    /**
+     * Redis key holding the position of an unfinished pass.
+     */
+    private String checkpointKey = "storage:reconciliation:checkpoint";
+
+    /**
+     * Minimum time between the two passes that must see the same drift
+     * before it is corrected. Keeps uploads in flight, whose reservations
+     * look like drift, from being corrected away.
+     */
+    private long driftConfirmationSeconds = 600;
+
+    /**
+     * Redis hash holding drift seen on earlier passes, awaiting confirmation.
+     */
+    private String observationKey = "storage:reconciliation:observed-drift";
+}
@@ -1,8 +1,9 @@
 package com.extractor.unraveldocs.storage.controller;
 
 import com.extractor.unraveldocs.shared.response.UnravelDocsResponse;
-import com.extractor.unraveldocs.storage.service.StorageDataMigrationService;
+import com.extractor.unraveldocs.storage.service.StorageReconciliationService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -23,26 +25,29 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Storage Admin", description = "Admin endpoints for storage management")
 public class StorageAdminController {
 
-    private final StorageDataMigrationService storageDataMigrationService;
+    private final StorageReconciliationService storageReconciliationService;
 
     /**
-     * Run storage data migration to calculate and update storage usage for all
-     * users.
-     * This is intended to be run once after deploying the storage allocation
-     * feature.
+     * Reconcile storage usage of all users and teams with their stored files,
+     * finishing any pass the scheduled job has started. Only drifted counters
+     * are corrected, and only once an earlier pass has seen the same drift;
+     * new drift is recorded and corrected by a later run. With {@code force}
+     * all drift is corrected by this run.
      */
     @PostMapping("/migrate")
     @PreAuthorize("hasRole('SUPER_ADMIN')")
-    @Operation(summary = "Run storage migration", description = "Calculates and updates storage usage for all users based on their current documents. Admin only.")
+    @Operation(summary = "Run storage reconciliation", description = "Recalculates storage usage for all users and teams from their stored files. Drift already seen by an earlier pass is corrected; new drift is recorded and corrected on the next pass, unless force=true, which corrects it immediately (this can undercount uploads in progress). Admin only.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Migration completed successfully"),
+            @ApiResponse(responseCode = "200", description = "Reconciliation completed successfully"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "403", description = "Forbidden - requires SUPER_ADMIN role")
     })
-    public ResponseEntity<UnravelDocsResponse<StorageDataMigrationService.MigrationResult>> runMigration() {
-        StorageDataMigrationService.MigrationResult result = storageDataMigrationService.migrateStorageData();
+    public ResponseEntity<UnravelDocsResponse<StorageReconciliationService.ReconciliationResult>> runMigration(
+            @Parameter(description = "Correct drift the first time it is seen instead of on the next pass")
+            @RequestParam(defaultValue = "false") boolean force) {
+        StorageReconciliationService.ReconciliationResult result = storageReconciliationService.reconcile(0, force);
 
-        UnravelDocsResponse<StorageDataMigrationService.MigrationResult> response = new UnravelDocsResponse<>();
+        UnravelDocsResponse<StorageReconciliationService.ReconciliationResult> response = new UnravelDocsResponse<>();
         response.setStatusCode(HttpStatus.OK.value());
         response.setStatus("success");
         response.setMessage(result.getSummary());
@@ -0,0 +1,43 @@
+package com.extractor.unraveldocs.storage.dto;
+
+import com.extractor.unraveldocs.subscription.datamodel.SubscriptionPlans;
+import lombok.Builder;
+
+/**
+ * What a user may do and has used, resolved once per request or job by
+ * {@link com.extractor.unraveldocs.storage.service.StorageAllocationService#resolveEntitlements}
+ * and passed to the upload, OCR and feature checks instead of each looking
+ * up the subscription and team again.
+ *
+ * <p>
+ * Usage figures are a snapshot: they are good enough to reject a request
+ * early, but limits are enforced by the atomic reservation.
+ * </p>
+ *
+ * @param userId              the user
+ * @param teamId              the team whose storage and document limits apply,
+ *                            or null for the user's own subscription
+ * @param subscribed          whether the user has a subscription
+ * @param plan                the user's own plan, or null without a
+ *                            subscription; feature access follows this even
+ *                            for team members
+ * @param storageLimit        effective storage limit in bytes, null = unlimited
+ * @param storageUsed         storage used against that limit
+ * @param documentUploadLimit effective document limit, null = unlimited
+ * @param documentsUploaded   documents counted against that limit this month
+ */
+@Builder
+public record UserEntitlements(
+        String userId,
+        String teamId,
+        boolean subscribed,
+        SubscriptionPlans plan,
+        Long storageLimit,
+        long storageUsed,
+        Integer documentUploadLimit,
+        int documentsUploaded) {
+
+    public boolean isTeam() {
+        return teamId != null;
+    }
+}
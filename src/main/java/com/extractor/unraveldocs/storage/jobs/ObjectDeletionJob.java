@@ -0,0 +1,132 @@
+package com.extractor.unraveldocs.storage.jobs;
+
+import com.extractor.unraveldocs.storage.config.ObjectDeletionProperties;
+import com.extractor.unraveldocs.storage.model.PendingObjectDeletion;
+import com.extractor.unraveldocs.storage.repository.PendingObjectDeletionRepository;
+import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Scheduled job that drains the object deletion queue, deleting objects from
+ * S3 in multi-object batches.
+ *
+ * Deleted objects are removed from the queue; failed ones are retried with an
+ * exponential backoff until they run out of attempts, after which they stay
+ * queued for inspection. Deleting an object twice is harmless, so runs on
+ * several nodes picking up the same entries only cost a repeated request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ObjectDeletionJob {
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final PendingObjectDeletionRepository pendingObjectDeletionRepository;
+    private final AwsS3Service awsS3Service;
+    private final ObjectDeletionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${app.storage.deletion.interval-ms:15000}")
+    public void deleteQueuedObjects() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        int batchSize = Math.clamp(properties.getBatchSize(), 1, AwsS3Service.MAX_DELETE_BATCH_SIZE);
+        int deleted = 0;
+        int failed = 0;
+
+        for (int batches = 0; batches < properties.getMaxBatchesPerRun(); batches++) {
+            List<PendingObjectDeletion> batch = pendingObjectDeletionRepository.findDue(
+                    OffsetDateTime.now(), properties.getMaxAttempts(), PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            Map<String, String> failures = deleteObjects(batch);
+            int batchFailed = updateQueue(batch, failures);
+            deleted += batch.size() - batchFailed;
+            failed += batchFailed;
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (deleted > 0 || failed > 0) {
+            log.info("Object deletion run completed. Deleted {} objects, {} failed and will be retried",
+                    deleted, failed);
+        }
+    }
+
+    /**
+     * Delete the batch's objects.
+     *
+     * @return The keys that could not be deleted, mapped to the error
+     */
+    private Map<String, String> deleteObjects(List<PendingObjectDeletion> batch) {
+        List<String> keys = batch.stream().map(PendingObjectDeletion::getObjectKey).distinct().toList();
+        try {
+            return awsS3Service.deleteFiles(keys);
+        } catch (Exception e) {
+            log.error("Failed to delete a batch of {} objects: {}", keys.size(), e.getMessage());
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return keys.stream().collect(Collectors.toMap(key -> key, key -> error));
+        }
+    }
+
+    /**
+     * Remove deleted objects from the queue and schedule retries of the rest.
+     *
+     * @return The number of failed deletions
+     */
+    private int updateQueue(List<PendingObjectDeletion> batch, Map<String, String> failures) {
+        List<String> deletedIds = batch.stream()
+                .filter(deletion -> !failures.containsKey(deletion.getObjectKey()))
+                .map(PendingObjectDeletion::getId)
+                .toList();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!deletedIds.isEmpty()) {
+                pendingObjectDeletionRepository.deleteAllByIdInBatch(deletedIds);
+            }
+            for (PendingObjectDeletion deletion : batch) {
+                String error = failures.get(deletion.getObjectKey());
+                if (error != null) {
+                    pendingObjectDeletionRepository.recordFailedAttempt(
+                            deletion.getId(), now.plusSeconds(retryDelaySeconds(deletion.getAttempts() + 1)),
+                            truncate(error));
+                    if (deletion.getAttempts() + 1 >= properties.getMaxAttempts()) {
+                        log.error("Giving up deleting object {} after {} attempts: {}",
+                                deletion.getObjectKey(), deletion.getAttempts() + 1, error);
+                    }
+                }
+            }
+        });
+        return batch.size() - deletedIds.size();
+    }
+
+    /**
+     * Delay before the next attempt: doubled per attempt, up to the maximum.
+     */
+    private long retryDelaySeconds(int attempts) {
+        long delay = properties.getRetryDelaySeconds() << Math.min(attempts - 1, 20);
+        return Math.min(delay, properties.getMaxRetryDelaySeconds());
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,36 @@
+package com.extractor.unraveldocs.storage.jobs;
+
+import com.extractor.unraveldocs.storage.config.StorageReconciliationProperties;
+import com.extractor.unraveldocs.storage.service.StorageReconciliationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled job that reconciles storage counters with the stored files. Each
+ * run is limited to a number of chunks; a pass over a large dataset is
+ * spread over several runs, resuming from its checkpoint.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StorageReconciliationJob {
+
+    private final StorageReconciliationService storageReconciliationService;
+    private final StorageReconciliationProperties properties;
+
+    @Scheduled(cron = "${app.storage.reconciliation.cron:0 15 * * * *}")
+    public void reconcileStorage() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        try {
+            storageReconciliationService.reconcile(properties.getMaxChunksPerRun());
+        } catch (Exception e) {
+            log.error("Storage reconciliation run failed, the next run resumes from the checkpoint: {}",
+                    e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.extractor.unraveldocs.storage.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A stored object waiting to be deleted from S3. Entries are written in the
+ * transaction that deletes the file entries, and removed by the deletion job
+ * once S3 has deleted the object.
+ */
+@Data
+@Entity
+@Table(name = "storage_object_deletions", indexes = {
+        @Index(name = "idx_storage_object_deletions_next_attempt", columnList = "next_attempt_at"),
+        @Index(name = "idx_storage_object_deletions_object_key", columnList = "object_key")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingObjectDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "object_key", nullable = false, length = 1024)
+    private String objectKey;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,47 @@
+package com.extractor.unraveldocs.storage.repository;
+
+import com.extractor.unraveldocs.storage.model.PendingObjectDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PendingObjectDeletionRepository extends JpaRepository<PendingObjectDeletion, String> {
+
+    /**
+     * Deletions due for an attempt, oldest first. Deletions that used up their
+     * attempts are kept for inspection but no longer returned.
+     */
+    @Query("SELECT d FROM PendingObjectDeletion d " +
+            "WHERE d.nextAttemptAt <= :now AND d.attempts < :maxAttempts ORDER BY d.nextAttemptAt")
+    List<PendingObjectDeletion> findDue(
+            @Param("now") OffsetDateTime now,
+            @Param("maxAttempts") int maxAttempts,
+            Pageable pageable);
+
+    /**
+     * Record a failed attempt and when to try again. Does nothing if the
+     * deletion was completed in the meantime.
+     */
+    @Modifying
+    @Query("UPDATE PendingObjectDeletion d SET d.attempts = d.attempts + 1, " +
+            "d.nextAttemptAt = :nextAttemptAt, d.lastError = :error WHERE d.id = :id")
+    void recordFailedAttempt(
+            @Param("id") String id,
+            @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+            @Param("error") String error);
+
+    /**
+     * Withdraw queued deletions of the given objects.
+     *
+     * @return The number of deletions withdrawn
+     */
+    @Modifying
+    @Query("DELETE FROM PendingObjectDeletion d WHERE d.objectKey IN :objectKeys")
+    int deleteByObjectKeys(@Param("objectKeys") Collection<String> objectKeys);
+}
@@ -0,0 +1,106 @@
+package com.extractor.unraveldocs.storage.repository;
+
+import com.extractor.unraveldocs.subscription.model.UserSubscription;
+import com.extractor.unraveldocs.team.datamodel.TeamSubscriptionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based queries used to reconcile the storage counters on subscriptions
+ * and teams with the files actually stored. Usage is attributed the way
+ * {@link com.extractor.unraveldocs.storage.service.StorageAllocationService}
+ * charges it: to the lowest-ID team the user belongs to that is allowed
+ * access, otherwise to the user's own subscription.
+ */
+public interface StorageReconciliationRepository extends Repository<UserSubscription, String> {
+
+    String ROW = "new com.extractor.unraveldocs.storage.repository.StorageUsageRow";
+
+    /**
+     * Recorded storage of subscriptions in user ID order after the given cursor.
+     */
+    @Query("SELECT " + ROW + "(us.user.id, us.storageUsed) FROM UserSubscription us " +
+            "WHERE us.user.id > :afterUserId ORDER BY us.user.id")
+    List<StorageUsageRow> findSubscriptionUsage(@Param("afterUserId") String afterUserId, Pageable pageable);
+
+    /**
+     * Recorded storage of teams that are allowed access, in ID order after the
+     * given cursor. Other teams are not charged and are left alone.
+     */
+    @Query("SELECT " + ROW + "(t.id, t.storageUsed) FROM Team t " +
+            "WHERE t.id > :afterTeamId AND t.isClosed = false AND t.subscriptionStatus IN :statuses " +
+            "ORDER BY t.id")
+    List<StorageUsageRow> findTeamUsage(
+            @Param("afterTeamId") String afterTeamId,
+            @Param("statuses") Collection<TeamSubscriptionStatus> statuses,
+            Pageable pageable);
+
+    /**
+     * Those of the given users whose storage is charged to a team.
+     */
+    @Query("SELECT DISTINCT m.user.id FROM TeamMember m " +
+            "WHERE m.user.id IN :userIds AND m.team.isClosed = false AND m.team.subscriptionStatus IN :statuses")
+    List<String> findUserIdsChargedToTeam(
+            @Param("userIds") Collection<String> userIds,
+            @Param("statuses") Collection<TeamSubscriptionStatus> statuses);
+
+    /**
+     * Bytes of stored files per user, for the given users. Users without
+     * stored files are absent.
+     */
+    @Query("SELECT " + ROW + "(c.user.id, SUM(f.fileSize)) FROM FileEntry f JOIN f.collection c " +
+            "WHERE c.user.id IN :userIds AND f.uploadStatus = :uploadStatus GROUP BY c.user.id")
+    List<StorageUsageRow> sumStoredBytesByUser(
+            @Param("userIds") Collection<String> userIds,
+            @Param("uploadStatus") String uploadStatus);
+
+    /**
+     * Bytes of stored files per team, for the given teams, counting each
+     * member's files towards the team their storage is charged to. Teams
+     * without stored files are absent.
+     */
+    @Query("SELECT " + ROW + "(m.team.id, SUM(f.fileSize)) FROM FileEntry f JOIN f.collection c " +
+            "JOIN TeamMember m ON m.user.id = c.user.id " +
+            "WHERE m.team.id IN :teamIds AND f.uploadStatus = :uploadStatus " +
+            "AND m.team.id = (SELECT MIN(m2.team.id) FROM TeamMember m2 WHERE m2.user.id = m.user.id " +
+            "AND m2.team.isClosed = false AND m2.team.subscriptionStatus IN :statuses) " +
+            "GROUP BY m.team.id")
+    List<StorageUsageRow> sumStoredBytesByTeam(
+            @Param("teamIds") Collection<String> teamIds,
+            @Param("uploadStatus") String uploadStatus,
+            @Param("statuses") Collection<TeamSubscriptionStatus> statuses);
+
+    /**
+     * Apply a correction to a subscription's storage, unless the counter
+     * changed since it was read.
+     *
+     * @return The number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE UserSubscription us SET us.storageUsed = us.storageUsed + :delta " +
+            "WHERE us.user.id = :userId AND us.storageUsed = :recorded")
+    int applySubscriptionDelta(
+            @Param("userId") String userId,
+            @Param("recorded") long recorded,
+            @Param("delta") long delta);
+
+    /**
+     * Apply a correction to a team's storage, unless the counter changed since
+     * it was read.
+     *
+     * @return The number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Team t SET t.storageUsed = t.storageUsed + :delta " +
+            "WHERE t.id = :teamId AND t.storageUsed = :recorded")
+    int applyTeamDelta(
+            @Param("teamId") String teamId,
+            @Param("recorded") long recorded,
+            @Param("delta") long delta);
+}
@@ -0,0 +1,11 @@
+package com.extractor.unraveldocs.storage.repository;
+
+/**
+ * Bytes attributed to a user or team, either as recorded on its counter or
+ * as summed from its stored files.
+ *
+ * @param ownerId the user or team ID
+ * @param bytes   the byte count
+ */
+public record StorageUsageRow(String ownerId, Long bytes) {
+}
@@ -0,0 +1,126 @@
+package com.extractor.unraveldocs.storage.service;
+
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.storage.model.PendingObjectDeletion;
+import com.extractor.unraveldocs.storage.repository.PendingObjectDeletionRepository;
+import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Queues stored files for deletion from S3. The queue is a table, so callers
+ * enqueue in the same transaction that deletes the file entries: either both
+ * are committed or neither is. The objects themselves are deleted in batches
+ * by {@link com.extractor.unraveldocs.storage.jobs.ObjectDeletionJob}.
+ *
+ * <p>
+ * Objects can also be scheduled for deletion ahead of time and withdrawn
+ * before then, e.g. direct uploads, whose objects are kept only if the upload
+ * is completed.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ObjectDeletionQueue {
+
+    private final PendingObjectDeletionRepository pendingObjectDeletionRepository;
+    private final AwsS3Service awsS3Service;
+
+    /**
+     * Queue the stored objects of the given file entries for deletion. Entries
+     * without a stored object are skipped.
+     *
+     * @param fileEntries The file entries being deleted
+     * @return The number of objects queued
+     */
+    @Transactional
+    public int enqueue(Collection<FileEntry> fileEntries) {
+        if (fileEntries == null || fileEntries.isEmpty()) {
+            return 0;
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<PendingObjectDeletion> deletions = fileEntries.stream()
+                .map(this::objectKey)
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(key -> PendingObjectDeletion.builder()
+                        .objectKey(key)
+                        .nextAttemptAt(now)
+                        .build())
+                .toList();
+
+        if (!deletions.isEmpty()) {
+            pendingObjectDeletionRepository.saveAll(deletions);
+        }
+        return deletions.size();
+    }
+
+    /**
+     * Queue objects for deletion at a later time. The deletion can be
+     * withdrawn with {@link #cancel} until then.
+     *
+     * @param objectKeys The object keys
+     * @param deleteAt   When the objects become due for deletion
+     */
+    @Transactional
+    public void schedule(Collection<String> objectKeys, OffsetDateTime deleteAt) {
+        List<PendingObjectDeletion> deletions = objectKeys.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(key -> PendingObjectDeletion.builder()
+                        .objectKey(key)
+                        .nextAttemptAt(deleteAt)
+                        .build())
+                .toList();
+
+        if (!deletions.isEmpty()) {
+            pendingObjectDeletionRepository.saveAll(deletions);
+        }
+    }
+
+    /**
+     * Withdraw queued deletions of the given objects, e.g. once a scheduled
+     * object turns out to be kept. Call it in the transaction that records
+     * the objects.
+     *
+     * @param objectKeys The object keys
+     * @return The number of deletions withdrawn
+     */
+    @Transactional
+    public int cancel(Collection<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return 0;
+        }
+        return pendingObjectDeletionRepository.deleteByObjectKeys(objectKeys);
+    }
+
+    /**
+     * The object key of a stored file. Entries stored before keys were
+     * recorded fall back to the key in their URL.
+     */
+    private String objectKey(FileEntry fileEntry) {
+        if (fileEntry.getStorageKey() != null) {
+            return fileEntry.getStorageKey();
+        }
+        if (fileEntry.getStorageId() == null || fileEntry.getFileUrl() == null || fileEntry.getFileUrl().isEmpty()) {
+            return null;
+        }
+
+        try {
+            return awsS3Service.extractKey(fileEntry.getFileUrl());
+        } catch (RuntimeException e) {
+            log.warn("Not queueing file entry {} for deletion, its object key is unknown: {}",
+                    fileEntry.getId(), e.getMessage());
+            return null;
+        }
+    }
+}
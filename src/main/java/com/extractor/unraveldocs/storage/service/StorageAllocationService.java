@@ -1,16 +1,14 @@
 package com.extractor.unraveldocs.storage.service;
 
-import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.storage.dto.StorageInfo;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
 import com.extractor.unraveldocs.storage.exception.StorageQuotaExceededException;
 import com.extractor.unraveldocs.subscription.model.SubscriptionPlan;
 import com.extractor.unraveldocs.subscription.model.UserSubscription;
 import com.extractor.unraveldocs.subscription.repository.UserSubscriptionRepository;
 import com.extractor.unraveldocs.team.model.Team;
-import com.extractor.unraveldocs.team.model.TeamMember;
 import com.extractor.unraveldocs.team.model.TeamSubscriptionPlan;
-import com.extractor.unraveldocs.team.repository.TeamMemberRepository;
 import com.extractor.unraveldocs.team.repository.TeamRepository;
 import com.extractor.unraveldocs.user.model.User;
 import lombok.RequiredArgsConstructor;
@@ -19,172 +17,233 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
-import java.util.List;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
 import java.util.Optional;
 
 /**
  * Service for managing storage allocation and usage tracking.
  * Handles both individual user and team storage.
+ *
+ * <p>
+ * Counters are only changed by single-statement updates, so concurrent
+ * uploads, deletes and OCR completions never overwrite each other. Uploads
+ * take a {@link StorageReservation} up front, which charges the counters
+ * against the plan limits atomically, and settle it once the outcome is known.
+ * </p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StorageAllocationService {
 
+    private static final String STORAGE_QUOTA_EXCEEDED =
+            "Storage quota exceeded. Please upgrade your plan or delete some files.";
+    private static final String DOCUMENT_LIMIT_EXCEEDED =
+            "Monthly document upload limit exceeded. Your quota will reset on the first day of next month.";
+    private static final String TEAM_DOCUMENT_LIMIT_EXCEEDED =
+            "Team monthly document upload limit exceeded. The team's quota will reset on the first day of next month.";
+
     private final UserSubscriptionRepository userSubscriptionRepository;
     private final TeamRepository teamRepository;
-    private final TeamMemberRepository teamMemberRepository;
-    private final DocumentCollectionRepository documentCollectionRepository;
     private final SanitizeLogging sanitizer;
 
     /**
-     * Check if user has sufficient storage available for upload.
-     * Checks team storage first if user is part of a team, otherwise checks
-     * individual storage.
+     * Resolve what a user may do and has used: their team, effective plan,
+     * limits and current usage. Resolve it once per request or job and pass
+     * it to the checks below, {@link #reserve} and the feature checks.
+     *
+     * @param userId The user's ID
+     * @return the user's entitlements
+     */
+    @Transactional(readOnly = true)
+    public UserEntitlements resolveEntitlements(String userId) {
+        UserEntitlements.UserEntitlementsBuilder entitlements = UserEntitlements.builder().userId(userId);
+
+        Optional<UserSubscription> subscription = userSubscriptionRepository.findByUserIdWithPlan(userId);
+        subscription.ifPresent(sub -> {
+            SubscriptionPlan plan = sub.getPlan();
+            entitlements.subscribed(true)
+                    .plan(plan.getName())
+                    .storageLimit(plan.getStorageLimit())
+                    .storageUsed(orZero(sub.getStorageUsed()))
+                    .documentUploadLimit(unlimitedIfZero(plan.getDocumentUploadLimit()))
+                    .documentsUploaded(orZero(sub.getMonthlyDocumentsUploaded()));
+        });
+
+        // Team storage and document limits replace the individual ones
+        findAccessibleTeam(userId).ifPresent(team -> {
+            TeamSubscriptionPlan plan = team.getPlan();
+            entitlements.teamId(team.getId())
+                    .storageLimit(plan != null ? plan.getStorageLimit() : null)
+                    .storageUsed(orZero(team.getStorageUsed()))
+                    .documentUploadLimit(plan != null ? plan.getMonthlyDocumentLimit() : null)
+                    .documentsUploaded(orZero(team.getMonthlyDocumentUploadCount()));
+        });
+
+        return entitlements.build();
+    }
+
+    /**
+     * Check if user has sufficient storage available for upload, against their
+     * team's storage if they are part of one, otherwise their own.
      *
-     * @param user          The user attempting the upload
+     * @param entitlements  The uploading user's entitlements
      * @param requiredBytes The number of bytes required for the upload
      * @throws StorageQuotaExceededException if storage limit would be exceeded
      */
-    public void checkStorageAvailable(User user, long requiredBytes) {
-        // Check if user is part of a team first
-        List<TeamMember> teamMemberships = teamMemberRepository.findByUserId(user.getId());
-        Optional<TeamMember> teamMembership = teamMemberships.stream().findFirst();
-
-        if (teamMembership.isPresent()) {
-            Team team = teamMembership.get().getTeam();
-            if (team.isAccessAllowed()) {
-                checkTeamStorageAvailable(team, requiredBytes);
-                return;
-            }
+    public void checkStorageAvailable(UserEntitlements entitlements, long requiredBytes) {
+        requireSubscription(entitlements);
+
+        Long storageLimit = entitlements.storageLimit();
+        // If storage limit is null, storage is unlimited (Enterprise teams)
+        if (storageLimit == null) {
+            return;
         }
 
-        checkIndividualStorageAvailable(user, requiredBytes);
-        checkIndividualStorageAvailable(user, requiredBytes);
+        long availableStorage = storageLimit - entitlements.storageUsed();
+
+        if (requiredBytes > availableStorage) {
+            throw new StorageQuotaExceededException(requiredBytes, availableStorage, storageLimit);
+        }
     }
 
     /**
      * Check if user has sufficient document upload slots available.
      *
-     * @param user              The user attempting the upload
+     * @param entitlements      The uploading user's entitlements
      * @param newDocumentsCount The number of new documents to upload
      * @throws StorageQuotaExceededException if document limit would be exceeded
      */
-    public void checkDocumentUploadLimit(User user, int newDocumentsCount) {
-        // Check if user is part of a team first
-        List<TeamMember> teamMemberships = teamMemberRepository.findByUserId(user.getId());
-        Optional<TeamMember> teamMembership = teamMemberships.stream().findFirst();
-
-        if (teamMembership.isPresent()) {
-            Team team = teamMembership.get().getTeam();
-            if (team.isAccessAllowed()) {
-                checkTeamDocumentUploadLimit(team, user, newDocumentsCount);
-                return;
-            }
-        }
-
-        checkIndividualDocumentUploadLimit(user, newDocumentsCount);
-    }
-
-    private void checkIndividualDocumentUploadLimit(User user, int newDocumentsCount) {
-        Optional<UserSubscription> subscriptionOpt = userSubscriptionRepository.findByUserIdWithPlan(user.getId());
-        if (subscriptionOpt.isEmpty()) {
-            throw new StorageQuotaExceededException("No active subscription found.");
-        }
+    public void checkDocumentUploadLimit(UserEntitlements entitlements, int newDocumentsCount) {
+        requireSubscription(entitlements);
 
-        UserSubscription subscription = subscriptionOpt.get();
-        SubscriptionPlan plan = subscription.getPlan();
-        Integer documentUploadLimit = plan.getDocumentUploadLimit();
-
-        if (documentUploadLimit == null || documentUploadLimit == 0) {
+        Integer documentUploadLimit = entitlements.documentUploadLimit();
+        if (documentUploadLimit == null) {
             return; // Unlimited
         }
 
-        // Use monthly documents uploaded count (resets monthly) instead of total document count
-        int currentMonthlyCount = subscription.getMonthlyDocumentsUploaded() != null
-                ? subscription.getMonthlyDocumentsUploaded() : 0;
+        int currentCount = entitlements.documentsUploaded();
         // Use long arithmetic to prevent integer overflow
-        long totalDocuments = (long) currentMonthlyCount + (long) newDocumentsCount;
-        if (totalDocuments > documentUploadLimit) {
-            throw new StorageQuotaExceededException(
-                    "Monthly document upload limit exceeded. Limit: " + documentUploadLimit +
-                    ", Used this month: " + currentMonthlyCount + ", Attempting to add: " + newDocumentsCount +
-                    ". Your quota will reset on the first day of next month.");
-        }
-    }
-
-    private void checkTeamDocumentUploadLimit(Team team, User user, int newDocumentsCount) {
-        TeamSubscriptionPlan plan = team.getPlan();
-        if (plan == null)
+        long totalDocuments = (long) currentCount + (long) newDocumentsCount;
+        if (totalDocuments <= documentUploadLimit) {
             return;
-
-        Integer documentUploadLimit = plan.getMonthlyDocumentLimit();
-
-        if (documentUploadLimit == null) {
-            return; // Unlimited (Enterprise)
         }
 
-        long currentCount = documentCollectionRepository.countByUserId(user.getId());
-
-        if (currentCount + newDocumentsCount > documentUploadLimit) {
+        if (entitlements.isTeam()) {
             throw new StorageQuotaExceededException(
-                    "Team document upload limit exceeded. Limit: " + documentUploadLimit + ", Current: " + currentCount
-                            + ", New: " + newDocumentsCount);
+                    "Team monthly document upload limit exceeded. Limit: " + documentUploadLimit
+                            + ", Used this month: " + currentCount + ", New: " + newDocumentsCount);
         }
+        throw new StorageQuotaExceededException(
+                "Monthly document upload limit exceeded. Limit: " + documentUploadLimit +
+                ", Used this month: " + currentCount + ", Attempting to add: " + newDocumentsCount +
+                ". Your quota will reset on the first day of next month.");
     }
 
     /**
-     * Check if individual user has sufficient storage available.
+     * Reserve storage and monthly document slots for an upload. The counters
+     * are charged immediately, each by a single guarded update, so two
+     * concurrent uploads can never both fit into the same remaining quota.
+     * The reservation must be settled with {@link #commit} or
+     * {@link #release} once the upload outcome is known.
+     *
+     * @param entitlements The uploading user's entitlements
+     * @param bytes        The number of bytes to reserve
+     * @param documents    The number of documents to reserve
+     * @return the reservation to settle
+     * @throws StorageQuotaExceededException if a limit would be exceeded; nothing
+     *                                       is reserved in that case
      */
-    private void checkIndividualStorageAvailable(User user, long requiredBytes) {
-        Optional<UserSubscription> subscriptionOpt = userSubscriptionRepository.findByUserIdWithPlan(user.getId());
-
-        if (subscriptionOpt.isEmpty()) {
-            throw new StorageQuotaExceededException("No active subscription found. Please subscribe to a plan.");
-        }
+    @Transactional
+    public StorageReservation reserve(UserEntitlements entitlements, long bytes, int documents) {
+        // Reject from the snapshot first; the guarded updates catch concurrent uploads
+        checkDocumentUploadLimit(entitlements, documents);
+        checkStorageAvailable(entitlements, bytes);
 
-        UserSubscription subscription = subscriptionOpt.get();
+        String userId = entitlements.userId();
 
-        SubscriptionPlan plan = subscription.getPlan();
-        Long storageLimit = plan.getStorageLimit();
-        Long storageUsed = subscription.getStorageUsed();
-
-        // If storage limit is null, treat as unlimited (shouldn't happen for individual
-        // plans)
-        if (storageLimit == null) {
-            return;
+        if (entitlements.isTeam()) {
+            String teamId = entitlements.teamId();
+            if (documents > 0 && teamRepository.reserveMonthlyDocuments(teamId, documents) == 0) {
+                throw new StorageQuotaExceededException(TEAM_DOCUMENT_LIMIT_EXCEEDED);
+            }
+            if (bytes > 0 && teamRepository.reserveStorage(teamId, bytes) == 0) {
+                // Throwing rolls back the document slots taken above
+                throw new StorageQuotaExceededException(STORAGE_QUOTA_EXCEEDED);
+            }
+            return new StorageReservation(userId, teamId, bytes, documents);
         }
 
-        long availableStorage = storageLimit - storageUsed;
-
-        if (requiredBytes > availableStorage) {
-            throw new StorageQuotaExceededException(requiredBytes, availableStorage, storageLimit);
+        OffsetDateTime resetDate = nextQuotaResetDate();
+        if (documents > 0 && userSubscriptionRepository.reserveMonthlyDocuments(userId, documents, resetDate) == 0) {
+            throw new StorageQuotaExceededException(DOCUMENT_LIMIT_EXCEEDED);
         }
+        if (bytes > 0 && userSubscriptionRepository.reserveStorage(userId, bytes) == 0) {
+            // Throwing rolls back the document slots taken above
+            throw new StorageQuotaExceededException(STORAGE_QUOTA_EXCEEDED);
+        }
+        return new StorageReservation(userId, null, bytes, documents);
     }
 
     /**
-     * Check if team has sufficient storage available.
+     * Settle a reservation with what was actually stored, handing back the
+     * unused part. Call it in the transaction that records the upload so the
+     * accounting commits or rolls back with it.
      *
-     * @param team          The team to check
-     * @param requiredBytes The number of bytes required
-     * @throws StorageQuotaExceededException if team storage limit would be exceeded
+     * @param reservation   The reservation taken by {@link #reserve}
+     * @param usedBytes     Bytes actually stored
+     * @param usedDocuments Documents actually stored
      */
-    public void checkTeamStorageAvailable(Team team, long requiredBytes) {
-        Long storageLimit = team.getPlan() != null ? team.getPlan().getStorageLimit() : null;
-        Long storageUsed = team.getStorageUsed();
-
-        // If storage limit is null, team has unlimited storage (Enterprise)
-        if (storageLimit == null) {
-            return;
+    @Transactional
+    public void commit(StorageReservation reservation, long usedBytes, int usedDocuments) {
+        long unusedBytes = reservation.bytes() - usedBytes;
+        int unusedDocuments = reservation.documents() - usedDocuments;
+
+        if (unusedBytes != 0) {
+            if (reservation.isTeam()) {
+                teamRepository.adjustStorageUsed(reservation.teamId(), -unusedBytes);
+            } else {
+                userSubscriptionRepository.adjustStorageUsed(reservation.userId(), -unusedBytes);
+            }
+        }
+        if (unusedDocuments != 0) {
+            if (reservation.isTeam()) {
+                teamRepository.adjustMonthlyDocumentUploadCount(reservation.teamId(), -unusedDocuments);
+            } else {
+                userSubscriptionRepository.adjustMonthlyDocumentsUploaded(
+                        reservation.userId(), -unusedDocuments, nextQuotaResetDate());
+            }
         }
+    }
 
-        long availableStorage = storageLimit - storageUsed;
+    /**
+     * Hand back a whole reservation, e.g. when an upload fails before anything
+     * is recorded.
+     */
+    @Transactional
+    public void release(StorageReservation reservation) {
+        commit(reservation, 0, 0);
+    }
 
-        if (requiredBytes > availableStorage) {
-            throw new StorageQuotaExceededException(requiredBytes, availableStorage, storageLimit);
+    private static void requireSubscription(UserEntitlements entitlements) {
+        if (!entitlements.subscribed() && !entitlements.isTeam()) {
+            throw new StorageQuotaExceededException("No active subscription found. Please subscribe to a plan.");
         }
     }
 
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static Integer unlimitedIfZero(Integer limit) {
+        return limit == null || limit == 0 ? null : limit;
+    }
+
     /**
      * Update storage used after successful uploads (or reclaim on delete).
      * Handles both individual user and team storage.
@@ -195,16 +254,10 @@ public class StorageAllocationService {
      */
     @Transactional
     public void updateStorageUsed(User user, long bytesChange) {
-        // Check if user is part of a team first
-        List<TeamMember> teamMemberships = teamMemberRepository.findByUserId(user.getId());
-        Optional<TeamMember> teamMembership = teamMemberships.stream().findFirst();
-
-        if (teamMembership.isPresent()) {
-            Team team = teamMembership.get().getTeam();
-            if (team.isAccessAllowed()) {
-                updateTeamStorageUsed(team, bytesChange);
-                return;
-            }
+        Optional<Team> team = findAccessibleTeam(user.getId());
+        if (team.isPresent()) {
+            updateTeamStorageUsed(team.get(), bytesChange);
+            return;
         }
 
         updateIndividualStorageUsed(user, bytesChange);
@@ -215,24 +268,12 @@ public class StorageAllocationService {
      */
     @Transactional
     public void updateIndividualStorageUsed(User user, long bytesChange) {
-        Optional<UserSubscription> subscriptionOpt = userSubscriptionRepository.findByUserId(user.getId());
-
-        if (subscriptionOpt.isEmpty()) {
+        if (userSubscriptionRepository.adjustStorageUsed(user.getId(), bytesChange) == 0) {
             return;
         }
 
-        UserSubscription subscription = subscriptionOpt.get();
-
-        Long currentUsage = subscription.getStorageUsed();
-        long newUsage = Math.max(0, currentUsage + bytesChange); // Never go below 0
-
-        subscription.setStorageUsed(newUsage);
-        userSubscriptionRepository.save(subscription);
-
-        log.info("Updated storage for user {}: {} -> {} (change: {})",
+        log.info("Updated storage for user {} (change: {})",
                 sanitizer.sanitizeLogging(user.getId()),
-                sanitizer.sanitizeLoggingObject(formatBytes(currentUsage)),
-                sanitizer.sanitizeLoggingObject(formatBytes(newUsage)),
                 sanitizer.sanitizeLoggingObject(formatBytes(bytesChange)));
     }
 
@@ -241,16 +282,10 @@ public class StorageAllocationService {
      */
     @Transactional
     public void updateTeamStorageUsed(Team team, long bytesChange) {
-        Long currentUsage = team.getStorageUsed();
-        long newUsage = Math.max(0, currentUsage + bytesChange); // Never go below 0
-
-        team.setStorageUsed(newUsage);
-        teamRepository.save(team);
+        teamRepository.adjustStorageUsed(team.getId(), bytesChange);
 
-        log.info("Updated storage for team {}: {} -> {} (change: {})",
+        log.info("Updated storage for team {} (change: {})",
                 sanitizer.sanitizeLogging(team.getId()),
-                sanitizer.sanitizeLoggingObject(formatBytes(currentUsage)),
-                sanitizer.sanitizeLoggingObject(formatBytes(newUsage)),
                 sanitizer.sanitizeLoggingObject(formatBytes(bytesChange)));
     }
 
@@ -265,19 +300,7 @@ public class StorageAllocationService {
         if (pages <= 0)
             return;
 
-        Optional<UserSubscription> subscriptionOpt = userSubscriptionRepository.findByUserId(userId);
-        if (subscriptionOpt.isEmpty()) {
-            return;
-        }
-
-        UserSubscription subscription = subscriptionOpt.get();
-        int currentUsage = subscription.getOcrPagesUsed() != null ? subscription.getOcrPagesUsed() : 0;
-        subscription.setOcrPagesUsed(currentUsage + pages);
-
-        // Initialize quota reset date if not set
-        initializeQuotaResetDateIfNeeded(subscription);
-
-        userSubscriptionRepository.save(subscription);
+        userSubscriptionRepository.incrementOcrPagesUsed(userId, pages, nextQuotaResetDate());
     }
 
     /**
@@ -291,37 +314,31 @@ public class StorageAllocationService {
         if (documentsCount <= 0)
             return;
 
-        Optional<UserSubscription> subscriptionOpt = userSubscriptionRepository.findByUserId(userId);
-        if (subscriptionOpt.isEmpty()) {
-            return;
-        }
-
-        UserSubscription subscription = subscriptionOpt.get();
-        int currentCount = subscription.getMonthlyDocumentsUploaded() != null
-                ? subscription.getMonthlyDocumentsUploaded() : 0;
-        subscription.setMonthlyDocumentsUploaded(currentCount + documentsCount);
-
-        // Initialize quota reset date if not set
-        initializeQuotaResetDateIfNeeded(subscription);
+        userSubscriptionRepository.adjustMonthlyDocumentsUploaded(userId, documentsCount, nextQuotaResetDate());
+        log.debug("Updated monthly documents uploaded for user {} (+{})", userId, documentsCount);
+    }
 
-        userSubscriptionRepository.save(subscription);
-        log.debug("Updated monthly documents uploaded for user {}: {} -> {} (+{})",
-                userId, currentCount, currentCount + documentsCount, documentsCount);
+    /**
+     * Quota reset date to set on subscriptions that don't have one yet.
+     */
+    private static OffsetDateTime nextQuotaResetDate() {
+        return OffsetDateTime.now(ZoneOffset.UTC)
+                .with(TemporalAdjusters.firstDayOfNextMonth())
+                .withHour(0)
+                .withMinute(0)
+                .withSecond(0)
+                .withNano(0);
     }
 
     /**
-     * Initialize the quota reset date if it hasn't been set yet.
+     * The team whose storage the user draws on: the one with the lowest ID
+     * among their teams that are allowed access. Loaded with its plan in a
+     * single query. Storage reconciliation attributes usage by the same rule.
      */
-    private void initializeQuotaResetDateIfNeeded(UserSubscription subscription) {
-        if (subscription.getQuotaResetDate() == null) {
-            java.time.OffsetDateTime nextResetDate = java.time.OffsetDateTime.now(java.time.ZoneOffset.UTC)
-                    .with(java.time.temporal.TemporalAdjusters.firstDayOfNextMonth())
-                    .withHour(0)
-                    .withMinute(0)
-                    .withSecond(0)
-                    .withNano(0);
-            subscription.setQuotaResetDate(nextResetDate);
-        }
+    private Optional<Team> findAccessibleTeam(String userId) {
+        return teamRepository.findTeamsWithPlanForUser(userId).stream()
+                .filter(Team::isAccessAllowed)
+                .findFirst();
     }
 
     /**
@@ -332,18 +349,9 @@ public class StorageAllocationService {
      */
     @Transactional(readOnly = true)
     public StorageInfo getStorageInfo(User user) {
-        // Check if user is part of a team first
-        List<TeamMember> teamMemberships = teamMemberRepository.findByUserId(user.getId());
-        Optional<TeamMember> teamMembership = teamMemberships.stream().findFirst();
-
-        if (teamMembership.isPresent()) {
-            Team team = teamMembership.get().getTeam();
-            if (team.isAccessAllowed()) {
-                return getTeamStorageInfo(team, user);
-            }
-        }
-
-        return getIndividualStorageInfo(user);
+        return findAccessibleTeam(user.getId())
+                .map(team -> getTeamStorageInfo(team, user))
+                .orElseGet(() -> getIndividualStorageInfo(user));
     }
 
     /**
@@ -419,10 +427,9 @@ public class StorageAllocationService {
         boolean ocrUnlimited = true;
         Integer ocrPagesRemaining = null;
 
-        // Document upload info for the user within the team (count in real-time)
+        // Document uploads are counted per team and month, like the reservation charges them
         Integer documentUploadLimit = plan != null ? plan.getMonthlyDocumentLimit() : null;
-        Long documentsUploadedLong = documentCollectionRepository.countByUserId(user.getId());
-        Integer documentsUploaded = documentsUploadedLong != null ? documentsUploadedLong.intValue() : 0;
+        Integer documentsUploaded = orZero(team.getMonthlyDocumentUploadCount());
         boolean documentsUnlimited = documentUploadLimit == null;
         Integer documentsRemaining = documentsUnlimited ? null : Math.max(0, documentUploadLimit - documentsUploaded);
 
@@ -0,0 +1,381 @@
+package com.extractor.unraveldocs.storage.service;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentUploadState;
+import com.extractor.unraveldocs.storage.config.StorageReconciliationProperties;
+import com.extractor.unraveldocs.storage.repository.StorageReconciliationRepository;
+import com.extractor.unraveldocs.storage.repository.StorageUsageRow;
+import com.extractor.unraveldocs.team.datamodel.TeamSubscriptionStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reconciles the storage counters on subscriptions and teams with the bytes
+ * of the files actually stored.
+ *
+ * <p>
+ * A pass walks subscriptions and then teams in ID order, a chunk at a time.
+ * For each chunk the stored bytes are summed with one grouped query, and
+ * only counters that drifted are written. Each correction is applied as a
+ * delta that only lands if the counter still holds the value that was read,
+ * so uploads and deletes running at the same time are never overwritten and
+ * concurrent passes are safe. A counter that changed in between is left for
+ * the next pass.
+ * </p>
+ *
+ * <p>
+ * An upload holds a reservation on the counter while its files are being
+ * stored, so a counter with an upload in flight looks drifted. Drift is
+ * therefore only corrected once it has been seen unchanged, with the same
+ * counter value, on two passes at least
+ * {@code app.storage.reconciliation.drift-confirmation-seconds} apart. Until
+ * then it is recorded in Redis and reported as deferred. A reservation that
+ * settles in between changes either the counter or the stored bytes, so the
+ * two observations no longer match and nothing is corrected. An admin can
+ * force a pass that corrects drift on sight; it may then strip bytes an
+ * in-flight upload has reserved, which that upload's settlement does not
+ * restore until the next reconciliation.
+ * </p>
+ *
+ * <p>
+ * The position of an unfinished pass is kept in Redis, so a pass can be
+ * split over several runs and survives restarts.
+ * </p>
+ */
+@Slf4j
+@Service
+public class StorageReconciliationService {
+
+    private static final String STORED = DocumentUploadState.SUCCESS.toString();
+    private static final String USERS = "users";
+    private static final String TEAMS = "teams";
+    private static final String CHECKPOINT_SEPARATOR = "|";
+    private static final String OBSERVATION_SEPARATOR = ":";
+    private static final Duration OBSERVATION_TTL = Duration.ofDays(7);
+
+    private final StorageReconciliationRepository repository;
+    private final StorageReconciliationProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<TeamSubscriptionStatus> accessAllowed = TeamSubscriptionStatus.accessAllowedStatuses();
+    private final Map<String, Counter> checkedCounters;
+    private final Map<String, Counter> correctedCounters;
+    private final Map<String, Counter> conflictCounters;
+    private final Map<String, Counter> deferredCounters;
+    private final Map<String, DistributionSummary> driftSummaries;
+
+    public StorageReconciliationService(
+            StorageReconciliationRepository repository,
+            StorageReconciliationProperties properties,
+            StringRedisTemplate redisTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.checkedCounters = perScope(scope -> Counter.builder("storage.reconciliation.checked")
+                .description("Storage counters compared with stored files")
+                .tag("scope", scope)
+                .register(meterRegistry));
+        this.correctedCounters = perScope(scope -> Counter.builder("storage.reconciliation.corrected")
+                .description("Storage counters corrected for drift")
+                .tag("scope", scope)
+                .register(meterRegistry));
+        this.conflictCounters = perScope(scope -> Counter.builder("storage.reconciliation.conflicts")
+                .description("Corrections skipped because the counter changed concurrently")
+                .tag("scope", scope)
+                .register(meterRegistry));
+        this.deferredCounters = perScope(scope -> Counter.builder("storage.reconciliation.deferred")
+                .description("Drifted storage counters left until the drift is seen again")
+                .tag("scope", scope)
+                .register(meterRegistry));
+        this.driftSummaries = perScope(scope -> DistributionSummary.builder("storage.reconciliation.drift")
+                .description("Absolute drift of corrected storage counters")
+                .baseUnit("bytes")
+                .tag("scope", scope)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Continue the current pass, or start a new one, for at most the given
+     * number of chunks.
+     *
+     * @param maxChunks The chunk budget; 0 or less runs the pass to the end
+     * @return What this run checked and corrected
+     */
+    public ReconciliationResult reconcile(int maxChunks) {
+        return reconcile(maxChunks, false);
+    }
+
+    /**
+     * Continue the current pass, or start a new one, for at most the given
+     * number of chunks.
+     *
+     * @param maxChunks The chunk budget; 0 or less runs the pass to the end
+     * @param force     Whether to correct drift the first time it is seen
+     *                  instead of waiting for a later pass to confirm it
+     * @return What this run checked and corrected
+     */
+    public ReconciliationResult reconcile(int maxChunks, boolean force) {
+        Checkpoint checkpoint = loadCheckpoint();
+        String scope = checkpoint.scope();
+        String cursor = checkpoint.cursor();
+        int chunkSize = properties.getChunkSize();
+        Tally users = new Tally();
+        Tally teams = new Tally();
+        boolean complete = false;
+
+        for (int chunks = 0; maxChunks <= 0 || chunks < maxChunks; chunks++) {
+            String from = cursor;
+            boolean userScope = USERS.equals(scope);
+            Tally tally = userScope ? users : teams;
+            List<StorageUsageRow> rows = transactionTemplate.execute(status -> userScope
+                    ? reconcileUsers(from, chunkSize, tally, force)
+                    : reconcileTeams(from, chunkSize, tally, force));
+
+            if (rows.size() == chunkSize) {
+                cursor = rows.getLast().ownerId();
+            } else if (userScope) {
+                scope = TEAMS;
+                cursor = "";
+            } else {
+                complete = true;
+                break;
+            }
+            saveCheckpoint(scope, cursor);
+        }
+
+        if (complete) {
+            redisTemplate.delete(properties.getCheckpointKey());
+        }
+
+        ReconciliationResult result = new ReconciliationResult(
+                users.checked, users.corrected, teams.checked, teams.corrected,
+                users.conflicts + teams.conflicts, users.deferred + teams.deferred,
+                users.driftBytes + teams.driftBytes, complete);
+        log.info("Storage reconciliation run finished: {}{}", result.getSummary(),
+                complete ? "" : " Next run resumes at " + scope + " after '" + cursor + "'.");
+        return result;
+    }
+
+    private List<StorageUsageRow> reconcileUsers(String afterUserId, int chunkSize, Tally tally, boolean force) {
+        List<StorageUsageRow> recorded = repository.findSubscriptionUsage(afterUserId, PageRequest.of(0, chunkSize));
+        if (recorded.isEmpty()) {
+            return recorded;
+        }
+
+        // Members of a team are charged to the team, not their subscription
+        Set<String> chargedToTeam = new HashSet<>(repository.findUserIdsChargedToTeam(
+                recorded.stream().map(StorageUsageRow::ownerId).toList(), accessAllowed));
+        List<StorageUsageRow> individual = recorded.stream()
+                .filter(row -> !chargedToTeam.contains(row.ownerId()))
+                .toList();
+        if (individual.isEmpty()) {
+            return recorded;
+        }
+
+        Map<String, Long> stored = toMap(repository.sumStoredBytesByUser(
+                individual.stream().map(StorageUsageRow::ownerId).toList(), STORED));
+        correct(USERS, individual, stored, tally, force, repository::applySubscriptionDelta);
+        return recorded;
+    }
+
+    private List<StorageUsageRow> reconcileTeams(String afterTeamId, int chunkSize, Tally tally, boolean force) {
+        List<StorageUsageRow> recorded = repository.findTeamUsage(
+                afterTeamId, accessAllowed, PageRequest.of(0, chunkSize));
+        if (recorded.isEmpty()) {
+            return recorded;
+        }
+
+        Map<String, Long> stored = toMap(repository.sumStoredBytesByTeam(
+                recorded.stream().map(StorageUsageRow::ownerId).toList(), STORED, accessAllowed));
+        correct(TEAMS, recorded, stored, tally, force, repository::applyTeamDelta);
+        return recorded;
+    }
+
+    /**
+     * Compare a chunk's counters with the stored bytes, correcting drift that
+     * was already seen on an earlier pass, or all drift when forced, and
+     * recording new drift.
+     */
+    private void correct(String scope, List<StorageUsageRow> rows, Map<String, Long> stored, Tally tally,
+            boolean force, DeltaUpdate applyDelta) {
+        String observationKey = properties.getObservationKey();
+        HashOperations<String, String, String> observations = redisTemplate.opsForHash();
+        List<String> fields = rows.stream().map(row -> scope + OBSERVATION_SEPARATOR + row.ownerId()).toList();
+        List<String> previous = observations.multiGet(observationKey, fields);
+        long now = System.currentTimeMillis();
+        long confirmAfterMillis = properties.getDriftConfirmationSeconds() * 1000;
+
+        Map<String, String> observed = new HashMap<>();
+        List<String> settled = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            StorageUsageRow row = rows.get(i);
+            String field = fields.get(i);
+            Observation prior = Observation.parse(previous.get(i));
+            long actual = stored.getOrDefault(row.ownerId(), 0L);
+            tally.checked++;
+            checkedCounters.get(scope).increment();
+
+            long drift = actual - row.bytes();
+            if (drift == 0) {
+                if (prior != null) {
+                    settled.add(field);
+                }
+                continue;
+            }
+
+            if (!force && (prior == null || !prior.matches(row.bytes(), actual))) {
+                // New drift, or drift that moved: possibly an upload in flight
+                observed.put(field, new Observation(row.bytes(), actual, now).format());
+                defer(scope, tally);
+                continue;
+            }
+            if (!force && now - prior.observedAt() < confirmAfterMillis) {
+                defer(scope, tally);
+                continue;
+            }
+
+            if (prior != null) {
+                settled.add(field);
+            }
+            if (applyDelta.apply(row.ownerId(), row.bytes(), drift) == 1) {
+                tally.corrected++;
+                tally.driftBytes += Math.abs(drift);
+                correctedCounters.get(scope).increment();
+                driftSummaries.get(scope).record(Math.abs(drift));
+                log.debug("Corrected storage of {} {}: {} -> {}", scope, row.ownerId(), row.bytes(), actual);
+            } else {
+                tally.conflicts++;
+                conflictCounters.get(scope).increment();
+            }
+        }
+
+        if (!settled.isEmpty()) {
+            observations.delete(observationKey, settled.toArray());
+        }
+        if (!observed.isEmpty()) {
+            observations.putAll(observationKey, observed);
+            redisTemplate.expire(observationKey, OBSERVATION_TTL);
+        }
+    }
+
+    private void defer(String scope, Tally tally) {
+        tally.deferred++;
+        deferredCounters.get(scope).increment();
+    }
+
+    private Checkpoint loadCheckpoint() {
+        String value = redisTemplate.opsForValue().get(properties.getCheckpointKey());
+        if (value != null) {
+            int separator = value.indexOf(CHECKPOINT_SEPARATOR);
+            String scope = separator > 0 ? value.substring(0, separator) : "";
+            if (USERS.equals(scope) || TEAMS.equals(scope)) {
+                return new Checkpoint(scope, value.substring(separator + 1));
+            }
+            log.warn("Ignoring malformed storage reconciliation checkpoint '{}'", value);
+        }
+        return new Checkpoint(USERS, "");
+    }
+
+    private void saveCheckpoint(String scope, String cursor) {
+        redisTemplate.opsForValue().set(properties.getCheckpointKey(), scope + CHECKPOINT_SEPARATOR + cursor);
+    }
+
+    private static Map<String, Long> toMap(List<StorageUsageRow> rows) {
+        return rows.stream().collect(Collectors.toMap(StorageUsageRow::ownerId, StorageUsageRow::bytes));
+    }
+
+    private static <T> Map<String, T> perScope(Function<String, T> factory) {
+        return Map.of(USERS, factory.apply(USERS), TEAMS, factory.apply(TEAMS));
+    }
+
+    /**
+     * Scope being walked and the last ID done in it.
+     */
+    private record Checkpoint(String scope, String cursor) {
+    }
+
+    /**
+     * Drift seen on an earlier pass: the counter value and stored bytes at
+     * the time.
+     */
+    private record Observation(long recorded, long actual, long observedAt) {
+
+        private static Observation parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            String[] parts = value.split(OBSERVATION_SEPARATOR);
+            try {
+                return new Observation(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        private boolean matches(long recorded, long actual) {
+            return this.recorded == recorded && this.actual == actual;
+        }
+
+        private String format() {
+            return recorded + OBSERVATION_SEPARATOR + actual + OBSERVATION_SEPARATOR + observedAt;
+        }
+    }
+
+    /**
+     * Compare-and-set update of a counter, as done by the repository.
+     */
+    @FunctionalInterface
+    private interface DeltaUpdate {
+        int apply(String ownerId, long recorded, long delta);
+    }
+
+    private static final class Tally {
+        private int checked;
+        private int corrected;
+        private int conflicts;
+        private int deferred;
+        private long driftBytes;
+    }
+
+    /**
+     * Result of a reconciliation run.
+     */
+    public record ReconciliationResult(
+            int usersChecked,
+            int usersCorrected,
+            int teamsChecked,
+            int teamsCorrected,
+            int conflicts,
+            int deferred,
+            long driftBytes,
+            boolean passComplete) {
+
+        public String getSummary() {
+            return String.format("Reconciliation %s: %d of %d users and %d of %d teams corrected, "
+                            + "%s total drift, %d skipped due to concurrent changes, "
+                            + "%d deferred until the drift is seen again.",
+                    passComplete ? "pass completed" : "run paused",
+                    usersCorrected, usersChecked, teamsCorrected, teamsChecked,
+                    StorageAllocationService.formatBytes(driftBytes), conflicts, deferred);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.extractor.unraveldocs.storage.service;
+
+/**
+ * Storage and document quota held for an upload in progress, returned by
+ * {@link StorageAllocationService#reserve}. The counters already include the
+ * reserved amounts; settle it with
+ * {@link StorageAllocationService#commit} or
+ * {@link StorageAllocationService#release}.
+ *
+ * @param userId    the uploading user
+ * @param teamId    the team whose storage was charged, or null for the user's
+ *                  own subscription
+ * @param bytes     reserved storage in bytes
+ * @param documents reserved monthly document slots, charged to the team when
+ *                  {@code teamId} is set and to the user's subscription
+ *                  otherwise
+ */
+public record StorageReservation(String userId, String teamId, long bytes, int documents) {
+
+    public boolean isTeam() {
+        return teamId != null;
+    }
+}
@@ -1,6 +1,5 @@
 package com.extractor.unraveldocs.subscription.jobs;
 
-import com.extractor.unraveldocs.subscription.model.UserSubscription;
 import com.extractor.unraveldocs.subscription.repository.UserSubscriptionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,7 +10,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.TemporalAdjusters;
-import java.util.List;
 
 /**
  * Scheduled job to reset monthly quotas for user subscriptions.
@@ -43,26 +41,14 @@ public class MonthlyQuotaResetJob {
         log.info("Starting monthly quota reset check at {}", now);
 
         try {
-            // Find subscriptions that need quota reset
-            List<UserSubscription> subscriptionsToReset = userSubscriptionRepository
-                    .findSubscriptionsNeedingQuotaReset(now);
+            // A targeted update, so usage counted while the job runs is not overwritten by a stale entity
+            int resetCount = userSubscriptionRepository.resetMonthlyQuotasDue(now, calculateNextResetDate());
 
-            if (subscriptionsToReset.isEmpty()) {
+            if (resetCount == 0) {
                 log.debug("No subscriptions need quota reset at this time");
                 return;
             }
 
-            int resetCount = 0;
-            for (UserSubscription subscription : subscriptionsToReset) {
-                try {
-                    resetSubscriptionQuotas(subscription);
-                    resetCount++;
-                } catch (Exception e) {
-                    log.error("Failed to reset quotas for subscription {}: {}",
-                            subscription.getId(), e.getMessage(), e);
-                }
-            }
-
             log.info("Monthly quota reset completed. Reset {} subscriptions", resetCount);
 
         } catch (Exception e) {
@@ -80,52 +66,20 @@ public class MonthlyQuotaResetJob {
         log.info("Initializing quota reset dates for subscriptions without one");
 
         try {
-            List<UserSubscription> subscriptionsWithoutResetDate = userSubscriptionRepository
-                    .findSubscriptionsWithoutQuotaResetDate();
+            int initialized = userSubscriptionRepository.initializeQuotaResetDates(calculateNextResetDate());
 
-            if (subscriptionsWithoutResetDate.isEmpty()) {
+            if (initialized == 0) {
                 log.debug("All subscriptions have quota reset dates");
                 return;
             }
 
-            OffsetDateTime nextResetDate = calculateNextResetDate();
-
-            for (UserSubscription subscription : subscriptionsWithoutResetDate) {
-                subscription.setQuotaResetDate(nextResetDate);
-                userSubscriptionRepository.save(subscription);
-            }
-
-            log.info("Initialized quota reset date for {} subscriptions", subscriptionsWithoutResetDate.size());
+            log.info("Initialized quota reset date for {} subscriptions", initialized);
 
         } catch (Exception e) {
             log.error("Failed to initialize quota reset dates: {}", e.getMessage(), e);
         }
     }
 
-    /**
-     * Reset quotas for a single subscription.
-     */
-    private void resetSubscriptionQuotas(UserSubscription subscription) {
-        String userId = subscription.getUser() != null ? subscription.getUser().getId() : "unknown";
-
-        int previousDocuments = subscription.getMonthlyDocumentsUploaded() != null
-                ? subscription.getMonthlyDocumentsUploaded() : 0;
-        int previousOcrPages = subscription.getOcrPagesUsed() != null
-                ? subscription.getOcrPagesUsed() : 0;
-
-        // Reset monthly quotas
-        subscription.setMonthlyDocumentsUploaded(0);
-        subscription.setOcrPagesUsed(0);
-
-        // Set next reset date to first of next month
-        subscription.setQuotaResetDate(calculateNextResetDate());
-
-        userSubscriptionRepository.save(subscription);
-
-        log.info("Reset quotas for user {}: documents {} -> 0, OCR pages {} -> 0, next reset: {}",
-                userId, previousDocuments, previousOcrPages, subscription.getQuotaResetDate());
-    }
-
     /**
      * Calculate the next quota reset date (first day of next month at midnight UTC).
      */
@@ -2,6 +2,7 @@ package com.extractor.unraveldocs.subscription.repository;
 
 import com.extractor.unraveldocs.subscription.model.UserSubscription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -81,16 +82,85 @@ public interface UserSubscriptionRepository extends JpaRepository<UserSubscripti
         // ========== Monthly Quota Reset Query Methods ==========
 
         /**
-         * Find subscriptions that need quota reset (quota_reset_date <= now).
-         * Used by the scheduled quota reset job.
+         * Start a new billing period for subscriptions whose quota reset date has
+         * passed: zero the monthly counters and move the reset date on. Counters
+         * are only ever written by targeted updates, so a reset cannot overwrite
+         * usage recorded concurrently. Returns the number of subscriptions reset.
          */
-        @Query("SELECT us FROM UserSubscription us WHERE us.quotaResetDate IS NOT NULL AND us.quotaResetDate <= :now")
-        List<UserSubscription> findSubscriptionsNeedingQuotaReset(@Param("now") OffsetDateTime now);
+        @Modifying
+        @Query("UPDATE UserSubscription us SET us.monthlyDocumentsUploaded = 0, us.ocrPagesUsed = 0, " +
+                        "us.quotaResetDate = :nextResetDate " +
+                        "WHERE us.quotaResetDate IS NOT NULL AND us.quotaResetDate <= :now")
+        int resetMonthlyQuotasDue(@Param("now") OffsetDateTime now,
+                        @Param("nextResetDate") OffsetDateTime nextResetDate);
 
         /**
-         * Find subscriptions without a quota reset date set.
-         * Used to initialize quota reset dates for existing subscriptions.
+         * Set a quota reset date on subscriptions that don't have one yet.
+         * Returns the number of subscriptions updated.
          */
-        @Query("SELECT us FROM UserSubscription us WHERE us.quotaResetDate IS NULL")
-        List<UserSubscription> findSubscriptionsWithoutQuotaResetDate();
-}
\ No newline at end of file
+        @Modifying
+        @Query("UPDATE UserSubscription us SET us.quotaResetDate = :resetDate WHERE us.quotaResetDate IS NULL")
+        int initializeQuotaResetDates(@Param("resetDate") OffsetDateTime resetDate);
+
+        // ========== Atomic Usage Counters ==========
+
+        /**
+         * Add bytes to a user's storage usage if the result stays within the plan's
+         * storage limit. Returns 0 when the subscription is missing or the limit
+         * would be exceeded.
+         */
+        @Modifying
+        @Query("UPDATE UserSubscription us SET us.storageUsed = us.storageUsed + :bytes " +
+                        "WHERE us.user.id = :userId AND NOT EXISTS (SELECT p FROM SubscriptionPlan p " +
+                        "WHERE p.id = us.plan.id AND p.storageLimit IS NOT NULL " +
+                        "AND us.storageUsed + :bytes > p.storageLimit)")
+        int reserveStorage(@Param("userId") String userId, @Param("bytes") long bytes);
+
+        /**
+         * Apply a storage delta without a limit check, never going below zero.
+         */
+        @Modifying
+        @Query("UPDATE UserSubscription us SET us.storageUsed = " +
+                        "CASE WHEN us.storageUsed + :delta < 0 THEN 0 ELSE us.storageUsed + :delta END " +
+                        "WHERE us.user.id = :userId")
+        int adjustStorageUsed(@Param("userId") String userId, @Param("delta") long delta);
+
+        /**
+         * Add to the monthly upload count if the result stays within the plan's
+         * document limit (null or 0 means unlimited). Sets the quota reset date if
+         * it is missing. Returns 0 when the subscription is missing or the limit
+         * would be exceeded.
+         */
+        @Modifying
+        @Query("UPDATE UserSubscription us SET us.monthlyDocumentsUploaded = us.monthlyDocumentsUploaded + :count, " +
+                        "us.quotaResetDate = COALESCE(us.quotaResetDate, :resetDate) " +
+                        "WHERE us.user.id = :userId AND NOT EXISTS (SELECT p FROM SubscriptionPlan p " +
+                        "WHERE p.id = us.plan.id AND p.documentUploadLimit IS NOT NULL AND p.documentUploadLimit > 0 " +
+                        "AND us.monthlyDocumentsUploaded + :count > p.documentUploadLimit)")
+        int reserveMonthlyDocuments(@Param("userId") String userId, @Param("count") int count,
+                        @Param("resetDate") OffsetDateTime resetDate);
+
+        /**
+         * Apply a monthly upload count delta without a limit check, never going
+         * below zero. Sets the quota reset date if it is missing.
+         */
+        @Modifying
+        @Query("UPDATE UserSubscription us SET us.monthlyDocumentsUploaded = " +
+                        "CASE WHEN us.monthlyDocumentsUploaded + :delta < 0 THEN 0 " +
+                        "ELSE us.monthlyDocumentsUploaded + :delta END, " +
+                        "us.quotaResetDate = COALESCE(us.quotaResetDate, :resetDate) " +
+                        "WHERE us.user.id = :userId")
+        int adjustMonthlyDocumentsUploaded(@Param("userId") String userId, @Param("delta") int delta,
+                        @Param("resetDate") OffsetDateTime resetDate);
+
+        /**
+         * Add OCR pages to the current period's usage. Sets the quota reset date if
+         * it is missing.
+         */
+        @Modifying
+        @Query("UPDATE UserSubscription us SET us.ocrPagesUsed = us.ocrPagesUsed + :pages, " +
+                        "us.quotaResetDate = COALESCE(us.quotaResetDate, :resetDate) " +
+                        "WHERE us.user.id = :userId")
+        int incrementOcrPagesUsed(@Param("userId") String userId, @Param("pages") int pages,
+                        @Param("resetDate") OffsetDateTime resetDate);
+}
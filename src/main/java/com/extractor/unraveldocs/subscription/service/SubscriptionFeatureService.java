@@ -51,21 +51,15 @@ public class SubscriptionFeatureService {
      * @return true if the user has access
      */
     public boolean hasFeatureAccess(String userId, Feature feature) {
-        Optional<UserSubscription> subscription = userSubscriptionRepository.findByUserId(userId);
+        Optional<UserSubscription> subscription = userSubscriptionRepository.findByUserIdWithPlan(userId);
 
         if (subscription.isEmpty()) {
             log.debug("User {} has no subscription, denying access to {}", userId, feature);
             return false;
         }
 
-        UserSubscription userSub = subscription.get();
-        if (userSub.getPlan() == null) {
-            log.debug("User {} subscription has no plan, denying access to {}", userId, feature);
-            return false;
-        }
-
-        SubscriptionPlans planName = userSub.getPlan().getName();
-        boolean hasAccess = PREMIUM_TIERS.contains(planName);
+        SubscriptionPlans planName = subscription.get().getPlan().getName();
+        boolean hasAccess = hasFeatureAccess(planName, feature);
 
         log.debug("User {} with plan {} {} access to {}",
                 userId, planName, hasAccess ? "has" : "does not have", feature);
@@ -73,6 +67,19 @@ public class SubscriptionFeatureService {
         return hasAccess;
     }
 
+    /**
+     * Checks if a plan gives access to a premium feature. Use this when the
+     * plan is already known, e.g. from resolved entitlements, to skip the
+     * subscription lookup.
+     *
+     * @param plan    The user's plan, or null without a subscription
+     * @param feature The premium feature to check
+     * @return true if the plan has access
+     */
+    public boolean hasFeatureAccess(SubscriptionPlans plan, Feature feature) {
+        return plan != null && PREMIUM_TIERS.contains(plan);
+    }
+
     /**
      * Requires a user to have access to a premium feature, throws
      * ForbiddenException if not.
@@ -83,12 +90,30 @@ public class SubscriptionFeatureService {
      */
     public void requireFeatureAccess(String userId, Feature feature) {
         if (!hasFeatureAccess(userId, feature)) {
-            throw new ForbiddenException(
-                    String.format("This feature requires a Starter or higher subscription. " +
-                            "Please upgrade your plan to access %s.", feature.name().toLowerCase().replace("_", " ")));
+            throw featureForbidden(feature);
         }
     }
 
+    /**
+     * Requires a plan to give access to a premium feature, throws
+     * ForbiddenException if not.
+     *
+     * @param plan    The user's plan, or null without a subscription
+     * @param feature The premium feature required
+     * @throws ForbiddenException if the plan doesn't have access
+     */
+    public void requireFeatureAccess(SubscriptionPlans plan, Feature feature) {
+        if (!hasFeatureAccess(plan, feature)) {
+            throw featureForbidden(feature);
+        }
+    }
+
+    private static ForbiddenException featureForbidden(Feature feature) {
+        return new ForbiddenException(
+                String.format("This feature requires a Starter or higher subscription. " +
+                        "Please upgrade your plan to access %s.", feature.name().toLowerCase().replace("_", " ")));
+    }
+
     /**
      * Checks if a user has any paid subscription (not FREE).
      *
@@ -96,7 +121,7 @@ public class SubscriptionFeatureService {
      * @return true if user has a paid subscription
      */
     public boolean hasPaidSubscription(String userId) {
-        Optional<UserSubscription> subscription = userSubscriptionRepository.findByUserId(userId);
+        Optional<UserSubscription> subscription = userSubscriptionRepository.findByUserIdWithPlan(userId);
 
         if (subscription.isEmpty()) {
             return false;
@@ -2,6 +2,9 @@ package com.extractor.unraveldocs.team.datamodel;
 
 import lombok.Getter;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Status of a team subscription.
  */
@@ -25,6 +28,13 @@ public enum TeamSubscriptionStatus {
         return this == TRIAL || this == ACTIVE || this == CANCELLED || this == PAST_DUE;
     }
 
+    /**
+     * Statuses for which {@link #isAccessAllowed()} holds, for use in queries.
+     */
+    public static List<TeamSubscriptionStatus> accessAllowedStatuses() {
+        return Arrays.stream(values()).filter(TeamSubscriptionStatus::isAccessAllowed).toList();
+    }
+
     public static TeamSubscriptionStatus fromString(String name) {
         for (TeamSubscriptionStatus status : TeamSubscriptionStatus.values()) {
             if (status.name().equalsIgnoreCase(name) || status.displayName.equalsIgnoreCase(name)) {
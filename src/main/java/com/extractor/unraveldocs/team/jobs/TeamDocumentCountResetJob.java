@@ -0,0 +1,43 @@
+package com.extractor.unraveldocs.team.jobs;
+
+import com.extractor.unraveldocs.team.repository.TeamRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Scheduled job to reset the monthly document upload count of teams, which
+ * uploads are charged against the team plan's monthly document limit.
+ *
+ * Runs every hour so a count is still reset if the server was down on the
+ * first of the month; teams already reset this month are left alone.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TeamDocumentCountResetJob {
+
+    private final TeamRepository teamRepository;
+
+    @Scheduled(cron = "0 5 * * * *")
+    @Transactional
+    public void resetMonthlyDocumentCounts() {
+        OffsetDateTime periodStart = OffsetDateTime.now(ZoneOffset.UTC)
+                .with(TemporalAdjusters.firstDayOfMonth())
+                .withHour(0)
+                .withMinute(0)
+                .withSecond(0)
+                .withNano(0);
+
+        int reset = teamRepository.resetDocumentCountsBefore(periodStart);
+        if (reset > 0) {
+            log.info("Reset monthly document counts for {} teams", reset);
+        }
+    }
+}
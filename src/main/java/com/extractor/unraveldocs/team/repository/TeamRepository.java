@@ -27,6 +27,12 @@ public interface TeamRepository extends JpaRepository<Team, String> {
         @Query("SELECT t FROM Team t JOIN t.members m WHERE m.user.id = :userId")
         List<Team> findAllTeamsForUser(@Param("userId") String userId);
 
+        /**
+         * Teams the user belongs to, with their plan, in one query, in ID order.
+         */
+        @Query("SELECT t FROM Team t LEFT JOIN FETCH t.plan JOIN t.members m WHERE m.user.id = :userId ORDER BY t.id")
+        List<Team> findTeamsWithPlanForUser(@Param("userId") String userId);
+
         @Query("SELECT t FROM Team t WHERE t.isActive = true AND t.isClosed = false")
         List<Team> findAllActiveTeams();
 
@@ -72,9 +78,56 @@ public interface TeamRepository extends JpaRepository<Team, String> {
                         @Param("status") TeamSubscriptionStatus status,
                         @Param("now") OffsetDateTime now);
 
+        /**
+         * Start a new monthly document count for teams whose count was last reset
+         * before the given period start. Returns the number of teams reset.
+         */
+        @Modifying
+        @Query("UPDATE Team t SET t.monthlyDocumentUploadCount = 0, t.documentCountResetAt = :periodStart " +
+                        "WHERE t.documentCountResetAt IS NULL OR t.documentCountResetAt < :periodStart")
+        int resetDocumentCountsBefore(@Param("periodStart") OffsetDateTime periodStart);
+
+        /**
+         * Add to a team's monthly document count if the result stays within its
+         * plan's monthly document limit (no plan or a null limit means unlimited).
+         * Returns 0 when the limit would be exceeded.
+         */
+        @Modifying
+        @Query("UPDATE Team t SET t.monthlyDocumentUploadCount = t.monthlyDocumentUploadCount + :count " +
+                        "WHERE t.id = :teamId AND NOT EXISTS (SELECT p FROM TeamSubscriptionPlan p " +
+                        "WHERE p.id = t.plan.id AND p.monthlyDocumentLimit IS NOT NULL " +
+                        "AND t.monthlyDocumentUploadCount + :count > p.monthlyDocumentLimit)")
+        int reserveMonthlyDocuments(@Param("teamId") String teamId, @Param("count") int count);
+
+        /**
+         * Apply a monthly document count delta without a limit check, never going
+         * below zero.
+         */
+        @Modifying
+        @Query("UPDATE Team t SET t.monthlyDocumentUploadCount = " +
+                        "CASE WHEN t.monthlyDocumentUploadCount + :delta < 0 THEN 0 " +
+                        "ELSE t.monthlyDocumentUploadCount + :delta END " +
+                        "WHERE t.id = :teamId")
+        int adjustMonthlyDocumentUploadCount(@Param("teamId") String teamId, @Param("delta") int delta);
+
+        /**
+         * Add bytes to a team's storage usage if the result stays within its plan's
+         * storage limit (no plan or a null limit means unlimited). Returns 0 when
+         * the limit would be exceeded.
+         */
+        @Modifying
+        @Query("UPDATE Team t SET t.storageUsed = t.storageUsed + :bytes " +
+                        "WHERE t.id = :teamId AND NOT EXISTS (SELECT p FROM TeamSubscriptionPlan p " +
+                        "WHERE p.id = t.plan.id AND p.storageLimit IS NOT NULL " +
+                        "AND t.storageUsed + :bytes > p.storageLimit)")
+        int reserveStorage(@Param("teamId") String teamId, @Param("bytes") long bytes);
+
+        /**
+         * Apply a storage delta without a limit check, never going below zero.
+         */
         @Modifying
-        @Query("UPDATE Team t SET t.monthlyDocumentUploadCount = 0, " +
-                        "t.documentCountResetAt = :now, t.updatedAt = :now " +
-                        "WHERE t.isActive = true")
-        void resetAllDocumentCounts(@Param("now") OffsetDateTime now);
+        @Query("UPDATE Team t SET t.storageUsed = " +
+                        "CASE WHEN t.storageUsed + :delta < 0 THEN 0 ELSE t.storageUsed + :delta END " +
+                        "WHERE t.id = :teamId")
+        int adjustStorageUsed(@Param("teamId") String teamId, @Param("delta") long delta);
 }
@@ -1,11 +1,13 @@
 package com.extractor.unraveldocs.user.impl;
 
 import com.extractor.unraveldocs.auth.repository.UserVerificationRepository;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
 import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
 import com.extractor.unraveldocs.brokers.kafka.events.BaseEvent;
 import com.extractor.unraveldocs.brokers.kafka.events.EventMetadata;
 import com.extractor.unraveldocs.brokers.kafka.events.EventPublisherService;
 import com.extractor.unraveldocs.brokers.kafka.events.EventTypes;
+import com.extractor.unraveldocs.storage.service.ObjectDeletionQueue;
 import com.extractor.unraveldocs.user.events.UserDeletedEvent;
 import com.extractor.unraveldocs.user.events.UserDeletionScheduledEvent;
 import com.extractor.unraveldocs.user.interfaces.userimpl.DeleteUserService;
@@ -32,6 +34,8 @@ public class DeleteUserImpl implements DeleteUserService {
     private final EventPublisherService eventPublisherService;
     private final UserRepository userRepository;
     private final UserVerificationRepository userVerificationRepository;
+    private final FileEntryRepository fileEntryRepository;
+    private final ObjectDeletionQueue objectDeletionQueue;
 
     private static final int BATCH_SIZE = 100;
 
@@ -75,6 +79,7 @@ public class DeleteUserImpl implements DeleteUserService {
         do {
             usersToDeletePage = userRepository.findAllByDeletedAtBefore(threshold, pageable);
             List<User> usersToDelete = usersToDeletePage.getContent();
+            queueStoredFiles(usersToDelete.stream().map(User::getId).toList());
 
             for (User user : usersToDelete) {
                 publishUserDeletedEvent(user);
@@ -95,6 +100,7 @@ public class DeleteUserImpl implements DeleteUserService {
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
         publishUserDeletedEvent(user);
+        queueStoredFiles(List.of(user.getId()));
 
         if (user.getUserVerification() != null) {
             userVerificationRepository.delete(user.getUserVerification());
@@ -103,6 +109,20 @@ public class DeleteUserImpl implements DeleteUserService {
         userRepository.delete(user);
     }
 
+    /**
+     * Queue the stored document files of users about to be deleted, so they are
+     * removed from S3 once the deletion commits.
+     */
+    private void queueStoredFiles(List<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        int queued = objectDeletionQueue.enqueue(fileEntryRepository.findStoredByUserIds(userIds));
+        if (queued > 0) {
+            log.info("Queued {} stored file(s) of {} deleted user(s) for removal", queued, userIds.size());
+        }
+    }
+
     private void scheduleDeletionForUser(User user) {
         OffsetDateTime deletionDate = OffsetDateTime.now().plusDays(10);
         user.setDeletedAt(deletionDate);
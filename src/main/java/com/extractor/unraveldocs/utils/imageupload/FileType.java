@@ -5,6 +5,7 @@ import lombok.Getter;
 @Getter
 public enum FileType {
     IMAGE("image/gif", "image/jpeg", "image/png", "image/jpg"),
+    OCR_DOCUMENT("image/gif", "image/jpeg", "image/png", "image/jpg", "image/tiff", "application/pdf"),
     VIDEO("video/mp4", "video/quicktime", "video/x-msvideo", "video/x-flv", "video/webm", "video/ogg"),
     DOCUMENT("application/pdf", "application/msword", "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
             "application/vnd.ms-excel", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
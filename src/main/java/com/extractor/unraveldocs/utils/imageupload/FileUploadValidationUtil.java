@@ -22,7 +22,7 @@ public final class FileUploadValidationUtil {
     }
 
     public static void validateIndividualFile(MultipartFile file) {
-        validateFileCheck(file, FileType.IMAGE);
+        validateFileCheck(file, FileType.OCR_DOCUMENT);
         if (!FileSize.isValidFileSize(file.getSize(), false)) {
             throw new BadRequestException(FileSize.getFileSizeLimitMessage(false));
         }
@@ -8,13 +8,42 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
 import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -22,10 +51,30 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AwsS3Service {
     private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+
+    private static final int MIN_PART_SIZE_BYTES = 5 * 1024 * 1024;
+
+    /**
+     * Most keys S3 accepts in one DeleteObjects request.
+     */
+    public static final int MAX_DELETE_BATCH_SIZE = 1000;
 
     @Value("${aws.s3.bucket}")
     private String bucketName;
 
+    /**
+     * Files larger than this are uploaded with S3 multipart upload.
+     */
+    @Value("${aws.s3.multipart-threshold-bytes:16777216}")
+    private long multipartThresholdBytes;
+
+    /**
+     * Size of each multipart upload part; S3 requires at least 5 MB.
+     */
+    @Value("${aws.s3.multipart-part-size-bytes:8388608}")
+    private int multipartPartSizeBytes;
+
     @Getter
     private static final String PROFILE_PICTURE_FOLDER = FileFolder.PROFILE_PICTURE.getFolder();
 
@@ -33,22 +82,148 @@ public class AwsS3Service {
     private static final String DOCUMENT_PICTURE_FOLDER = FileFolder.DOCUMENT_PICTURE.getFolder();
 
     public String uploadFile(MultipartFile file, String fileName) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return uploadStream(inputStream, file.getSize(), file.getContentType(), fileName);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload file to S3", e);
+        }
+    }
+
+    /**
+     * Upload a stream of known length, e.g. an encrypting stream, without
+     * buffering it whole.
+     *
+     * @param inputStream   The content; not closed
+     * @param contentLength The exact number of bytes the stream yields
+     * @param contentType   The content type to store
+     * @param fileName      The object key
+     * @return The object URL
+     */
+    public String uploadStream(InputStream inputStream, long contentLength, String contentType, String fileName)
+            throws IOException {
+        if (multipartThresholdBytes > 0 && contentLength > multipartThresholdBytes) {
+            uploadMultipart(inputStream, contentType, fileName);
+            return getFileUrl(fileName);
+        }
+
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(fileName)
+                .contentType(contentType)
+                .build();
+
+        s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(inputStream, contentLength));
+
+        return getFileUrl(fileName);
+    }
+
+    /**
+     * Upload a large file in parts, one part buffered at a time. A failed
+     * upload is aborted so S3 does not keep the orphaned parts.
+     */
+    private void uploadMultipart(InputStream inputStream, String contentType, String fileName) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(fileName)
+                .contentType(contentType)
+                .build()).uploadId();
+
+        int partSize = Math.max(multipartPartSizeBytes, MIN_PART_SIZE_BYTES);
+        List<CompletedPart> completedParts = new ArrayList<>();
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+            byte[] buffer = new byte[partSize];
+            int partNumber = 1;
+            int read;
+            while ((read = inputStream.readNBytes(buffer, 0, partSize)) > 0) {
+                String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucketName)
+                                .key(fileName)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) read)
+                                .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, read), read)).eTag();
+                completedParts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+                partNumber++;
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
                     .bucket(bucketName)
                     .key(fileName)
-                    .contentType(file.getContentType())
-                    .build();
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            abortMultipartUpload(fileName, uploadId);
+            throw e;
+        }
+    }
+
+    private void abortMultipartUpload(String fileName, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(fileName)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (S3Exception ex) {
+            log.warn("Failed to abort multipart upload {} for {}: {}", uploadId, fileName, ex.getMessage());
+        }
+    }
 
-            s3Client.putObject(putObjectRequest,
-                    RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+    /**
+     * Presign a PUT of one object. Content type, length and SHA-256 checksum
+     * are part of the signature, so S3 rejects an upload that does not match
+     * what was declared.
+     *
+     * @param fileName       The object key
+     * @param contentType    The declared content type
+     * @param contentLength  The declared size in bytes
+     * @param checksumSha256 The base64 SHA-256 of the content
+     * @param expiry         How long the URL stays valid
+     * @return The presigned request, including the headers the client must send
+     */
+    public PresignedPutObjectRequest presignUpload(
+            String fileName, String contentType, long contentLength, String checksumSha256, Duration expiry) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(fileName)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .checksumSHA256(checksumSha256)
+                .build();
 
-            return s3Client.utilities().getUrl(builder -> builder.bucket(bucketName).key(fileName)).toString();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload file to S3", e);
+        return s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(expiry)
+                .putObjectRequest(putObjectRequest)
+                .build());
+    }
+
+    /**
+     * Look up an uploaded object, including its SHA-256 checksum.
+     *
+     * @param fileName The object key
+     * @return The object metadata, or empty if the object does not exist
+     */
+    public Optional<HeadObjectResponse> findObject(String fileName) {
+        try {
+            return Optional.of(s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(fileName)
+                    .checksumMode(ChecksumMode.ENABLED)
+                    .build()));
+        } catch (S3Exception ex) {
+            if (ex.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw ex;
         }
     }
 
+    public String getFileUrl(String fileName) {
+        return s3Client.utilities().getUrl(builder -> builder.bucket(bucketName).key(fileName)).toString();
+    }
+
     public String generateFileName(String originalFileName, String folderName) {
         if (originalFileName == null || originalFileName.isEmpty()) {
             throw new BadRequestException("Original file name cannot be null or empty");
@@ -64,18 +239,41 @@ public class AwsS3Service {
         return UUID.randomUUID() + "-" + originalFileName.replaceAll("[^a-zA-Z0-9]", "_");
     }
 
+    /**
+     * Open a stored file as a stream.
+     *
+     * @param fileUrl The file URL as stored on the file entry
+     * @return The object content; the caller must close it
+     */
+    public ResponseInputStream<GetObjectResponse> openFile(String fileUrl) {
+        return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(extractKey(fileUrl))
+                .build());
+    }
+
+    /**
+     * The object key of a file URL in this bucket.
+     *
+     * @param fileUrl The file URL as stored on the file entry
+     * @return The object key
+     */
+    public String extractKey(String fileUrl) {
+        int bucketIndex = fileUrl.indexOf(bucketName);
+        if (bucketIndex == -1) {
+            log.error("Bucket name not found in file URL: {}", fileUrl);
+            throw new RuntimeException("Invalid file URL: Bucket name not found");
+        }
+        return fileUrl.substring(bucketIndex + bucketName.length() + 1);
+    }
+
     public void deleteFile(String fileUrl) {
         if (fileUrl == null || fileUrl.isEmpty()) {
             return;
         }
 
         try {
-            int bucketIndex = fileUrl.indexOf(bucketName);
-            if (bucketIndex == -1) {
-                log.error("Bucket name not found in file URL: {}", fileUrl);
-                throw new RuntimeException("Invalid file URL: Bucket name not found");
-            }
-            String key = fileUrl.substring(bucketIndex + bucketName.length() + 1);
+            String key = extractKey(fileUrl);
 
             DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
                     .bucket(bucketName)
@@ -90,4 +288,41 @@ public class AwsS3Service {
         }
     }
 
+    /**
+     * Delete objects with multi-object DeleteObjects requests of up to
+     * {@link #MAX_DELETE_BATCH_SIZE} keys. Keys that do not exist count as
+     * deleted.
+     *
+     * @param keys The object keys
+     * @return The keys S3 failed to delete, mapped to the error message
+     * @throws S3Exception if a request fails as a whole
+     */
+    public Map<String, String> deleteFiles(Collection<String> keys) {
+        Map<String, String> failures = new HashMap<>();
+        List<ObjectIdentifier> batch = new ArrayList<>(Math.min(keys.size(), MAX_DELETE_BATCH_SIZE));
+        for (String key : keys) {
+            batch.add(ObjectIdentifier.builder().key(key).build());
+            if (batch.size() == MAX_DELETE_BATCH_SIZE) {
+                deleteBatch(batch, failures);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleteBatch(batch, failures);
+        }
+        return failures;
+    }
+
+    private void deleteBatch(List<ObjectIdentifier> objects, Map<String, String> failures) {
+        // Quiet mode: the response only lists the keys that failed
+        DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(objects).quiet(true).build())
+                .build());
+
+        for (S3Error error : response.errors()) {
+            failures.put(error.key(), error.code() + ": " + error.message());
+        }
+    }
+
 }
@@ -0,0 +1,5 @@
+-- Add page_count column to ocr_data for multi-page (PDF/TIFF) documents
+ALTER TABLE ocr_data
+    ADD COLUMN IF NOT EXISTS page_count INTEGER NOT NULL DEFAULT 1;
+
+COMMENT ON COLUMN ocr_data.page_count IS 'Number of pages OCR was performed on for this document.';
@@ -0,0 +1,29 @@
+-- Per-collection OCR counters, updated atomically on each OCR completion
+ALTER TABLE document_collections
+    ADD COLUMN IF NOT EXISTS ocr_total_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS ocr_completed_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS ocr_failed_count INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill from existing file entries and OCR data.
+-- Only entries with upload_status = 'success' count towards ocr_total_count, matching what the
+-- upload paths now write. The status derivation this replaces counted every entry, including
+-- failed storage uploads; those never get OCR data, so such collections could never leave PROCESSING.
+UPDATE document_collections dc
+SET ocr_total_count = counts.total_count,
+    ocr_completed_count = counts.completed_count,
+    ocr_failed_count = counts.failed_count
+FROM (
+    SELECT f.document_collection_id,
+           COUNT(*) AS total_count,
+           COUNT(*) FILTER (WHERE o.status = 'COMPLETED') AS completed_count,
+           COUNT(*) FILTER (WHERE o.status = 'FAILED') AS failed_count
+    FROM document_file_entries f
+    LEFT JOIN ocr_data o ON o.document_id = f.document_id
+    WHERE f.upload_status = 'success'
+    GROUP BY f.document_collection_id
+) counts
+WHERE dc.id = counts.document_collection_id;
+
+COMMENT ON COLUMN document_collections.ocr_total_count IS 'Number of successfully uploaded documents in the collection that can be OCR processed.';
+COMMENT ON COLUMN document_collections.ocr_completed_count IS 'Number of documents whose OCR completed.';
+COMMENT ON COLUMN document_collections.ocr_failed_count IS 'Number of documents whose OCR failed.';
@@ -0,0 +1,14 @@
+-- Give document_file_entries its own primary key so file entries can be
+-- loaded and updated individually instead of as a collection element list.
+ALTER TABLE document_file_entries
+    ADD COLUMN IF NOT EXISTS id VARCHAR(255);
+
+UPDATE document_file_entries SET id = gen_random_uuid()::text WHERE id IS NULL;
+
+ALTER TABLE document_file_entries ALTER COLUMN id SET NOT NULL;
+ALTER TABLE document_file_entries ADD CONSTRAINT pk_document_file_entries PRIMARY KEY (id);
+
+-- Lookups are by (collection, document); this index also covers collection-only scans
+CREATE INDEX IF NOT EXISTS idx_doc_file_entries_coll_doc
+    ON document_file_entries (document_collection_id, document_id);
+DROP INDEX IF EXISTS idx_doc_file_entries_coll_id;
@@ -0,0 +1,10 @@
+-- Per-document data keys wrapped by a master key. Rows encrypted before this
+-- change keep NULL here and stay encrypted directly under the master key.
+ALTER TABLE document_file_entries
+    ADD COLUMN IF NOT EXISTS encrypted_data_key VARCHAR(128),
+    ADD COLUMN IF NOT EXISTS encryption_key_id VARCHAR(64);
+
+-- The re-wrap job scans for entries wrapped by a retired master key
+CREATE INDEX IF NOT EXISTS idx_doc_file_entries_key_id
+    ON document_file_entries (encryption_key_id)
+    WHERE encryption_key_id IS NOT NULL;
@@ -0,0 +1,3 @@
+-- Serves the newest-first, keyset-paginated collection listing per user
+CREATE INDEX IF NOT EXISTS idx_doc_collections_user_created
+    ON document_collections (user_id, created_at DESC, id DESC);
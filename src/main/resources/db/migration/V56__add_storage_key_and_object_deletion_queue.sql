@@ -0,0 +1,24 @@
+-- S3 object key of each stored file, so deletes no longer parse it out of the URL
+ALTER TABLE document_file_entries
+    ADD COLUMN IF NOT EXISTS storage_key VARCHAR(1024);
+
+-- Document keys are "documents/<name>" and the name never contains a slash,
+-- so the key is the tail of the URL. Rows that do not match keep NULL and
+-- fall back to URL parsing.
+UPDATE document_file_entries
+SET storage_key = substring(file_url from '(documents/[^/]+)$')
+WHERE storage_key IS NULL
+  AND file_url IS NOT NULL;
+
+-- Durable queue of S3 objects to delete, drained in batches by a background job
+CREATE TABLE IF NOT EXISTS storage_object_deletions (
+    id VARCHAR(36) PRIMARY KEY,
+    object_key VARCHAR(1024) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(1024),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_storage_object_deletions_next_attempt
+    ON storage_object_deletions (next_attempt_at);
@@ -0,0 +1,4 @@
+-- Direct uploads schedule their objects for deletion and withdraw the ones
+-- that are kept, by object key
+CREATE INDEX IF NOT EXISTS idx_storage_object_deletions_object_key
+    ON storage_object_deletions (object_key);
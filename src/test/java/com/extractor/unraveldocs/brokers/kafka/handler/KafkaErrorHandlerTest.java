@@ -0,0 +1,136 @@
+package com.extractor.unraveldocs.brokers.kafka.handler;
+
+import com.extractor.unraveldocs.brokers.config.MessagingProperties.RetryProperties;
+import com.extractor.unraveldocs.brokers.kafka.config.KafkaTopicConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaErrorHandlerTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private KafkaErrorHandler errorHandler;
+    private RetryProperties retry;
+    private final List<ProducerRecord<String, Object>> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        errorHandler = new KafkaErrorHandler(kafkaTemplate);
+        retry = new RetryProperties();
+        retry.setMaxAttempts(3);
+        retry.setInitialIntervalMs(1000);
+        retry.setMultiplier(2.0);
+        retry.setMaxIntervalMs(3000);
+
+        lenient().when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, Object> producerRecord = invocation.getArgument(0);
+            sent.add(producerRecord);
+            RecordMetadata metadata = new RecordMetadata(
+                    new TopicPartition(producerRecord.topic(), 0), 0L, 0, System.currentTimeMillis(), 0, 0);
+            return CompletableFuture.completedFuture(new SendResult<>(producerRecord, metadata));
+        });
+    }
+
+    @Test
+    void retriesFromRetryTopicUntilAttemptsAreUsedUpThenDeadLetters() {
+        ConsumerRecord<?, ?> record = new ConsumerRecord<>(KafkaTopicConfig.TOPIC_DOCUMENTS, 0, 0L, "doc-1", "payload");
+
+        // Each failure is consumed back from wherever the previous one was sent
+        for (int failure = 0; failure <= retry.getMaxAttempts(); failure++) {
+            errorHandler.routeToRetryOrDlq(record, new RuntimeException("OCR failed"), retry).join();
+            record = consumed(sent.getLast());
+        }
+
+        assertEquals(retry.getMaxAttempts() + 1, sent.size());
+        for (int attempt = 1; attempt <= retry.getMaxAttempts(); attempt++) {
+            ProducerRecord<String, Object> retried = sent.get(attempt - 1);
+            assertEquals(KafkaTopicConfig.TOPIC_DOCUMENTS_RETRY, retried.topic());
+            assertEquals(String.valueOf(attempt), header(retried, "retry-count"));
+            assertEquals(KafkaTopicConfig.TOPIC_DOCUMENTS, header(retried, "original-topic"));
+            assertEquals(1, count(retried, "retry-count"));
+            assertEquals(1, count(retried, "not-before"));
+        }
+        ProducerRecord<String, Object> deadLettered = sent.getLast();
+        assertEquals(KafkaTopicConfig.TOPIC_DOCUMENTS_DLQ, deadLettered.topic());
+        assertEquals(KafkaTopicConfig.TOPIC_DOCUMENTS, header(deadLettered, "original-topic"));
+    }
+
+    @Test
+    void stampsExponentialBackoffCappedAtMaxInterval() {
+        ConsumerRecord<?, ?> record = new ConsumerRecord<>(KafkaTopicConfig.TOPIC_DOCUMENTS, 0, 0L, "doc-1", "payload");
+        List<Long> backoffs = new ArrayList<>();
+
+        for (int attempt = 1; attempt <= retry.getMaxAttempts(); attempt++) {
+            long before = System.currentTimeMillis();
+            errorHandler.routeToRetryOrDlq(record, new RuntimeException("OCR failed"), retry).join();
+            record = consumed(sent.getLast());
+            backoffs.add(KafkaErrorHandler.extractNotBefore(record) - before);
+        }
+
+        assertEquals(1000, backoffs.get(0), 100);
+        assertEquals(2000, backoffs.get(1), 100);
+        assertEquals(3000, backoffs.get(2), 100);
+    }
+
+    @Test
+    void deadLettersImmediatelyWhenRetryTopicsAreDisabled() {
+        retry.setRetryTopicsEnabled(false);
+        ConsumerRecord<?, ?> record = new ConsumerRecord<>(KafkaTopicConfig.TOPIC_DOCUMENTS, 0, 0L, "doc-1", "payload");
+
+        errorHandler.routeToRetryOrDlq(record, new RuntimeException("OCR failed"), retry).join();
+
+        assertEquals(1, sent.size());
+        assertEquals(KafkaTopicConfig.TOPIC_DOCUMENTS_DLQ, sent.getFirst().topic());
+    }
+
+    @Test
+    void extractNotBefore_missingHeader_returnsZero() {
+        ConsumerRecord<?, ?> record = new ConsumerRecord<>(KafkaTopicConfig.TOPIC_DOCUMENTS, 0, 0L, "doc-1", "payload");
+
+        assertEquals(0, KafkaErrorHandler.extractNotBefore(record));
+    }
+
+    private static ConsumerRecord<?, ?> consumed(ProducerRecord<String, Object> producerRecord) {
+        return new ConsumerRecord<>(producerRecord.topic(), 0, 0L, 0L, TimestampType.CREATE_TIME, 0, 0,
+                producerRecord.key(), producerRecord.value(), new RecordHeaders(producerRecord.headers().toArray()),
+                Optional.empty());
+    }
+
+    private static String header(ProducerRecord<String, Object> producerRecord, String key) {
+        Header header = producerRecord.headers().lastHeader(key);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static int count(ProducerRecord<String, Object> producerRecord, String key) {
+        int count = 0;
+        for (Header ignored : producerRecord.headers().headers(key)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,137 @@
+package com.extractor.unraveldocs.config.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TwoTierCacheManagerTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final ConcurrentMapCacheManager remote = new ConcurrentMapCacheManager();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NearCacheProperties properties = new NearCacheProperties();
+    private TwoTierCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new TwoTierCacheManager(remote, properties, redisTemplate, meterRegistry);
+    }
+
+    @Test
+    void get_servesFromNearCacheAfterFirstRemoteHit() {
+        remote.getCache("documentCollection").put("c1", "collection");
+        Cache cache = cacheManager.getCache("documentCollection");
+
+        assertEquals("collection", cache.get("c1").get());
+        remote.getCache("documentCollection").evict("c1");
+        assertEquals("collection", cache.get("c1").get());
+        assertNull(cache.get("c2"));
+
+        assertEquals(1, counter("near", "hit"));
+        assertEquals(1, counter("redis", "hit"));
+        assertEquals(1, counter("redis", "miss"));
+        assertEquals(2.0 / 3, meterRegistry.get("cache.tiered.hit.ratio")
+                .tag("cache", "documentCollection").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void evict_clearsBothTiersAndBroadcasts() {
+        Cache cache = cacheManager.getCache("fileEntry");
+        cache.put("c1-d1", "file");
+
+        cache.evict("c1-d1");
+
+        assertNull(cache.get("c1-d1"));
+        assertNull(remote.getCache("fileEntry").get("c1-d1"));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq("cache:invalidate"), message.capture());
+        assertTrue(message.getValue().endsWith("|fileEntry|c1-d1"));
+    }
+
+    @Test
+    void put_fillingMissingEntry_isNotBroadcast() {
+        Cache cache = cacheManager.getCache("documentCollection");
+
+        cache.put("c1", "collection");
+
+        assertEquals("collection", remote.getCache("documentCollection").get("c1").get());
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void put_replacingEntry_updatesBothTiersAndBroadcasts() {
+        Cache cache = cacheManager.getCache("documentCollection");
+        cache.put("c1", "collection");
+
+        cache.put("c1", "renamed collection");
+
+        assertEquals("renamed collection", cache.get("c1").get());
+        assertEquals("renamed collection", remote.getCache("documentCollection").get("c1").get());
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq("cache:invalidate"), message.capture());
+        assertTrue(message.getValue().endsWith("|documentCollection|c1"));
+    }
+
+    @Test
+    void onMessage_fromOtherNode_dropsNearCopyOnly() {
+        Cache cache = cacheManager.getCache("documentCollections");
+        cache.put("user-1", "summaries");
+        remote.getCache("documentCollections").put("user-1", "fresh summaries");
+
+        cacheManager.onMessage(message("other-node|documentCollections|user-1"), null);
+
+        assertEquals("fresh summaries", cache.get("user-1").get());
+    }
+
+    @Test
+    void onMessage_fromSameNode_isIgnored() {
+        Cache cache = cacheManager.getCache("documentCollections");
+        cache.put("user-1", "old summaries");
+        cache.put("user-1", "summaries");
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(anyString(), published.capture());
+        remote.getCache("documentCollections").put("user-1", "fresh summaries");
+
+        cacheManager.onMessage(message(published.getValue()), null);
+
+        assertEquals("summaries", cache.get("user-1").get());
+    }
+
+    @Test
+    void getCache_withoutNearCache_returnsRemoteCache() {
+        assertSame(remote.getCache("otpCodes"), cacheManager.getCache("otpCodes"));
+    }
+
+    private double counter(String tier, String result) {
+        return meterRegistry.get("cache.tiered.gets")
+                .tag("cache", "documentCollection")
+                .tag("tier", tier)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("cache:invalidate".getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
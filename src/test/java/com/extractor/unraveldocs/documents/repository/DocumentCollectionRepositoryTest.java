@@ -0,0 +1,117 @@
+package com.extractor.unraveldocs.documents.repository;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import com.extractor.unraveldocs.user.model.User;
+import com.extractor.unraveldocs.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the OCR counter statements against the test database, since the
+ * collection status is derived in SQL.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class DocumentCollectionRepositoryTest {
+
+    @Autowired
+    private DocumentCollectionRepository documentCollectionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setFirstName("Ada");
+        user.setLastName("Lovelace");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setPassword("password");
+        user.setCountry("NG");
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void applyOcrTransition_lastDocumentCompleted_marksCollectionProcessed() {
+        String collectionId = collection(3, 2, 0);
+
+        applyTransition(collectionId, 1, 0);
+
+        assertCollection(collectionId, 3, 0, DocumentStatus.PROCESSED);
+    }
+
+    @Test
+    void applyOcrTransition_lastDocumentFailed_marksCollectionFailed() {
+        String collectionId = collection(3, 2, 0);
+
+        applyTransition(collectionId, 0, 1);
+
+        assertCollection(collectionId, 2, 1, DocumentStatus.FAILED_OCR);
+    }
+
+    @Test
+    void applyOcrTransition_documentsOutstanding_keepsCollectionProcessing() {
+        String collectionId = collection(3, 0, 0);
+
+        applyTransition(collectionId, 1, 0);
+
+        assertCollection(collectionId, 1, 0, DocumentStatus.PROCESSING);
+    }
+
+    @Test
+    void applyOcrTransition_failedDocumentRetried_reopensCollection() {
+        String collectionId = collection(3, 2, 1);
+
+        applyTransition(collectionId, 0, -1);
+
+        assertCollection(collectionId, 2, 0, DocumentStatus.PROCESSING);
+    }
+
+    @Test
+    void applyOcrTransition_failedDocumentRetriedSuccessfully_marksCollectionProcessed() {
+        String collectionId = collection(3, 2, 1);
+
+        applyTransition(collectionId, 1, -1);
+
+        assertCollection(collectionId, 3, 0, DocumentStatus.PROCESSED);
+    }
+
+    private String collection(int total, int completed, int failed) {
+        DocumentCollection collection = DocumentCollection.builder()
+                .user(user)
+                .name("Collection")
+                .collectionStatus(DocumentStatus.PROCESSING)
+                .ocrTotalCount(total)
+                .ocrCompletedCount(completed)
+                .ocrFailedCount(failed)
+                .uploadTimestamp(OffsetDateTime.now())
+                .build();
+        return documentCollectionRepository.saveAndFlush(collection).getId();
+    }
+
+    private void applyTransition(String collectionId, int completedDelta, int failedDelta) {
+        documentCollectionRepository.applyOcrTransition(collectionId, completedDelta, failedDelta,
+                DocumentStatus.PROCESSED, DocumentStatus.FAILED_OCR, DocumentStatus.PROCESSING,
+                OffsetDateTime.now());
+    }
+
+    private void assertCollection(String collectionId, int completed, int failed, DocumentStatus status) {
+        DocumentCollection collection = documentCollectionRepository.findById(collectionId).orElseThrow();
+        assertEquals(completed, collection.getOcrCompletedCount());
+        assertEquals(failed, collection.getOcrFailedCount());
+        assertEquals(status, collection.getCollectionStatus());
+    }
+}
@@ -4,10 +4,11 @@ import com.extractor.unraveldocs.documents.impl.ClearAllCollectionsImpl;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
-import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
+import com.extractor.unraveldocs.storage.service.ObjectDeletionQueue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -22,7 +23,7 @@ import static org.mockito.Mockito.*;
 class ClearAllCollectionsImplTest {
 
     @Mock
-    private AwsS3Service awsS3Service;
+    private ObjectDeletionQueue objectDeletionQueue;
 
     @Mock
     private DocumentCollectionRepository documentCollectionRepository;
@@ -38,7 +39,7 @@ class ClearAllCollectionsImplTest {
     }
 
     @Test
-    void clearAllCollections_deletesFilesAndCollections() {
+    void clearAllCollections_queuesFilesAndDeletesCollections() {
         // Arrange
         FileEntry file1 = FileEntry.builder().storageId("sid1").fileUrl("url1").build();
         FileEntry file2 = FileEntry.builder().storageId("sid2").fileUrl("url2").build();
@@ -50,7 +51,7 @@ class ClearAllCollectionsImplTest {
         List<DocumentCollection> collections = List.of(collection1, collection2);
 
         when(documentCollectionRepository.findAllByUserId(userId)).thenReturn(collections);
-        doNothing().when(awsS3Service).deleteFile(anyString());
+        when(objectDeletionQueue.enqueue(anyList())).thenReturn(3);
         doNothing().when(documentCollectionRepository).deleteAllByUserId(userId);
 
         // Act
@@ -58,11 +59,9 @@ class ClearAllCollectionsImplTest {
 
         // Assert
         verify(documentCollectionRepository).findAllByUserId(userId);
-        verify(awsS3Service).deleteFile("url1");
-        verify(awsS3Service).deleteFile("url2");
-        verify(awsS3Service).deleteFile("url3");
+        verify(objectDeletionQueue).enqueue(List.of(file1, file2, file3));
         verify(documentCollectionRepository).deleteAllByUserId(userId);
-        verifyNoMoreInteractions(awsS3Service, documentCollectionRepository);
+        verifyNoMoreInteractions(objectDeletionQueue, documentCollectionRepository);
     }
 
     @Test
@@ -77,7 +76,7 @@ class ClearAllCollectionsImplTest {
         // Assert
         verify(documentCollectionRepository).findAllByUserId(userId);
         verify(documentCollectionRepository).deleteAllByUserId(userId);
-        verifyNoInteractions(awsS3Service);
+        verifyNoInteractions(objectDeletionQueue);
     }
 
     @Test
@@ -96,7 +95,7 @@ class ClearAllCollectionsImplTest {
         // Assert
         verify(documentCollectionRepository).findAllByUserId(userId);
         verify(documentCollectionRepository).deleteAllByUserId(userId);
-        verifyNoInteractions(awsS3Service);
+        verifyNoInteractions(objectDeletionQueue);
     }
 
     @Test
@@ -107,7 +106,6 @@ class ClearAllCollectionsImplTest {
         DocumentCollection collection = DocumentCollection.builder().files(new ArrayList<>(List.of(fileWithStorageId, fileWithoutStorageId))).build();
 
         when(documentCollectionRepository.findAllByUserId(userId)).thenReturn(List.of(collection));
-        doNothing().when(awsS3Service).deleteFile("url1");
         doNothing().when(documentCollectionRepository).deleteAllByUserId(userId);
 
         // Act
@@ -115,30 +113,25 @@ class ClearAllCollectionsImplTest {
 
         // Assert
         verify(documentCollectionRepository).findAllByUserId(userId);
-        verify(awsS3Service).deleteFile("url1");
-        verify(awsS3Service, never()).deleteFile("url2");
+        verify(objectDeletionQueue).enqueue(List.of(fileWithStorageId));
         verify(documentCollectionRepository).deleteAllByUserId(userId);
     }
 
     @Test
-    void clearAllCollections_continuesWhenS3DeleteFails() {
+    void clearAllCollections_queuesFilesBeforeDeletingCollections() {
         // Arrange
         FileEntry file1 = FileEntry.builder().storageId("sid1").fileUrl("url1").build();
-        FileEntry file2 = FileEntry.builder().storageId("sid2").fileUrl("url2").build();
-        DocumentCollection collection = DocumentCollection.builder().files(new ArrayList<>(List.of(file1, file2))).build();
+        DocumentCollection collection = DocumentCollection.builder().files(new ArrayList<>(List.of(file1))).build();
 
         when(documentCollectionRepository.findAllByUserId(userId)).thenReturn(List.of(collection));
-        doThrow(new RuntimeException("S3 is down")).when(awsS3Service).deleteFile("url1");
-        doNothing().when(awsS3Service).deleteFile("url2");
         doNothing().when(documentCollectionRepository).deleteAllByUserId(userId);
 
         // Act
         clearAllCollectionsService.clearAllCollections(userId);
 
         // Assert
-        verify(documentCollectionRepository).findAllByUserId(userId);
-        verify(awsS3Service).deleteFile("url1");
-        verify(awsS3Service).deleteFile("url2");
-        verify(documentCollectionRepository).deleteAllByUserId(userId);
+        InOrder inOrder = inOrder(objectDeletionQueue, documentCollectionRepository);
+        inOrder.verify(objectDeletionQueue).enqueue(List.of(file1));
+        inOrder.verify(documentCollectionRepository).deleteAllByUserId(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.extractor.unraveldocs.documents.service.impl;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentUploadState;
+import com.extractor.unraveldocs.documents.dto.request.UpdateDocumentRequest;
+import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionResponse;
+import com.extractor.unraveldocs.documents.dto.response.FileEntryData;
+import com.extractor.unraveldocs.documents.impl.CollectionUpdateServiceImpl;
+import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
+import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CollectionUpdateServiceImplTest {
+
+    private static final String USER_ID = "user-1";
+    private static final String COLLECTION_ID = "col-1";
+    private static final String DOCUMENT_ID = "doc-1";
+
+    @Mock
+    private DocumentCollectionRepository documentCollectionRepository;
+
+    @Mock
+    private FileEntryRepository fileEntryRepository;
+
+    @Mock
+    private SanitizeLogging sanitizer;
+
+    @InjectMocks
+    private CollectionUpdateServiceImpl collectionUpdateService;
+
+    private DocumentCollection collection;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(USER_ID);
+        collection = DocumentCollection.builder()
+                .id(COLLECTION_ID)
+                .user(user)
+                .files(new ArrayList<>())
+                .build();
+    }
+
+    @Test
+    void updateDocumentName_savesOnlyTheFileRow() {
+        FileEntry file = FileEntry.builder()
+                .collection(collection)
+                .documentId(DOCUMENT_ID)
+                .originalFileName("scan.png")
+                .displayName("scan.png")
+                .uploadStatus(DocumentUploadState.SUCCESS.toString())
+                .build();
+        when(documentCollectionRepository.findById(COLLECTION_ID)).thenReturn(Optional.of(collection));
+        when(fileEntryRepository.findByCollectionIdAndDocumentId(COLLECTION_ID, DOCUMENT_ID))
+                .thenReturn(Optional.of(file));
+
+        DocumentCollectionResponse<FileEntryData> response = collectionUpdateService.updateDocumentName(
+                COLLECTION_ID, DOCUMENT_ID, new UpdateDocumentRequest("Invoice March"), USER_ID);
+
+        assertEquals("Invoice March", file.getDisplayName());
+        assertEquals("Invoice March", response.getData().getDisplayName());
+        assertEquals("scan.png", response.getData().getOriginalFileName());
+        verify(fileEntryRepository).save(file);
+        verify(documentCollectionRepository, never()).save(any());
+    }
+
+    @Test
+    void updateDocumentName_documentNotInCollection_throwsNotFound() {
+        when(documentCollectionRepository.findById(COLLECTION_ID)).thenReturn(Optional.of(collection));
+        when(fileEntryRepository.findByCollectionIdAndDocumentId(COLLECTION_ID, DOCUMENT_ID))
+                .thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> collectionUpdateService.updateDocumentName(
+                COLLECTION_ID, DOCUMENT_ID, new UpdateDocumentRequest("Invoice March"), USER_ID));
+
+        verify(fileEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void updateDocumentName_collectionOwnedByAnotherUser_throwsForbidden() {
+        when(documentCollectionRepository.findById(COLLECTION_ID)).thenReturn(Optional.of(collection));
+
+        assertThrows(ForbiddenException.class, () -> collectionUpdateService.updateDocumentName(
+                COLLECTION_ID, DOCUMENT_ID, new UpdateDocumentRequest("Invoice March"), "user-2"));
+
+        verifyNoInteractions(fileEntryRepository);
+    }
+}
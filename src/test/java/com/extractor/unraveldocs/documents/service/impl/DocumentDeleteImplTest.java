@@ -10,9 +10,10 @@ import com.extractor.unraveldocs.documents.repository.DocumentCollectionReposito
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
 import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
+import com.extractor.unraveldocs.storage.service.ObjectDeletionQueue;
 import com.extractor.unraveldocs.storage.service.StorageAllocationService;
 import com.extractor.unraveldocs.user.model.User;
-import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -34,7 +35,7 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class DocumentDeleteImplTest {
     @Mock
-    private AwsS3Service awsS3Service;
+    private ObjectDeletionQueue objectDeletionQueue;
 
     @Mock
     private DocumentCollectionRepository documentCollectionRepository;
@@ -45,6 +46,9 @@ public class DocumentDeleteImplTest {
     @Mock
     private StorageAllocationService storageAllocationService;
 
+    @Mock
+    private OcrDataRepository ocrDataRepository;
+
     @InjectMocks
     private DocumentDeleteImpl documentDeleteService;
 
@@ -82,7 +86,7 @@ public class DocumentDeleteImplTest {
                 .collectionStatus(DocumentStatus.COMPLETED)
                 .build();
         when(documentCollectionRepository.findById(collectionId)).thenReturn(Optional.of(collection));
-        doNothing().when(awsS3Service).deleteFile(file1Url);
+        when(objectDeletionQueue.enqueue(List.of(fileEntry1))).thenReturn(1);
         doNothing().when(documentCollectionRepository).delete(collection);
 
         // Act
@@ -90,12 +94,10 @@ public class DocumentDeleteImplTest {
 
         // Assert
         verify(documentCollectionRepository).findById(collectionId);
-        verify(awsS3Service).deleteFile(file1Url);
+        verify(objectDeletionQueue).enqueue(List.of(fileEntry1));
         verify(documentCollectionRepository).delete(collection);
 
-        verify(s).sanitizeLogging(file1StorageId);
-        verify(s).sanitizeLogging(file1DocumentId);
-        verify(s, times(2)).sanitizeLogging(collectionId);
+        verify(s).sanitizeLogging(collectionId);
     }
 
     @Test
@@ -108,7 +110,7 @@ public class DocumentDeleteImplTest {
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> documentDeleteService.deleteDocument(collectionId, testUser.getId()));
         assertEquals("Document collection not found with ID: " + collectionId, exception.getMessage());
-        verify(awsS3Service, never()).deleteFile(anyString());
+        verifyNoInteractions(objectDeletionQueue);
         verify(documentCollectionRepository, never()).delete(any(DocumentCollection.class));
         verifyNoInteractions(s);
     }
@@ -129,7 +131,7 @@ public class DocumentDeleteImplTest {
                 () -> documentDeleteService.deleteDocument(collectionId, testUser.getId()));
 
         assertEquals("You are not authorized to delete this document collection.", exception.getMessage());
-        verify(awsS3Service, never()).deleteFile(anyString());
+        verifyNoInteractions(objectDeletionQueue);
         verify(documentCollectionRepository, never()).delete(any(DocumentCollection.class));
         verifyNoInteractions(s);
     }
@@ -159,7 +161,7 @@ public class DocumentDeleteImplTest {
                 .build();
 
         when(documentCollectionRepository.findById(collectionId)).thenReturn(Optional.of(collection));
-        doNothing().when(awsS3Service).deleteFile(urlToRemove);
+        when(objectDeletionQueue.enqueue(List.of(fileToRemove))).thenReturn(1);
         when(documentCollectionRepository.save(any(DocumentCollection.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -167,7 +169,7 @@ public class DocumentDeleteImplTest {
         documentDeleteService.deleteFileFromCollection(collectionId, documentIdToRemove, testUser.getId());
 
         // Assert
-        verify(awsS3Service).deleteFile(urlToRemove);
+        verify(objectDeletionQueue).enqueue(List.of(fileToRemove));
 
         ArgumentCaptor<DocumentCollection> collectionCaptor = ArgumentCaptor.forClass(DocumentCollection.class);
         verify(documentCollectionRepository).save(collectionCaptor.capture());
@@ -205,14 +207,14 @@ public class DocumentDeleteImplTest {
                 .build();
 
         when(documentCollectionRepository.findById(collectionId)).thenReturn(Optional.of(collection));
-        doNothing().when(awsS3Service).deleteFile(urlToRemove);
+        when(objectDeletionQueue.enqueue(List.of(fileToRemove))).thenReturn(1);
         doNothing().when(documentCollectionRepository).delete(any(DocumentCollection.class));
 
         // Act
         documentDeleteService.deleteFileFromCollection(collectionId, documentIdToRemove, testUser.getId());
 
         // Assert
-        verify(awsS3Service).deleteFile(urlToRemove);
+        verify(objectDeletionQueue).enqueue(List.of(fileToRemove));
         verify(documentCollectionRepository).delete(collection);
         verify(documentCollectionRepository, never()).save(any(DocumentCollection.class));
         assertTrue(collection.getFiles().isEmpty());
@@ -237,7 +239,7 @@ public class DocumentDeleteImplTest {
 
         assertEquals("File with document ID: " + nonExistentDocumentId + " not found in collection: " + collectionId,
                 exception.getMessage());
-        verify(awsS3Service, never()).deleteFile(anyString());
+        verifyNoInteractions(objectDeletionQueue);
         verifyNoInteractions(s);
     }
 
@@ -278,7 +280,7 @@ public class DocumentDeleteImplTest {
                 () -> documentDeleteService.deleteFileFromCollection(collectionId, documentId, testUser.getId()));
 
         assertEquals("You are not authorized to modify this document collection.", exception.getMessage());
-        verify(awsS3Service, never()).deleteFile(anyString());
+        verifyNoInteractions(objectDeletionQueue);
         verifyNoInteractions(s);
     }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.extractor.unraveldocs.documents.service.impl;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentUploadState;
+import com.extractor.unraveldocs.documents.dto.request.MoveDocumentRequest;
+import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionResponse;
+import com.extractor.unraveldocs.documents.dto.response.FileEntryData;
+import com.extractor.unraveldocs.documents.impl.DocumentMoveServiceImpl;
+import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
+import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
+import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
+import com.extractor.unraveldocs.subscription.service.SubscriptionFeatureService;
+import com.extractor.unraveldocs.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentMoveServiceImplTest {
+
+    private static final String USER_ID = "user-1";
+    private static final String DOCUMENT_ID = "doc-1";
+
+    @Mock
+    private DocumentCollectionRepository documentCollectionRepository;
+
+    @Mock
+    private FileEntryRepository fileEntryRepository;
+
+    @Mock
+    private OcrDataRepository ocrDataRepository;
+
+    @Mock
+    private SubscriptionFeatureService subscriptionFeatureService;
+
+    @Mock
+    private SanitizeLogging sanitizer;
+
+    @InjectMocks
+    private DocumentMoveServiceImpl documentMoveService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(USER_ID);
+    }
+
+    @Test
+    void moveDocument_repointsFileRowWithoutRewritingCollections() {
+        DocumentCollection source = givenCollection("col-a", user);
+        DocumentCollection target = givenCollection("col-b", user);
+        FileEntry file = givenFile(source, DocumentUploadState.SUCCESS);
+        givenOcrStatus(OcrStatus.COMPLETED);
+
+        DocumentCollectionResponse<FileEntryData> response =
+                documentMoveService.moveDocument(new MoveDocumentRequest("col-a", "col-b", DOCUMENT_ID), USER_ID);
+
+        assertSame(target, file.getCollection());
+        assertEquals(DOCUMENT_ID, response.getData().getDocumentId());
+        verify(fileEntryRepository).save(file);
+        verify(documentCollectionRepository, never()).save(any());
+    }
+
+    @Test
+    void moveDocument_processedDocument_movesOcrCountersInCollectionIdOrder() {
+        DocumentCollection source = givenCollection("col-b", user);
+        givenCollection("col-a", user);
+        givenFile(source, DocumentUploadState.SUCCESS);
+        givenOcrStatus(OcrStatus.COMPLETED);
+
+        documentMoveService.moveDocument(new MoveDocumentRequest("col-b", "col-a", DOCUMENT_ID), USER_ID);
+
+        InOrder inOrder = inOrder(ocrDataRepository, documentCollectionRepository);
+        inOrder.verify(ocrDataRepository).findByDocumentIdForUpdate(DOCUMENT_ID);
+        inOrder.verify(documentCollectionRepository).adjustOcrCounters("col-a", 1, 1, 0);
+        inOrder.verify(documentCollectionRepository).adjustOcrCounters("col-b", -1, -1, 0);
+    }
+
+    @Test
+    void moveDocument_failedUpload_leavesOcrCountersAlone() {
+        DocumentCollection source = givenCollection("col-a", user);
+        givenCollection("col-b", user);
+        givenFile(source, DocumentUploadState.FAILED_STORAGE_UPLOAD);
+
+        documentMoveService.moveDocument(new MoveDocumentRequest("col-a", "col-b", DOCUMENT_ID), USER_ID);
+
+        verify(documentCollectionRepository, never()).adjustOcrCounters(anyString(), anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(ocrDataRepository);
+    }
+
+    @Test
+    void moveDocument_documentNotInSource_throwsNotFound() {
+        givenCollection("col-a", user);
+        givenCollection("col-b", user);
+        when(fileEntryRepository.findByCollectionIdAndDocumentId("col-a", DOCUMENT_ID)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> documentMoveService.moveDocument(
+                new MoveDocumentRequest("col-a", "col-b", DOCUMENT_ID), USER_ID));
+
+        verify(fileEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void moveDocument_targetOwnedByAnotherUser_throwsForbidden() {
+        User other = new User();
+        other.setId("user-2");
+        givenCollection("col-a", user);
+        givenCollection("col-b", other);
+
+        assertThrows(ForbiddenException.class, () -> documentMoveService.moveDocument(
+                new MoveDocumentRequest("col-a", "col-b", DOCUMENT_ID), USER_ID));
+
+        verifyNoInteractions(fileEntryRepository);
+    }
+
+    private DocumentCollection givenCollection(String id, User owner) {
+        DocumentCollection collection = DocumentCollection.builder()
+                .id(id)
+                .name("Collection " + id)
+                .user(owner)
+                .files(new ArrayList<>())
+                .build();
+        when(documentCollectionRepository.findById(id)).thenReturn(Optional.of(collection));
+        return collection;
+    }
+
+    private FileEntry givenFile(DocumentCollection collection, DocumentUploadState uploadStatus) {
+        FileEntry file = FileEntry.builder()
+                .collection(collection)
+                .documentId(DOCUMENT_ID)
+                .originalFileName("scan.png")
+                .uploadStatus(uploadStatus.toString())
+                .build();
+        when(fileEntryRepository.findByCollectionIdAndDocumentId(collection.getId(), DOCUMENT_ID))
+                .thenReturn(Optional.of(file));
+        return file;
+    }
+
+    private void givenOcrStatus(OcrStatus status) {
+        OcrData ocrData = new OcrData();
+        ocrData.setDocumentId(DOCUMENT_ID);
+        ocrData.setStatus(status);
+        when(ocrDataRepository.findByDocumentIdForUpdate(DOCUMENT_ID)).thenReturn(Optional.of(ocrData));
+    }
+}
@@ -10,6 +10,7 @@ import com.extractor.unraveldocs.documents.impl.DocumentUploadImpl;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.utils.ParallelUploadExecutor;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
 import com.extractor.unraveldocs.ocrprocessing.utils.FileStorageService;
@@ -27,6 +28,8 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.OffsetDateTime;
@@ -65,6 +68,12 @@ class DocumentUploadImplTest {
         @Mock
         private com.extractor.unraveldocs.subscription.service.SubscriptionFeatureService subscriptionFeatureService;
 
+        @Spy
+        private ParallelUploadExecutor parallelUploadExecutor = new ParallelUploadExecutor(4, 8);
+
+        @Mock
+        private TransactionTemplate transactionTemplate;
+
         @InjectMocks
         private DocumentUploadImpl documentUploadService;
 
@@ -87,6 +96,10 @@ class DocumentUploadImplTest {
                 testUser.setVerified(true);
                 testUser.setActive(true);
 
+                when(transactionTemplate.execute(any()))
+                                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0)
+                                                .doInTransaction(null));
+
                 // Use minimal content to avoid triggering total size validation in unrelated
                 // tests
                 byte[] smallContent = "c".getBytes();
@@ -136,10 +149,10 @@ class DocumentUploadImplTest {
                                 .uploadStatus(DocumentUploadState.SUCCESS.toString()).build();
 
                 when(fileStorageService.handleSuccessfulFileUpload(eq(validFile1),
-                                eq(validFile1.getOriginalFilename())))
+                                eq(validFile1.getOriginalFilename()), eq(false)))
                                 .thenReturn(fileEntry1);
                 when(fileStorageService.handleSuccessfulFileUpload(eq(validFile2),
-                                eq(validFile2.getOriginalFilename())))
+                                eq(validFile2.getOriginalFilename()), eq(false)))
                                 .thenReturn(fileEntry2);
 
                 DocumentCollection savedCollection = DocumentCollection.builder()
@@ -196,7 +209,7 @@ class DocumentUploadImplTest {
                                 .uploadStatus(DocumentUploadState.SUCCESS.toString()).build();
 
                 when(fileStorageService.handleSuccessfulFileUpload(eq(validFile1),
-                                eq(validFile1.getOriginalFilename())))
+                                eq(validFile1.getOriginalFilename()), eq(false)))
                                 .thenReturn(fileEntry1);
 
                 DocumentCollection savedCollection = DocumentCollection.builder()
@@ -260,10 +273,10 @@ class DocumentUploadImplTest {
                                 .uploadStatus(DocumentUploadState.SUCCESS.toString()).build();
 
                 when(fileStorageService.handleSuccessfulFileUpload(eq(validFile1),
-                                eq(validFile1.getOriginalFilename())))
+                                eq(validFile1.getOriginalFilename()), eq(false)))
                                 .thenReturn(fileEntry1);
                 when(fileStorageService.handleSuccessfulFileUpload(eq(validFile2),
-                                eq(validFile2.getOriginalFilename())))
+                                eq(validFile2.getOriginalFilename()), eq(false)))
                                 .thenThrow(new RuntimeException("Cloudinary down"));
 
                 DocumentCollection savedCollection = DocumentCollection.builder()
@@ -359,7 +372,7 @@ class DocumentUploadImplTest {
                 // Arrange
                 MultipartFile[] files = { validFile1, validFile2 };
 
-                when(fileStorageService.handleSuccessfulFileUpload(any(MultipartFile.class), anyString()))
+                when(fileStorageService.handleSuccessfulFileUpload(any(MultipartFile.class), anyString(), anyBoolean()))
                                 .thenThrow(new RuntimeException("Cloudinary down"));
 
                 DocumentCollection savedCollection = DocumentCollection.builder()
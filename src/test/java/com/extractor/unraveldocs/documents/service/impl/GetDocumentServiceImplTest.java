@@ -1,24 +1,32 @@
 package com.extractor.unraveldocs.documents.service.impl;
 
 import com.extractor.unraveldocs.auth.datamodel.Role;
+import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionPage;
 import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionResponse;
 import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionSummary;
 import com.extractor.unraveldocs.documents.dto.response.FileEntryData;
 import com.extractor.unraveldocs.documents.dto.response.GetDocumentCollectionData;
 import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import com.extractor.unraveldocs.documents.impl.DocumentCollectionReadCache;
 import com.extractor.unraveldocs.documents.impl.GetDocumentServiceImpl;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionSummaryRow;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
+import com.extractor.unraveldocs.documents.utils.CollectionCursor;
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService;
+import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
 import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
 import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
 import com.extractor.unraveldocs.user.model.User;
+import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 
 import java.time.OffsetDateTime;
@@ -38,7 +46,15 @@ public class GetDocumentServiceImplTest {
     @Mock
     private DocumentCollectionRepository documentCollectionRepository;
 
-    @InjectMocks
+    @Mock
+    private FileEntryRepository fileEntryRepository;
+
+    @Mock
+    private AwsS3Service awsS3Service;
+
+    @Mock
+    private EncryptionService encryptionService;
+
     private GetDocumentServiceImpl getDocumentService;
 
     private String userId;
@@ -48,6 +64,13 @@ public class GetDocumentServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        getDocumentService = new GetDocumentServiceImpl(
+                new DocumentCollectionReadCache(documentCollectionRepository, fileEntryRepository),
+                documentCollectionRepository,
+                fileEntryRepository,
+                awsS3Service,
+                encryptionService);
+
         userId = UUID.randomUUID().toString();
         collectionId = UUID.randomUUID().toString();
 
@@ -129,7 +152,7 @@ public class GetDocumentServiceImplTest {
     @Test
     void getAllDocumentCollectionsByUser_success() {
         // Arrange
-        when(documentCollectionRepository.findAllByUserId(userId)).thenReturn(List.of(testCollection));
+        when(documentCollectionRepository.findSummariesByUserId(userId)).thenReturn(List.of(summaryRow(collectionId)));
 
         // Act
         DocumentCollectionResponse<List<DocumentCollectionSummary>> response = getDocumentService.getAllDocumentCollectionsByUser(userId);
@@ -146,13 +169,13 @@ public class GetDocumentServiceImplTest {
         assertEquals(collectionId, summaries.getFirst().getId());
         assertEquals(1, summaries.getFirst().getFileCount());
 
-        verify(documentCollectionRepository).findAllByUserId(userId);
+        verify(documentCollectionRepository).findSummariesByUserId(userId);
     }
 
     @Test
     void getAllDocumentCollectionsByUser_emptyList() {
         // Arrange
-        when(documentCollectionRepository.findAllByUserId(userId)).thenReturn(Collections.emptyList());
+        when(documentCollectionRepository.findSummariesByUserId(userId)).thenReturn(Collections.emptyList());
 
         // Act
         DocumentCollectionResponse<List<DocumentCollectionSummary>> response = getDocumentService.getAllDocumentCollectionsByUser(userId);
@@ -163,11 +186,62 @@ public class GetDocumentServiceImplTest {
         assertTrue(response.getData().isEmpty());
     }
 
+    @Test
+    void getDocumentCollectionPage_returnsCursorWhenMoreRowsFollow() {
+        // Arrange
+        List<DocumentCollectionSummaryRow> rows = List.of(summaryRow("c3"), summaryRow("c2"), summaryRow("c1"));
+        when(documentCollectionRepository.findSummaryPageByUserId(userId, PageRequest.of(0, 3))).thenReturn(rows);
+
+        // Act
+        DocumentCollectionPage page = getDocumentService.getDocumentCollectionPage(userId, null, 2).getData();
+
+        // Assert
+        assertEquals(List.of("c3", "c2"), page.getItems().stream().map(DocumentCollectionSummary::getId).toList());
+        assertTrue(page.isHasMore());
+        CollectionCursor cursor = CollectionCursor.decode(page.getNextCursor());
+        assertEquals("c2", cursor.id());
+        assertEquals(rows.get(1).createdAt().toInstant(), cursor.createdAt().toInstant());
+    }
+
+    @Test
+    void getDocumentCollectionPage_continuesAfterCursor() {
+        // Arrange
+        OffsetDateTime createdAt = OffsetDateTime.parse("2026-01-13T16:18:37.181629Z");
+        String cursor = new CollectionCursor(createdAt, "c2").encode();
+        when(documentCollectionRepository.findSummaryPageByUserIdAfter(userId, createdAt, "c2", PageRequest.of(0, 3)))
+                .thenReturn(List.of(summaryRow("c1")));
+
+        // Act
+        DocumentCollectionPage page = getDocumentService.getDocumentCollectionPage(userId, cursor, 2).getData();
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getDocumentCollectionPage_clampsLimit() {
+        // Act
+        getDocumentService.getDocumentCollectionPage(userId, null, 10_000);
+
+        // Assert
+        verify(documentCollectionRepository).findSummaryPageByUserId(userId, PageRequest.of(0, 101));
+    }
+
+    @Test
+    void getDocumentCollectionPage_rejectsMalformedCursor() {
+        assertThrows(BadRequestException.class,
+                () -> getDocumentService.getDocumentCollectionPage(userId, "not-a-cursor", 20));
+    }
+
     @Test
     void getFileFromCollection_success() {
         // Arrange
         String documentId = testFileEntry.getDocumentId();
         when(documentCollectionRepository.findById(collectionId)).thenReturn(Optional.of(testCollection));
+        when(fileEntryRepository.findByCollectionIdAndDocumentId(collectionId, documentId))
+                .thenReturn(Optional.of(testFileEntry));
 
         // Act
         DocumentCollectionResponse<FileEntryData> response = getDocumentService.getFileFromCollection(collectionId, documentId, userId);
@@ -222,4 +296,10 @@ public class GetDocumentServiceImplTest {
                 () -> getDocumentService.getFileFromCollection(collectionId, documentId, anotherUserId));
         assertEquals("You are not authorized to access this document collection.", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    private DocumentCollectionSummaryRow summaryRow(String id) {
+        return new DocumentCollectionSummaryRow(id, "Collection " + id, DocumentStatus.COMPLETED,
+                testCollection.getUploadTimestamp(), testCollection.getCreatedAt(), testCollection.getUpdatedAt(),
+                1L, 0L);
+    }
+}
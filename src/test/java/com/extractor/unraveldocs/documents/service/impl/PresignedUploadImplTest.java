@@ -0,0 +1,318 @@
+package com.extractor.unraveldocs.documents.service.impl;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import com.extractor.unraveldocs.documents.datamodel.DocumentUploadState;
+import com.extractor.unraveldocs.documents.dto.request.PresignedUploadRequest;
+import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionResponse;
+import com.extractor.unraveldocs.documents.dto.response.DocumentCollectionUploadData;
+import com.extractor.unraveldocs.documents.dto.response.PresignedUploadData;
+import com.extractor.unraveldocs.documents.impl.PresignedUploadImpl;
+import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import com.extractor.unraveldocs.documents.model.PresignedUploadSession;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
+import com.extractor.unraveldocs.exceptions.custom.ForbiddenException;
+import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.ocrprocessing.events.OcrEventMapper;
+import com.extractor.unraveldocs.ocrprocessing.events.OcrEventPublisher;
+import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
+import com.extractor.unraveldocs.storage.exception.StorageQuotaExceededException;
+import com.extractor.unraveldocs.storage.service.ObjectDeletionQueue;
+import com.extractor.unraveldocs.storage.service.StorageAllocationService;
+import com.extractor.unraveldocs.storage.service.StorageReservation;
+import com.extractor.unraveldocs.user.model.User;
+import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PresignedUploadImplTest {
+    private static final String CHECKSUM = "n4bQgYhMfWWaL+qgxVrQFaO/TxsrC4Is0V1sFbDwCgg=";
+
+    @Mock
+    private AwsS3Service awsS3Service;
+    @Mock
+    private StorageAllocationService storageAllocationService;
+    @Mock
+    private ObjectDeletionQueue objectDeletionQueue;
+    @Mock
+    private DocumentCollectionRepository documentCollectionRepository;
+    @Mock
+    private OcrDataRepository ocrDataRepository;
+    @Mock
+    private OcrEventPublisher ocrEventPublisher;
+    @Mock
+    private OcrEventMapper ocrEventMapper;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private SanitizeLogging s;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PresignedUploadImpl presignedUploadService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID().toString());
+
+        presignedUploadService = new PresignedUploadImpl(
+                awsS3Service,
+                storageAllocationService,
+                objectDeletionQueue,
+                documentCollectionRepository,
+                ocrDataRepository,
+                Optional.of(ocrEventPublisher),
+                ocrEventMapper,
+                redisTemplate,
+                objectMapper,
+                transactionTemplate,
+                s,
+                900,
+                3600);
+
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void createUpload_checksQuotaSchedulesDeletionAndStoresSession() {
+        PresignedUploadRequest request = new PresignedUploadRequest("Scans", List.of(
+                new PresignedUploadRequest.PresignedFile("scan.png", "image/png", 1024, CHECKSUM)));
+        UserEntitlements entitlements = UserEntitlements.builder().userId(user.getId()).subscribed(true).build();
+        when(storageAllocationService.resolveEntitlements(user.getId())).thenReturn(entitlements);
+        when(awsS3Service.generateFileName(eq("scan.png"), any())).thenReturn("documents/key-scan.png");
+        when(awsS3Service.presignUpload(eq("documents/key-scan.png"), eq("image/png"), eq(1024L), eq(CHECKSUM),
+                any(Duration.class))).thenReturn(presigned("https://bucket.s3.amazonaws.com/documents/key-scan.png"));
+
+        DocumentCollectionResponse<PresignedUploadData> response = presignedUploadService.createUpload(request, user);
+
+        verify(storageAllocationService).resolveEntitlements(user.getId());
+        verify(storageAllocationService).checkDocumentUploadLimit(entitlements, 1);
+        verify(storageAllocationService).checkStorageAvailable(entitlements, 1024L);
+        PresignedUploadData data = response.getData();
+        assertNotNull(data.getUploadId());
+        assertEquals(1, data.getFiles().size());
+        assertEquals("PUT", data.getFiles().getFirst().getMethod());
+        assertEquals(CHECKSUM, data.getFiles().getFirst().getHeaders().get("x-amz-checksum-sha256"));
+        assertFalse(data.getFiles().getFirst().getHeaders().containsKey("host"));
+        verify(valueOperations).set(eq("upload:presigned:" + data.getUploadId()), anyString(),
+                eq(Duration.ofSeconds(4500)));
+        // Deleted after the session expires unless the upload is completed
+        verify(objectDeletionQueue).schedule(eq(List.of("documents/key-scan.png")),
+                argThat(deleteAt -> deleteAt.isAfter(OffsetDateTime.now().plusSeconds(4500))));
+    }
+
+    @Test
+    void createUpload_rejectsUnsupportedType() {
+        PresignedUploadRequest request = new PresignedUploadRequest(null, List.of(
+                new PresignedUploadRequest.PresignedFile("notes.txt", "text/plain", 10, CHECKSUM)));
+
+        assertThrows(BadRequestException.class, () -> presignedUploadService.createUpload(request, user));
+
+        verifyNoInteractions(storageAllocationService, objectDeletionQueue, valueOperations);
+    }
+
+    @Test
+    void completeUpload_keepsOnlyVerifiedObjects() throws Exception {
+        PresignedUploadSession.PendingFile uploaded = pendingFile("uploaded.png");
+        PresignedUploadSession.PendingFile missing = pendingFile("missing.png");
+        String uploadId = storeSession(PresignedUploadSession.builder()
+                .userId(user.getId())
+                .files(List.of(uploaded, missing))
+                .build());
+        UserEntitlements entitlements = UserEntitlements.builder().userId(user.getId()).subscribed(true).build();
+        StorageReservation reservation = new StorageReservation(user.getId(), null, uploaded.getFileSize(), 1);
+        when(storageAllocationService.resolveEntitlements(user.getId())).thenReturn(entitlements);
+        when(storageAllocationService.reserve(entitlements, uploaded.getFileSize(), 1)).thenReturn(reservation);
+        when(redisTemplate.delete("upload:presigned:" + uploadId)).thenReturn(true);
+        when(awsS3Service.findObject(uploaded.getStorageKey())).thenReturn(Optional.of(HeadObjectResponse.builder()
+                .contentLength(uploaded.getFileSize())
+                .checksumSHA256(CHECKSUM)
+                .build()));
+        when(awsS3Service.findObject(missing.getStorageKey())).thenReturn(Optional.empty());
+        when(awsS3Service.getFileUrl(uploaded.getStorageKey())).thenReturn("https://bucket/uploaded.png");
+        when(documentCollectionRepository.saveAndFlush(any(DocumentCollection.class))).thenAnswer(invocation -> {
+            DocumentCollection collection = invocation.getArgument(0);
+            collection.setId("collection-1");
+            return collection;
+        });
+
+        DocumentCollectionResponse<DocumentCollectionUploadData> response =
+                presignedUploadService.completeUpload(uploadId, user);
+
+        ArgumentCaptor<DocumentCollection> collectionCaptor = ArgumentCaptor.forClass(DocumentCollection.class);
+        verify(documentCollectionRepository).saveAndFlush(collectionCaptor.capture());
+        assertEquals(1, collectionCaptor.getValue().getFiles().size());
+        assertEquals(uploaded.getDocumentId(), collectionCaptor.getValue().getFiles().getFirst().getDocumentId());
+        verify(ocrDataRepository).saveAll(argThat(list -> ((List<?>) list).size() == 1));
+        verify(storageAllocationService).commit(reservation, uploaded.getFileSize(), 1);
+        verify(storageAllocationService, never()).updateStorageUsed(any(), anyLong());
+        // Only the kept object is withdrawn from deletion; the missing one stays queued
+        verify(objectDeletionQueue).cancel(List.of(uploaded.getStorageKey()));
+
+        assertEquals("collection-1", response.getData().getCollectionId());
+        assertEquals(DocumentStatus.PROCESSING, response.getData().getOverallStatus());
+        assertEquals(DocumentUploadState.SUCCESS.toString(), response.getData().getFiles().get(0).getStatus());
+        assertEquals(DocumentUploadState.FAILED_STORAGE_UPLOAD.toString(),
+                response.getData().getFiles().get(1).getStatus());
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    @Test
+    void completeUpload_quotaExceeded_rejectsAndLeavesObjectsQueuedForDeletion() throws Exception {
+        PresignedUploadSession.PendingFile uploaded = pendingFile("uploaded.png");
+        String uploadId = storeSession(PresignedUploadSession.builder()
+                .userId(user.getId())
+                .files(List.of(uploaded))
+                .expiresAtEpochMillis(Instant.now().plusSeconds(600).toEpochMilli())
+                .build());
+        UserEntitlements entitlements = UserEntitlements.builder().userId(user.getId()).subscribed(true).build();
+        when(redisTemplate.delete("upload:presigned:" + uploadId)).thenReturn(true);
+        when(awsS3Service.findObject(uploaded.getStorageKey())).thenReturn(Optional.of(HeadObjectResponse.builder()
+                .contentLength(uploaded.getFileSize())
+                .checksumSHA256(CHECKSUM)
+                .build()));
+        when(awsS3Service.getFileUrl(uploaded.getStorageKey())).thenReturn("https://bucket/uploaded.png");
+        when(storageAllocationService.resolveEntitlements(user.getId())).thenReturn(entitlements);
+        when(storageAllocationService.reserve(entitlements, uploaded.getFileSize(), 1))
+                .thenThrow(new StorageQuotaExceededException("Storage quota exceeded."));
+
+        assertThrows(StorageQuotaExceededException.class,
+                () -> presignedUploadService.completeUpload(uploadId, user));
+
+        verifyNoInteractions(documentCollectionRepository, ocrDataRepository);
+        verify(objectDeletionQueue, never()).cancel(any());
+        // Not restored: the rejection is final
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void completeUpload_transientFailure_restoresSessionForRemainingWindow() throws Exception {
+        PresignedUploadSession.PendingFile uploaded = pendingFile("uploaded.png");
+        String uploadId = storeSession(PresignedUploadSession.builder()
+                .userId(user.getId())
+                .files(List.of(uploaded))
+                .expiresAtEpochMillis(Instant.now().plusSeconds(600).toEpochMilli())
+                .build());
+        UserEntitlements entitlements = UserEntitlements.builder().userId(user.getId()).subscribed(true).build();
+        when(redisTemplate.delete("upload:presigned:" + uploadId)).thenReturn(true);
+        when(awsS3Service.findObject(uploaded.getStorageKey())).thenReturn(Optional.of(HeadObjectResponse.builder()
+                .contentLength(uploaded.getFileSize())
+                .checksumSHA256(CHECKSUM)
+                .build()));
+        when(awsS3Service.getFileUrl(uploaded.getStorageKey())).thenReturn("https://bucket/uploaded.png");
+        when(storageAllocationService.resolveEntitlements(user.getId())).thenReturn(entitlements);
+        when(storageAllocationService.reserve(entitlements, uploaded.getFileSize(), 1))
+                .thenReturn(new StorageReservation(user.getId(), null, uploaded.getFileSize(), 1));
+        when(documentCollectionRepository.saveAndFlush(any(DocumentCollection.class)))
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        assertThrows(IllegalStateException.class, () -> presignedUploadService.completeUpload(uploadId, user));
+
+        verify(valueOperations).set(eq("upload:presigned:" + uploadId), anyString(),
+                argThat((Duration remaining) -> remaining.compareTo(Duration.ofSeconds(600)) <= 0
+                        && remaining.compareTo(Duration.ofSeconds(590)) > 0));
+    }
+
+    @Test
+    void completeUpload_rejectsOtherUsersUpload() throws Exception {
+        String uploadId = storeSession(PresignedUploadSession.builder()
+                .userId("someone-else")
+                .files(List.of(pendingFile("scan.png")))
+                .build());
+
+        assertThrows(ForbiddenException.class, () -> presignedUploadService.completeUpload(uploadId, user));
+
+        verify(redisTemplate, never()).delete(anyString());
+        verifyNoInteractions(documentCollectionRepository);
+    }
+
+    @Test
+    void completeUpload_unknownUpload_throwsNotFound() {
+        when(valueOperations.get(anyString())).thenReturn(null);
+
+        assertThrows(NotFoundException.class, () -> presignedUploadService.completeUpload("unknown", user));
+
+        verify(awsS3Service, never()).findObject(anyString());
+        verify(storageAllocationService, never()).updateStorageUsed(any(), anyLong());
+    }
+
+    private String storeSession(PresignedUploadSession session) throws Exception {
+        String uploadId = UUID.randomUUID().toString();
+        when(valueOperations.get("upload:presigned:" + uploadId)).thenReturn(objectMapper.writeValueAsString(session));
+        return uploadId;
+    }
+
+    private static PresignedUploadSession.PendingFile pendingFile(String fileName) {
+        return PresignedUploadSession.PendingFile.builder()
+                .documentId(UUID.randomUUID().toString())
+                .storageKey("documents/" + fileName)
+                .originalFileName(fileName)
+                .contentType("image/png")
+                .fileSize(2048)
+                .checksumSha256(CHECKSUM)
+                .build();
+    }
+
+    private static PresignedPutObjectRequest presigned(String url) {
+        return PresignedPutObjectRequest.builder()
+                .expiration(Instant.now().plusSeconds(900))
+                .isBrowserExecutable(false)
+                .signedHeaders(Map.of(
+                        "host", List.of("bucket.s3.amazonaws.com"),
+                        "x-amz-checksum-sha256", List.of(CHECKSUM)))
+                .httpRequest(SdkHttpRequest.builder()
+                        .method(SdkHttpMethod.PUT)
+                        .uri(URI.create(url))
+                        .build())
+                .build();
+    }
+}
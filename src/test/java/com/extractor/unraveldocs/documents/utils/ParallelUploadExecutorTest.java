@@ -0,0 +1,108 @@
+package com.extractor.unraveldocs.documents.utils;
+
+import com.extractor.unraveldocs.documents.utils.ParallelUploadExecutor.Outcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelUploadExecutorTest {
+
+    private ParallelUploadExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void runAll_returnsOutcomesInTaskOrder() {
+        executor = new ParallelUploadExecutor(8, 32);
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int index = i;
+            tasks.add(() -> {
+                // Later tasks finish first
+                Thread.sleep((10 - index) * 5L);
+                return "file-" + index;
+            });
+        }
+
+        List<Outcome<String>> outcomes = executor.runAll(tasks);
+
+        assertEquals(10, outcomes.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(outcomes.get(i).isSuccess());
+            assertEquals("file-" + i, outcomes.get(i).value());
+        }
+    }
+
+    @Test
+    void runAll_failedUpload_doesNotAffectOthers() {
+        executor = new ParallelUploadExecutor(8, 32);
+        IOException failure = new IOException("connection reset");
+
+        List<Callable<String>> tasks = List.of(
+                () -> "first",
+                () -> {
+                    throw failure;
+                },
+                () -> "third");
+
+        List<Outcome<String>> outcomes = executor.runAll(tasks);
+
+        assertEquals("first", outcomes.get(0).value());
+        assertFalse(outcomes.get(1).isSuccess());
+        assertNull(outcomes.get(1).value());
+        assertSame(failure, outcomes.get(1).error());
+        assertEquals("third", outcomes.get(2).value());
+    }
+
+    @Test
+    void runAll_limitsUploadsInFlightPerRequest() {
+        executor = new ParallelUploadExecutor(2, 32);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<Outcome<Integer>> outcomes = executor.runAll(tasks(8, inFlight, maxInFlight));
+
+        assertEquals(8, outcomes.size());
+        assertTrue(maxInFlight.get() <= 2, "max in flight = " + maxInFlight.get());
+    }
+
+    @Test
+    void runAll_limitsUploadsInFlightAcrossRequests() throws Exception {
+        executor = new ParallelUploadExecutor(8, 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        Thread other = Thread.ofVirtual().start(() -> executor.runAll(tasks(8, inFlight, maxInFlight)));
+        executor.runAll(tasks(8, inFlight, maxInFlight));
+        other.join();
+
+        assertTrue(maxInFlight.get() <= 3, "max in flight = " + maxInFlight.get());
+    }
+
+    private static List<Callable<Integer>> tasks(int count, AtomicInteger inFlight, AtomicInteger maxInFlight) {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks.add(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return index;
+            });
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,182 @@
+package com.extractor.unraveldocs.encryption.impl;
+
+import com.extractor.unraveldocs.encryption.config.EncryptionProperties;
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AesEncryptionServiceImplTest {
+    private static final int SEGMENT_SIZE = 1024;
+
+    private static final String FIRST_MASTER_KEY = randomKey(1);
+    private static final String SECOND_MASTER_KEY = randomKey(2);
+
+    private AesEncryptionServiceImpl encryptionService;
+
+    @BeforeEach
+    void setUp() {
+        encryptionService = serviceWith("v1", FIRST_MASTER_KEY, Map.of());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, SEGMENT_SIZE - 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, 5 * SEGMENT_SIZE + 17})
+    void streamRoundTrip_acrossSegmentBoundaries(int size) throws IOException {
+        byte[] plaintext = randomBytes(size);
+
+        EncryptionService.EncryptedStream encrypted = encryptionService.encryptStream(
+                new ByteArrayInputStream(plaintext));
+        byte[] ciphertext = encrypted.stream().readAllBytes();
+
+        assertEquals(encryptionService.encryptedLength(size), ciphertext.length);
+        assertEquals(size, encryptionService.plaintextLength(ciphertext.length));
+        try (InputStream decrypted = encryptionService.decryptStream(
+                new ByteArrayInputStream(ciphertext), encrypted.key())) {
+            assertArrayEquals(plaintext, decrypted.readAllBytes());
+        }
+    }
+
+    @Test
+    void decryptStream_failsOnModifiedSegment() throws IOException {
+        EncryptionService.EncryptedStream encrypted = encryptionService.encryptStream(
+                new ByteArrayInputStream(randomBytes(3 * SEGMENT_SIZE)));
+        byte[] ciphertext = encrypted.stream().readAllBytes();
+        ciphertext[GcmSegmentInputStream.HEADER_LENGTH + SEGMENT_SIZE + 40] ^= 1;
+
+        InputStream decrypted = encryptionService.decryptStream(new ByteArrayInputStream(ciphertext), encrypted.key());
+
+        assertThrows(IOException.class, decrypted::readAllBytes);
+    }
+
+    @Test
+    void decryptStream_failsWhenTruncatedAtSegmentBoundary() throws IOException {
+        EncryptionService.EncryptedStream encrypted = encryptionService.encryptStream(
+                new ByteArrayInputStream(randomBytes(3 * SEGMENT_SIZE)));
+        byte[] ciphertext = encrypted.stream().readAllBytes();
+        int segmentLength = SEGMENT_SIZE + 16;
+        byte[] truncated = Arrays.copyOf(ciphertext, GcmSegmentInputStream.HEADER_LENGTH + 2 * segmentLength);
+
+        InputStream decrypted = encryptionService.decryptStream(new ByteArrayInputStream(truncated), encrypted.key());
+
+        assertThrows(IOException.class, decrypted::readAllBytes);
+    }
+
+    @Test
+    void byteArrayRoundTrip_reusesCipherAcrossCalls() {
+        byte[] first = randomBytes(100);
+        byte[] second = randomBytes(200);
+
+        EncryptionService.EncryptionResult firstResult = encryptionService.encrypt(first);
+        EncryptionService.EncryptionResult secondResult = encryptionService.encrypt(second);
+
+        assertArrayEquals(first, encryptionService.decrypt(firstResult.encryptedData(), firstResult.iv()));
+        assertArrayEquals(second, encryptionService.decrypt(secondResult.encryptedData(), secondResult.iv()));
+    }
+
+    @Test
+    void encryptStream_usesFreshWrappedDataKeyPerDocument() throws IOException {
+        byte[] plaintext = randomBytes(100);
+
+        EncryptionService.EncryptedStream first = encryptionService.encryptStream(new ByteArrayInputStream(plaintext));
+        EncryptionService.EncryptedStream second = encryptionService.encryptStream(new ByteArrayInputStream(plaintext));
+
+        assertEquals("v1", first.key().keyId());
+        assertNotNull(first.key().wrappedDataKey());
+        assertNotEquals(first.key().wrappedDataKey(), second.key().wrappedDataKey());
+        assertFalse(Arrays.equals(first.stream().readAllBytes(), second.stream().readAllBytes()));
+    }
+
+    @Test
+    void rewrap_afterRotation_keepsDocumentReadableWithoutReEncrypting() throws IOException {
+        byte[] plaintext = randomBytes(2 * SEGMENT_SIZE + 3);
+        EncryptionService.EncryptedStream encrypted = encryptionService.encryptStream(
+                new ByteArrayInputStream(plaintext));
+        byte[] ciphertext = encrypted.stream().readAllBytes();
+
+        AesEncryptionServiceImpl rotated = serviceWith("v2", SECOND_MASTER_KEY, Map.of("v1", FIRST_MASTER_KEY));
+        EncryptionService.DocumentKey rewrapped = rotated.rewrap(encrypted.key());
+
+        assertEquals("v2", rewrapped.keyId());
+        assertEquals(encrypted.key().iv(), rewrapped.iv());
+        assertSame(rewrapped, rotated.rewrap(rewrapped));
+        try (InputStream decrypted = rotated.decryptStream(new ByteArrayInputStream(ciphertext), rewrapped)) {
+            assertArrayEquals(plaintext, decrypted.readAllBytes());
+        }
+        try (InputStream decrypted = rotated.decryptStream(new ByteArrayInputStream(ciphertext), encrypted.key())) {
+            assertArrayEquals(plaintext, decrypted.readAllBytes());
+        }
+    }
+
+    @Test
+    void decryptStream_rejectsRelabelledDataKey() {
+        EncryptionService.EncryptedStream encrypted = encryptionService.encryptStream(
+                new ByteArrayInputStream(randomBytes(10)));
+        AesEncryptionServiceImpl rotated = serviceWith("v2", SECOND_MASTER_KEY, Map.of("v1", FIRST_MASTER_KEY));
+        EncryptionService.DocumentKey relabelled = new EncryptionService.DocumentKey(
+                encrypted.key().iv(), "v2", encrypted.key().wrappedDataKey());
+
+        assertThrows(IllegalStateException.class,
+                () -> rotated.decryptStream(new ByteArrayInputStream(new byte[0]), relabelled));
+    }
+
+    @Test
+    void dataKeyCache_evictsLeastRecentlyUsedBeyondCapacity() {
+        DataKeyCache cache = new DataKeyCache(2, 60);
+        SecretKey key = new SecretKeySpec(new byte[32], "AES");
+        AtomicInteger unwraps = new AtomicInteger();
+        Supplier<SecretKey> unwrap = () -> {
+            unwraps.incrementAndGet();
+            return key;
+        };
+
+        cache.get("a", unwrap);
+        cache.get("b", unwrap);
+        cache.get("a", unwrap);
+        cache.get("c", unwrap);
+        cache.get("a", unwrap);
+
+        assertEquals(3, unwraps.get());
+        assertEquals(2, cache.size());
+        cache.get("b", unwrap);
+        assertEquals(4, unwraps.get());
+    }
+
+    private static AesEncryptionServiceImpl serviceWith(String keyId, String masterKey, Map<String, String> previous) {
+        EncryptionProperties properties = new EncryptionProperties();
+        properties.setMasterKey(masterKey);
+        properties.setMasterKeyId(keyId);
+        properties.setPreviousMasterKeys(previous);
+        properties.setSegmentSize(SEGMENT_SIZE);
+
+        AesEncryptionServiceImpl service = new AesEncryptionServiceImpl(properties);
+        service.init();
+        return service;
+    }
+
+    private static String randomKey(long seed) {
+        byte[] key = new byte[32];
+        new Random(seed).nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,121 @@
+package com.extractor.unraveldocs.encryption.jobs;
+
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
+import com.extractor.unraveldocs.encryption.config.EncryptionProperties;
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService;
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService.DocumentKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataKeyRewrapJobTest {
+
+    private static final String CURRENT_KEY = "master-2";
+    private static final String OLD_KEY = "master-1";
+
+    @Mock
+    private FileEntryRepository fileEntryRepository;
+    @Mock
+    private EncryptionService encryptionService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    // Stands in for the file_entries table
+    private final List<FileEntry> entries = new ArrayList<>();
+    private final List<String> cursors = new ArrayList<>();
+    private DataKeyRewrapJob job;
+
+    @BeforeEach
+    void setUp() {
+        EncryptionProperties properties = new EncryptionProperties();
+        properties.getRewrap().setBatchSize(2);
+        properties.getRewrap().setMaxPerSecond(1000);
+        job = new DataKeyRewrapJob(fileEntryRepository, encryptionService, properties, transactionTemplate);
+
+        when(encryptionService.isEncryptionAvailable()).thenReturn(true);
+        when(encryptionService.currentMasterKeyId()).thenReturn(CURRENT_KEY);
+        // Same filter and order as the JPQL query
+        when(fileEntryRepository.findEntriesToRewrap(eq(CURRENT_KEY), anyString(), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    String afterId = inv.getArgument(1);
+                    Pageable page = inv.getArgument(2);
+                    cursors.add(afterId);
+                    return entries.stream()
+                            .filter(entry -> !CURRENT_KEY.equals(entry.getEncryptionKeyId()))
+                            .filter(entry -> entry.getId().compareTo(afterId) > 0)
+                            .sorted(Comparator.comparing(FileEntry::getId))
+                            .limit(page.getPageSize())
+                            .toList();
+                });
+        lenient().when(encryptionService.rewrap(any(DocumentKey.class))).thenAnswer(inv -> {
+            DocumentKey key = inv.getArgument(0);
+            return new DocumentKey(key.iv(), CURRENT_KEY, "rewrapped-" + key.wrappedDataKey());
+        });
+        lenient().doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void rewrapDataKeys_rewrapsOldKeyEntriesInCursorOrderAndSkipsCurrentOnes() {
+        entries.add(entry("e5", OLD_KEY));
+        entries.add(entry("e1", OLD_KEY));
+        entries.add(entry("e2", CURRENT_KEY));
+        entries.add(entry("e4", "master-0"));
+        entries.add(entry("e3", OLD_KEY));
+
+        job.rewrapDataKeys();
+
+        InOrder inOrder = inOrder(fileEntryRepository);
+        inOrder.verify(fileEntryRepository).updateWrappedKey("e1", OLD_KEY, CURRENT_KEY, "rewrapped-wrapped-e1");
+        inOrder.verify(fileEntryRepository).updateWrappedKey("e3", OLD_KEY, CURRENT_KEY, "rewrapped-wrapped-e3");
+        inOrder.verify(fileEntryRepository).updateWrappedKey("e4", "master-0", CURRENT_KEY, "rewrapped-wrapped-e4");
+        inOrder.verify(fileEntryRepository).updateWrappedKey("e5", OLD_KEY, CURRENT_KEY, "rewrapped-wrapped-e5");
+        verify(fileEntryRepository, never()).updateWrappedKey(eq("e2"), anyString(), anyString(), anyString());
+        // Each page resumes after the last entry of the previous one; a short page ends the run
+        assertEquals(List.of("", "e3", "e5"), cursors);
+    }
+
+    @Test
+    void rewrapDataKeys_unwrapFailure_continuesWithRestOfBatch() {
+        entries.add(entry("e1", OLD_KEY));
+        entries.add(entry("e2", OLD_KEY));
+        entries.add(entry("e3", OLD_KEY));
+        doThrow(new IllegalStateException("Tag mismatch")).when(encryptionService)
+                .rewrap(argThat(key -> key != null && "wrapped-e2".equals(key.wrappedDataKey())));
+
+        job.rewrapDataKeys();
+
+        verify(fileEntryRepository).updateWrappedKey("e1", OLD_KEY, CURRENT_KEY, "rewrapped-wrapped-e1");
+        verify(fileEntryRepository).updateWrappedKey("e3", OLD_KEY, CURRENT_KEY, "rewrapped-wrapped-e3");
+        verify(fileEntryRepository, never()).updateWrappedKey(eq("e2"), anyString(), anyString(), anyString());
+    }
+
+    private static FileEntry entry(String id, String keyId) {
+        return FileEntry.builder()
+                .id(id)
+                .isEncrypted(true)
+                .encryptionIv("iv-" + id)
+                .encryptionKeyId(keyId)
+                .encryptedDataKey("wrapped-" + id)
+                .build();
+    }
+}
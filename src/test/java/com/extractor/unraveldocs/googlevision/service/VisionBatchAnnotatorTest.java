@@ -0,0 +1,119 @@
+package com.extractor.unraveldocs.googlevision.service;
+
+import com.extractor.unraveldocs.googlevision.config.GoogleVisionProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.Image;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import com.google.cloud.vision.v1.TextAnnotation;
+import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VisionBatchAnnotatorTest {
+
+    @Mock
+    private ImageAnnotatorClient visionClient;
+
+    private VisionBatchAnnotator annotator;
+
+    @AfterEach
+    void tearDown() {
+        if (annotator != null) {
+            annotator.shutdown();
+        }
+    }
+
+    @Test
+    void annotate_fullBatch_sendsOneRpcAndRoutesResponsesByPosition() throws Exception {
+        annotator = annotator(2, 60_000);
+        when(visionClient.batchAnnotateImages(anyList()))
+                .thenReturn(responses(response("first"), response("second")));
+
+        CompletableFuture<AnnotateImageResponse> first = annotator.annotate(request("a"));
+        CompletableFuture<AnnotateImageResponse> second = annotator.annotate(request("b"));
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS).getFullTextAnnotation().getText());
+        assertEquals("second", second.get(5, TimeUnit.SECONDS).getFullTextAnnotation().getText());
+        verify(visionClient).batchAnnotateImages(List.of(request("a"), request("b")));
+    }
+
+    @Test
+    void annotate_partialBatch_sentWhenWindowElapses() throws Exception {
+        annotator = annotator(16, 10);
+        when(visionClient.batchAnnotateImages(anyList())).thenReturn(responses(response("only")));
+
+        CompletableFuture<AnnotateImageResponse> future = annotator.annotate(request("a"));
+
+        assertEquals("only", future.get(5, TimeUnit.SECONDS).getFullTextAnnotation().getText());
+        verify(visionClient).batchAnnotateImages(List.of(request("a")));
+    }
+
+    @Test
+    void annotate_rpcFails_failsEveryRequestInBatch() {
+        annotator = annotator(2, 60_000);
+        when(visionClient.batchAnnotateImages(anyList())).thenThrow(new IllegalStateException("quota exceeded"));
+
+        CompletableFuture<AnnotateImageResponse> first = annotator.annotate(request("a"));
+        CompletableFuture<AnnotateImageResponse> second = annotator.annotate(request("b"));
+
+        assertFailedWith(first, "quota exceeded");
+        assertFailedWith(second, "quota exceeded");
+    }
+
+    @Test
+    void annotate_missingResponse_failsOnlyThatRequest() throws Exception {
+        annotator = annotator(2, 60_000);
+        when(visionClient.batchAnnotateImages(anyList())).thenReturn(responses(response("first")));
+
+        CompletableFuture<AnnotateImageResponse> first = annotator.annotate(request("a"));
+        CompletableFuture<AnnotateImageResponse> second = annotator.annotate(request("b"));
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS).getFullTextAnnotation().getText());
+        assertFailedWith(second, "1 responses for a batch of 2");
+    }
+
+    private VisionBatchAnnotator annotator(int maxSize, long windowMs) {
+        GoogleVisionProperties properties = new GoogleVisionProperties();
+        properties.getBatch().setMaxSize(maxSize);
+        properties.getBatch().setWindowMs(windowMs);
+        return new VisionBatchAnnotator(visionClient, properties, new OcrMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static AnnotateImageRequest request(String content) {
+        return AnnotateImageRequest.newBuilder()
+                .setImage(Image.newBuilder().setContent(ByteString.copyFromUtf8(content)))
+                .build();
+    }
+
+    private static AnnotateImageResponse response(String text) {
+        return AnnotateImageResponse.newBuilder()
+                .setFullTextAnnotation(TextAnnotation.newBuilder().setText(text))
+                .build();
+    }
+
+    private static BatchAnnotateImagesResponse responses(AnnotateImageResponse... responses) {
+        return BatchAnnotateImagesResponse.newBuilder().addAllResponses(List.of(responses)).build();
+    }
+
+    private static void assertFailedWith(CompletableFuture<?> future, String message) {
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause().getMessage().contains(message), ex.getCause().getMessage());
+    }
+}
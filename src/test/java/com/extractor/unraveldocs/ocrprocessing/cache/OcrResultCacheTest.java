@@ -0,0 +1,81 @@
+package com.extractor.unraveldocs.ocrprocessing.cache;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class OcrResultCacheTest {
+
+    private static final String HASH = "abc123";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private OcrProperties ocrProperties;
+    private OcrResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ocrProperties = new OcrProperties();
+        cache = new OcrResultCache(redisTemplate, new ObjectMapper(), ocrProperties,
+                new OcrMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void buildKey_sameSettings_sameKey() {
+        assertEquals(cache.buildKey(HASH, OcrProviderType.TESSERACT, "eng"),
+                cache.buildKey(HASH, OcrProviderType.TESSERACT, "ENG"));
+    }
+
+    @Test
+    void buildKey_noLanguage_usesConfiguredTesseractLanguage() {
+        String defaultKey = cache.buildKey(HASH, OcrProviderType.TESSERACT, null);
+
+        assertEquals(cache.buildKey(HASH, OcrProviderType.TESSERACT, "eng"), defaultKey);
+
+        ocrProperties.getTesseract().setLanguage("deu");
+        assertNotEquals(defaultKey, cache.buildKey(HASH, OcrProviderType.TESSERACT, null));
+    }
+
+    @Test
+    void buildKey_preprocessingChanged_newTesseractKey() {
+        String before = cache.buildKey(HASH, OcrProviderType.TESSERACT, "eng");
+
+        ocrProperties.getPreprocessing().setThresholdBlockSize(41);
+
+        assertNotEquals(before, cache.buildKey(HASH, OcrProviderType.TESSERACT, "eng"));
+    }
+
+    @Test
+    void buildKey_tesseractOnlySettingsChanged_sameGoogleVisionKey() {
+        String before = cache.buildKey(HASH, OcrProviderType.GOOGLE_VISION, null);
+
+        ocrProperties.getPreprocessing().setEnabled(false);
+        ocrProperties.getTesseract().setPageSegMode(6);
+        ocrProperties.getTesseract().setLanguage("deu");
+
+        assertEquals(before, cache.buildKey(HASH, OcrProviderType.GOOGLE_VISION, null));
+    }
+
+    @Test
+    void buildKey_rasterizationDpiChanged_newKeyForEveryProvider() {
+        String tesseract = cache.buildKey(HASH, OcrProviderType.TESSERACT, "eng");
+        String vision = cache.buildKey(HASH, OcrProviderType.GOOGLE_VISION, null);
+
+        ocrProperties.getMultiPage().setDpi(200);
+
+        assertNotEquals(tesseract, cache.buildKey(HASH, OcrProviderType.TESSERACT, "eng"));
+        assertNotEquals(vision, cache.buildKey(HASH, OcrProviderType.GOOGLE_VISION, null));
+    }
+}
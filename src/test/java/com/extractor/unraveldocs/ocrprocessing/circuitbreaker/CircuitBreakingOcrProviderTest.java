@@ -0,0 +1,97 @@
+package com.extractor.unraveldocs.ocrprocessing.circuitbreaker;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProvider;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrRequest;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingOcrProviderTest {
+
+    @Mock
+    private OcrProvider delegate;
+
+    @Mock
+    private OcrMetrics ocrMetrics;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private ProviderCircuitBreaker circuitBreaker;
+    private CircuitBreakingOcrProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        OcrProperties.CircuitBreakerConfig config = new OcrProperties.CircuitBreakerConfig();
+        config.setMinimumCalls(1);
+        config.setFailureRateThreshold(50);
+        config.setOpenDurationMs(10_000);
+        config.setHalfOpenTrialCalls(3);
+
+        circuitBreaker = new ProviderCircuitBreaker(OcrProviderType.GOOGLE_VISION, config, ocrMetrics, now::get);
+        provider = new CircuitBreakingOcrProvider(delegate, circuitBreaker);
+    }
+
+    @Test
+    void execute_documentWithMorePagesThanTrialCalls_getsThroughHalfOpenBreaker() {
+        circuitBreaker.onFailure(100);
+        now.addAndGet(10_000);
+        assertEquals(ProviderCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        when(delegate.extractText(any(OcrRequest.class))).thenReturn(OcrResult.builder().success(true).build());
+
+        OcrResult result = provider.execute(pages -> {
+            for (int page = 1; page <= 5; page++) {
+                pages.extractText(OcrRequest.builder().pageNumber(page).build());
+            }
+            return OcrResult.builder().success(true).pageCount(5).build();
+        });
+
+        assertTrue(result.isSuccess());
+        verify(delegate, times(5)).extractText(any(OcrRequest.class));
+        // The document took one trial slot, leaving the other two
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void execute_breakerOpen_rejectsWithoutCallingProvider() {
+        circuitBreaker.onFailure(100);
+        when(delegate.getProviderType()).thenReturn(OcrProviderType.GOOGLE_VISION);
+
+        assertThrows(OcrProcessingException.class, () -> provider.execute(pages -> pages.extractText(null)));
+
+        verify(delegate, never()).extractText(any());
+    }
+
+    @Test
+    void execute_inputErrorResult_doesNotCountAsFailure() {
+        OcrResult result = provider.execute(pages -> OcrResult.failure("unreadable", OcrProviderType.GOOGLE_VISION, 5)
+                .withMetadata(CircuitBreakingOcrProvider.INPUT_ERROR_METADATA, true));
+
+        assertFalse(result.isSuccess());
+        assertEquals(ProviderCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void execute_documentReportingPageLatency_recordsItInsteadOfWallTime() {
+        OcrResult result = provider.execute(pages -> OcrResult.builder().success(true).pageCount(4).build()
+                .withMetadata(CircuitBreakingOcrProvider.PAGE_LATENCY_METADATA, 20_000L));
+
+        assertTrue(result.isSuccess());
+        // 20s per page is above the 15s slow-call threshold even though the call itself returned at once
+        assertEquals(100.0, circuitBreaker.getSlowCallRate());
+    }
+}
@@ -0,0 +1,109 @@
+package com.extractor.unraveldocs.ocrprocessing.circuitbreaker;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ProviderCircuitBreakerTest {
+
+    @Mock
+    private OcrMetrics ocrMetrics;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private OcrProperties.CircuitBreakerConfig config;
+    private ProviderCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        config = new OcrProperties.CircuitBreakerConfig();
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setOpenDurationMs(10_000);
+        config.setHalfOpenTrialCalls(2);
+        config.setProbeIntervalMs(1_000);
+
+        circuitBreaker = new ProviderCircuitBreaker(OcrProviderType.GOOGLE_VISION, config, ocrMetrics, now::get);
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        circuitBreaker.onSuccess(100);
+        circuitBreaker.onSuccess(100);
+        circuitBreaker.onFailure(100);
+        assertEquals(ProviderCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onFailure(100);
+
+        assertEquals(ProviderCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        verify(ocrMetrics).recordCircuitTransition(OcrProviderType.GOOGLE_VISION, "CLOSED", "OPEN");
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        circuitBreaker.onFailure(100);
+        circuitBreaker.onFailure(100);
+        circuitBreaker.onFailure(100);
+
+        assertEquals(ProviderCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void closesAfterSuccessfulHalfOpenTrials() {
+        tripBreaker();
+
+        now.addAndGet(config.getOpenDurationMs());
+        assertEquals(ProviderCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onSuccess(100);
+        circuitBreaker.onSuccess(100);
+
+        assertEquals(ProviderCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getFailureRate());
+    }
+
+    @Test
+    void reopensWhenHalfOpenTrialFails() {
+        tripBreaker();
+        now.addAndGet(config.getOpenDurationMs());
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onFailure(100);
+
+        assertEquals(ProviderCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void healthyProbeMovesOpenBreakerToHalfOpen() {
+        tripBreaker();
+        assertFalse(circuitBreaker.isProbeDue());
+
+        now.addAndGet(config.getProbeIntervalMs());
+        assertTrue(circuitBreaker.isProbeDue());
+        circuitBreaker.onProbeResult(true);
+
+        assertEquals(ProviderCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    }
+
+    private void tripBreaker() {
+        for (int i = 0; i < config.getMinimumCalls(); i++) {
+            circuitBreaker.onFailure(100);
+        }
+        assertEquals(ProviderCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
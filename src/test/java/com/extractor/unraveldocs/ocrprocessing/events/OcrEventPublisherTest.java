@@ -0,0 +1,70 @@
+package com.extractor.unraveldocs.ocrprocessing.events;
+
+import com.extractor.unraveldocs.brokers.core.Message;
+import com.extractor.unraveldocs.brokers.core.MessageResult;
+import com.extractor.unraveldocs.brokers.kafka.config.KafkaTopicConfig;
+import com.extractor.unraveldocs.brokers.kafka.producer.KafkaMessageProducer;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.subscription.service.SubscriptionFeatureService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OcrEventPublisherTest {
+
+    @Mock
+    private KafkaMessageProducer<OcrRequestedEvent> kafkaMessageProducer;
+    @Mock
+    private SubscriptionFeatureService subscriptionFeatureService;
+
+    private OcrEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new OcrEventPublisher(kafkaMessageProducer, subscriptionFeatureService, new OcrProperties());
+    }
+
+    @Test
+    void publishOcrRequest_keysByDocumentSoACollectionSpreadsOverPartitions() {
+        when(kafkaMessageProducer.send(any())).thenReturn(CompletableFuture.completedFuture(
+                MessageResult.success("m-1", KafkaTopicConfig.TOPIC_DOCUMENTS)));
+
+        publisher.publishOcrRequest(OcrRequestedEvent.builder()
+                .collectionId("collection-1")
+                .documentId("document-1")
+                .build()).join();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<OcrRequestedEvent>> message = ArgumentCaptor.forClass(Message.class);
+        verify(kafkaMessageProducer).send(message.capture());
+        assertEquals("document-1", message.getValue().key());
+        assertEquals(KafkaTopicConfig.TOPIC_DOCUMENTS, message.getValue().topic());
+    }
+
+    @Test
+    void publishOcrRequest_priorityEvent_goesToPriorityTopic() {
+        when(kafkaMessageProducer.send(any())).thenReturn(CompletableFuture.completedFuture(
+                MessageResult.success("m-1", KafkaTopicConfig.TOPIC_DOCUMENTS_PRIORITY)));
+
+        publisher.publishOcrRequest(OcrRequestedEvent.builder()
+                .collectionId("collection-1")
+                .documentId("document-1")
+                .priority(true)
+                .build()).join();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<OcrRequestedEvent>> message = ArgumentCaptor.forClass(Message.class);
+        verify(kafkaMessageProducer).send(message.capture());
+        assertEquals(KafkaTopicConfig.TOPIC_DOCUMENTS_PRIORITY, message.getValue().topic());
+    }
+}
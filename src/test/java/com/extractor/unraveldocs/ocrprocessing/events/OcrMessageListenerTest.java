@@ -0,0 +1,160 @@
+package com.extractor.unraveldocs.ocrprocessing.events;
+
+import com.extractor.unraveldocs.brokers.config.MessagingProperties;
+import com.extractor.unraveldocs.brokers.config.MessagingProperties.RetryProperties;
+import com.extractor.unraveldocs.brokers.kafka.config.KafkaTopicConfig;
+import com.extractor.unraveldocs.brokers.kafka.handler.KafkaErrorHandler;
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.ocrprocessing.execution.OcrLane;
+import com.extractor.unraveldocs.ocrprocessing.execution.OcrLaneScheduler;
+import com.extractor.unraveldocs.ocrprocessing.interfaces.ProcessOcrService;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OcrMessageListenerTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private ProcessOcrService ocrService;
+
+    @Mock
+    private OcrLaneScheduler laneScheduler;
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    private KafkaErrorHandler kafkaErrorHandler;
+
+    @Mock
+    private OcrMetrics ocrMetrics;
+
+    @Mock
+    private SanitizeLogging s;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    private OcrMessageListener listener;
+    private ConsumerRecord<String, OcrRequestedEvent> record;
+
+    @BeforeEach
+    void setUp() {
+        MessagingProperties messagingProperties = new MessagingProperties();
+        messagingProperties.getKafka().getRetry().setMaxAttempts(MAX_ATTEMPTS);
+        messagingProperties.getKafka().getRetry().setInitialIntervalMs(5);
+        messagingProperties.getKafka().getRetry().setMaxIntervalMs(20);
+        listener = new OcrMessageListener(ocrService, laneScheduler, listenerRegistry, kafkaErrorHandler,
+                messagingProperties, ocrMetrics, s);
+        record = new ConsumerRecord<>(KafkaTopicConfig.TOPIC_DOCUMENTS, 0, 5L, "doc-1",
+                OcrRequestedEvent.builder().collectionId("col-1").documentId("doc-1").userId("user-1").build());
+    }
+
+    @Test
+    void acknowledgesSuccessfulRequest() {
+        when(laneScheduler.submit(eq(OcrLane.STANDARD), eq("user-1"), any(Runnable.class), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        listener.receiveOcrRequestedEvent(record, acknowledgment);
+
+        verify(acknowledgment).acknowledge();
+        verifyNoInteractions(kafkaErrorHandler);
+    }
+
+    @Test
+    void acknowledgesFailedRequestOnlyAfterRoutingCompletes() {
+        CompletableFuture<Void> routed = new CompletableFuture<>();
+        when(laneScheduler.submit(eq(OcrLane.STANDARD), eq("user-1"), any(Runnable.class), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("OCR failed")));
+        when(kafkaErrorHandler.routeToRetryOrDlq(eq(record), any(Exception.class), any(RetryProperties.class)))
+                .thenReturn(routed);
+
+        listener.receiveOcrRequestedEvent(record, acknowledgment);
+        verify(acknowledgment, never()).acknowledge();
+
+        routed.complete(null);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void retriesRoutingWithBackoffBeforeAcknowledging() {
+        when(laneScheduler.submit(eq(OcrLane.STANDARD), eq("user-1"), any(Runnable.class), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("OCR failed")));
+        when(kafkaErrorHandler.routeToRetryOrDlq(eq(record), any(Exception.class), any(RetryProperties.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker unavailable")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        listener.receiveOcrRequestedEvent(record, acknowledgment);
+
+        verify(acknowledgment, timeout(1000)).acknowledge();
+        verify(kafkaErrorHandler, times(2)).routeToRetryOrDlq(eq(record), any(Exception.class),
+                any(RetryProperties.class));
+        verifyNoInteractions(listenerRegistry);
+    }
+
+    @Test
+    void pausesListenerAndResumesOnceRoutingRecovers() {
+        RuntimeException brokerDown = new RuntimeException("broker unavailable");
+        when(laneScheduler.submit(eq(OcrLane.STANDARD), eq("user-1"), any(Runnable.class), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("OCR failed")));
+        when(kafkaErrorHandler.routeToRetryOrDlq(eq(record), any(Exception.class), any(RetryProperties.class)))
+                .thenReturn(CompletableFuture.failedFuture(brokerDown))
+                .thenReturn(CompletableFuture.failedFuture(brokerDown))
+                .thenReturn(CompletableFuture.failedFuture(brokerDown))
+                .thenReturn(CompletableFuture.failedFuture(brokerDown))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(listenerRegistry.getListenerContainer(OcrMessageListener.LISTENER_ID)).thenReturn(container);
+        when(laneScheduler.canResume(OcrLane.STANDARD)).thenReturn(true);
+        when(container.isPauseRequested()).thenReturn(false, true);
+
+        listener.receiveOcrRequestedEvent(record, acknowledgment);
+
+        verify(acknowledgment, timeout(1000)).acknowledge();
+        verify(kafkaErrorHandler, times(MAX_ATTEMPTS + 2)).routeToRetryOrDlq(eq(record), any(Exception.class),
+                any(RetryProperties.class));
+        verify(container).pause();
+        verify(container).resume();
+        verify(container, never()).stop(any(Runnable.class));
+        verify(container, never()).stop();
+        assertThat(listener.getRoutingBlocked(OcrLane.STANDARD)).isZero();
+    }
+
+    @Test
+    void keepsListenerPausedWhileRoutingIsBlocked() {
+        when(laneScheduler.submit(eq(OcrLane.STANDARD), eq("user-1"), any(Runnable.class), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("OCR failed")));
+        when(kafkaErrorHandler.routeToRetryOrDlq(eq(record), any(Exception.class), any(RetryProperties.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker unavailable")));
+        when(listenerRegistry.getListenerContainer(OcrMessageListener.LISTENER_ID)).thenReturn(container);
+
+        listener.receiveOcrRequestedEvent(record, acknowledgment);
+
+        verify(container, timeout(1000)).pause();
+        verify(kafkaErrorHandler, timeout(1000).atLeast(MAX_ATTEMPTS + 1)).routeToRetryOrDlq(eq(record),
+                any(Exception.class), any(RetryProperties.class));
+        assertThat(listener.getRoutingBlocked(OcrLane.STANDARD)).isEqualTo(1);
+        verify(container, never()).resume();
+        verify(acknowledgment, never()).acknowledge();
+    }
+}
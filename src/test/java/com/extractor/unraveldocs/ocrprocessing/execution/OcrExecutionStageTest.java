@@ -0,0 +1,68 @@
+package com.extractor.unraveldocs.ocrprocessing.execution;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class OcrExecutionStageTest {
+
+    @Mock
+    private OcrMetrics ocrMetrics;
+
+    private OcrExecutionStage stage;
+
+    @BeforeEach
+    void setUp() {
+        OcrProperties ocrProperties = new OcrProperties();
+        ocrProperties.getExecution().setCpuThreads(1);
+        ocrProperties.getExecution().setMaxInFlight(1);
+        stage = new OcrExecutionStage(ocrProperties, ocrMetrics);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        stage.shutdown();
+    }
+
+    @Test
+    void rejectsTaskWithoutBlockingWhenAtCapacity() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Optional<CompletableFuture<Void>> first = stage.trySubmit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue(first.isPresent());
+        assertTrue(stage.trySubmit(() -> {
+        }).isEmpty());
+
+        release.countDown();
+        first.get().get(1, TimeUnit.SECONDS);
+        assertTrue(stage.trySubmit(() -> {
+        }).isPresent());
+    }
+
+    @Test
+    void runsNestedCpuBoundWorkInline() throws Exception {
+        // With a single CPU thread, waiting on the pool from inside it would deadlock
+        String result = stage.callCpuBound(() -> stage.callCpuBound(() -> "recognised"));
+
+        assertEquals("recognised", result);
+    }
+}
@@ -0,0 +1,179 @@
+package com.extractor.unraveldocs.ocrprocessing.execution;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OcrLaneSchedulerTest {
+
+    @Mock
+    private OcrExecutionStage executionStage;
+
+    @Mock
+    private OcrMetrics ocrMetrics;
+
+    private final List<CompletableFuture<Void>> dispatched = Collections.synchronizedList(new ArrayList<>());
+    private volatile int stageCapacity = Integer.MAX_VALUE;
+    private OcrProperties ocrProperties;
+    private OcrLaneScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        ocrProperties = new OcrProperties();
+        ocrProperties.getLanes().setStandardTenantMaxInFlight(2);
+        ocrProperties.getLanes().setPriorityWeight(3);
+        ocrProperties.getLanes().setStandardWeight(1);
+
+        // Run each task inline but leave completion to the test; reject while the stage is full
+        lenient().when(executionStage.trySubmit(any(Runnable.class))).thenAnswer(invocation -> {
+            if (dispatched.stream().filter(future -> !future.isDone()).count() >= stageCapacity) {
+                return Optional.empty();
+            }
+            invocation.<Runnable>getArgument(0).run();
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            dispatched.add(future);
+            return Optional.of(future);
+        });
+
+        scheduler = new OcrLaneScheduler(executionStage, ocrProperties, ocrMetrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void singleTenantUsesIdleCapacityUpToStageLimit() {
+        stageCapacity = 4;
+        scheduler.start();
+        for (int i = 0; i < 6; i++) {
+            scheduler.submit(OcrLane.STANDARD, "bulk-user", () -> {
+            });
+        }
+
+        // Past the tenant cap of 2 because nobody else is waiting; the fifth hand-off is rejected
+        verify(executionStage, timeout(1000).times(5)).trySubmit(any(Runnable.class));
+        assertEquals(4, dispatched.size());
+        assertEquals(2, scheduler.getQueued(OcrLane.STANDARD));
+    }
+
+    @Test
+    void capsInFlightRequestsPerTenantWhileOthersWait() {
+        stageCapacity = 4;
+        scheduler.start();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 6; i++) {
+            scheduler.submit(OcrLane.STANDARD, "bulk-user", () -> order.add("bulk-user"));
+        }
+        verify(executionStage, timeout(1000).times(5)).trySubmit(any(Runnable.class));
+
+        scheduler.submit(OcrLane.STANDARD, "other-user", () -> order.add("other-user"));
+        dispatched.getFirst().complete(null);
+
+        // bulk-user still has 3 running, above its cap, so the freed slot goes to other-user
+        verify(executionStage, timeout(1000).times(6)).trySubmit(any(Runnable.class));
+        assertEquals("other-user", order.getLast());
+        assertEquals(2, scheduler.getQueued(OcrLane.STANDARD));
+    }
+
+    @Test
+    void otherTenantsAreNotBlockedByCappedTenant() {
+        scheduler.start();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit(OcrLane.STANDARD, "bulk-user", () -> order.add("bulk-user"));
+        }
+        scheduler.submit(OcrLane.STANDARD, "other-user", () -> order.add("other-user"));
+
+        verify(executionStage, timeout(1000).times(4)).trySubmit(any(Runnable.class));
+        assertTrue(order.indexOf("other-user") < 3);
+    }
+
+    @Test
+    void favoursPriorityLaneByWeight() {
+        List<OcrLane> order = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 4; i++) {
+            scheduler.submit(OcrLane.STANDARD, "standard-" + i, () -> order.add(OcrLane.STANDARD));
+            scheduler.submit(OcrLane.PRIORITY, "priority-" + i, () -> order.add(OcrLane.PRIORITY));
+        }
+
+        scheduler.start();
+
+        verify(executionStage, timeout(1000).times(8)).trySubmit(any(Runnable.class));
+        List<OcrLane> firstFour = order.subList(0, 4);
+        assertEquals(3, Collections.frequency(firstFour, OcrLane.PRIORITY));
+        assertEquals(1, Collections.frequency(firstFour, OcrLane.STANDARD));
+    }
+
+    @Test
+    void keepsTaskQueuedWhileStageIsFull() {
+        stageCapacity = 1;
+        scheduler.start();
+        scheduler.submit(OcrLane.STANDARD, "first-user", () -> {
+        });
+        scheduler.submit(OcrLane.STANDARD, "second-user", () -> {
+        });
+
+        // The second hand-off is rejected and the dispatcher waits for a completion
+        verify(executionStage, timeout(1000).times(2)).trySubmit(any(Runnable.class));
+        assertEquals(1, dispatched.size());
+        assertEquals(1, scheduler.getQueued(OcrLane.STANDARD));
+
+        dispatched.getFirst().complete(null);
+
+        verify(executionStage, timeout(1000).times(3)).trySubmit(any(Runnable.class));
+        assertEquals(2, dispatched.size());
+        assertEquals(0, scheduler.getQueued(OcrLane.STANDARD));
+    }
+
+    @Test
+    void reportsSaturationAndResume() {
+        ocrProperties.getLanes().setMaxQueuedPerLane(2);
+        ocrProperties.getLanes().setResumeQueuedPerLane(0);
+
+        scheduler.submit(OcrLane.STANDARD, "user", () -> {
+        });
+        assertFalse(scheduler.isSaturated(OcrLane.STANDARD));
+        scheduler.submit(OcrLane.STANDARD, "user", () -> {
+        });
+        assertTrue(scheduler.isSaturated(OcrLane.STANDARD));
+        assertFalse(scheduler.canResume(OcrLane.STANDARD));
+        assertTrue(scheduler.canResume(OcrLane.PRIORITY));
+    }
+
+    @Test
+    void holdsBackedOffTaskUntilDueAndCountsItAsQueued() {
+        scheduler.start();
+        long notBefore = System.currentTimeMillis() + 300;
+
+        CompletableFuture<Void> result = scheduler.submit(OcrLane.STANDARD, "user", () -> {
+        }, notBefore);
+
+        assertEquals(1, scheduler.getQueued(OcrLane.STANDARD));
+        verify(executionStage, after(100).never()).trySubmit(any(Runnable.class));
+
+        verify(executionStage, timeout(1000)).trySubmit(any(Runnable.class));
+        assertTrue(System.currentTimeMillis() >= notBefore);
+        assertEquals(0, scheduler.getQueued(OcrLane.STANDARD));
+        dispatched.getFirst().complete(null);
+        assertDoesNotThrow(() -> result.get(1, TimeUnit.SECONDS));
+    }
+}
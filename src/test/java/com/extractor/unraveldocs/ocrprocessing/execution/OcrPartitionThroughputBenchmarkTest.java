@@ -0,0 +1,162 @@
+package com.extractor.unraveldocs.ocrprocessing.execution;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * How OCR throughput for one large collection scales with the partition count
+ * of the documents topic, keyed by collection versus by document.
+ *
+ * <p>
+ * Records are assigned to partitions with the Kafka default partitioner's
+ * murmur2 hash. Each partition is drained by its own consumer thread, which
+ * hands its records to a real {@link OcrLaneScheduler} and
+ * {@link OcrExecutionStage}, one record in flight at a time, so the
+ * collection's documents compete for the stage the way they do in the app.
+ * OCR itself is simulated with a fixed cost per document.
+ * </p>
+ *
+ * <p>
+ * Limitations: no broker is involved, so polling, rebalancing and commit
+ * latency are not measured, and the listener's pause/resume backpressure is
+ * replaced by one in-flight record per partition. The numbers show how the
+ * partition spread bounds parallelism, not absolute production throughput.
+ * </p>
+ *
+ * <p>
+ * The distribution test always runs. The timed benchmark only runs with
+ * {@code -Docr.benchmark=true} and logs one row per partition count, e.g.
+ * {@code mvn test -Dtest=OcrPartitionThroughputBenchmarkTest -Docr.benchmark=true}.
+ * </p>
+ */
+@Slf4j
+class OcrPartitionThroughputBenchmarkTest {
+
+    private static final int COLLECTION_SIZE = 1000;
+    private static final long OCR_MILLIS_PER_DOCUMENT = 5;
+    private static final int[] PARTITION_COUNTS = { 1, 2, 3, 6, 12 };
+    private static final String TENANT = "bulk-uploader";
+
+    @Test
+    void documentKeys_spreadOneCollectionOverAllPartitions() {
+        int partitions = 6;
+        int[] byCollection = recordsPerPartition(collectionKeys(), partitions);
+        int[] byDocument = recordsPerPartition(documentKeys(), partitions);
+
+        assertEquals(COLLECTION_SIZE, IntStream.of(byCollection).max().orElseThrow());
+        assertTrue(IntStream.of(byDocument).allMatch(records -> records > 0));
+        // The busiest partition bounds the collection's completion time; keep it near an even share
+        assertTrue(IntStream.of(byDocument).max().orElseThrow() < COLLECTION_SIZE / partitions * 3 / 2);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "ocr.benchmark", matches = "true")
+    void benchmark_throughputByPartitionCount() throws Exception {
+        List<String> collectionKeys = collectionKeys();
+        List<String> documentKeys = documentKeys();
+
+        log.info("OCR throughput for one collection of {} documents at {} ms each",
+                COLLECTION_SIZE, OCR_MILLIS_PER_DOCUMENT);
+        log.info(String.format("%-11s %-22s %-22s", "partitions", "by collection (doc/s)", "by document (doc/s)"));
+
+        double previousByDocument = 0;
+        for (int partitions : PARTITION_COUNTS) {
+            double byCollection = throughput(collectionKeys, partitions);
+            double byDocument = throughput(documentKeys, partitions);
+            log.info(String.format("%-11d %-22.0f %-22.0f", partitions, byCollection, byDocument));
+
+            assertTrue(byDocument >= previousByDocument * 0.8,
+                    "Throughput should not drop as partitions are added");
+            previousByDocument = byDocument;
+        }
+    }
+
+    /**
+     * Documents per second when each partition is drained by its own consumer
+     * through the lane scheduler and execution stage.
+     */
+    private static double throughput(List<String> keys, int partitions) throws Exception {
+        OcrProperties ocrProperties = new OcrProperties();
+        OcrMetrics ocrMetrics = new OcrMetrics(new SimpleMeterRegistry());
+        OcrExecutionStage executionStage = new OcrExecutionStage(ocrProperties, ocrMetrics);
+        OcrLaneScheduler scheduler = new OcrLaneScheduler(executionStage, ocrProperties, ocrMetrics);
+        scheduler.start();
+
+        int[] records = recordsPerPartition(keys, partitions);
+        ExecutorService consumers = Executors.newFixedThreadPool(partitions);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> drained = IntStream.range(0, partitions)
+                    .<Future<?>>mapToObj(partition -> consumers.submit(() -> {
+                        for (int i = 0; i < records[partition]; i++) {
+                            scheduler.submit(OcrLane.STANDARD, TENANT,
+                                    OcrPartitionThroughputBenchmarkTest::simulateOcr).join();
+                        }
+                    }))
+                    .toList();
+            for (Future<?> partition : drained) {
+                partition.get();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            return keys.size() / (elapsedNanos / 1_000_000_000.0);
+        } finally {
+            consumers.shutdown();
+            consumers.awaitTermination(1, TimeUnit.SECONDS);
+            scheduler.shutdown();
+            executionStage.shutdown();
+        }
+    }
+
+    private static void simulateOcr() {
+        try {
+            Thread.sleep(OCR_MILLIS_PER_DOCUMENT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int[] recordsPerPartition(List<String> keys, int partitions) {
+        int[] records = new int[partitions];
+        for (String key : keys) {
+            records[partitionFor(key, partitions)]++;
+        }
+        return records;
+    }
+
+    /**
+     * Partition the Kafka default partitioner picks for a keyed record.
+     */
+    private static int partitionFor(String key, int partitions) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    private static List<String> collectionKeys() {
+        String collectionId = UUID.randomUUID().toString();
+        return keys(i -> collectionId);
+    }
+
+    private static List<String> documentKeys() {
+        return keys(i -> UUID.randomUUID().toString());
+    }
+
+    private static List<String> keys(IntFunction<String> key) {
+        return IntStream.range(0, COLLECTION_SIZE).mapToObj(key).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.extractor.unraveldocs.ocrprocessing.hedging;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProvider;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HedgedOcrExecutorTest {
+
+    @Mock
+    private OcrMetrics ocrMetrics;
+
+    @Mock
+    private OcrProvider primary;
+
+    @Mock
+    private OcrProvider secondary;
+
+    private HedgedOcrExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        OcrProperties ocrProperties = new OcrProperties();
+        ocrProperties.getHedging().setEnabled(true);
+        ocrProperties.getHedging().setInitialDelayMs(50);
+        ocrProperties.getHedging().setMinDelayMs(10);
+
+        lenient().when(primary.getProviderType()).thenReturn(OcrProviderType.GOOGLE_VISION);
+        lenient().when(secondary.getProviderType()).thenReturn(OcrProviderType.TESSERACT);
+
+        executor = new HedgedOcrExecutor(ocrProperties, ocrMetrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void doesNotHedgeWhenPrimaryIsFast() {
+        HedgedOcrExecutor.HedgedResult result = executor.execute(primary, secondary,
+                provider -> success(provider.getProviderType()));
+
+        assertFalse(result.hedgeLaunched());
+        assertSame(primary, result.provider());
+        verify(ocrMetrics).recordHedge(OcrProviderType.GOOGLE_VISION, "not_hedged");
+    }
+
+    @Test
+    void hedgeWinsAndPrimaryIsCancelledWhenPrimaryIsSlow() throws InterruptedException {
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+
+        HedgedOcrExecutor.HedgedResult result = executor.execute(primary, secondary, provider -> {
+            if (provider == primary) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    primaryInterrupted.countDown();
+                    Thread.currentThread().interrupt();
+                }
+                return OcrResult.failure("interrupted", OcrProviderType.GOOGLE_VISION, 0);
+            }
+            return success(provider.getProviderType());
+        });
+
+        assertTrue(result.hedgeLaunched());
+        assertSame(secondary, result.provider());
+        assertTrue(result.result().isSuccess());
+        assertTrue(primaryInterrupted.await(1, TimeUnit.SECONDS));
+        verify(ocrMetrics).recordHedge(OcrProviderType.GOOGLE_VISION, "hedge_won");
+    }
+
+    @Test
+    void usesLatencyPercentileOnceEnoughSamples() {
+        for (int i = 1; i <= 100; i++) {
+            executor.recordLatency(OcrProviderType.GOOGLE_VISION, i * 10L);
+        }
+
+        assertEquals(950, executor.hedgeDelayMs(OcrProviderType.GOOGLE_VISION));
+        assertEquals(50, executor.hedgeDelayMs(OcrProviderType.TESSERACT));
+    }
+
+    private static OcrResult success(OcrProviderType type) {
+        return OcrResult.builder()
+                .extractedText("text")
+                .providerType(type)
+                .success(true)
+                .build();
+    }
+}
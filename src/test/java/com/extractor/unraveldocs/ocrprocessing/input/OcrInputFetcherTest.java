@@ -0,0 +1,156 @@
+package com.extractor.unraveldocs.ocrprocessing.input;
+
+import com.extractor.unraveldocs.encryption.interfaces.EncryptionService;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OcrInputFetcherTest {
+
+    private static final String BUCKET = "documents";
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private EncryptionService encryptionService;
+
+    @TempDir
+    private Path tempDirectory;
+
+    private OcrProperties ocrProperties;
+    private OcrInputFetcher fetcher;
+    private final AtomicBoolean aborted = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        ocrProperties = new OcrProperties();
+        ocrProperties.getInput().setSpillThresholdBytes(16);
+        ocrProperties.getInput().setTempDirectory(tempDirectory.toString());
+        fetcher = new OcrInputFetcher(s3Client, ocrProperties, encryptionService);
+        ReflectionTestUtils.setField(fetcher, "bucketName", BUCKET);
+    }
+
+    @Test
+    void fetch_declaredSizeOverLimit_abortsDownloadAndRejects() {
+        givenObject(new byte[100], 100L);
+
+        IOException ex = assertThrows(IOException.class, () -> fetcher.fetch(request("scan.pdf"), 50));
+
+        assertTrue(ex.getMessage().contains("100 > 50"), ex.getMessage());
+        assertTrue(aborted.get());
+    }
+
+    @Test
+    void fetch_undeclaredSizeOverLimit_rejectsWhileReadingAndRemovesTempFile() throws IOException {
+        givenObject(new byte[100], null);
+
+        assertThrows(IOException.class, () -> fetcher.fetch(request("scan.pdf"), 50));
+
+        try (Stream<Path> files = Files.list(tempDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void fetch_aboveSpillThreshold_spillsToTempFileDeletedOnClose() throws IOException {
+        byte[] content = new byte[64];
+        content[63] = 7;
+        givenObject(content, (long) content.length);
+
+        Path spilled;
+        try (OcrInput input = fetcher.fetch(request("scan.pdf"), 0)) {
+            spilled = input.file().orElseThrow();
+            assertEquals(tempDirectory, spilled.getParent());
+            assertArrayEquals(content, input.bytes());
+        }
+
+        assertFalse(Files.exists(spilled));
+    }
+
+    @Test
+    void fetch_belowSpillThreshold_buffersInMemory() throws IOException {
+        byte[] content = new byte[8];
+        givenObject(content, (long) content.length);
+
+        try (OcrInput input = fetcher.fetch(request("scan.pdf"), 0)) {
+            assertTrue(input.file().isEmpty());
+            assertEquals(content.length, input.size());
+        }
+    }
+
+    @Test
+    void fetch_storageKey_preferredOverKeyInUrl() throws IOException {
+        givenObject(new byte[8], 8L);
+        OcrRequest request = request("legacy/name.pdf");
+        request.setStorageKey("documents/2024/scan.pdf");
+
+        fetcher.fetch(request, 0).close();
+
+        assertEquals("documents/2024/scan.pdf", requestedKey());
+    }
+
+    @Test
+    void fetch_virtualHostedUrl_resolvesKeyFromUrl() throws IOException {
+        givenObject(new byte[8], 8L);
+
+        fetcher.fetch(request("folder/scan.pdf"), 0).close();
+
+        assertEquals("folder/scan.pdf", requestedKey());
+    }
+
+    @Test
+    void fetch_pathStyleUrl_resolvesKeyFromUrl() throws IOException {
+        givenObject(new byte[8], 8L);
+        OcrRequest request = OcrRequest.builder()
+                .imageUrl("https://s3.us-east-1.amazonaws.com/" + BUCKET + "/folder/scan.pdf")
+                .build();
+
+        fetcher.fetch(request, 0).close();
+
+        assertEquals("folder/scan.pdf", requestedKey());
+    }
+
+    private void givenObject(byte[] content, Long contentLength) {
+        GetObjectResponse response = GetObjectResponse.builder().contentLength(contentLength).build();
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(response,
+                AbortableInputStream.create(new ByteArrayInputStream(content), () -> aborted.set(true))));
+    }
+
+    private String requestedKey() {
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(captor.capture());
+        assertEquals(BUCKET, captor.getValue().bucket());
+        return captor.getValue().key();
+    }
+
+    private static OcrRequest request(String key) {
+        return OcrRequest.builder()
+                .imageUrl("https://" + BUCKET + ".s3.us-east-1.amazonaws.com/" + key)
+                .build();
+    }
+}
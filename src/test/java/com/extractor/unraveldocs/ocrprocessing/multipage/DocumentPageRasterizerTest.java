@@ -0,0 +1,91 @@
+package com.extractor.unraveldocs.ocrprocessing.multipage;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInput;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentPageRasterizerTest {
+
+    private OcrProperties ocrProperties;
+    private DocumentPageRasterizer rasterizer;
+
+    @BeforeEach
+    void setUp() {
+        ocrProperties = new OcrProperties();
+        // Keep rendering cheap; a US Letter page at 36 DPI is 306 x 396
+        ocrProperties.getMultiPage().setDpi(36);
+        rasterizer = new DocumentPageRasterizer(ocrProperties);
+    }
+
+    @Test
+    void renderPages_pdf_rendersEveryPageInOrderAtConfiguredDpi() throws Exception {
+        List<Integer> rendered = new ArrayList<>();
+        List<Integer> announced = new ArrayList<>();
+
+        int count = rasterizer.renderPages(OcrInput.ofBytes(pdf(3)), "application/pdf",
+                new DocumentPageRasterizer.PageHandler() {
+                    @Override
+                    public void begin(int pageCount) {
+                        announced.add(pageCount);
+                    }
+
+                    @Override
+                    public void accept(int pageNumber, BufferedImage image) {
+                        assertEquals(306, image.getWidth());
+                        rendered.add(pageNumber);
+                    }
+                });
+
+        assertEquals(3, count);
+        assertEquals(List.of(3), announced);
+        assertEquals(List.of(1, 2, 3), rendered);
+    }
+
+    @Test
+    void renderPages_pdfOverPageCap_rendersOnlyTheCap() throws Exception {
+        ocrProperties.getMultiPage().setMaxPages(2);
+        List<Integer> rendered = new ArrayList<>();
+
+        int count = rasterizer.renderPages(OcrInput.ofBytes(pdf(5)), "application/pdf",
+                (pageNumber, image) -> rendered.add(pageNumber));
+
+        assertEquals(2, count);
+        assertEquals(List.of(1, 2), rendered);
+    }
+
+    @Test
+    void renderPages_corruptPdf_throwsIOException() {
+        assertThrows(IOException.class, () -> rasterizer.renderPages(
+                OcrInput.ofBytes("not a pdf".getBytes()), "application/pdf", (pageNumber, image) -> {
+                }));
+    }
+
+    @Test
+    void isMultiPage_matchesPdfAndTiffOnly() {
+        assertTrue(DocumentPageRasterizer.isMultiPage("application/pdf"));
+        assertTrue(DocumentPageRasterizer.isMultiPage("IMAGE/TIFF"));
+        assertFalse(DocumentPageRasterizer.isMultiPage("image/png"));
+        assertFalse(DocumentPageRasterizer.isMultiPage(null));
+    }
+
+    private static byte[] pdf(int pages) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int i = 0; i < pages; i++) {
+                document.addPage(new PDPage());
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
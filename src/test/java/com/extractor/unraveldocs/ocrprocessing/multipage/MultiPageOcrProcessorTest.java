@@ -0,0 +1,169 @@
+package com.extractor.unraveldocs.ocrprocessing.multipage;
+
+import com.extractor.unraveldocs.ocrprocessing.circuitbreaker.CircuitBreakingOcrProvider;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInput;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInputFetcher;
+import com.extractor.unraveldocs.ocrprocessing.progress.OcrProgressPublisher;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProvider;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrRequest;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MultiPageOcrProcessorTest {
+
+    private static final String DOCUMENT_ID = "doc-1";
+
+    @Mock
+    private DocumentPageRasterizer rasterizer;
+
+    @Mock
+    private OcrInputFetcher inputFetcher;
+
+    @Mock
+    private OcrProgressPublisher progressPublisher;
+
+    @Mock
+    private OcrProvider provider;
+
+    private MultiPageOcrProcessor processor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        OcrProperties ocrProperties = new OcrProperties();
+        ocrProperties.getMultiPage().setMaxParallelPages(4);
+        processor = new MultiPageOcrProcessor(rasterizer, inputFetcher, progressPublisher, ocrProperties);
+
+        lenient().when(inputFetcher.fetch(any(OcrRequest.class), anyLong())).thenReturn(OcrInput.ofBytes(new byte[1]));
+        lenient().when(provider.getProviderType()).thenReturn(OcrProviderType.TESSERACT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    @Test
+    void process_pagesFinishingOutOfOrder_assemblesTextInPageOrder() throws Exception {
+        givenPages(4);
+        when(provider.extractText(any(OcrRequest.class))).thenAnswer(invocation -> {
+            int page = invocation.<OcrRequest>getArgument(0).getPageNumber();
+            // Later pages finish first
+            Thread.sleep((5 - page) * 40L);
+            return OcrResult.success("page " + page, OcrProviderType.TESSERACT, 1);
+        });
+
+        OcrResult result = processor.process(provider, request());
+
+        assertTrue(result.isSuccess());
+        assertEquals("page 1\n\npage 2\n\npage 3\n\npage 4", result.getExtractedText());
+        assertEquals(4, result.getPageCount());
+        verify(progressPublisher, times(4)).pageCompleted(eq("col-1"), eq(DOCUMENT_ID), anyInt());
+    }
+
+    @Test
+    void process_failingPage_failsDocument() throws Exception {
+        givenPages(3);
+        when(provider.extractText(any(OcrRequest.class))).thenAnswer(invocation -> {
+            int page = invocation.<OcrRequest>getArgument(0).getPageNumber();
+            return page == 2
+                    ? OcrResult.failure("blank scan", OcrProviderType.TESSERACT, 1)
+                    : OcrResult.success("page " + page, OcrProviderType.TESSERACT, 1);
+        });
+
+        OcrResult result = processor.process(provider, request());
+
+        assertFalse(result.isSuccess());
+        assertEquals("OCR failed on page 2: blank scan", result.getErrorMessage());
+        assertEquals(DOCUMENT_ID, result.getDocumentId());
+    }
+
+    @Test
+    void process_pageThrows_rethrowsAsProcessingException() throws Exception {
+        givenPages(2);
+        when(provider.extractText(any(OcrRequest.class))).thenThrow(new IllegalStateException("engine crashed"));
+
+        OcrProcessingException ex = assertThrows(OcrProcessingException.class,
+                () -> processor.process(provider, request()));
+
+        assertTrue(ex.getMessage().startsWith("OCR failed on page 1"), ex.getMessage());
+    }
+
+    @Test
+    void process_morePagesThanQuotaAllows_rejectsBeforeRendering() throws Exception {
+        givenPages(5);
+        OcrRequest request = request();
+        request.setMaxPages(3);
+
+        assertThrows(OcrProcessingException.class, () -> processor.process(provider, request));
+
+        verify(provider, never()).extractText(any());
+    }
+
+    @Test
+    void process_reportsMeanPageLatency() throws Exception {
+        givenPages(2);
+        when(provider.extractText(any(OcrRequest.class))).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return OcrResult.success("text", OcrProviderType.TESSERACT, 1);
+        });
+
+        OcrResult result = processor.process(provider, request());
+
+        long pageLatency = ((Number) result.getMetadata().get(CircuitBreakingOcrProvider.PAGE_LATENCY_METADATA))
+                .longValue();
+        assertTrue(pageLatency >= 50, "page latency = " + pageLatency);
+    }
+
+    @Test
+    void process_unreadableDocument_returnsInputErrorFailure() throws Exception {
+        when(rasterizer.renderPages(any(OcrInput.class), anyString(), any()))
+                .thenThrow(new IOException("not a PDF"));
+
+        OcrResult result = processor.process(provider, request());
+
+        assertFalse(result.isSuccess());
+        assertEquals(true, result.getMetadata().get(CircuitBreakingOcrProvider.INPUT_ERROR_METADATA));
+    }
+
+    /**
+     * Make the rasterizer render the given number of blank pages.
+     */
+    private void givenPages(int pageCount) throws Exception {
+        when(rasterizer.renderPages(any(OcrInput.class), anyString(), any())).thenAnswer(invocation -> {
+            DocumentPageRasterizer.PageHandler handler = invocation.getArgument(2);
+            handler.begin(pageCount);
+            for (int page = 1; page <= pageCount; page++) {
+                handler.accept(page, new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_GRAY));
+            }
+            return pageCount;
+        });
+    }
+
+    private static OcrRequest request() {
+        return OcrRequest.builder()
+                .imageBytes(new byte[1])
+                .mimeType("application/pdf")
+                .documentId(DOCUMENT_ID)
+                .collectionId("col-1")
+                .userId("user-1")
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.extractor.unraveldocs.ocrprocessing.preprocessing;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ImagePreprocessorTest {
+
+    private OcrProperties ocrProperties;
+
+    @BeforeEach
+    void setUp() {
+        ocrProperties = new OcrProperties();
+        // Deskew needs text-like content to estimate an angle; it is not under test here
+        ocrProperties.getPreprocessing().setDeskew(false);
+        ocrProperties.getPreprocessing().setTargetDpi(0);
+    }
+
+    @Test
+    void preprocess_disabled_returnsImageUnchanged() {
+        ocrProperties.getPreprocessing().setEnabled(false);
+        ImagePreprocessor preprocessor = preprocessor();
+        BufferedImage image = page(200, 100);
+
+        assertFalse(preprocessor.isEnabled());
+        assertSame(image, preprocessor.preprocess(image));
+    }
+
+    @Test
+    void preprocess_oversizedColourImage_downscalesAndBinarises() {
+        ocrProperties.getPreprocessing().setMaxPixels(1_000_000L);
+        ImagePreprocessor preprocessor = preprocessor();
+        assumeTrue(preprocessor.isEnabled(), "OpenCV native library not available");
+
+        BufferedImage result = preprocessor.preprocess(page(2000, 1500));
+
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, result.getType());
+        assertTrue((long) result.getWidth() * result.getHeight() <= 1_000_000L);
+        assertEquals(2000.0 / 1500.0, (double) result.getWidth() / result.getHeight(), 0.01);
+        for (int y = 0; y < result.getHeight(); y += 50) {
+            for (int x = 0; x < result.getWidth(); x += 50) {
+                int value = result.getRaster().getSample(x, y, 0);
+                assertTrue(value == 0 || value == 255, "pixel (" + x + "," + y + ") = " + value);
+            }
+        }
+    }
+
+    @Test
+    void preprocess_thresholdDisabled_keepsGrayLevels() {
+        ocrProperties.getPreprocessing().setAdaptiveThreshold(false);
+        ImagePreprocessor preprocessor = preprocessor();
+        assumeTrue(preprocessor.isEnabled(), "OpenCV native library not available");
+
+        BufferedImage result = preprocessor.preprocess(page(200, 100));
+
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, result.getType());
+        assertEquals(200, result.getWidth());
+        int background = result.getRaster().getSample(5, 5, 0);
+        assertTrue(background > 0 && background < 255, "background = " + background);
+    }
+
+    @Test
+    void preprocess_skewedPage_rotatesTextLevel() {
+        ocrProperties.getPreprocessing().setDeskew(true);
+        ocrProperties.getPreprocessing().setAdaptiveThreshold(false);
+        ImagePreprocessor preprocessor = preprocessor();
+        assumeTrue(preprocessor.isEnabled(), "OpenCV native library not available");
+        BufferedImage skewed = skewedPage(800, 400, 4.0);
+        assertEquals(4.0, Math.abs(textAngle(skewed)), 0.5);
+
+        BufferedImage result = preprocessor.preprocess(skewed);
+
+        assertEquals(0.0, textAngle(result), 0.5);
+    }
+
+    @Test
+    void preprocess_skewBelowMinAngle_leavesPageUnrotated() {
+        ocrProperties.getPreprocessing().setAdaptiveThreshold(false);
+        ImagePreprocessor preprocessor = preprocessor();
+        assumeTrue(preprocessor.isEnabled(), "OpenCV native library not available");
+        // 0.3 degrees is under the default deskew-min-angle of 0.5
+        BufferedImage skewed = skewedPage(800, 400, 0.3);
+        BufferedImage withoutDeskew = preprocessor.preprocess(skewed);
+        ocrProperties.getPreprocessing().setDeskew(true);
+
+        BufferedImage result = preprocessor.preprocess(skewed);
+
+        for (int y = 0; y < result.getHeight(); y += 10) {
+            for (int x = 0; x < result.getWidth(); x += 10) {
+                assertEquals(withoutDeskew.getRaster().getSample(x, y, 0), result.getRaster().getSample(x, y, 0),
+                        "pixel (" + x + "," + y + ")");
+            }
+        }
+    }
+
+    private ImagePreprocessor preprocessor() {
+        return new ImagePreprocessor(
+                List.of(new GrayscaleStep(), new ResolutionNormalizationStep(), new DeskewStep(),
+                        new AdaptiveThresholdStep()),
+                ocrProperties,
+                new OcrMetrics(new SimpleMeterRegistry()));
+    }
+
+    /**
+     * A light grey page with a dark bar, standing in for a line of text.
+     */
+    private static BufferedImage page(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(new Color(200, 190, 180));
+            graphics.fillRect(0, 0, width, height);
+            graphics.setColor(new Color(30, 30, 30));
+            graphics.fillRect(width / 10, height / 2, width * 8 / 10, Math.max(2, height / 20));
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * A white page with a single dark line rotated by the given angle about
+     * the page centre.
+     */
+    private static BufferedImage skewedPage(int width, int height, double degrees) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.rotate(Math.toRadians(degrees), width / 2.0, height / 2.0);
+            graphics.setColor(Color.BLACK);
+            graphics.fillRect(width / 10, height / 2 - 3, width * 8 / 10, 6);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Angle in degrees of the principal axis of the dark pixels, i.e. the
+     * slope of the line drawn by {@link #skewedPage}.
+     */
+    private static double textAngle(BufferedImage image) {
+        long count = 0;
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumYY = 0;
+        double sumXY = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int rgb = image.getRGB(x, y);
+                int luminance = ((rgb >> 16 & 0xff) + (rgb >> 8 & 0xff) + (rgb & 0xff)) / 3;
+                if (luminance < 128) {
+                    count++;
+                    sumX += x;
+                    sumY += y;
+                    sumXX += (double) x * x;
+                    sumYY += (double) y * y;
+                    sumXY += (double) x * y;
+                }
+            }
+        }
+        double varX = sumXX / count - Math.pow(sumX / count, 2);
+        double varY = sumYY / count - Math.pow(sumY / count, 2);
+        double covXY = sumXY / count - (sumX / count) * (sumY / count);
+        return Math.toDegrees(0.5 * Math.atan2(2 * covXY, varX - varY));
+    }
+}
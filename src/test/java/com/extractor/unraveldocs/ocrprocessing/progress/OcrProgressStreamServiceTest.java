@@ -0,0 +1,206 @@
+package com.extractor.unraveldocs.ocrprocessing.progress;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
+import com.extractor.unraveldocs.user.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OcrProgressStreamServiceTest {
+
+    private static final String USER_ID = "user-1";
+
+    @Mock
+    private DocumentCollectionRepository documentCollectionRepository;
+
+    @Mock
+    private OcrDataRepository ocrDataRepository;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OcrProperties ocrProperties;
+    private OcrProgressStreamService service;
+    private final Queue<RecordingEmitter> emitters = new ArrayDeque<>();
+
+    @BeforeEach
+    void setUp() {
+        ocrProperties = new OcrProperties();
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(ocrDataRepository.findByDocumentIdIn(anyList())).thenReturn(List.of());
+        service = new OcrProgressStreamService(ocrProperties, documentCollectionRepository, ocrDataRepository,
+                new ObjectMapper(), listenerContainer, transactionTemplate) {
+            @Override
+            SseEmitter newEmitter() {
+                return emitters.remove();
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void openStream_liveEventDuringSnapshot_isSentAfterSnapshot() throws Exception {
+        givenCollection("col-1", "doc-1", "doc-2");
+        RecordingEmitter emitter = new RecordingEmitter(3);
+        // A transition published while the first snapshot event is being sent
+        emitter.onFirstSend = () -> service.onMessage(message("col-1", "{\"live\":true}"), null);
+        emitters.add(emitter);
+
+        service.openStream("col-1", USER_ID);
+
+        assertTrue(emitter.awaitSends(), "sent = " + emitter.sent);
+        assertTrue(emitter.sent.get(0).contains("doc-1"), emitter.sent.get(0));
+        assertTrue(emitter.sent.get(1).contains("doc-2"), emitter.sent.get(1));
+        assertTrue(emitter.sent.get(2).contains("\"live\":true"), emitter.sent.get(2));
+    }
+
+    @Test
+    void openStream_snapshotIsSentAfterTransactionEnds() {
+        givenCollection("col-1", "doc-1");
+        RecordingEmitter emitter = new RecordingEmitter(1);
+        List<String> sentDuringTransaction = new ArrayList<>();
+        doAnswer(inv -> {
+            Object snapshot = inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            sentDuringTransaction.addAll(emitter.sent);
+            return snapshot;
+        }).when(transactionTemplate).execute(any());
+        emitters.add(emitter);
+
+        service.openStream("col-1", USER_ID);
+
+        assertTrue(sentDuringTransaction.isEmpty());
+        assertEquals(1, emitter.sent.size());
+    }
+
+    @Test
+    void onMessage_streamFallsBehind_closesIt() {
+        ocrProperties.getProgress().setMaxQueuedEvents(2);
+        givenCollection("col-1", "doc-1");
+        RecordingEmitter emitter = new RecordingEmitter(1);
+        // Live events pile up while the snapshot is still going out
+        emitter.onFirstSend = () -> {
+            for (int i = 0; i < 3; i++) {
+                service.onMessage(message("col-1", "{\"event\":" + i + "}"), null);
+            }
+        };
+        emitters.add(emitter);
+
+        service.openStream("col-1", USER_ID);
+
+        assertTrue(emitter.completed);
+        service.onMessage(message("col-1", "{\"after\":true}"), null);
+        assertTrue(emitter.sent.stream().noneMatch(event -> event.contains("\"after\":true")));
+    }
+
+    @Test
+    void onMessage_fansOutOnlyToStreamsOfThatCollection() throws Exception {
+        givenCollection("col-1");
+        givenCollection("col-2");
+        RecordingEmitter first = new RecordingEmitter(1);
+        RecordingEmitter second = new RecordingEmitter(1);
+        emitters.add(first);
+        emitters.add(second);
+        service.openStream("col-1", USER_ID);
+        service.openStream("col-2", USER_ID);
+
+        service.onMessage(message("col-1", "{\"document\":\"doc-1\"}"), null);
+
+        assertTrue(first.awaitSends());
+        assertEquals(1, first.sent.size());
+        assertTrue(second.sent.isEmpty());
+    }
+
+    private void givenCollection(String collectionId, String... documentIds) {
+        User user = new User();
+        user.setId(USER_ID);
+        DocumentCollection collection = DocumentCollection.builder()
+                .id(collectionId)
+                .user(user)
+                .collectionStatus(DocumentStatus.PROCESSING)
+                .build();
+        for (String documentId : documentIds) {
+            collection.getFiles().add(FileEntry.builder().documentId(documentId).build());
+        }
+        when(documentCollectionRepository.findById(collectionId)).thenReturn(Optional.of(collection));
+    }
+
+    private static DefaultMessage message(String collectionId, String payload) {
+        return new DefaultMessage(
+                (OcrProgressPublisher.CHANNEL_PREFIX + collectionId).getBytes(StandardCharsets.UTF_8),
+                payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Records what would be written to the client instead of writing it.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch sends;
+        private Runnable onFirstSend;
+        private volatile boolean completed;
+
+        private RecordingEmitter(int expectedSends) {
+            this.sends = new CountDownLatch(expectedSends);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            sent.add(event.toString());
+            sends.countDown();
+            if (onFirstSend != null) {
+                Runnable hook = onFirstSend;
+                onFirstSend = null;
+                hook.run();
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        private boolean awaitSends() throws InterruptedException {
+            return sends.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
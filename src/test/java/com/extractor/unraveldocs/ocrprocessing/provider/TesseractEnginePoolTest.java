@@ -0,0 +1,126 @@
+package com.extractor.unraveldocs.ocrprocessing.provider;
+
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.exception.OcrProcessingException;
+import com.extractor.unraveldocs.ocrprocessing.metrics.OcrMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TesseractEnginePoolTest {
+
+    private static final String LANGUAGE = "eng";
+
+    private SimpleMeterRegistry meterRegistry;
+    private OcrProperties ocrProperties;
+    private TesseractEnginePool pool;
+    private final List<TesseractEngine> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ocrProperties = new OcrProperties();
+        ocrProperties.getTesseract().setDataPath("/usr/share/tessdata");
+        ocrProperties.getTesseract().setPoolSize(1);
+        ocrProperties.getTesseract().setPoolCheckoutTimeoutMs(50);
+        pool = new TesseractEnginePool(ocrProperties, new OcrMetrics(meterRegistry)) {
+            @Override
+            TesseractEngine createEngine(String language) {
+                TesseractEngine engine = engine(language);
+                created.add(engine);
+                return engine;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void acquire_poolExhausted_timesOut() {
+        pool.acquire(LANGUAGE);
+
+        assertThrows(OcrProcessingException.class, () -> pool.acquire(LANGUAGE));
+
+        assertEquals(1, meterRegistry.counter("ocr.tesseract.pool.timeouts", "language", LANGUAGE).count());
+    }
+
+    @Test
+    void release_reusesEngineAndRestoresPermitOnlyOnce() {
+        TesseractEngine engine = pool.acquire(LANGUAGE);
+
+        pool.release(engine);
+        pool.release(engine);
+
+        assertSame(engine, pool.acquire(LANGUAGE));
+        // A second permit would have been left behind by the duplicate release
+        assertThrows(OcrProcessingException.class, () -> pool.acquire(LANGUAGE));
+        assertEquals(1, created.size());
+    }
+
+    @Test
+    void invalidate_closesEngineAndReplacesItOnNextCheckout() {
+        TesseractEngine engine = pool.acquire(LANGUAGE);
+
+        pool.invalidate(engine);
+        pool.release(engine);
+
+        assertFalse(engine.isOpen());
+        TesseractEngine replacement = pool.acquire(LANGUAGE);
+        assertNotSame(engine, replacement);
+        assertTrue(replacement.isOpen());
+        assertThrows(OcrProcessingException.class, () -> pool.acquire(LANGUAGE));
+    }
+
+    @Test
+    void prewarm_createsConfiguredNumberOfEnginesAndKeepsThemIdle() {
+        ocrProperties.getTesseract().setPoolSize(4);
+        ocrProperties.getTesseract().setPoolPrewarmSize(2);
+
+        pool.prewarm();
+
+        assertEquals(2, created.size());
+        assertEquals(2, meterRegistry.get("ocr.tesseract.pool.idle").tag("language", LANGUAGE).gauge().value());
+        assertEquals(0, meterRegistry.get("ocr.tesseract.pool.in_use").tag("language", LANGUAGE).gauge().value());
+
+        pool.acquire(LANGUAGE);
+        pool.acquire(LANGUAGE);
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    void prewarm_cappedAtPoolSize() {
+        ocrProperties.getTesseract().setPoolSize(2);
+        ocrProperties.getTesseract().setPoolPrewarmSize(5);
+
+        pool.prewarm();
+
+        assertEquals(2, created.size());
+    }
+
+    /**
+     * A stand-in engine that tracks whether it has been closed without
+     * loading the native library.
+     */
+    private static TesseractEngine engine(String language) {
+        TesseractEngine engine = mock(TesseractEngine.class);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(engine.getLanguage()).thenReturn(language);
+        when(engine.isOpen()).thenAnswer(invocation -> !closed.get());
+        doAnswer(invocation -> {
+            closed.set(true);
+            return null;
+        }).when(engine).close();
+        return engine;
+    }
+}
@@ -0,0 +1,91 @@
+package com.extractor.unraveldocs.ocrprocessing.service;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.extractor.unraveldocs.ocrprocessing.events.OcrEventPublisher;
+import com.extractor.unraveldocs.ocrprocessing.events.OcrRequestedEvent;
+import com.extractor.unraveldocs.ocrprocessing.execution.OcrLane;
+import com.extractor.unraveldocs.ocrprocessing.execution.OcrLaneScheduler;
+import com.extractor.unraveldocs.ocrprocessing.interfaces.ProcessOcrService;
+import com.extractor.unraveldocs.ocrprocessing.progress.OcrProgressPublisher;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService.OcrOutcome;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OcrJobDispatcherTest {
+
+    private static final UserEntitlements ENTITLEMENTS = UserEntitlements.builder().userId("user-1").build();
+
+    @Mock
+    private OcrEventPublisher ocrEventPublisher;
+
+    @Mock
+    private OcrLaneScheduler laneScheduler;
+
+    @Mock
+    private ProcessOcrService processOcrService;
+
+    @Mock
+    private OcrProcessingStateService stateService;
+
+    @Mock
+    private OcrProgressPublisher progressPublisher;
+
+    @Mock
+    private SanitizeLogging s;
+
+    private OcrJobDispatcher dispatcher(Optional<OcrEventPublisher> publisher) {
+        return new OcrJobDispatcher(publisher, laneScheduler, processOcrService, stateService, progressPublisher, s);
+    }
+
+    @Test
+    void dispatch_published_leavesDocumentPending() {
+        when(ocrEventPublisher.publishOcrRequest(any(OcrRequestedEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        dispatcher(Optional.of(ocrEventPublisher)).dispatch("col-1", "doc-1", ENTITLEMENTS);
+
+        verifyNoInteractions(stateService, progressPublisher);
+    }
+
+    @Test
+    void dispatch_publishFails_marksDocumentFailed() {
+        when(ocrEventPublisher.publishOcrRequest(any(OcrRequestedEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+        when(stateService.failPending(eq("col-1"), eq("doc-1"), eq("user-1"), anyString()))
+                .thenReturn(Optional.of(new OcrOutcome(OcrStatus.FAILED, DocumentStatus.FAILED_OCR, true)));
+
+        dispatcher(Optional.of(ocrEventPublisher)).dispatch("col-1", "doc-1", ENTITLEMENTS);
+
+        verify(stateService).failPending("col-1", "doc-1", "user-1", "Failed to queue OCR job: broker unavailable");
+        verify(progressPublisher).documentStatus("col-1", "doc-1", OcrStatus.FAILED, DocumentStatus.FAILED_OCR,
+                "Failed to queue OCR job: broker unavailable");
+        verify(progressPublisher).collectionFinished("col-1", DocumentStatus.FAILED_OCR);
+    }
+
+    @Test
+    void dispatch_localQueueRejects_marksDocumentFailed() {
+        when(laneScheduler.submit(eq(OcrLane.STANDARD), eq("user-1"), any(Runnable.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("scheduler stopped")));
+        when(stateService.failPending(eq("col-1"), eq("doc-1"), eq("user-1"), anyString()))
+                .thenReturn(Optional.empty());
+
+        dispatcher(Optional.empty()).dispatch("col-1", "doc-1", ENTITLEMENTS);
+
+        verify(stateService).failPending("col-1", "doc-1", "user-1", "Failed to queue OCR job: scheduler stopped");
+        verifyNoInteractions(progressPublisher);
+    }
+}
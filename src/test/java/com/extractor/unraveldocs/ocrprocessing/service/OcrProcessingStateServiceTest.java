@@ -0,0 +1,185 @@
+package com.extractor.unraveldocs.ocrprocessing.service;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import com.extractor.unraveldocs.documents.model.DocumentCollection;
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.elasticsearch.service.ElasticsearchIndexingService;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
+import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService.OcrOutcome;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService.OcrWorkItem;
+import com.extractor.unraveldocs.storage.service.StorageAllocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OcrProcessingStateServiceTest {
+
+    private static final String COLLECTION_ID = "col-1";
+    private static final String DOCUMENT_ID = "doc-1";
+    private static final OcrWorkItem ITEM = new OcrWorkItem(
+            COLLECTION_ID, DOCUMENT_ID, "user-1", "free", "https://example.com/doc.png", null, "image/png", null);
+
+    @Mock
+    private DocumentCollectionRepository documentCollectionRepository;
+
+    @Mock
+    private FileEntryRepository fileEntryRepository;
+
+    @Mock
+    private OcrDataRepository ocrDataRepository;
+
+    @Mock
+    private SanitizeLogging sanitizeLogging;
+
+    @Mock
+    private ElasticsearchIndexingService elasticsearchIndexingService;
+
+    @Mock
+    private StorageAllocationService storageAllocationService;
+
+    private OcrProcessingStateService stateService;
+
+    @BeforeEach
+    void setUp() {
+        stateService = new OcrProcessingStateService(documentCollectionRepository, fileEntryRepository,
+                ocrDataRepository, sanitizeLogging, Optional.of(elasticsearchIndexingService),
+                storageAllocationService);
+    }
+
+    @Test
+    void recordTransition_newDocumentCompleted_countsCompleted() {
+        stateService.recordTransition(COLLECTION_ID, null, OcrStatus.COMPLETED);
+
+        verifyTransition(1, 0);
+    }
+
+    @Test
+    void recordTransition_completedToFailed_movesCountFromCompletedToFailed() {
+        stateService.recordTransition(COLLECTION_ID, OcrStatus.COMPLETED, OcrStatus.FAILED);
+
+        verifyTransition(-1, 1);
+    }
+
+    @Test
+    void recordTransition_failedToProcessing_uncountsFailure() {
+        stateService.recordTransition(COLLECTION_ID, OcrStatus.FAILED, OcrStatus.PROCESSING);
+
+        verifyTransition(0, -1);
+    }
+
+    @Test
+    void recordTransition_failedToCompleted_movesCountFromFailedToCompleted() {
+        stateService.recordTransition(COLLECTION_ID, OcrStatus.FAILED, OcrStatus.COMPLETED);
+
+        verifyTransition(1, -1);
+    }
+
+    @Test
+    void recordTransition_unfinishedToUnfinished_leavesCountersAlone() {
+        stateService.recordTransition(COLLECTION_ID, OcrStatus.PENDING, OcrStatus.PROCESSING);
+        stateService.recordTransition(COLLECTION_ID, null, OcrStatus.PENDING);
+
+        verify(documentCollectionRepository, never()).applyOcrTransition(
+                anyString(), anyInt(), anyInt(), any(), any(), any(), any());
+    }
+
+    @Test
+    void complete_lastDocumentOfCollection_reportsCollectionFinished() {
+        givenOcrData(OcrStatus.PROCESSING);
+        givenCollectionAfterUpdate(3, 3, 0, DocumentStatus.PROCESSED);
+
+        OcrOutcome outcome = stateService.complete(ITEM, success(), null);
+
+        assertEquals(OcrStatus.COMPLETED, outcome.status());
+        assertEquals(DocumentStatus.PROCESSED, outcome.collectionStatus());
+        assertTrue(outcome.collectionFinished());
+    }
+
+    @Test
+    void complete_documentsOutstanding_doesNotReportCollectionFinished() {
+        givenOcrData(OcrStatus.PROCESSING);
+        givenCollectionAfterUpdate(3, 2, 0, DocumentStatus.PROCESSING);
+
+        OcrOutcome outcome = stateService.complete(ITEM, success(), null);
+
+        assertFalse(outcome.collectionFinished());
+    }
+
+    @Test
+    void complete_lastDocumentFails_reportsCollectionFinished() {
+        givenOcrData(OcrStatus.PROCESSING);
+        givenCollectionAfterUpdate(3, 2, 1, DocumentStatus.FAILED_OCR);
+
+        OcrOutcome outcome = stateService.complete(ITEM, null, "provider down");
+
+        assertEquals(OcrStatus.FAILED, outcome.status());
+        assertTrue(outcome.collectionFinished());
+    }
+
+    @Test
+    void complete_failedDocumentRetriedSuccessfully_doesNotReportCollectionFinishedAgain() {
+        // The collection already finished when this document first failed
+        givenOcrData(OcrStatus.FAILED);
+        givenCollectionAfterUpdate(3, 3, 0, DocumentStatus.PROCESSED);
+
+        OcrOutcome outcome = stateService.complete(ITEM, success(), null);
+
+        assertEquals(OcrStatus.COMPLETED, outcome.status());
+        assertFalse(outcome.collectionFinished());
+        verifyTransition(1, -1);
+    }
+
+    private void givenOcrData(OcrStatus status) {
+        OcrData ocrData = new OcrData();
+        ocrData.setDocumentId(DOCUMENT_ID);
+        ocrData.setStatus(status);
+        when(ocrDataRepository.findByDocumentIdForUpdate(DOCUMENT_ID)).thenReturn(Optional.of(ocrData));
+    }
+
+    private void givenCollectionAfterUpdate(int total, int completed, int failed, DocumentStatus status) {
+        DocumentCollection collection = DocumentCollection.builder()
+                .id(COLLECTION_ID)
+                .collectionStatus(status)
+                .ocrTotalCount(total)
+                .ocrCompletedCount(completed)
+                .ocrFailedCount(failed)
+                .build();
+        when(documentCollectionRepository.findById(COLLECTION_ID)).thenReturn(Optional.of(collection));
+        lenient().when(fileEntryRepository.findByCollectionIdAndDocumentId(COLLECTION_ID, DOCUMENT_ID))
+                .thenReturn(Optional.of(FileEntry.builder().documentId(DOCUMENT_ID).build()));
+    }
+
+    private static OcrResult success() {
+        return OcrResult.builder()
+                .success(true)
+                .extractedText("text")
+                .providerType(OcrProviderType.TESSERACT)
+                .build();
+    }
+
+    private void verifyTransition(int completedDelta, int failedDelta) {
+        verify(documentCollectionRepository).applyOcrTransition(eq(COLLECTION_ID), eq(completedDelta),
+                eq(failedDelta), eq(DocumentStatus.PROCESSED), eq(DocumentStatus.FAILED_OCR),
+                eq(DocumentStatus.PROCESSING), any(OffsetDateTime.class));
+    }
+}
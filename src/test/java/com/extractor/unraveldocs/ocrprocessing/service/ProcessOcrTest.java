@@ -0,0 +1,97 @@
+package com.extractor.unraveldocs.ocrprocessing.service;
+
+import com.extractor.unraveldocs.documents.datamodel.DocumentStatus;
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.ocrprocessing.cache.OcrResultCache;
+import com.extractor.unraveldocs.ocrprocessing.config.OcrProperties;
+import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
+import com.extractor.unraveldocs.ocrprocessing.input.OcrInputFetcher;
+import com.extractor.unraveldocs.ocrprocessing.progress.OcrProgressPublisher;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrProviderType;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrRequest;
+import com.extractor.unraveldocs.ocrprocessing.provider.OcrResult;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService.OcrOutcome;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService.OcrWorkItem;
+import com.extractor.unraveldocs.pushnotification.interfaces.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessOcrTest {
+
+    private static final String COLLECTION_ID = "col-1";
+    private static final String DOCUMENT_ID = "doc-1";
+    private static final OcrWorkItem ITEM = new OcrWorkItem(
+            COLLECTION_ID, DOCUMENT_ID, "user-1", "free", "https://example.com/doc.png", null, "image/png", null);
+
+    @Mock
+    private OcrProcessingStateService stateService;
+
+    @Mock
+    private SanitizeLogging sanitizeLogging;
+
+    @Mock
+    private OcrProcessingService ocrProcessingService;
+
+    @Mock
+    private OcrResultCache ocrResultCache;
+
+    @Mock
+    private OcrInputFetcher inputFetcher;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private OcrProgressPublisher progressPublisher;
+
+    private ProcessOcr processOcr;
+    private OcrResult result;
+
+    @BeforeEach
+    void setUp() {
+        processOcr = new ProcessOcr(stateService, sanitizeLogging, ocrProcessingService, ocrResultCache,
+                inputFetcher, new OcrProperties(), notificationService, progressPublisher);
+        result = OcrResult.builder()
+                .success(true)
+                .extractedText("text")
+                .providerType(OcrProviderType.TESSERACT)
+                .build();
+
+        when(stateService.begin(COLLECTION_ID, DOCUMENT_ID)).thenReturn(Optional.of(ITEM));
+        when(ocrProcessingService.processOcr(any(OcrRequest.class), eq("user-1"), eq("free"))).thenReturn(result);
+    }
+
+    @Test
+    void processOcrRequest_lastDocument_publishesCollectionFinished() {
+        when(stateService.complete(ITEM, result, null))
+                .thenReturn(new OcrOutcome(OcrStatus.COMPLETED, DocumentStatus.PROCESSED, true));
+
+        processOcr.processOcrRequest(COLLECTION_ID, DOCUMENT_ID);
+
+        verify(progressPublisher).documentStatus(COLLECTION_ID, DOCUMENT_ID, OcrStatus.COMPLETED,
+                DocumentStatus.PROCESSED, null);
+        verify(progressPublisher).collectionFinished(COLLECTION_ID, DocumentStatus.PROCESSED);
+    }
+
+    @Test
+    void processOcrRequest_documentsOutstanding_doesNotPublishCollectionFinished() {
+        when(stateService.complete(ITEM, result, null))
+                .thenReturn(new OcrOutcome(OcrStatus.COMPLETED, DocumentStatus.PROCESSING, false));
+
+        processOcr.processOcrRequest(COLLECTION_ID, DOCUMENT_ID);
+
+        verify(progressPublisher).documentStatus(COLLECTION_ID, DOCUMENT_ID, OcrStatus.COMPLETED,
+                DocumentStatus.PROCESSING, null);
+        verify(progressPublisher, never()).collectionFinished(any(), any());
+    }
+}
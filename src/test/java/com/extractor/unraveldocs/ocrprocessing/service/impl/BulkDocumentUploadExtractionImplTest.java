@@ -7,6 +7,7 @@ import com.extractor.unraveldocs.documents.datamodel.DocumentUploadState;
 import com.extractor.unraveldocs.documents.model.DocumentCollection;
 import com.extractor.unraveldocs.documents.model.FileEntry;
 import com.extractor.unraveldocs.documents.repository.DocumentCollectionRepository;
+import com.extractor.unraveldocs.documents.utils.ParallelUploadExecutor;
 import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
 import com.extractor.unraveldocs.exceptions.custom.BadRequestException;
 import com.extractor.unraveldocs.ocrprocessing.events.OcrEventMapper;
@@ -31,6 +32,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -60,6 +63,8 @@ class BulkDocumentUploadExtractionImplTest {
         private FileStorageService fileStorageService;
         @Mock
         private StorageAllocationService storageAllocationService;
+        @Mock
+        private TransactionTemplate transactionTemplate;
 
         @InjectMocks
         private BulkDocumentUploadExtractionImpl bulkDocumentUploadExtractionService;
@@ -87,7 +92,12 @@ class BulkDocumentUploadExtractionImplTest {
                                 ocrEventMapper,
                                 s,
                                 fileStorageService,
-                                storageAllocationService);
+                                storageAllocationService,
+                                new ParallelUploadExecutor(4, 8),
+                                transactionTemplate);
+                lenient().when(transactionTemplate.execute(any()))
+                                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0)
+                                                .doInTransaction(null));
 
                 byte[] smallContent = "c".getBytes();
                 validFile1 = new MockMultipartFile("files", "test1.png", "image/png", smallContent);
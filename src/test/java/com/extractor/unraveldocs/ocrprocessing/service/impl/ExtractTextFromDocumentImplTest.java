@@ -8,23 +8,20 @@ import com.extractor.unraveldocs.ocrprocessing.datamodel.OcrStatus;
 import com.extractor.unraveldocs.ocrprocessing.impl.ExtractTextFromDocumentImpl;
 import com.extractor.unraveldocs.ocrprocessing.model.OcrData;
 import com.extractor.unraveldocs.ocrprocessing.repository.OcrDataRepository;
-import com.extractor.unraveldocs.ocrprocessing.utils.ExtractImageURL;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrJobDispatcher;
+import com.extractor.unraveldocs.ocrprocessing.service.OcrProcessingStateService;
 import com.extractor.unraveldocs.ocrprocessing.utils.FindAndValidateFileEntry;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
 import com.extractor.unraveldocs.storage.service.StorageAllocationService;
-import net.sourceforge.tess4j.TesseractException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -48,6 +45,12 @@ class ExtractTextFromDocumentImplTest {
     @Mock
     private SanitizeLogging sanitizeLogging;
 
+    @Mock
+    private OcrJobDispatcher ocrJobDispatcher;
+
+    @Mock
+    private OcrProcessingStateService ocrProcessingStateService;
+
     @Mock
     private StorageAllocationService storageAllocationService;
 
@@ -58,76 +61,40 @@ class ExtractTextFromDocumentImplTest {
     private String documentId;
     private String userId;
     private FileEntry fileEntry;
+    private UserEntitlements entitlements;
 
     @BeforeEach
     void setUp() {
         collectionId = UUID.randomUUID().toString();
         documentId = UUID.randomUUID().toString();
         userId = UUID.randomUUID().toString();
+        entitlements = UserEntitlements.builder().userId(userId).build();
 
         fileEntry = FileEntry.builder()
                 .documentId(documentId)
                 .fileUrl("https://example.com/image.png")
                 .build();
-
-        // Set the value for the @Value annotated field
-        ReflectionTestUtils.setField(extractTextFromDocumentService, "tesseractDataPath", "/path/to/tessdata");
     }
 
     @Test
-    void extractTextFromDocument_Success_NewOcrData() throws TesseractException, IOException {
+    void extractTextFromDocument_Success_QueuesNewJob() {
         // Arrange
         when(findAndValidateFileEntry.findAndValidateFileEntry(collectionId, documentId, userId, documentCollectionRepository))
                 .thenReturn(fileEntry);
-        when(ocrDataRepository.findByDocumentId(documentId)).thenReturn(Optional.empty());
-
-        final List<OcrData> capturedData = new ArrayList<>();
-        when(ocrDataRepository.save(any(OcrData.class))).thenAnswer(invocation -> {
-            OcrData ocrData = invocation.getArgument(0);
-
-            // Create a copy to capture the state at this moment
-            OcrData copy = new OcrData(
-                    ocrData.getId(),
-                    ocrData.getDocumentId(),
-                    ocrData.getStatus(),
-                    ocrData.getExtractedText(),
-                    ocrData.getErrorMessage(),
-                    ocrData.getCreatedAt(),
-                    ocrData.getUpdatedAt()
-            );
-            capturedData.add(copy);
-
-            if (ocrData.getStatus() == OcrStatus.COMPLETED) {
-                ocrData.setExtractedText("extracted text");
-            }
-            return ocrData;
-        });
-
-        try (MockedStatic<ExtractImageURL> mockedStatic = mockStatic(ExtractImageURL.class)) {
-            mockedStatic.when(() -> ExtractImageURL.extractImageURL(any(), any(), anyString()))
-                    .thenAnswer(invocation -> {
-                        OcrData ocrData = invocation.getArgument(1);
-                        ocrData.setStatus(OcrStatus.COMPLETED);
-                        ocrData.setExtractedText("extracted text");
-                        return null;
-                    });
-
-            // Act
-            OcrData result = extractTextFromDocumentService.extractTextFromDocument(collectionId, documentId, userId);
+        when(ocrDataRepository.findByDocumentIdForUpdate(documentId)).thenReturn(Optional.empty());
+        when(ocrDataRepository.save(any(OcrData.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(storageAllocationService.resolveEntitlements(userId)).thenReturn(entitlements);
 
-            // Assert
-            assertNotNull(result);
-            assertEquals(OcrStatus.COMPLETED, result.getStatus());
-            assertEquals("extracted text", result.getExtractedText());
-            assertEquals(documentId, result.getDocumentId());
+        // Act
+        OcrData result = extractTextFromDocumentService.extractTextFromDocument(collectionId, documentId, userId);
 
-            verify(ocrDataRepository, times(2)).save(any(OcrData.class));
-            assertEquals(2, capturedData.size());
-            assertEquals(OcrStatus.PROCESSING, capturedData.get(0).getStatus());
-            assertEquals(OcrStatus.COMPLETED, capturedData.get(1).getStatus());
+        // Assert
+        assertNotNull(result);
+        assertEquals(OcrStatus.PENDING, result.getStatus());
+        assertEquals(documentId, result.getDocumentId());
 
-            mockedStatic.verify(() -> ExtractImageURL.extractImageURL(eq(fileEntry), any(OcrData.class), anyString()));
-        }
+        verify(ocrDataRepository, times(1)).save(any(OcrData.class));
+        verify(ocrJobDispatcher).dispatch(collectionId, documentId, entitlements);
     }
 
     @Test
@@ -140,7 +107,7 @@ class ExtractTextFromDocumentImplTest {
 
         when(findAndValidateFileEntry.findAndValidateFileEntry(collectionId, documentId, userId, documentCollectionRepository))
                 .thenReturn(fileEntry);
-        when(ocrDataRepository.findByDocumentId(documentId)).thenReturn(Optional.of(completedOcrData));
+        when(ocrDataRepository.findByDocumentIdForUpdate(documentId)).thenReturn(Optional.of(completedOcrData));
         when(sanitizeLogging.sanitizeLogging(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
@@ -154,28 +121,75 @@ class ExtractTextFromDocumentImplTest {
     }
 
     @Test
-    void extractTextFromDocument_Failure_TesseractException() throws TesseractException, IOException {
+    void extractTextFromDocument_Success_OcrDataInProgressIsNotQueuedAgain() {
         // Arrange
+        OcrData processingOcrData = new OcrData();
+        processingOcrData.setDocumentId(documentId);
+        processingOcrData.setStatus(OcrStatus.PROCESSING);
+
         when(findAndValidateFileEntry.findAndValidateFileEntry(collectionId, documentId, userId, documentCollectionRepository))
                 .thenReturn(fileEntry);
-        when(ocrDataRepository.findByDocumentId(documentId)).thenReturn(Optional.empty());
+        when(ocrDataRepository.findByDocumentIdForUpdate(documentId)).thenReturn(Optional.of(processingOcrData));
+        when(sanitizeLogging.sanitizeLogging(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        OcrData result = extractTextFromDocumentService.extractTextFromDocument(collectionId, documentId, userId);
+
+        // Assert
+        assertEquals(OcrStatus.PROCESSING, result.getStatus());
+        verify(ocrDataRepository, never()).save(any());
+        verifyNoInteractions(ocrJobDispatcher);
+    }
+
+    @Test
+    void extractTextFromDocument_FailedOcrDataIsQueuedAgain() {
+        // Arrange
+        OcrData failedOcrData = new OcrData();
+        failedOcrData.setDocumentId(documentId);
+        failedOcrData.setStatus(OcrStatus.FAILED);
+        failedOcrData.setErrorMessage("OCR failed");
+
+        when(findAndValidateFileEntry.findAndValidateFileEntry(collectionId, documentId, userId, documentCollectionRepository))
+                .thenReturn(fileEntry);
+        when(ocrDataRepository.findByDocumentIdForUpdate(documentId)).thenReturn(Optional.of(failedOcrData));
         when(ocrDataRepository.save(any(OcrData.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(storageAllocationService.resolveEntitlements(userId)).thenReturn(entitlements);
+
+        // Act
+        extractTextFromDocumentService.extractTextFromDocument(collectionId, documentId, userId);
 
-        try (MockedStatic<ExtractImageURL> mockedStatic = mockStatic(ExtractImageURL.class)) {
-            TesseractException tesseractException = new TesseractException("OCR failed");
-            mockedStatic.when(() -> ExtractImageURL.extractImageURL(any(), any(), anyString()))
-                    .thenThrow(tesseractException);
+        // Assert
+        ArgumentCaptor<OcrData> ocrDataCaptor = ArgumentCaptor.forClass(OcrData.class);
+        verify(ocrDataRepository).save(ocrDataCaptor.capture());
+
+        OcrData savedOcrData = ocrDataCaptor.getValue();
+        assertEquals(OcrStatus.PENDING, savedOcrData.getStatus());
+        assertNull(savedOcrData.getErrorMessage());
+        verify(ocrProcessingStateService).recordTransition(collectionId, OcrStatus.FAILED, OcrStatus.PENDING);
+        verify(ocrJobDispatcher).dispatch(collectionId, documentId, entitlements);
+    }
+
+    @Test
+    void extractTextFromDocument_DispatchesOnlyAfterCommit() {
+        // Arrange
+        when(findAndValidateFileEntry.findAndValidateFileEntry(collectionId, documentId, userId, documentCollectionRepository))
+                .thenReturn(fileEntry);
+        when(ocrDataRepository.findByDocumentIdForUpdate(documentId)).thenReturn(Optional.empty());
+        when(ocrDataRepository.save(any(OcrData.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(storageAllocationService.resolveEntitlements(userId)).thenReturn(entitlements);
 
+        TransactionSynchronizationManager.initSynchronization();
+        try {
             // Act
             extractTextFromDocumentService.extractTextFromDocument(collectionId, documentId, userId);
+            verifyNoInteractions(ocrJobDispatcher);
 
-            // Assert
-            ArgumentCaptor<OcrData> ocrDataCaptor = ArgumentCaptor.forClass(OcrData.class);
-            verify(ocrDataRepository, times(2)).save(ocrDataCaptor.capture());
+            TransactionSynchronizationManager.getSynchronizations().getFirst().afterCommit();
 
-            OcrData finalOcrData = ocrDataCaptor.getAllValues().get(1);
-            assertEquals(OcrStatus.FAILED, finalOcrData.getStatus());
-            assertEquals(tesseractException.getMessage(), finalOcrData.getErrorMessage());
+            // Assert
+            verify(ocrJobDispatcher).dispatch(collectionId, documentId, entitlements);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
         }
     }
 
@@ -190,7 +204,7 @@ class ExtractTextFromDocumentImplTest {
                 extractTextFromDocumentService.extractTextFromDocument(collectionId, documentId, userId)
         );
 
-        verify(ocrDataRepository, never()).findByDocumentId(anyString());
+        verify(ocrDataRepository, never()).findByDocumentIdForUpdate(anyString());
         verify(ocrDataRepository, never()).save(any());
     }
 }
\ No newline at end of file
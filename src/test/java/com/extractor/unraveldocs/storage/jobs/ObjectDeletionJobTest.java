@@ -0,0 +1,101 @@
+package com.extractor.unraveldocs.storage.jobs;
+
+import com.extractor.unraveldocs.storage.config.ObjectDeletionProperties;
+import com.extractor.unraveldocs.storage.model.PendingObjectDeletion;
+import com.extractor.unraveldocs.storage.repository.PendingObjectDeletionRepository;
+import com.extractor.unraveldocs.utils.imageupload.aws.AwsS3Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ObjectDeletionJobTest {
+
+    @Mock
+    private PendingObjectDeletionRepository pendingObjectDeletionRepository;
+    @Mock
+    private AwsS3Service awsS3Service;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ObjectDeletionProperties properties;
+    private ObjectDeletionJob objectDeletionJob;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ObjectDeletionProperties();
+        objectDeletionJob = new ObjectDeletionJob(
+                pendingObjectDeletionRepository, awsS3Service, properties, transactionTemplate);
+    }
+
+    @Test
+    void deleteQueuedObjects_removesDeletedAndSchedulesRetryOfFailed() {
+        PendingObjectDeletion deleted = deletion("d-1", "documents/a.pdf", 0);
+        PendingObjectDeletion failed = deletion("d-2", "documents/b.pdf", 2);
+        when(pendingObjectDeletionRepository.findDue(any(), eq(10), any())).thenReturn(List.of(deleted, failed));
+        when(awsS3Service.deleteFiles(List.of("documents/a.pdf", "documents/b.pdf")))
+                .thenReturn(Map.of("documents/b.pdf", "InternalError: try again"));
+        runTransactions();
+
+        OffsetDateTime before = OffsetDateTime.now();
+        objectDeletionJob.deleteQueuedObjects();
+
+        verify(pendingObjectDeletionRepository).deleteAllByIdInBatch(List.of("d-1"));
+        // Third attempt: 30s doubled twice
+        verify(pendingObjectDeletionRepository).recordFailedAttempt(eq("d-2"),
+                argThat(next -> !next.isBefore(before.plusSeconds(120))), eq("InternalError: try again"));
+        verify(pendingObjectDeletionRepository, times(1)).findDue(any(), anyInt(), any());
+    }
+
+    @Test
+    void deleteQueuedObjects_requestFails_retriesWholeBatch() {
+        PendingObjectDeletion first = deletion("d-1", "documents/a.pdf", 0);
+        PendingObjectDeletion second = deletion("d-2", "documents/b.pdf", 0);
+        when(pendingObjectDeletionRepository.findDue(any(), anyInt(), any())).thenReturn(List.of(first, second));
+        when(awsS3Service.deleteFiles(anyList())).thenThrow(new RuntimeException("S3 is down"));
+        runTransactions();
+
+        objectDeletionJob.deleteQueuedObjects();
+
+        verify(pendingObjectDeletionRepository, never()).deleteAllByIdInBatch(anyList());
+        verify(pendingObjectDeletionRepository).recordFailedAttempt(eq("d-1"), any(), eq("S3 is down"));
+        verify(pendingObjectDeletionRepository).recordFailedAttempt(eq("d-2"), any(), eq("S3 is down"));
+    }
+
+    @Test
+    void deleteQueuedObjects_disabled_doesNothing() {
+        properties.setEnabled(false);
+
+        objectDeletionJob.deleteQueuedObjects();
+
+        verifyNoInteractions(pendingObjectDeletionRepository, awsS3Service);
+    }
+
+    private void runTransactions() {
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static PendingObjectDeletion deletion(String id, String key, int attempts) {
+        return PendingObjectDeletion.builder()
+                .id(id)
+                .objectKey(key)
+                .attempts(attempts)
+                .nextAttemptAt(OffsetDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.extractor.unraveldocs.storage.service;
+
+import com.extractor.unraveldocs.documents.utils.SanitizeLogging;
+import com.extractor.unraveldocs.storage.dto.UserEntitlements;
+import com.extractor.unraveldocs.storage.exception.StorageQuotaExceededException;
+import com.extractor.unraveldocs.subscription.datamodel.SubscriptionPlans;
+import com.extractor.unraveldocs.subscription.model.SubscriptionPlan;
+import com.extractor.unraveldocs.subscription.model.UserSubscription;
+import com.extractor.unraveldocs.subscription.repository.UserSubscriptionRepository;
+import com.extractor.unraveldocs.team.datamodel.TeamSubscriptionStatus;
+import com.extractor.unraveldocs.team.model.Team;
+import com.extractor.unraveldocs.team.repository.TeamRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageAllocationServiceTest {
+
+    @Mock
+    private UserSubscriptionRepository userSubscriptionRepository;
+    @Mock
+    private TeamRepository teamRepository;
+    @Mock
+    private SanitizeLogging sanitizer;
+
+    @InjectMocks
+    private StorageAllocationService storageAllocationService;
+
+    @Test
+    void resolveEntitlements_teamMember_usesTeamStorageAndOwnPlan() {
+        SubscriptionPlan plan = new SubscriptionPlan();
+        plan.setName(SubscriptionPlans.PRO_MONTHLY);
+        plan.setStorageLimit(10_000L);
+        plan.setDocumentUploadLimit(50);
+        UserSubscription subscription = new UserSubscription();
+        subscription.setPlan(plan);
+        subscription.setStorageUsed(9_000L);
+        Team team = new Team();
+        team.setId("team-1");
+        team.setSubscriptionStatus(TeamSubscriptionStatus.ACTIVE);
+        team.setStorageUsed(2_000L);
+        team.setMonthlyDocumentUploadCount(4);
+
+        when(userSubscriptionRepository.findByUserIdWithPlan("user-1")).thenReturn(Optional.of(subscription));
+        when(teamRepository.findTeamsWithPlanForUser("user-1")).thenReturn(List.of(team));
+
+        UserEntitlements entitlements = storageAllocationService.resolveEntitlements("user-1");
+
+        assertEquals("team-1", entitlements.teamId());
+        assertEquals(SubscriptionPlans.PRO_MONTHLY, entitlements.plan());
+        assertNull(entitlements.storageLimit());
+        assertEquals(2_000L, entitlements.storageUsed());
+        assertNull(entitlements.documentUploadLimit());
+        assertEquals(4, entitlements.documentsUploaded());
+    }
+
+    @Test
+    void reserve_individual_chargesDocumentsAndStorage() {
+        when(userSubscriptionRepository.reserveMonthlyDocuments(eq("user-1"), eq(2), any())).thenReturn(1);
+        when(userSubscriptionRepository.reserveStorage("user-1", 4096L)).thenReturn(1);
+
+        StorageReservation reservation = storageAllocationService.reserve(individual(10_000L, 0L), 4096L, 2);
+
+        assertEquals(new StorageReservation("user-1", null, 4096L, 2), reservation);
+        verifyNoInteractions(teamRepository);
+    }
+
+    @Test
+    void reserve_overSnapshotLimit_throwsWithoutWriting() {
+        StorageQuotaExceededException ex = assertThrows(StorageQuotaExceededException.class,
+                () -> storageAllocationService.reserve(individual(10_000L, 9_000L), 2_000L, 1));
+
+        assertEquals(1_000L, ex.getAvailableBytes());
+        assertEquals(10_000L, ex.getStorageLimit());
+        verifyNoInteractions(userSubscriptionRepository, teamRepository);
+    }
+
+    @Test
+    void reserve_concurrentUploadTookQuota_throws() {
+        when(userSubscriptionRepository.reserveMonthlyDocuments(eq("user-1"), eq(1), any())).thenReturn(1);
+        when(userSubscriptionRepository.reserveStorage("user-1", 2_000L)).thenReturn(0);
+
+        assertThrows(StorageQuotaExceededException.class,
+                () -> storageAllocationService.reserve(individual(10_000L, 0L), 2_000L, 1));
+    }
+
+    @Test
+    void reserve_withoutSubscriptionOrTeam_throws() {
+        UserEntitlements entitlements = UserEntitlements.builder().userId("user-1").build();
+
+        assertThrows(StorageQuotaExceededException.class,
+                () -> storageAllocationService.reserve(entitlements, 1L, 1));
+    }
+
+    @Test
+    void reserve_teamMember_chargesTeamStorage() {
+        UserEntitlements entitlements = UserEntitlements.builder()
+                .userId("user-1")
+                .teamId("team-1")
+                .build();
+        when(teamRepository.reserveMonthlyDocuments("team-1", 1)).thenReturn(1);
+        when(teamRepository.reserveStorage("team-1", 4096L)).thenReturn(1);
+
+        StorageReservation reservation = storageAllocationService.reserve(entitlements, 4096L, 1);
+
+        assertEquals("team-1", reservation.teamId());
+        verifyNoInteractions(userSubscriptionRepository);
+    }
+
+    @Test
+    void reserve_teamDocumentLimitTakenConcurrently_throwsWithoutChargingStorage() {
+        UserEntitlements entitlements = UserEntitlements.builder()
+                .userId("user-1")
+                .teamId("team-1")
+                .documentUploadLimit(10)
+                .documentsUploaded(9)
+                .build();
+        when(teamRepository.reserveMonthlyDocuments("team-1", 1)).thenReturn(0);
+
+        assertThrows(StorageQuotaExceededException.class,
+                () -> storageAllocationService.reserve(entitlements, 4096L, 1));
+
+        verify(teamRepository, never()).reserveStorage(anyString(), anyLong());
+    }
+
+    @Test
+    void commit_handsBackUnusedPart() {
+        StorageReservation reservation = new StorageReservation("user-1", null, 4096L, 3);
+
+        storageAllocationService.commit(reservation, 1024L, 1);
+
+        verify(userSubscriptionRepository).adjustStorageUsed("user-1", -3072L);
+        verify(userSubscriptionRepository).adjustMonthlyDocumentsUploaded(eq("user-1"), eq(-2), any());
+    }
+
+    @Test
+    void commit_fullyUsed_changesNothing() {
+        storageAllocationService.commit(new StorageReservation("user-1", "team-1", 4096L, 2), 4096L, 2);
+
+        verifyNoInteractions(userSubscriptionRepository, teamRepository);
+    }
+
+    @Test
+    void release_teamReservation_refundsTeamStorage() {
+        storageAllocationService.release(new StorageReservation("user-1", "team-1", 4096L, 2));
+
+        verify(teamRepository).adjustStorageUsed("team-1", -4096L);
+        verify(teamRepository).adjustMonthlyDocumentUploadCount("team-1", -2);
+        verifyNoInteractions(userSubscriptionRepository);
+    }
+
+    private static UserEntitlements individual(long storageLimit, long storageUsed) {
+        return UserEntitlements.builder()
+                .userId("user-1")
+                .subscribed(true)
+                .storageLimit(storageLimit)
+                .storageUsed(storageUsed)
+                .build();
+    }
+}
@@ -0,0 +1,235 @@
+package com.extractor.unraveldocs.storage.service;
+
+import com.extractor.unraveldocs.storage.config.StorageReconciliationProperties;
+import com.extractor.unraveldocs.storage.repository.StorageReconciliationRepository;
+import com.extractor.unraveldocs.storage.repository.StorageUsageRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageReconciliationServiceTest {
+
+    private static final String CHECKPOINT_KEY = "storage:reconciliation:checkpoint";
+    private static final String OBSERVATION_KEY = "storage:reconciliation:observed-drift";
+    // Old enough to confirm drift under the default confirmation delay
+    private static final long OBSERVED_LONG_AGO = 0L;
+
+    @Mock
+    private StorageReconciliationRepository repository;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private HashOperations<String, String, String> hashOperations;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    // Stands in for the Redis hash of drift seen on earlier passes
+    private final Map<String, String> observations = new HashMap<>();
+    private StorageReconciliationProperties properties;
+    private StorageReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageReconciliationProperties();
+        properties.setChunkSize(2);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().doReturn(hashOperations).when(redisTemplate).opsForHash();
+        lenient().when(hashOperations.multiGet(eq(OBSERVATION_KEY), anyCollection())).thenAnswer(inv ->
+                inv.<Collection<String>>getArgument(1).stream().map(observations::get).toList());
+        lenient().doAnswer(inv -> {
+            observations.putAll(inv.getArgument(1));
+            return null;
+        }).when(hashOperations).putAll(eq(OBSERVATION_KEY), anyMap());
+        lenient().when(hashOperations.delete(eq(OBSERVATION_KEY), any(Object[].class))).thenAnswer(inv -> {
+            Object[] fields = (Object[]) inv.getRawArguments()[1];
+            for (Object field : fields) {
+                observations.remove(field);
+            }
+            return (long) fields.length;
+        });
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        service = new StorageReconciliationService(
+                repository, properties, redisTemplate, transactionTemplate, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void reconcile_correctsOnlyConfirmedDriftAndSkipsTeamMembers() {
+        observations.put("users:user-2", "500:300:" + OBSERVED_LONG_AGO);
+        observations.put("teams:team-1", "0:50:" + OBSERVED_LONG_AGO);
+        when(repository.findSubscriptionUsage(eq(""), any())).thenReturn(List.of(
+                new StorageUsageRow("user-1", 100L),
+                new StorageUsageRow("user-2", 500L)));
+        when(repository.findSubscriptionUsage(eq("user-2"), any())).thenReturn(List.of(
+                new StorageUsageRow("user-3", 0L)));
+        when(repository.findUserIdsChargedToTeam(anyCollection(), anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of("user-3"));
+        when(repository.sumStoredBytesByUser(anyCollection(), anyString()))
+                .thenReturn(List.of(new StorageUsageRow("user-1", 100L), new StorageUsageRow("user-2", 300L)));
+        when(repository.applySubscriptionDelta("user-2", 500L, -200L)).thenReturn(1);
+        when(repository.findTeamUsage(eq(""), anyCollection(), any())).thenReturn(List.of(
+                new StorageUsageRow("team-1", 0L)));
+        when(repository.sumStoredBytesByTeam(anyCollection(), anyString(), anyCollection()))
+                .thenReturn(List.of(new StorageUsageRow("team-1", 50L)));
+        when(repository.applyTeamDelta("team-1", 0L, 50L)).thenReturn(1);
+
+        StorageReconciliationService.ReconciliationResult result = service.reconcile(0);
+
+        assertTrue(result.passComplete());
+        assertEquals(2, result.usersChecked());
+        assertEquals(1, result.usersCorrected());
+        assertEquals(1, result.teamsCorrected());
+        assertEquals(250L, result.driftBytes());
+        verify(repository, never()).applySubscriptionDelta(eq("user-1"), anyLong(), anyLong());
+        verify(repository, never()).applySubscriptionDelta(eq("user-3"), anyLong(), anyLong());
+        verify(redisTemplate).delete(CHECKPOINT_KEY);
+        assertTrue(observations.isEmpty());
+    }
+
+    @Test
+    void reconcile_newDrift_isRecordedNotCorrected() {
+        when(repository.findSubscriptionUsage(eq(""), any())).thenReturn(List.of(
+                new StorageUsageRow("user-1", 100L)));
+        when(repository.findUserIdsChargedToTeam(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(repository.sumStoredBytesByUser(anyCollection(), anyString()))
+                .thenReturn(List.of(new StorageUsageRow("user-1", 40L)));
+
+        StorageReconciliationService.ReconciliationResult result = service.reconcile(0);
+
+        assertEquals(1, result.deferred());
+        assertEquals(0, result.usersCorrected());
+        verify(repository, never()).applySubscriptionDelta(anyString(), anyLong(), anyLong());
+        assertTrue(observations.get("users:user-1").startsWith("100:40:"));
+    }
+
+    @Test
+    void reconcile_forced_correctsNewDriftImmediately() {
+        when(repository.findSubscriptionUsage(eq(""), any())).thenReturn(List.of(
+                new StorageUsageRow("user-1", 100L)));
+        when(repository.findUserIdsChargedToTeam(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(repository.sumStoredBytesByUser(anyCollection(), anyString()))
+                .thenReturn(List.of(new StorageUsageRow("user-1", 40L)));
+        when(repository.applySubscriptionDelta("user-1", 100L, -60L)).thenReturn(1);
+
+        StorageReconciliationService.ReconciliationResult result = service.reconcile(0, true);
+
+        assertEquals(0, result.deferred());
+        assertEquals(1, result.usersCorrected());
+        assertTrue(observations.isEmpty());
+    }
+
+    @Test
+    void reconcile_driftChangedSinceLastPass_isNotCorrected() {
+        observations.put("users:user-1", "100:40:" + OBSERVED_LONG_AGO);
+        when(repository.findSubscriptionUsage(eq(""), any())).thenReturn(List.of(
+                new StorageUsageRow("user-1", 150L)));
+        when(repository.findUserIdsChargedToTeam(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(repository.sumStoredBytesByUser(anyCollection(), anyString()))
+                .thenReturn(List.of(new StorageUsageRow("user-1", 40L)));
+
+        StorageReconciliationService.ReconciliationResult result = service.reconcile(0);
+
+        assertEquals(1, result.deferred());
+        verify(repository, never()).applySubscriptionDelta(anyString(), anyLong(), anyLong());
+        assertTrue(observations.get("users:user-1").startsWith("150:40:"));
+    }
+
+    @Test
+    void reconcile_runningAlongsideReservation_leavesReservedBytesAlone() throws InterruptedException {
+        properties.setDriftConfirmationSeconds(0);
+        AtomicLong counter = new AtomicLong();
+        AtomicLong stored = new AtomicLong();
+        when(repository.findSubscriptionUsage(eq(""), any())).thenAnswer(inv ->
+                List.of(new StorageUsageRow("user-1", counter.get())));
+        when(repository.findUserIdsChargedToTeam(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(repository.sumStoredBytesByUser(anyCollection(), anyString())).thenAnswer(inv ->
+                List.of(new StorageUsageRow("user-1", stored.get())));
+        lenient().when(repository.applySubscriptionDelta(eq("user-1"), anyLong(), anyLong())).thenAnswer(inv ->
+                counter.compareAndSet(inv.<Long>getArgument(1), inv.<Long>getArgument(1) + inv.<Long>getArgument(2)) ? 1 : 0);
+
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch reconciled = new CountDownLatch(1);
+        Thread upload = Thread.ofVirtual().start(() -> {
+            // Reserving charges the counter before the file is recorded
+            counter.addAndGet(100);
+            reserved.countDown();
+            try {
+                reconciled.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Recording the file settles the reservation with nothing handed back
+            stored.addAndGet(100);
+        });
+
+        reserved.await();
+        StorageReconciliationService.ReconciliationResult during = service.reconcile(0);
+        reconciled.countDown();
+        upload.join();
+        StorageReconciliationService.ReconciliationResult after = service.reconcile(0);
+
+        assertEquals(1, during.deferred());
+        assertEquals(0, during.usersCorrected());
+        assertEquals(0, after.deferred());
+        assertEquals(0, after.usersCorrected());
+        verify(repository, never()).applySubscriptionDelta(anyString(), anyLong(), anyLong());
+        assertEquals(100L, counter.get());
+        assertEquals(stored.get(), counter.get());
+        assertTrue(observations.isEmpty());
+    }
+
+    @Test
+    void reconcile_counterChangedConcurrently_countsConflict() {
+        observations.put("teams:team-1", "10:0:" + OBSERVED_LONG_AGO);
+        when(valueOperations.get(CHECKPOINT_KEY)).thenReturn("teams|team-0");
+        when(repository.findTeamUsage(eq("team-0"), anyCollection(), any())).thenReturn(List.of(
+                new StorageUsageRow("team-1", 10L)));
+        when(repository.sumStoredBytesByTeam(anyCollection(), anyString(), anyCollection()))
+                .thenReturn(List.of());
+        when(repository.applyTeamDelta("team-1", 10L, -10L)).thenReturn(0);
+
+        StorageReconciliationService.ReconciliationResult result = service.reconcile(0);
+
+        assertEquals(1, result.conflicts());
+        assertEquals(0, result.teamsCorrected());
+        verify(repository, never()).findSubscriptionUsage(anyString(), any());
+    }
+
+    @Test
+    void reconcile_chunkBudgetSpent_savesCheckpoint() {
+        when(repository.findSubscriptionUsage(eq(""), any())).thenReturn(List.of(
+                new StorageUsageRow("user-1", 0L),
+                new StorageUsageRow("user-2", 0L)));
+        when(repository.findUserIdsChargedToTeam(anyCollection(), anyCollection()))
+                .thenReturn(List.of("user-1", "user-2"));
+
+        StorageReconciliationService.ReconciliationResult result = service.reconcile(1);
+
+        assertFalse(result.passComplete());
+        verify(valueOperations).set(CHECKPOINT_KEY, "users|user-2");
+        verify(redisTemplate, never()).delete(anyString());
+    }
+}
@@ -4,7 +4,10 @@ import com.extractor.unraveldocs.auth.model.UserVerification;
 import com.extractor.unraveldocs.auth.repository.UserVerificationRepository;
 import com.extractor.unraveldocs.brokers.kafka.events.BaseEvent;
 import com.extractor.unraveldocs.brokers.kafka.events.EventPublisherService;
+import com.extractor.unraveldocs.documents.model.FileEntry;
+import com.extractor.unraveldocs.documents.repository.FileEntryRepository;
 import com.extractor.unraveldocs.exceptions.custom.NotFoundException;
+import com.extractor.unraveldocs.storage.service.ObjectDeletionQueue;
 import com.extractor.unraveldocs.user.impl.DeleteUserImpl;
 import com.extractor.unraveldocs.user.model.User;
 import com.extractor.unraveldocs.user.repository.UserRepository;
@@ -39,6 +42,10 @@ class DeleteUserImplTest {
     private UserVerificationRepository userVerificationRepository;
     @Mock
     private EventPublisherService eventPublisherService;
+    @Mock
+    private FileEntryRepository fileEntryRepository;
+    @Mock
+    private ObjectDeletionQueue objectDeletionQueue;
 
     @InjectMocks
     private DeleteUserImpl deleteUserImpl;
@@ -123,19 +130,23 @@ class DeleteUserImplTest {
         // Assert
         verify(eventPublisherService).publishUserEvent(any(BaseEvent.class));
         verify(userVerificationRepository).delete(user.getUserVerification());
+        verify(objectDeletionQueue).enqueue(List.of());
         verify(userRepository).deleteAll(usersToDelete);
     }
 
     @Test
     void deleteUser_shouldPublishEventThenDeleteUserAndRelatedData() {
         // Arrange
+        List<FileEntry> storedFiles = List.of(FileEntry.builder().storageKey("documents/a.pdf").build());
         when(userRepository.findById("1")).thenReturn(Optional.of(user));
+        when(fileEntryRepository.findStoredByUserIds(List.of("1"))).thenReturn(storedFiles);
 
         // Act
         deleteUserImpl.deleteUser("1");
 
         // Assert
         verify(eventPublisherService).publishUserEvent(any(BaseEvent.class));
+        verify(objectDeletionQueue).enqueue(storedFiles);
         verify(userVerificationRepository).delete(user.getUserVerification());
         verify(userRepository).delete(user);
     }
@@ -0,0 +1,143 @@
+package com.extractor.unraveldocs.utils.imageupload.aws;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Utilities;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AwsS3ServiceTest {
+
+    private static final String BUCKET = "documents";
+    private static final String KEY = "documents/scan.pdf";
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private S3Presigner s3Presigner;
+
+    @InjectMocks
+    private AwsS3Service awsS3Service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(awsS3Service, "bucketName", BUCKET);
+        ReflectionTestUtils.setField(awsS3Service, "multipartThresholdBytes", (long) PART_SIZE);
+        ReflectionTestUtils.setField(awsS3Service, "multipartPartSizeBytes", PART_SIZE);
+    }
+
+    @Test
+    void uploadStream_belowThreshold_usesSinglePut() throws IOException {
+        givenS3Utilities();
+        byte[] content = new byte[1024];
+
+        String url = awsS3Service.uploadStream(
+                new ByteArrayInputStream(content), content.length, "application/pdf", KEY);
+
+        assertTrue(url.endsWith(KEY), url);
+        verify(s3Client).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void uploadStream_aboveThreshold_uploadsPartsAndCompletes() throws IOException {
+        givenS3Utilities();
+        givenMultipartUpload();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+        byte[] content = new byte[2 * PART_SIZE + 10];
+
+        awsS3Service.uploadStream(new ByteArrayInputStream(content), content.length, "application/pdf", KEY);
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client).completeMultipartUpload(complete.capture());
+        assertEquals("upload-1", complete.getValue().uploadId());
+        assertEquals(3, complete.getValue().multipartUpload().parts().size());
+        verify(s3Client, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void uploadStream_partUploadFails_abortsMultipartUpload() {
+        givenMultipartUpload();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build())
+                .thenThrow(S3Exception.builder().message("slow down").statusCode(503).build());
+        byte[] content = new byte[3 * PART_SIZE];
+
+        assertThrows(S3Exception.class, () -> awsS3Service.uploadStream(
+                new ByteArrayInputStream(content), content.length, "application/pdf", KEY));
+
+        verify(s3Client).abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(BUCKET)
+                .key(KEY)
+                .uploadId("upload-1")
+                .build());
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void uploadStream_sourceReadFails_abortsMultipartUploadAndRethrows() throws IOException {
+        givenMultipartUpload();
+        InputStream broken = mock(InputStream.class);
+        when(broken.readNBytes(any(byte[].class), anyInt(), anyInt())).thenThrow(new IOException("disk error"));
+
+        IOException ex = assertThrows(IOException.class, () -> awsS3Service.uploadStream(
+                broken, 2L * PART_SIZE, "application/pdf", KEY));
+
+        assertEquals("disk error", ex.getMessage());
+        verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void uploadStream_abortAlsoFails_rethrowsOriginalFailure() {
+        givenMultipartUpload();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().message("slow down").statusCode(503).build());
+        when(s3Client.abortMultipartUpload(any(AbortMultipartUploadRequest.class)))
+                .thenThrow(S3Exception.builder().message("no such upload").statusCode(404).build());
+        byte[] content = new byte[2 * PART_SIZE];
+
+        S3Exception ex = assertThrows(S3Exception.class, () -> awsS3Service.uploadStream(
+                new ByteArrayInputStream(content), content.length, "application/pdf", KEY));
+
+        assertEquals(503, ex.statusCode());
+    }
+
+    private void givenMultipartUpload() {
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+    }
+
+    private void givenS3Utilities() {
+        when(s3Client.utilities()).thenReturn(S3Utilities.builder().region(Region.US_EAST_1).build());
+    }
+}